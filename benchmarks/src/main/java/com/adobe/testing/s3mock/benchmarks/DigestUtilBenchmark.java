@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.adobe.testing.s3mock.benchmarks;
+
+import com.adobe.testing.s3mock.util.DigestUtil;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures throughput and, with the gc profiler, allocation per operation of the digests
+ * calculated for every object and multipart upload.
+ * The allocation per operation ({@code gc.alloc.rate.norm}) must not grow with the size of the
+ * digested data, read buffers and digests are reused from {@link DigestUtil}'s pools.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class DigestUtilBenchmark {
+
+  @Param({"1024", "1048576"})
+  private int size;
+
+  @Param({"10"})
+  private int parts;
+
+  private byte[] data;
+  private Path partsFolder;
+  private List<Path> partPaths;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    data = new byte[size];
+    new Random(42).nextBytes(data);
+    partsFolder = Files.createTempDirectory("s3mock-benchmark");
+    partPaths = new ArrayList<>();
+    for (int i = 1; i <= parts; i++) {
+      partPaths.add(Files.write(partsFolder.resolve(i + ".part"), data));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    FileUtils.deleteQuietly(partsFolder.toFile());
+  }
+
+  @Benchmark
+  public String hexDigest() {
+    return DigestUtil.hexDigest(new ByteArrayInputStream(data));
+  }
+
+  @Benchmark
+  public String hexDigestMultipart() throws IOException {
+    return DigestUtil.hexDigestMultipart(partPaths);
+  }
+}
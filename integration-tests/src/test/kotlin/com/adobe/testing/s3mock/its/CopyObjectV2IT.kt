@@ -27,6 +27,7 @@ import software.amazon.awssdk.core.sync.RequestBody
 import software.amazon.awssdk.services.s3.model.CopyObjectRequest
 import software.amazon.awssdk.services.s3.model.GetObjectRequest
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request
 import software.amazon.awssdk.services.s3.model.MetadataDirective
 import software.amazon.awssdk.services.s3.model.PutObjectRequest
 import software.amazon.awssdk.services.s3.model.S3Exception
@@ -236,6 +237,16 @@ internal class CopyObjectV2IT : S3TestBase() {
     //we waited for 5 seconds above, so last modified dates should be about 5 seconds apart
     val between = Duration.between(sourceLastModified, response.lastModified())
     assertThat(between).isCloseTo(Duration.of(5, SECONDS), Duration.of(1, SECONDS))
+
+    val listedObject = s3ClientV2.listObjectsV2(
+      ListObjectsV2Request
+        .builder()
+        .bucket(bucketName)
+        .build()
+    ).contents().single { it.key() == sourceKey }
+    assertThat(Duration.between(sourceLastModified, listedObject.lastModified()))
+      .`as`("Listing must show the last modified date of the copy")
+      .isCloseTo(Duration.of(5, SECONDS), Duration.of(1, SECONDS))
   }
 
   @Test
@@ -21,8 +21,12 @@ import org.assertj.core.api.Assertions
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.TestInfo
+import software.amazon.awssdk.core.sync.RequestBody
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm
+import software.amazon.awssdk.services.s3.model.ChecksumMode
 import software.amazon.awssdk.services.s3.model.GetObjectRequest
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest
+import software.amazon.awssdk.services.s3.model.PutObjectRequest
 import software.amazon.awssdk.services.s3.model.S3Exception
 import java.io.File
 import java.io.FileInputStream
@@ -42,6 +46,102 @@ internal class GetPutDeleteObjectV2IT : S3TestBase() {
     assertThat(eTag).isEqualTo(expectedEtag)
   }
 
+  @Test
+  fun testPutObject_trailingChecksum(testInfo: TestInfo) {
+    val uploadFile = File(UPLOAD_FILE_NAME)
+    val bucketName = givenBucketV2(testInfo)
+
+    // the SDK sends the CRC32 as trailing header of an aws-chunked payload.
+    val putObjectResponse = s3ClientV2.putObject(
+      PutObjectRequest.builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .checksumAlgorithm(ChecksumAlgorithm.CRC32)
+        .build(),
+      RequestBody.fromFile(uploadFile)
+    )
+    assertThat(putObjectResponse.eTag())
+      .isEqualTo("\"${DigestUtil.hexDigest(FileInputStream(uploadFile))}\"")
+
+    val getObjectResponse = s3ClientV2.getObject(
+      GetObjectRequest.builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .build()
+    )
+    assertThat(getObjectResponse.readAllBytes()).isEqualTo(uploadFile.readBytes())
+  }
+
+  @Test
+  fun testPutObject_checksumReturnedInChecksumMode(testInfo: TestInfo) {
+    val uploadFile = File(UPLOAD_FILE_NAME)
+    val bucketName = givenBucketV2(testInfo)
+
+    val putObjectResponse = s3ClientV2.putObject(
+      PutObjectRequest.builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .checksumAlgorithm(ChecksumAlgorithm.CRC32_C)
+        .build(),
+      RequestBody.fromFile(uploadFile)
+    )
+    val expectedChecksum = DigestUtil.base64Checksum(
+      com.adobe.testing.s3mock.dto.ChecksumAlgorithm.CRC32C,
+      FileInputStream(uploadFile)
+    )
+    assertThat(putObjectResponse.checksumCRC32C()).isEqualTo(expectedChecksum)
+
+    val headObjectResponse = s3ClientV2.headObject(
+      HeadObjectRequest.builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .checksumMode(ChecksumMode.ENABLED)
+        .build()
+    )
+    assertThat(headObjectResponse.checksumCRC32C()).isEqualTo(expectedChecksum)
+
+    s3ClientV2.getObject(
+      GetObjectRequest.builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .checksumMode(ChecksumMode.ENABLED)
+        .build()
+    ).use {
+      assertThat(it.response().checksumCRC32C()).isEqualTo(expectedChecksum)
+      assertThat(it.readAllBytes()).isEqualTo(uploadFile.readBytes())
+    }
+  }
+
+  @Test
+  fun testGetObject_suffixAndOpenEndedRanges(testInfo: TestInfo) {
+    val uploadFile = File(UPLOAD_FILE_NAME)
+    val uploadFileBytes = uploadFile.readBytes()
+    val (bucketName, _) = givenBucketAndObjectV2(testInfo, UPLOAD_FILE_NAME)
+
+    s3ClientV2.getObject(
+      GetObjectRequest.builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .range("bytes=-10")
+        .build()
+    ).use {
+      assertThat(it.response().contentRange())
+        .isEqualTo("bytes ${uploadFileBytes.size - 10}-${uploadFileBytes.size - 1}/${uploadFileBytes.size}")
+      assertThat(it.readAllBytes())
+        .isEqualTo(uploadFileBytes.copyOfRange(uploadFileBytes.size - 10, uploadFileBytes.size))
+    }
+
+    s3ClientV2.getObject(
+      GetObjectRequest.builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .range("bytes=5-")
+        .build()
+    ).use {
+      assertThat(it.readAllBytes()).isEqualTo(uploadFileBytes.copyOfRange(5, uploadFileBytes.size))
+    }
+  }
+
   @Test
   fun testGetObject_successWithMatchingEtag(testInfo: TestInfo) {
     val uploadFile = File(UPLOAD_FILE_NAME)
@@ -123,6 +223,49 @@ internal class GetPutDeleteObjectV2IT : S3TestBase() {
       .hasMessageContaining("Service: S3, Status Code: 304")
   }
 
+  @Test
+  fun testHeadObject_modifiedSince(testInfo: TestInfo) {
+    val (bucketName, _) = givenBucketAndObjectV2(testInfo, UPLOAD_FILE_NAME)
+    val lastModified = s3ClientV2.headObject(
+      HeadObjectRequest.builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .build()
+    ).lastModified()
+
+    val headObjectResponse = s3ClientV2.headObject(
+      HeadObjectRequest.builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .ifModifiedSince(lastModified.minusSeconds(60))
+        .ifUnmodifiedSince(lastModified)
+        .build()
+    )
+    assertThat(headObjectResponse.lastModified()).isEqualTo(lastModified)
+
+    Assertions.assertThatThrownBy {
+      s3ClientV2.headObject(
+        HeadObjectRequest.builder()
+          .bucket(bucketName)
+          .key(UPLOAD_FILE_NAME)
+          .ifModifiedSince(lastModified)
+          .build()
+      )
+    }.isInstanceOf(S3Exception::class.java)
+      .hasMessageContaining("Service: S3, Status Code: 304")
+
+    Assertions.assertThatThrownBy {
+      s3ClientV2.headObject(
+        HeadObjectRequest.builder()
+          .bucket(bucketName)
+          .key(UPLOAD_FILE_NAME)
+          .ifUnmodifiedSince(lastModified.minusSeconds(60))
+          .build()
+      )
+    }.isInstanceOf(S3Exception::class.java)
+      .hasMessageContaining("Service: S3, Status Code: 412")
+  }
+
   @Test
   fun testHeadObject_failureWithMatchEtag(testInfo: TestInfo) {
     val uploadFile = File(UPLOAD_FILE_NAME)
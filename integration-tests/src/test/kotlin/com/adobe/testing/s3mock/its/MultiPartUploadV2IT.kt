@@ -32,6 +32,7 @@ import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload
 import software.amazon.awssdk.services.s3.model.CompletedPart
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest
 import software.amazon.awssdk.services.s3.model.GetObjectRequest
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest
 import software.amazon.awssdk.services.s3.model.ListMultipartUploadsRequest
 import software.amazon.awssdk.services.s3.model.ListPartsRequest
 import software.amazon.awssdk.services.s3.model.PutObjectRequest
@@ -196,6 +197,60 @@ internal class MultiPartUploadV2IT : S3TestBase() {
       .isEqualTo("${serviceEndpoint}/$bucketName/src/test/resources/sampleFile.txt")
   }
 
+  @Test
+  fun testMultipartUpload_getObjectByPartNumber(testInfo: TestInfo) {
+    val bucketName = givenBucketV2(testInfo)
+    val uploadFile = File(UPLOAD_FILE_NAME)
+    val uploadId = s3ClientV2
+      .createMultipartUpload(
+        CreateMultipartUploadRequest.builder().bucket(bucketName).key(UPLOAD_FILE_NAME).build()
+      ).uploadId()
+    val randomBytes = randomBytes()
+    val uploadFileBytes = readStreamIntoByteArray(uploadFile.inputStream())
+    val partETag1 = uploadPart(bucketName, UPLOAD_FILE_NAME, uploadId, 1, randomBytes)
+    val partETag2 = uploadPart(bucketName, UPLOAD_FILE_NAME, uploadId, 2, uploadFileBytes)
+    s3ClientV2.completeMultipartUpload(
+      CompleteMultipartUploadRequest
+        .builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .uploadId(uploadId)
+        .multipartUpload(
+          CompletedMultipartUpload
+            .builder()
+            .parts(
+              CompletedPart.builder().eTag(partETag1).partNumber(1).build(),
+              CompletedPart.builder().eTag(partETag2).partNumber(2).build()
+            )
+            .build()
+        )
+        .build()
+    )
+
+    val headObjectResponse = s3ClientV2.headObject(
+      HeadObjectRequest.builder().bucket(bucketName).key(UPLOAD_FILE_NAME).partNumber(1).build()
+    )
+    assertThat(headObjectResponse.partsCount()).isEqualTo(2)
+    assertThat(headObjectResponse.contentLength()).isEqualTo(randomBytes.size.toLong())
+
+    val getObjectResponse = s3ClientV2.getObject(
+      GetObjectRequest.builder().bucket(bucketName).key(UPLOAD_FILE_NAME).partNumber(2).build()
+    )
+    assertThat(getObjectResponse.response().partsCount()).isEqualTo(2)
+    assertThat(getObjectResponse.response().contentLength())
+      .isEqualTo(uploadFileBytes.size.toLong())
+    assertThat(readStreamIntoByteArray(getObjectResponse.buffered()))
+      .isEqualTo(uploadFileBytes)
+
+    assertThatThrownBy {
+      s3ClientV2.getObject(
+        GetObjectRequest.builder().bucket(bucketName).key(UPLOAD_FILE_NAME).partNumber(3).build()
+      )
+    }
+      .isInstanceOf(S3Exception::class.java)
+      .hasMessageContaining("Service: S3, Status Code: 416")
+  }
+
   @Test
   @Throws(IOException::class)
   fun testInitiateMultipartAndRetrieveParts(testInfo: TestInfo) {
@@ -268,6 +323,40 @@ internal class MultiPartUploadV2IT : S3TestBase() {
     assertThat(upload.key()).isEqualTo(UPLOAD_FILE_NAME)
   }
 
+  /**
+   * Tests if multipart uploads are listed in pages using key-marker and upload-id-marker.
+   */
+  @Test
+  fun testListMultipartUploads_paginated(testInfo: TestInfo) {
+    val bucketName = givenBucketV2(testInfo)
+    val uploadIds = listOf("a", "b", "c").map { key ->
+      s3ClientV2
+        .createMultipartUpload(
+          CreateMultipartUploadRequest.builder().bucket(bucketName).key(key).build()
+        ).uploadId()
+    }
+
+    val firstPage = s3ClientV2.listMultipartUploads(
+      ListMultipartUploadsRequest.builder().bucket(bucketName).maxUploads(2).build()
+    )
+    assertThat(firstPage.isTruncated).isTrue
+    assertThat(firstPage.uploads().map { it.key() }).containsExactly("a", "b")
+    assertThat(firstPage.nextKeyMarker()).isEqualTo("b")
+    assertThat(firstPage.nextUploadIdMarker()).isEqualTo(uploadIds[1])
+
+    val secondPage = s3ClientV2.listMultipartUploads(
+      ListMultipartUploadsRequest
+        .builder()
+        .bucket(bucketName)
+        .maxUploads(2)
+        .keyMarker(firstPage.nextKeyMarker())
+        .uploadIdMarker(firstPage.nextUploadIdMarker())
+        .build()
+    )
+    assertThat(secondPage.isTruncated).isFalse
+    assertThat(secondPage.uploads().map { it.uploadId() }).containsExactly(uploadIds[2])
+  }
+
   /**
    * Tests if empty parts list of not yet completed multipart upload is returned.
    */
@@ -0,0 +1,158 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import static org.springframework.http.MediaType.APPLICATION_XML_VALUE;
+
+import com.adobe.testing.s3mock.service.AdminService;
+import com.adobe.testing.s3mock.service.BucketService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Handles administrative requests that are not part of the S3 API.
+ * All paths start with "/_admin", which is not a valid bucket name.
+ */
+@CrossOrigin(origins = "*")
+@RequestMapping("${com.adobe.testing.s3mock.contextPath:}/_admin")
+public class AdminController {
+  static final String APPLICATION_X_TAR_VALUE = "application/x-tar";
+
+  private final BucketService bucketService;
+  private final AdminService adminService;
+
+  public AdminController(BucketService bucketService, AdminService adminService) {
+    this.bucketService = bucketService;
+    this.adminService = adminService;
+  }
+
+  /**
+   * Exports the objects of a bucket as tar archive, which can be used to seed a bucket.
+   *
+   * @param bucketName name of the bucket to export
+   * @param prefix only objects with keys starting with this prefix are exported. Optional.
+   *
+   * @return the streamed archive
+   */
+  @RequestMapping(
+      value = "/buckets/{bucketName:[a-z0-9.-]+}/export",
+      method = RequestMethod.GET,
+      produces = {
+          APPLICATION_X_TAR_VALUE,
+          // errors are returned as XML.
+          APPLICATION_XML_VALUE
+      }
+  )
+  public ResponseEntity<StreamingResponseBody> exportBucket(@PathVariable String bucketName,
+      @RequestParam(required = false) String prefix) {
+    bucketService.verifyBucketExists(bucketName);
+    return ResponseEntity
+        .ok()
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(bucketName + ".tar").build().toString())
+        .contentType(MediaType.parseMediaType(APPLICATION_X_TAR_VALUE))
+        .body(outputStream -> adminService.exportBucket(bucketName, prefix, outputStream));
+  }
+
+  /**
+   * Deletes a bucket including all of its objects, the bucket does not need to be empty.
+   *
+   * @param bucketName name of the bucket to delete
+   *
+   * @return 204 once the bucket is deleted
+   */
+  @RequestMapping(
+      value = "/buckets/{bucketName:[a-z0-9.-]+}",
+      method = RequestMethod.DELETE
+  )
+  public ResponseEntity<Void> deleteBucket(@PathVariable String bucketName) {
+    bucketService.verifyBucketExists(bucketName);
+    adminService.deleteBucket(bucketName);
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Deletes all buckets and objects and creates the initial buckets again.
+   *
+   * @return 200 once the initial buckets are created
+   */
+  @RequestMapping(
+      value = "/reset",
+      method = RequestMethod.POST
+  )
+  public ResponseEntity<Void> reset() {
+    adminService.reset();
+    return ResponseEntity.ok().build();
+  }
+
+  /**
+   * Stores the current state of all buckets under a name, an existing snapshot with the same name
+   * is replaced.
+   *
+   * @param snapshotName name of the snapshot
+   *
+   * @return 200 once the snapshot is stored
+   */
+  @RequestMapping(
+      value = "/snapshots/{snapshotName}",
+      method = RequestMethod.PUT
+  )
+  public ResponseEntity<Void> createSnapshot(@PathVariable String snapshotName) {
+    adminService.createSnapshot(snapshotName);
+    return ResponseEntity.ok().build();
+  }
+
+  /**
+   * Replaces all buckets with the state stored in a snapshot.
+   *
+   * @param snapshotName name of the snapshot
+   *
+   * @return 200 once the snapshot is restored
+   */
+  @RequestMapping(
+      value = "/snapshots/{snapshotName}/restore",
+      method = RequestMethod.POST
+  )
+  public ResponseEntity<Void> restoreSnapshot(@PathVariable String snapshotName) {
+    adminService.restoreSnapshot(snapshotName);
+    return ResponseEntity.ok().build();
+  }
+
+  /**
+   * Deletes a snapshot.
+   *
+   * @param snapshotName name of the snapshot
+   *
+   * @return 204
+   */
+  @RequestMapping(
+      value = "/snapshots/{snapshotName}",
+      method = RequestMethod.DELETE
+  )
+  public ResponseEntity<Void> deleteSnapshot(@PathVariable String snapshotName) {
+    adminService.deleteSnapshot(snapshotName);
+    return ResponseEntity.noContent().build();
+  }
+}
@@ -19,23 +19,32 @@ package com.adobe.testing.s3mock;
 import static com.adobe.testing.s3mock.dto.Owner.DEFAULT_OWNER;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.NOT_X_AMZ_COPY_SOURCE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.NOT_X_AMZ_COPY_SOURCE_RANGE;
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_CHECKSUM_ALGORITHM;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_CONTENT_SHA256;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_IF_MATCH;
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_IF_MODIFIED_SINCE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_IF_NONE_MATCH;
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_IF_UNMODIFIED_SINCE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_RANGE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_SERVER_SIDE_ENCRYPTION;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_SERVER_SIDE_ENCRYPTION_AWS_KMS_KEY_ID;
+import static com.adobe.testing.s3mock.util.AwsHttpParameters.KEY_MARKER;
+import static com.adobe.testing.s3mock.util.AwsHttpParameters.MAX_UPLOADS;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.NOT_LIFECYCLE;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.PART_NUMBER;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.UPLOADS;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.UPLOAD_ID;
+import static com.adobe.testing.s3mock.util.AwsHttpParameters.UPLOAD_ID_MARKER;
+import static com.adobe.testing.s3mock.util.HeaderUtil.checksumAlgorithmFrom;
+import static com.adobe.testing.s3mock.util.HeaderUtil.checksumFrom;
 import static com.adobe.testing.s3mock.util.HeaderUtil.getUserMetadata;
-import static com.adobe.testing.s3mock.util.HeaderUtil.isV4ChunkedWithSigningEnabled;
+import static com.adobe.testing.s3mock.util.HeaderUtil.isChunkedEncoding;
 import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.MediaType.APPLICATION_XML_VALUE;
 
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.CompleteMultipartUpload;
 import com.adobe.testing.s3mock.dto.CompleteMultipartUploadResult;
 import com.adobe.testing.s3mock.dto.CopyPartResult;
@@ -50,6 +59,7 @@ import com.adobe.testing.s3mock.service.MultipartService;
 import com.adobe.testing.s3mock.service.ObjectService;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
 import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -90,10 +100,13 @@ public class MultipartController {
    * Lists all in-progress multipart uploads.
    * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListMultipartUploads.html">API Reference</a>
    *
-   * <p>Not yet supported request parameters: delimiter, encoding-type, max-uploads, key-marker,
-   * upload-id-marker.</p>
+   * <p>Not yet supported request parameters: delimiter, encoding-type.</p>
    *
    * @param bucketName the Bucket in which to store the file in.
+   * @param prefix only list uploads for keys starting with this prefix
+   * @param keyMarker only list uploads for keys after this key
+   * @param uploadIdMarker together with keyMarker, the upload after which listing begins
+   * @param maxUploads maximum number of uploads to return
    *
    * @return the {@link ListMultipartUploadsResult}
    */
@@ -114,11 +127,17 @@ public class MultipartController {
   )
   public ResponseEntity<ListMultipartUploadsResult> listMultipartUploads(
       @PathVariable String bucketName,
-      @RequestParam(required = false) String prefix) {
+      @RequestParam(required = false) String prefix,
+      @RequestParam(name = KEY_MARKER, required = false) String keyMarker,
+      @RequestParam(name = UPLOAD_ID_MARKER, required = false) String uploadIdMarker,
+      @RequestParam(name = MAX_UPLOADS, defaultValue = "1000", required = false)
+      Integer maxUploads) {
     bucketService.verifyBucketExists(bucketName);
+    multipartService.verifyMaxUploads(maxUploads);
 
     ListMultipartUploadsResult result =
-        multipartService.listMultipartUploads(bucketName, prefix);
+        multipartService.listMultipartUploads(bucketName, prefix, keyMarker, uploadIdMarker,
+            maxUploads);
 
     return ResponseEntity.ok(result);
   }
@@ -219,16 +238,20 @@ public class MultipartController {
           value = X_AMZ_SERVER_SIDE_ENCRYPTION_AWS_KMS_KEY_ID,
           required = false) String kmsKeyId,
       @RequestHeader(value = X_AMZ_CONTENT_SHA256, required = false) String sha256Header,
+      @RequestHeader HttpHeaders httpHeaders,
       InputStream inputStream) {
     bucketService.verifyBucketExists(bucketName);
     multipartService.verifyPartNumberLimits(partNumber);
 
+    ChecksumAlgorithm checksumAlgorithm = checksumAlgorithmFrom(httpHeaders);
     String etag = multipartService.putPart(bucketName,
         key.getKey(),
         uploadId,
         partNumber,
         inputStream,
-        isV4ChunkedWithSigningEnabled(sha256Header),
+        isChunkedEncoding(sha256Header),
+        checksumAlgorithm,
+        checksumFrom(httpHeaders, checksumAlgorithm),
         encryption,
         kmsKeyId);
 
@@ -274,13 +297,17 @@ public class MultipartController {
       @RequestHeader(value = X_AMZ_COPY_SOURCE_IF_MATCH, required = false) List<String> match,
       @RequestHeader(value = X_AMZ_COPY_SOURCE_IF_NONE_MATCH,
           required = false) List<String> noneMatch,
+      @RequestHeader(value = X_AMZ_COPY_SOURCE_IF_MODIFIED_SINCE,
+          required = false) Instant modifiedSince,
+      @RequestHeader(value = X_AMZ_COPY_SOURCE_IF_UNMODIFIED_SINCE,
+          required = false) Instant unmodifiedSince,
       @RequestParam String uploadId,
       @RequestParam String partNumber) {
-    //TODO: needs modified-since handling, see API
     bucketService.verifyBucketExists(bucketName);
     S3ObjectMetadata s3ObjectMetadata =
         objectService.verifyObjectExists(copySource.getBucket(), copySource.getKey());
-    objectService.verifyObjectMatchingForCopy(match, noneMatch, s3ObjectMetadata);
+    objectService.verifyObjectMatchingForCopy(match, noneMatch, modifiedSince, unmodifiedSince,
+        s3ObjectMetadata);
 
     CopyPartResult result = multipartService.copyPart(copySource.getBucket(),
         copySource.getKey(),
@@ -320,18 +347,22 @@ public class MultipartController {
           required = false) String kmsKeyId,
       @RequestHeader(value = CONTENT_TYPE, required = false) String contentType,
       @RequestHeader(value = CONTENT_ENCODING, required = false) String contentEncoding,
+      @RequestHeader(value = X_AMZ_CHECKSUM_ALGORITHM, required = false) String checksumAlgorithm,
       @RequestHeader HttpHeaders httpHeaders) {
     bucketService.verifyBucketExists(bucketName);
 
     Map<String, String> userMetadata = getUserMetadata(httpHeaders);
+    ChecksumAlgorithm algorithm = ChecksumAlgorithm.fromString(checksumAlgorithm);
 
     String uploadId = UUID.randomUUID().toString();
     InitiateMultipartUploadResult result =
         multipartService.prepareMultipartUpload(bucketName, key.getKey(),
             contentType, contentEncoding, uploadId,
-            DEFAULT_OWNER, DEFAULT_OWNER, userMetadata);
+            DEFAULT_OWNER, DEFAULT_OWNER, userMetadata, algorithm);
 
-    return ResponseEntity.ok(result);
+    return ResponseEntity.ok()
+        .header(X_AMZ_CHECKSUM_ALGORITHM, algorithm == null ? null : algorithm.toString())
+        .body(result);
   }
 
   /**
@@ -16,14 +16,18 @@
 
 package com.adobe.testing.s3mock;
 
+import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_PART_NUMBER_WITH_RANGE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.CONTENT_MD5;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.MetadataDirective.METADATA_DIRECTIVE_COPY;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.NOT_X_AMZ_COPY_SOURCE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.RANGE;
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_CHECKSUM_MODE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_CONTENT_SHA256;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_IF_MATCH;
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_IF_MODIFIED_SINCE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_IF_NONE_MATCH;
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_IF_UNMODIFIED_SINCE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_DELETE_MARKER;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_METADATA_DIRECTIVE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_SERVER_SIDE_ENCRYPTION;
@@ -39,24 +43,36 @@ import static com.adobe.testing.s3mock.util.AwsHttpParameters.NOT_RETENTION;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.NOT_TAGGING;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.NOT_UPLOADS;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.NOT_UPLOAD_ID;
+import static com.adobe.testing.s3mock.util.AwsHttpParameters.PART_NUMBER;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.RETENTION;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.TAGGING;
+import static com.adobe.testing.s3mock.util.HeaderUtil.checksumAlgorithmFrom;
+import static com.adobe.testing.s3mock.util.HeaderUtil.checksumFrom;
+import static com.adobe.testing.s3mock.util.HeaderUtil.createChecksumHeaders;
 import static com.adobe.testing.s3mock.util.HeaderUtil.createEncryptionHeaders;
 import static com.adobe.testing.s3mock.util.HeaderUtil.createOverrideHeaders;
+import static com.adobe.testing.s3mock.util.HeaderUtil.createPartsCountHeaders;
 import static com.adobe.testing.s3mock.util.HeaderUtil.createUserMetadataHeaders;
 import static com.adobe.testing.s3mock.util.HeaderUtil.getUserMetadata;
-import static com.adobe.testing.s3mock.util.HeaderUtil.isV4ChunkedWithSigningEnabled;
+import static com.adobe.testing.s3mock.util.HeaderUtil.isChunkedEncoding;
 import static com.adobe.testing.s3mock.util.HeaderUtil.parseMediaType;
+import static com.adobe.testing.s3mock.util.ObjectDataUtil.byteRangesLength;
+import static com.adobe.testing.s3mock.util.ObjectDataUtil.copyByteRanges;
+import static com.adobe.testing.s3mock.util.ObjectDataUtil.copyData;
+import static com.adobe.testing.s3mock.util.ObjectDataUtil.dataSize;
 import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_MODIFIED_SINCE;
 import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.IF_UNMODIFIED_SINCE;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.PARTIAL_CONTENT;
 import static org.springframework.http.HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static org.springframework.http.MediaType.APPLICATION_XML_VALUE;
 
 import com.adobe.testing.s3mock.dto.AccessControlPolicy;
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.CopyObjectResult;
 import com.adobe.testing.s3mock.dto.CopySource;
 import com.adobe.testing.s3mock.dto.Delete;
@@ -71,19 +87,20 @@ import com.adobe.testing.s3mock.dto.Tagging;
 import com.adobe.testing.s3mock.service.BucketService;
 import com.adobe.testing.s3mock.service.ObjectService;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.adobe.testing.s3mock.store.S3ObjectPart;
 import com.adobe.testing.s3mock.util.AwsHttpHeaders.MetadataDirective;
 import com.adobe.testing.s3mock.util.XmlUtil;
 import java.io.InputStream;
-import java.nio.file.Files;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import javax.xml.bind.JAXBException;
 import javax.xml.stream.XMLStreamException;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.BoundedInputStream;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -101,6 +118,8 @@ import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBo
 @RequestMapping("${com.adobe.testing.s3mock.contextPath:}")
 public class ObjectController {
   private static final String RANGES_BYTES = "bytes";
+  private static final String MULTIPART_BYTERANGES = "multipart/byteranges";
+  private static final int MAX_RANGES = 100;
 
   private final BucketService bucketService;
   private final ObjectService objectService;
@@ -150,8 +169,11 @@ public class ObjectController {
    * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_HeadObject.html">API Reference</a>
    *
    * @param bucketName name of the bucket to look in
+   * @param partNumber number of the part to retrieve metadata of. Optional.
+   * @param checksumMode if "ENABLED", the checksum of the object is returned. Optional.
    *
-   * @return 200 with object metadata headers, 404 if not found.
+   * @return 200 with object metadata headers, 404 if not found, 304 or 412 if a precondition
+   *     (If-Match, If-None-Match, If-Modified-Since, If-Unmodified-Since) fails.
    */
   @RequestMapping(
       value = "/{bucketName:[a-z0-9.-]+}/{*key}",
@@ -160,16 +182,38 @@ public class ObjectController {
   public ResponseEntity<Void> headObject(@PathVariable String bucketName,
       @PathVariable ObjectKey key,
       @RequestHeader(value = IF_MATCH, required = false) List<String> match,
-      @RequestHeader(value = IF_NONE_MATCH, required = false) List<String> noneMatch) {
-    //TODO: needs modified-since handling, see API
+      @RequestHeader(value = IF_NONE_MATCH, required = false) List<String> noneMatch,
+      @RequestHeader(value = IF_MODIFIED_SINCE, required = false) Instant modifiedSince,
+      @RequestHeader(value = IF_UNMODIFIED_SINCE, required = false) Instant unmodifiedSince,
+      @RequestParam(value = PART_NUMBER, required = false) String partNumber,
+      @RequestHeader(value = X_AMZ_CHECKSUM_MODE, required = false) String checksumMode) {
     bucketService.verifyBucketExists(bucketName);
 
     S3ObjectMetadata s3ObjectMetadata = objectService.verifyObjectExists(bucketName, key.getKey());
     if (s3ObjectMetadata != null) {
-      objectService.verifyObjectMatching(match, noneMatch, s3ObjectMetadata);
+      objectService.verifyObjectMatching(match, noneMatch, modifiedSince, unmodifiedSince,
+          s3ObjectMetadata);
+      if (partNumber != null) {
+        S3ObjectPart part = objectService.getObjectPart(s3ObjectMetadata, partNumber);
+        // like S3, the part of an empty object is the whole object.
+        if (part.getSize() > 0) {
+          return ResponseEntity.status(PARTIAL_CONTENT.value())
+              .headers(headers -> headers.setAll(createUserMetadataHeaders(s3ObjectMetadata)))
+              .headers(headers -> headers.setAll(createEncryptionHeaders(s3ObjectMetadata)))
+              .headers(headers -> headers.setAll(createPartsCountHeaders(s3ObjectMetadata)))
+              .header(HttpHeaders.CONTENT_RANGE, contentRange(part, s3ObjectMetadata))
+              .contentType(parseMediaType(s3ObjectMetadata.getContentType()))
+              .eTag(s3ObjectMetadata.getEtag())
+              .contentLength(part.getSize())
+              .lastModified(s3ObjectMetadata.getLastModified())
+              .build();
+        }
+      }
       return ResponseEntity.ok()
           .headers(headers -> headers.setAll(createUserMetadataHeaders(s3ObjectMetadata)))
           .headers(headers -> headers.setAll(createEncryptionHeaders(s3ObjectMetadata)))
+          .headers(headers ->
+              headers.setAll(createChecksumHeaders(s3ObjectMetadata, checksumMode)))
           .contentType(parseMediaType(s3ObjectMetadata.getContentType()))
           .eTag(s3ObjectMetadata.getEtag())
           .contentLength(Long.parseLong(s3ObjectMetadata.getSize()))
@@ -211,7 +255,9 @@ public class ObjectController {
    * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_GetObject.html">API Reference</a>
    *
    * @param bucketName The Bucket's name
-   * @param range byte range
+   * @param ranges byte ranges, multiple ranges are returned as "multipart/byteranges"
+   * @param partNumber number of the part to retrieve. Optional, must not be combined with range.
+   * @param checksumMode if "ENABLED", the checksum of the object is returned. Optional.
    *
    */
   @RequestMapping(
@@ -231,18 +277,69 @@ public class ObjectController {
   )
   public ResponseEntity<StreamingResponseBody> getObject(@PathVariable String bucketName,
       @PathVariable ObjectKey key,
-      @RequestHeader(value = RANGE, required = false) Range range,
+      @RequestHeader(value = RANGE, required = false) List<Range> ranges,
       @RequestHeader(value = IF_MATCH, required = false) List<String> match,
       @RequestHeader(value = IF_NONE_MATCH, required = false) List<String> noneMatch,
+      @RequestHeader(value = IF_MODIFIED_SINCE, required = false) Instant modifiedSince,
+      @RequestHeader(value = IF_UNMODIFIED_SINCE, required = false) Instant unmodifiedSince,
+      @RequestParam(value = PART_NUMBER, required = false) String partNumber,
+      @RequestHeader(value = X_AMZ_CHECKSUM_MODE, required = false) String checksumMode,
       @RequestParam Map<String, String> queryParams) {
-    //TODO: needs modified-since handling, see API
     bucketService.verifyBucketExists(bucketName);
 
-    S3ObjectMetadata s3ObjectMetadata = objectService.verifyObjectExists(bucketName, key.getKey());
-    objectService.verifyObjectMatching(match, noneMatch, s3ObjectMetadata);
+    // the data is streamed after the object lock was released, the object is kept open until
+    // then, so the data is not deleted when the object is overwritten concurrently.
+    S3ObjectMetadata s3ObjectMetadata = objectService.openObject(bucketName, key.getKey());
+    ResponseEntity<StreamingResponseBody> response;
+    try {
+      response = getObject(s3ObjectMetadata, ranges, match, noneMatch, modifiedSince,
+          unmodifiedSince, partNumber, checksumMode, queryParams);
+    } catch (RuntimeException e) {
+      objectService.closeObject(s3ObjectMetadata);
+      throw e;
+    }
+    StreamingResponseBody body = response.getBody();
+    if (body == null) {
+      objectService.closeObject(s3ObjectMetadata);
+      return response;
+    }
+    return new ResponseEntity<>(outputStream -> {
+      try {
+        body.writeTo(outputStream);
+      } finally {
+        objectService.closeObject(s3ObjectMetadata);
+      }
+    }, response.getHeaders(), response.getStatusCode());
+  }
 
-    if (range != null) {
-      return getObjectWithRange(range, s3ObjectMetadata);
+  private ResponseEntity<StreamingResponseBody> getObject(S3ObjectMetadata s3ObjectMetadata,
+      List<Range> ranges,
+      List<String> match,
+      List<String> noneMatch,
+      Instant modifiedSince,
+      Instant unmodifiedSince,
+      String partNumber,
+      String checksumMode,
+      Map<String, String> queryParams) {
+    objectService.verifyObjectMatching(match, noneMatch, modifiedSince, unmodifiedSince,
+        s3ObjectMetadata);
+
+    // like S3, parts and ranges of an empty object are ignored, the whole object is returned.
+    long fileSize = dataSize(s3ObjectMetadata);
+    if (partNumber != null) {
+      if (ranges != null) {
+        throw INVALID_REQUEST_PART_NUMBER_WITH_RANGE;
+      }
+      S3ObjectPart part = objectService.getObjectPart(s3ObjectMetadata, partNumber);
+      if (part.getSize() > 0) {
+        return getObjectPart(part, s3ObjectMetadata, queryParams);
+      }
+    } else if (ranges != null && !ranges.isEmpty() && fileSize > 0) {
+      List<Range> resolvedRanges = Range.resolve(ranges, fileSize);
+      // too many ranges are answered with the whole object.
+      if (resolvedRanges.size() <= MAX_RANGES) {
+        return getObjectWithRanges(resolvedRanges, s3ObjectMetadata);
+      }
     }
 
     return ResponseEntity
@@ -252,11 +349,12 @@ public class ObjectController {
         .header(HttpHeaders.ACCEPT_RANGES, RANGES_BYTES)
         .headers(headers -> headers.setAll(createUserMetadataHeaders(s3ObjectMetadata)))
         .headers(headers -> headers.setAll(createEncryptionHeaders(s3ObjectMetadata)))
+        .headers(headers -> headers.setAll(createChecksumHeaders(s3ObjectMetadata, checksumMode)))
         .lastModified(s3ObjectMetadata.getLastModified())
-        .contentLength(s3ObjectMetadata.getDataPath().toFile().length())
+        .contentLength(fileSize)
         .contentType(parseMediaType(s3ObjectMetadata.getContentType()))
         .headers(headers -> headers.setAll(createOverrideHeaders(queryParams)))
-        .body(outputStream -> Files.copy(s3ObjectMetadata.getDataPath(), outputStream));
+        .body(outputStream -> copyData(s3ObjectMetadata, 0, fileSize, outputStream));
   }
 
   /**
@@ -537,13 +635,16 @@ public class ObjectController {
     //TODO: need to extract owner from headers
     Owner owner = Owner.DEFAULT_OWNER;
     Map<String, String> userMetadata = getUserMetadata(headers);
+    ChecksumAlgorithm checksumAlgorithm = checksumAlgorithmFrom(headers);
     S3ObjectMetadata s3ObjectMetadata =
         objectService.putS3Object(bucketName,
             key.getKey(),
             parseMediaType(contentType).toString(),
             contentEncoding,
             stream,
-            isV4ChunkedWithSigningEnabled(sha256Header),
+            isChunkedEncoding(sha256Header),
+            checksumAlgorithm,
+            checksumFrom(headers, checksumAlgorithm),
             userMetadata,
             encryption,
             kmsKeyId,
@@ -555,6 +656,7 @@ public class ObjectController {
         .eTag(s3ObjectMetadata.getEtag())
         .lastModified(s3ObjectMetadata.getLastModified())
         .header(X_AMZ_SERVER_SIDE_ENCRYPTION_AWS_KMS_KEY_ID, kmsKeyId)
+        .headers(headers1 -> headers1.setAll(createChecksumHeaders(s3ObjectMetadata)))
         .build();
   }
 
@@ -598,13 +700,16 @@ public class ObjectController {
       @RequestHeader(value = X_AMZ_COPY_SOURCE_IF_MATCH, required = false) List<String> match,
       @RequestHeader(value = X_AMZ_COPY_SOURCE_IF_NONE_MATCH,
           required = false) List<String> noneMatch,
+      @RequestHeader(value = X_AMZ_COPY_SOURCE_IF_MODIFIED_SINCE,
+          required = false) Instant modifiedSince,
+      @RequestHeader(value = X_AMZ_COPY_SOURCE_IF_UNMODIFIED_SINCE,
+          required = false) Instant unmodifiedSince,
       @RequestHeader HttpHeaders httpHeaders) {
-    //TODO: needs modified-since handling, see API
-
     bucketService.verifyBucketExists(bucketName);
     S3ObjectMetadata s3ObjectMetadata =
         objectService.verifyObjectExists(copySource.getBucket(), copySource.getKey());
-    objectService.verifyObjectMatchingForCopy(match, noneMatch, s3ObjectMetadata);
+    objectService.verifyObjectMatchingForCopy(match, noneMatch, modifiedSince, unmodifiedSince,
+        s3ObjectMetadata);
 
     Map<String, String> metadata = Collections.emptyMap();
     if (MetadataDirective.REPLACE == metadataDirective) {
@@ -634,21 +739,27 @@ public class ObjectController {
 
   /**
    * supports range different range ends. e.g. if content has 100 bytes, the range request could be:
-   * bytes=10-100, 10--1 and 10-200
+   * bytes=10-100, 10- and 10-200, or the suffix range -10 for the last 10 bytes.
+   * If more than one range remains after resolving, the ranges are returned as
+   * "multipart/byteranges".
    * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_GetObject.html">API Reference</a>
    *
-   * @param range {@link String}
+   * @param resolvedRanges ranges resolved by {@link Range#resolve(List, long)}
    * @param s3ObjectMetadata {@link S3ObjectMetadata}
    */
-  private ResponseEntity<StreamingResponseBody> getObjectWithRange(Range range,
+  private ResponseEntity<StreamingResponseBody> getObjectWithRanges(List<Range> resolvedRanges,
       S3ObjectMetadata s3ObjectMetadata) {
-    long fileSize = s3ObjectMetadata.getDataPath().toFile().length();
-    long bytesToRead = Math.min(fileSize - 1, range.getEnd()) - range.getStart() + 1;
-
-    if (bytesToRead < 0 || fileSize < range.getStart()) {
-      return ResponseEntity.status(REQUESTED_RANGE_NOT_SATISFIABLE.value()).build();
+    if (resolvedRanges.isEmpty()) {
+      return ResponseEntity.status(REQUESTED_RANGE_NOT_SATISFIABLE.value())
+          .header(HttpHeaders.CONTENT_RANGE, "bytes */" + dataSize(s3ObjectMetadata))
+          .build();
+    }
+    if (resolvedRanges.size() > 1) {
+      return getObjectWithByteRanges(resolvedRanges, s3ObjectMetadata);
     }
 
+    Range range = resolvedRanges.get(0);
+    long bytesToRead = range.getLength();
     return ResponseEntity
         .status(PARTIAL_CONTENT.value())
         .headers(headers -> headers.setAll(createUserMetadataHeaders(s3ObjectMetadata)))
@@ -661,15 +772,61 @@ public class ObjectController {
         .contentType(parseMediaType(s3ObjectMetadata.getContentType()))
         .lastModified(s3ObjectMetadata.getLastModified())
         .contentLength(bytesToRead)
-        .body(outputStream -> {
-          try (InputStream fis = Files.newInputStream(s3ObjectMetadata.getDataPath())) {
-            long skip = fis.skip(range.getStart());
-            if (skip == range.getStart()) {
-              IOUtils.copy(new BoundedInputStream(fis, bytesToRead), outputStream);
-            } else {
-              throw new IllegalStateException("Could not skip exact byte range");
-            }
-          }
-        });
+        .body(outputStream ->
+            copyData(s3ObjectMetadata, range.getStart(), bytesToRead, outputStream));
+  }
+
+  /**
+   * Returns multiple ranges of an object as "multipart/byteranges".
+   *
+   * @param ranges resolved ranges
+   * @param s3ObjectMetadata {@link S3ObjectMetadata}
+   */
+  private ResponseEntity<StreamingResponseBody> getObjectWithByteRanges(List<Range> ranges,
+      S3ObjectMetadata s3ObjectMetadata) {
+    String boundary = UUID.randomUUID().toString();
+    String contentType = parseMediaType(s3ObjectMetadata.getContentType()).toString();
+    return ResponseEntity
+        .status(PARTIAL_CONTENT.value())
+        .headers(headers -> headers.setAll(createUserMetadataHeaders(s3ObjectMetadata)))
+        .headers(headers -> headers.setAll(createEncryptionHeaders(s3ObjectMetadata)))
+        .header(HttpHeaders.ACCEPT_RANGES, RANGES_BYTES)
+        .eTag(s3ObjectMetadata.getEtag())
+        .contentType(MediaType.parseMediaType(MULTIPART_BYTERANGES + "; boundary=" + boundary))
+        .lastModified(s3ObjectMetadata.getLastModified())
+        .contentLength(byteRangesLength(s3ObjectMetadata, ranges, boundary, contentType))
+        .body(outputStream ->
+            copyByteRanges(s3ObjectMetadata, ranges, boundary, contentType, outputStream));
+  }
+
+  /**
+   * Returns a single part of an object, as identified by the partNumber parameter.
+   * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_GetObject.html">API Reference</a>
+   *
+   * @param part {@link S3ObjectPart}
+   * @param s3ObjectMetadata {@link S3ObjectMetadata}
+   */
+  private ResponseEntity<StreamingResponseBody> getObjectPart(S3ObjectPart part,
+      S3ObjectMetadata s3ObjectMetadata, Map<String, String> queryParams) {
+    return ResponseEntity
+        .status(PARTIAL_CONTENT.value())
+        .headers(headers -> headers.setAll(createUserMetadataHeaders(s3ObjectMetadata)))
+        .headers(headers -> headers.setAll(createEncryptionHeaders(s3ObjectMetadata)))
+        .headers(headers -> headers.setAll(createPartsCountHeaders(s3ObjectMetadata)))
+        .header(HttpHeaders.CONTENT_ENCODING, s3ObjectMetadata.getContentEncoding())
+        .header(HttpHeaders.ACCEPT_RANGES, RANGES_BYTES)
+        .header(HttpHeaders.CONTENT_RANGE, contentRange(part, s3ObjectMetadata))
+        .eTag(s3ObjectMetadata.getEtag())
+        .contentType(parseMediaType(s3ObjectMetadata.getContentType()))
+        .lastModified(s3ObjectMetadata.getLastModified())
+        .contentLength(part.getSize())
+        .headers(headers -> headers.setAll(createOverrideHeaders(queryParams)))
+        .body(outputStream ->
+            copyData(s3ObjectMetadata, part.getOffset(), part.getSize(), outputStream));
+  }
+
+  private static String contentRange(S3ObjectPart part, S3ObjectMetadata s3ObjectMetadata) {
+    return String.format("bytes %s-%s/%s",
+        part.getOffset(), part.getOffset() + part.getSize() - 1, s3ObjectMetadata.getSize());
   }
 }
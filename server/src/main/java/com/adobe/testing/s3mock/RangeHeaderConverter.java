@@ -0,0 +1,34 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import com.adobe.testing.s3mock.dto.Range;
+import java.util.List;
+import org.springframework.core.convert.converter.Converter;
+
+/**
+ * Converts values of the "Range" header, which may contain multiple ranges.
+ * Example: Range: bytes=0-99,200-299,-50
+ * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_GetObject.html">API Reference</a>
+ */
+class RangeHeaderConverter implements Converter<String, List<Range>> {
+
+  @Override
+  public List<Range> convert(String source) {
+    return Range.parseRanges(source);
+  }
+}
@@ -19,6 +19,7 @@ package com.adobe.testing.s3mock;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 
 import com.adobe.testing.s3mock.dto.ErrorResponse;
 import org.springframework.http.HttpStatus;
@@ -33,6 +34,12 @@ public class S3Exception extends RuntimeException {
   public static final S3Exception INVALID_PART_NUMBER =
       new S3Exception(BAD_REQUEST.value(), "InvalidRequest",
           "Part number must be an integer between 1 and 10000, inclusive");
+  public static final S3Exception INVALID_PART_NUMBER_NOT_SATISFIABLE =
+      new S3Exception(REQUESTED_RANGE_NOT_SATISFIABLE.value(), "InvalidPartNumber",
+          "The requested partnumber is not satisfiable");
+  public static final S3Exception INVALID_REQUEST_PART_NUMBER_WITH_RANGE =
+      new S3Exception(BAD_REQUEST.value(), "InvalidRequest",
+          "Cannot specify both Range header and partNumber query parameter");
   public static final S3Exception INVALID_PART = new S3Exception(BAD_REQUEST.value(), "InvalidPart",
       "One or more of the specified parts could not be found. The part might not have been "
           + "uploaded, or the specified entity tag might not have matched the part's entity"
@@ -55,6 +62,12 @@ public class S3Exception extends RuntimeException {
   public static final S3Exception NO_SUCH_LIFECYCLE_CONFIGURATION =
       new S3Exception(NOT_FOUND.value(), "NoSuchLifecycleConfiguration",
           "The lifecycle configuration does not exist.");
+  public static final S3Exception NO_SUCH_SNAPSHOT =
+      new S3Exception(NOT_FOUND.value(), "NoSuchSnapshot",
+          "The specified snapshot does not exist.");
+  public static final S3Exception INVALID_SNAPSHOT_NAME =
+      new S3Exception(BAD_REQUEST.value(), "InvalidSnapshotName",
+          "The specified snapshot name is not valid.");
   public static final S3Exception NO_SUCH_KEY =
       new S3Exception(NOT_FOUND.value(), "NoSuchKey", "The specified key does not exist.");
   public static final S3Exception NOT_MODIFIED =
@@ -85,6 +98,12 @@ public class S3Exception extends RuntimeException {
   public static final S3Exception INVALID_REQUEST_MAXKEYS =
       new S3Exception(BAD_REQUEST.value(), "InvalidRequest",
           "maxKeys should be non-negative");
+  public static final S3Exception INVALID_REQUEST_MAXUPLOADS =
+      new S3Exception(BAD_REQUEST.value(), "InvalidRequest",
+          "maxUploads should be non-negative");
+  public static final S3Exception INVALID_CONTINUATION_TOKEN =
+      new S3Exception(BAD_REQUEST.value(), "InvalidArgument",
+          "The continuation token provided is incorrect");
   public static final S3Exception INVALID_REQUEST_ENCODINGTYPE =
       new S3Exception(BAD_REQUEST.value(), "InvalidRequest",
           "encodingtype can only be none or 'url'");
@@ -92,6 +111,9 @@ public class S3Exception extends RuntimeException {
   public static final S3Exception BAD_REQUEST_MD5 =
       new S3Exception(BAD_REQUEST.value(), "BadRequest",
           "Content-MD5 does not match object md5");
+  public static final S3Exception BAD_CHECKSUM =
+      new S3Exception(BAD_REQUEST.value(), "BadDigest",
+          "The checksum you specified did not match the calculated checksum.");
   private final int status;
   private final String code;
   private final String message;
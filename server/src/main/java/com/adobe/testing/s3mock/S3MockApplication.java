@@ -18,6 +18,7 @@ package com.adobe.testing.s3mock;
 
 import static java.util.Collections.emptyMap;
 
+import com.adobe.testing.s3mock.service.AdminService;
 import com.adobe.testing.s3mock.store.KmsKeyStore;
 import java.util.HashMap;
 import java.util.Map;
@@ -29,6 +30,7 @@ import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfi
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.Environment;
+import org.springframework.web.context.WebApplicationContext;
 
 /**
  * File Store Application that mocks Amazon S3.
@@ -61,6 +63,14 @@ public class S3MockApplication {
       "com.adobe.testing.s3mock.domain.initialBuckets";
   private static final String LEGACY_PROP_INITIAL_BUCKETS = "initialBuckets";
 
+  /**
+   * Property name for passing a comma separated list of buckets that are to be loaded with objects
+   * at startup, in the format "bucketName=path". The path is a directory or a ".tar", ".tar.gz" or
+   * ".tgz" archive.
+   */
+  public static final String PROP_SEED_BUCKETS = "com.adobe.testing.s3mock.domain.seedBuckets";
+  private static final String LEGACY_PROP_SEED_BUCKETS = "seedBuckets";
+
   /**
    * Property name for passing a root directory to use. If omitted a default temp-dir will be used.
    */
@@ -119,6 +129,9 @@ public class S3MockApplication {
   @Autowired
   private KmsKeyStore kmsKeyStore;
 
+  @Autowired
+  private AdminService adminService;
+
   @Autowired
   private Environment environment;
 
@@ -199,21 +212,29 @@ public class S3MockApplication {
    * This is equivalent to:
    * com.adobe.testing.s3mock.httpPort=${http.port:}
    * com.adobe.testing.s3mock.domain.initialBuckets=${initialBuckets:}
+   * com.adobe.testing.s3mock.domain.seedBuckets=${seedBuckets:}
    * com.adobe.testing.s3mock.domain.retainFilesOnExit=${retainFilesOnExit:}
    * com.adobe.testing.s3mock.domain.root=${root:}
    * com.adobe.testing.s3mock.domain.validKmsKeys=${validKmsKeys:}
+   * com.adobe.testing.s3mock.domain.virtualMultipartObjects=${virtualMultipartObjects:}
+   * com.adobe.testing.s3mock.virtualThreads=${virtualThreads:}
    */
   private static Map<String, Object> translateLegacyProperties(Map<String, Object> properties) {
     // make incoming map mutable
     Map<String, Object> translated = new HashMap<>(properties);
     translateLegacyProperty(translated, PROP_ROOT_DIRECTORY, LEGACY_PROP_ROOT_DIRECTORY);
     translateLegacyProperty(translated, PROP_INITIAL_BUCKETS, LEGACY_PROP_INITIAL_BUCKETS);
+    translateLegacyProperty(translated, PROP_SEED_BUCKETS, LEGACY_PROP_SEED_BUCKETS);
     translateLegacyProperty(translated,
         "com.adobe.testing.s3mock.domain.retainFilesOnExit", "retainFilesOnExit");
     translateLegacyProperty(translated,
         "com.adobe.testing.s3mock.domain.validKmsKeys", "validKmsKeys");
+    translateLegacyProperty(translated,
+        "com.adobe.testing.s3mock.domain.virtualMultipartObjects", "virtualMultipartObjects");
     translateLegacyProperty(translated,
         "com.adobe.testing.s3mock.httpPort", "http.port");
+    translateLegacyProperty(translated,
+        "com.adobe.testing.s3mock.virtualThreads", "virtualThreads");
     return translated;
   }
 
@@ -268,6 +289,19 @@ public class S3MockApplication {
     return config.getHttpServerConnector().getLocalPort();
   }
 
+  /**
+   * Gets the application context, e.g. to dispatch requests to the controllers without a
+   * connection to the server.
+   *
+   * @return the application context.
+   * @deprecated Using the S3Mock directly through Java is discouraged. Either run the JAR and start
+   *     a separate JVM, or run the Docker container.
+   */
+  @Deprecated
+  public WebApplicationContext getApplicationContext() {
+    return (WebApplicationContext) context;
+  }
+
   /**
    * Registers a valid KMS key reference on the mock server.
    *
@@ -279,4 +313,55 @@ public class S3MockApplication {
   public void registerKMSKeyRef(final String keyRef) {
     kmsKeyStore.registerKMSKeyRef(keyRef);
   }
+
+  /**
+   * Deletes a bucket including all of its objects, see {@link AdminService#deleteBucket(String)}.
+   *
+   * @param bucketName name of the bucket
+   * @return false if the bucket does not exist.
+   * @deprecated Using the S3Mock directly through Java is discouraged. Either run the JAR and start
+   *     a separate JVM, or run the Docker container.
+   */
+  @Deprecated
+  public boolean deleteBucket(final String bucketName) {
+    return adminService.deleteBucket(bucketName);
+  }
+
+  /**
+   * Deletes all buckets and objects and creates the initial buckets again, see
+   * {@link AdminService#reset()}.
+   *
+   * @deprecated Using the S3Mock directly through Java is discouraged. Either run the JAR and start
+   *     a separate JVM, or run the Docker container.
+   */
+  @Deprecated
+  public void reset() {
+    adminService.reset();
+  }
+
+  /**
+   * Stores the current state of all buckets under a name, see
+   * {@link AdminService#createSnapshot(String)}.
+   *
+   * @param name name of the snapshot, an existing snapshot with this name is replaced.
+   * @deprecated Using the S3Mock directly through Java is discouraged. Either run the JAR and start
+   *     a separate JVM, or run the Docker container.
+   */
+  @Deprecated
+  public void createSnapshot(final String name) {
+    adminService.createSnapshot(name);
+  }
+
+  /**
+   * Replaces all buckets with the state stored in a snapshot, see
+   * {@link AdminService#restoreSnapshot(String)}.
+   *
+   * @param name name of the snapshot
+   * @deprecated Using the S3Mock directly through Java is discouraged. Either run the JAR and start
+   *     a separate JVM, or run the Docker container.
+   */
+  @Deprecated
+  public void restoreSnapshot(final String name) {
+    adminService.restoreSnapshot(name);
+  }
 }
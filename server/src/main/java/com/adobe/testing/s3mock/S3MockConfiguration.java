@@ -19,6 +19,7 @@ package com.adobe.testing.s3mock;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 
 import com.adobe.testing.s3mock.dto.ErrorResponse;
+import com.adobe.testing.s3mock.service.AdminService;
 import com.adobe.testing.s3mock.service.BucketService;
 import com.adobe.testing.s3mock.service.MultipartService;
 import com.adobe.testing.s3mock.service.ObjectService;
@@ -34,6 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.boot.web.servlet.filter.OrderedFormContentFilter;
 import org.springframework.boot.web.servlet.server.ServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
@@ -69,6 +71,17 @@ public class S3MockConfiguration implements WebMvcConfigurer {
     return factory;
   }
 
+  /**
+   * Runs requests on virtual threads if enabled, see {@link VirtualThreadPool}.
+   *
+   * @return customizer replacing the thread pool of the webServerFactory bean
+   */
+  @Bean
+  WebServerFactoryCustomizer<JettyServletWebServerFactory> virtualThreadPoolCustomizer(
+      S3MockProperties properties) {
+    return new VirtualThreadPool.Customizer(properties.isVirtualThreads());
+  }
+
   private Connector createHttpConnector(final Server server, int httpPort) {
     httpServerConnector = new ServerConnector(server);
     httpServerConnector.setPort(httpPort);
@@ -146,6 +159,11 @@ public class S3MockConfiguration implements WebMvcConfigurer {
     return new ObjectController(bucketService, objectService);
   }
 
+  @Bean
+  AdminController adminController(BucketService bucketService, AdminService adminService) {
+    return new AdminController(bucketService, adminService);
+  }
+
   @Bean
   BucketController bucketController(BucketService bucketService) {
     return new BucketController(bucketService);
@@ -172,6 +190,11 @@ public class S3MockConfiguration implements WebMvcConfigurer {
     return new TaggingHeaderConverter();
   }
 
+  @Bean
+  RangeHeaderConverter rangeHeaderConverter() {
+    return new RangeHeaderConverter();
+  }
+
   /**
    * {@link ResponseEntityExceptionHandler} dealing with {@link S3Exception}s; Serializes them to
    * response output as suitable ErrorResponses.
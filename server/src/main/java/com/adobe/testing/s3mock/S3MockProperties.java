@@ -36,6 +36,13 @@ public class S3MockProperties {
    */
   private String contextPath = "";
 
+  /**
+   * Property name for handling requests on virtual threads instead of a bounded pool of platform
+   * threads. Needs Java 21 or later, on older versions the default thread pool is used.
+   * Defaults to false.
+   */
+  private boolean virtualThreads;
+
   public int getHttpPort() {
     return httpPort;
   }
@@ -51,4 +58,12 @@ public class S3MockProperties {
   public void setContextPath(String contextPath) {
     this.contextPath = contextPath;
   }
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
 }
@@ -0,0 +1,174 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.core.Ordered;
+
+/**
+ * Jetty {@link ThreadPool} that runs every task on a new thread of a {@link ThreadFactory},
+ * meant for virtual threads: requests blocked on file I/O or on slow clients do not hold on to
+ * a bounded number of platform threads, so other requests are never queued behind them.
+ * S3Mock is built for Java 8, virtual threads are created by reflection if the runtime supports
+ * them, see {@link #virtualThreadFactory()}.
+ */
+final class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+  private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadPool.class);
+  private static final String THREAD_NAME_PREFIX = "s3mock-";
+
+  private final ThreadFactory threadFactory;
+  private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+  private volatile CountDownLatch stopped = new CountDownLatch(1);
+
+  VirtualThreadPool(ThreadFactory threadFactory) {
+    this.threadFactory = threadFactory;
+  }
+
+  /**
+   * Creates a factory for virtual threads.
+   *
+   * @return the factory, or null if the runtime does not support virtual threads.
+   */
+  static ThreadFactory virtualThreadFactory() {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class)
+          .invoke(builder, THREAD_NAME_PREFIX, 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      // Java before 21, or Java 19 / 20 without preview features enabled.
+      return null;
+    }
+  }
+
+  @Override
+  protected void doStart() {
+    stopped = new CountDownLatch(1);
+  }
+
+  /**
+   * Waits up to the stop timeout for running tasks, remaining tasks are interrupted.
+   * Jetty stops the connectors before the thread pool, so no new requests are accepted.
+   */
+  @Override
+  protected void doStop() throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getStopTimeout());
+    for (Thread thread : threads) {
+      long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remaining > 0) {
+        thread.join(remaining);
+      }
+    }
+    for (Thread thread : threads) {
+      LOG.warn("Interrupting {}, it did not finish within the stop timeout.", thread);
+      thread.interrupt();
+    }
+    stopped.countDown();
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    if (!isRunning()) {
+      throw new RejectedExecutionException(task.toString());
+    }
+    Thread thread = threadFactory.newThread(() -> {
+      try {
+        task.run();
+      } catch (Throwable t) {
+        LOG.warn("Task {} failed.", task, t);
+      } finally {
+        threads.remove(Thread.currentThread());
+      }
+    });
+    threads.add(thread);
+    thread.start();
+  }
+
+  @Override
+  public void join() throws InterruptedException {
+    stopped.await();
+  }
+
+  @Override
+  public int getThreads() {
+    return threads.size();
+  }
+
+  /**
+   * Threads are never reused, so there are no idle threads.
+   */
+  @Override
+  public int getIdleThreads() {
+    return 0;
+  }
+
+  /**
+   * A new thread is created for every task, so the pool never runs out of threads.
+   */
+  @Override
+  public boolean isLowOnThreads() {
+    return false;
+  }
+
+  /**
+   * Sets a {@link VirtualThreadPool} on the Jetty factory if virtual threads are enabled and
+   * supported.
+   * Runs after the customizer of Spring Boot, which always sets a bounded QueuedThreadPool.
+   */
+  static final class Customizer
+      implements WebServerFactoryCustomizer<JettyServletWebServerFactory>, Ordered {
+
+    private final boolean virtualThreads;
+
+    Customizer(boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void customize(JettyServletWebServerFactory factory) {
+      if (!virtualThreads) {
+        return;
+      }
+      ThreadFactory threadFactory = virtualThreadFactory();
+      if (threadFactory == null) {
+        LOG.warn("Virtual threads are not supported by Java {}, using the default thread pool.",
+            System.getProperty("java.version"));
+        return;
+      }
+      LOG.info("Handling requests on virtual threads.");
+      factory.setThreadPool(new VirtualThreadPool(threadFactory));
+    }
+
+    @Override
+    public int getOrder() {
+      return Ordered.LOWEST_PRECEDENCE;
+    }
+  }
+}
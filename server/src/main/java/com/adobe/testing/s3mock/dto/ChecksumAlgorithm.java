@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * <a href="https://docs.aws.amazon.com/AmazonS3/latest/userguide/checking-object-integrity.html">API Reference</a>.
+ */
+public enum ChecksumAlgorithm {
+  CRC32("CRC32", "x-amz-checksum-crc32"),
+  CRC32C("CRC32C", "x-amz-checksum-crc32c"),
+  SHA1("SHA1", "x-amz-checksum-sha1"),
+  SHA256("SHA256", "x-amz-checksum-sha256");
+
+  private final String value;
+
+  private final String headerName;
+
+  ChecksumAlgorithm(String value, String headerName) {
+    this.value = value;
+    this.headerName = headerName;
+  }
+
+  /**
+   * Name of the header (or trailer) carrying a checksum of this algorithm.
+   */
+  public String getHeaderName() {
+    return headerName;
+  }
+
+  /**
+   * Finds the algorithm by its name, as sent in the "x-amz-sdk-checksum-algorithm" header.
+   *
+   * @param value name of the algorithm, case-insensitive.
+   *
+   * @return the algorithm or null if unknown.
+   */
+  public static ChecksumAlgorithm fromString(String value) {
+    for (ChecksumAlgorithm algorithm : values()) {
+      if (algorithm.value.equalsIgnoreCase(value)) {
+        return algorithm;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the algorithm by its header name, as sent in the "x-amz-trailer" header.
+   *
+   * @param headerName name of the header, case-insensitive.
+   *
+   * @return the algorithm or null if unknown.
+   */
+  public static ChecksumAlgorithm fromHeader(String headerName) {
+    for (ChecksumAlgorithm algorithm : values()) {
+      if (algorithm.headerName.equalsIgnoreCase(headerName)) {
+        return algorithm;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  @JsonValue
+  public String toString() {
+    return value;
+  }
+}
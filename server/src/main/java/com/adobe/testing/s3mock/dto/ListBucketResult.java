@@ -16,16 +16,14 @@
 
 package com.adobe.testing.s3mock.dto;
 
+import com.adobe.testing.s3mock.util.MappedCollection;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonRootName;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Represents a result of listing objects that reside in a Bucket.
@@ -58,11 +56,11 @@ public class ListBucketResult {
 
   @JsonProperty("Contents")
   @JacksonXmlElementWrapper(useWrapping = false)
-  private List<S3Object> contents;
+  private Collection<S3Object> contents;
 
   @JsonProperty("CommonPrefixes")
   @JacksonXmlElementWrapper(useWrapping = false)
-  private List<Prefix> commonPrefixes;
+  private Collection<Prefix> commonPrefixes;
 
   public ListBucketResult(final String name,
       final String prefix,
@@ -71,7 +69,7 @@ public class ListBucketResult {
       final boolean isTruncated,
       final String encodingType,
       final String nextMarker,
-      final List<S3Object> contents,
+      final Collection<S3Object> contents,
       final Collection<String> commonPrefixes) {
     this.name = name;
     this.prefix = prefix;
@@ -80,9 +78,8 @@ public class ListBucketResult {
     this.isTruncated = isTruncated;
     this.encodingType = encodingType;
     this.nextMarker = nextMarker;
-    this.contents = new ArrayList<>();
-    this.contents.addAll(contents);
-    this.commonPrefixes = commonPrefixes.stream().map(Prefix::new).collect(Collectors.toList());
+    this.contents = contents;
+    this.commonPrefixes = MappedCollection.map(commonPrefixes, Prefix::new);
   }
 
   public String getName() {
@@ -114,11 +111,11 @@ public class ListBucketResult {
     return nextMarker;
   }
 
-  public List<S3Object> getContents() {
+  public Collection<S3Object> getContents() {
     return contents;
   }
 
-  public List<Prefix> getCommonPrefixes() {
+  public Collection<Prefix> getCommonPrefixes() {
     return commonPrefixes;
   }
 }
@@ -16,16 +16,14 @@
 
 package com.adobe.testing.s3mock.dto;
 
+import com.adobe.testing.s3mock.util.MappedCollection;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonRootName;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Represents a result of listing objects that reside in a Bucket.
@@ -49,11 +47,11 @@ public class ListBucketResultV2 {
 
   @JsonProperty("Contents")
   @JacksonXmlElementWrapper(useWrapping = false)
-  private List<S3Object> contents;
+  private Collection<S3Object> contents;
 
   @JsonProperty("CommonPrefixes")
   @JacksonXmlElementWrapper(useWrapping = false)
-  private List<Prefix> commonPrefixes;
+  private Collection<Prefix> commonPrefixes;
 
   @JsonProperty("ContinuationToken")
   private String continuationToken;
@@ -71,7 +69,7 @@ public class ListBucketResultV2 {
   private String encodingType;
 
   public ListBucketResultV2(final String name, final String prefix, final int maxKeys,
-      final boolean isTruncated, final List<S3Object> contents,
+      final boolean isTruncated, final Collection<S3Object> contents,
       final Collection<String> commonPrefixes, final String continuationToken,
       final String keyCount, final String nextContinuationToken, final String startAfter,
       final String encodingType) {
@@ -79,9 +77,8 @@ public class ListBucketResultV2 {
     this.prefix = prefix;
     this.maxKeys = maxKeys;
     this.isTruncated = isTruncated;
-    this.contents = new ArrayList<>();
-    this.contents.addAll(contents);
-    this.commonPrefixes = commonPrefixes.stream().map(Prefix::new).collect(Collectors.toList());
+    this.contents = contents;
+    this.commonPrefixes = MappedCollection.map(commonPrefixes, Prefix::new);
     this.continuationToken = continuationToken;
     this.keyCount = keyCount;
     this.nextContinuationToken = nextContinuationToken;
@@ -106,11 +103,11 @@ public class ListBucketResultV2 {
     return isTruncated;
   }
 
-  public List<S3Object> getContents() {
+  public Collection<S3Object> getContents() {
     return contents;
   }
 
-  public List<Prefix> getCommonPrefixes() {
+  public Collection<Prefix> getCommonPrefixes() {
     return commonPrefixes;
   }
 
@@ -16,11 +16,11 @@
 
 package com.adobe.testing.s3mock.dto;
 
+import com.adobe.testing.s3mock.util.MappedCollection;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonRootName;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Collection;
 
 /**
  * List Multipart Uploads result.
@@ -49,10 +49,10 @@ public class ListMultipartUploadsResult {
   private final String nextUploadIdMarker;
   @JsonProperty("Upload")
   @JacksonXmlElementWrapper(useWrapping = false)
-  private final List<MultipartUpload> multipartUploads;
+  private final Collection<MultipartUpload> multipartUploads;
   @JsonProperty("CommonPrefixes")
   @JacksonXmlElementWrapper(useWrapping = false)
-  private final List<Prefix> commonPrefixes;
+  private final Collection<Prefix> commonPrefixes;
 
   public ListMultipartUploadsResult(final String bucket,
       final String keyMarker,
@@ -63,8 +63,8 @@ public class ListMultipartUploadsResult {
       final boolean isTruncated,
       final String nextKeyMarker,
       final String nextUploadIdMarker,
-      final List<MultipartUpload> multipartUploads,
-      final List<String> commonPrefixes) {
+      final Collection<MultipartUpload> multipartUploads,
+      final Collection<String> commonPrefixes) {
     this.bucket = bucket;
     this.keyMarker = keyMarker;
     this.delimiter = delimiter;
@@ -75,6 +75,6 @@ public class ListMultipartUploadsResult {
     this.nextKeyMarker = nextKeyMarker;
     this.nextUploadIdMarker = nextUploadIdMarker;
     this.multipartUploads = multipartUploads;
-    this.commonPrefixes = commonPrefixes.stream().map(Prefix::new).collect(Collectors.toList());
+    this.commonPrefixes = MappedCollection.map(commonPrefixes, Prefix::new);
   }
 }
@@ -19,7 +19,7 @@ package com.adobe.testing.s3mock.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonRootName;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
-import java.util.List;
+import java.util.Collection;
 
 /**
  * List-Parts result with some hard-coded values as this is sufficient for now.
@@ -51,12 +51,12 @@ public class ListPartsResult {
 
   @JsonProperty("Part")
   @JacksonXmlElementWrapper(useWrapping = false)
-  private final List<Part> parts;
+  private final Collection<Part> parts;
 
   public ListPartsResult(final String bucketName,
                          final String fileName,
                          final String uploadId,
-                         final List<Part> parts) {
+                         final Collection<Part> parts) {
     this.bucket = bucketName;
     this.key = fileName;
     this.uploadId = uploadId;
@@ -16,6 +16,7 @@
 
 package com.adobe.testing.s3mock.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Date;
@@ -40,8 +41,12 @@ public class MultipartUpload {
   @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
   private final Date initiated;
 
-  public MultipartUpload(final String key, final String uploadId, final Owner owner,
-      final Owner initiator, final Date initiated) {
+  @JsonCreator
+  public MultipartUpload(@JsonProperty("Key") final String key,
+      @JsonProperty("UploadId") final String uploadId,
+      @JsonProperty("Owner") final Owner owner,
+      @JsonProperty("Initiator") final Owner initiator,
+      @JsonProperty("Initiated") final Date initiated) {
     this.key = key;
     this.uploadId = uploadId;
     this.owner = owner;
@@ -18,12 +18,18 @@ package com.adobe.testing.s3mock.dto;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 
 /**
  * Range request value object.
+ * A range is either given by its first and last byte ("bytes=10-20", "bytes=10-"), or, as suffix
+ * range, by the number of bytes at the end of the data ("bytes=-5").
+ * <a href="https://www.rfc-editor.org/rfc/rfc9110#name-byte-ranges">RFC 9110</a>
  */
 public class Range {
 
@@ -31,11 +37,25 @@ public class Range {
 
   private static final Pattern REQUESTED_RANGE_PATTERN = Pattern.compile(REQUESTED_RANGE_REGEXP);
 
+  private static final Pattern RANGE_SPEC_PATTERN = Pattern.compile("^(\\d*)-(\\d*)$");
+
+  private static final String BYTES_UNIT = "bytes=";
 
   private final long start;
 
   private final long end;
 
+  /**
+   * Number of bytes at the end of the data for a suffix range, -1 otherwise.
+   */
+  private final long suffixLength;
+
+  /**
+   * Constructs a single {@link Range} with a start byte, e.g. from the "x-amz-copy-source-range"
+   * header. Suffix ranges and multiple ranges are not supported.
+   *
+   * @param rangeString the range specification, e.g. "bytes=10-35"
+   */
   public Range(String rangeString) {
     requireNonNull(rangeString);
 
@@ -48,8 +68,12 @@ public class Range {
       final String rangeStart = matcher.group(2);
       final String rangeEnd = matcher.group(3);
 
+      if (StringUtils.isEmpty(rangeStart)) {
+        throw new IllegalArgumentException(
+            "Unsupported range specification. A start byte must be supplied");
+      }
       range =
-          new Range(rangeStart == null ? 0L : Long.parseLong(rangeStart),
+          new Range(Long.parseLong(rangeStart),
               (StringUtils.isEmpty(rangeEnd) ? Long.MAX_VALUE
                   : Long.parseLong(rangeEnd)));
 
@@ -57,10 +81,6 @@ public class Range {
         throw new IllegalArgumentException(
             "Unsupported range specification. Only single range specifications allowed");
       }
-      if (range.getStart() < 0) {
-        throw new IllegalArgumentException(
-            "Unsupported range specification. A start byte must be supplied");
-      }
 
       if (range.getEnd() != -1 && range.getEnd() < range.getStart()) {
         throw new IllegalArgumentException(
@@ -73,6 +93,7 @@ public class Range {
 
     this.start = range.start;
     this.end = range.end;
+    this.suffixLength = -1;
   }
 
   /**
@@ -82,8 +103,112 @@ public class Range {
    * @param end of range
    */
   public Range(final long start, final long end) {
+    this(start, end, -1);
+  }
+
+  private Range(long start, long end, long suffixLength) {
     this.start = start;
     this.end = end;
+    this.suffixLength = suffixLength;
+  }
+
+  /**
+   * Parses all ranges of a "Range" header, e.g. "bytes=0-99,200-,-50".
+   *
+   * @param rangeHeader value of the header
+   *
+   * @return list of ranges, in the requested order.
+   */
+  public static List<Range> parseRanges(String rangeHeader) {
+    requireNonNull(rangeHeader);
+    String rangeString = rangeHeader.trim();
+    if (!rangeString.startsWith(BYTES_UNIT)) {
+      throw new IllegalArgumentException(
+          "Range header is malformed. Only bytes supported as range type.");
+    }
+    List<Range> ranges = new ArrayList<>();
+    for (String rangeSpec : rangeString.substring(BYTES_UNIT.length()).split(",")) {
+      Matcher matcher = RANGE_SPEC_PATTERN.matcher(rangeSpec.trim());
+      if (!matcher.matches() || matcher.group(1).isEmpty() && matcher.group(2).isEmpty()) {
+        throw new IllegalArgumentException("Range header is malformed: " + rangeHeader);
+      }
+      if (matcher.group(1).isEmpty()) {
+        ranges.add(new Range(-1, -1, Long.parseLong(matcher.group(2))));
+        continue;
+      }
+      long rangeStart = Long.parseLong(matcher.group(1));
+      long rangeEnd = matcher.group(2).isEmpty() ? Long.MAX_VALUE
+          : Long.parseLong(matcher.group(2));
+      if (rangeEnd < rangeStart) {
+        throw new IllegalArgumentException(
+            "Range header is malformed. End byte is smaller than start byte.");
+      }
+      ranges.add(new Range(rangeStart, rangeEnd));
+    }
+    return ranges;
+  }
+
+  /**
+   * Resolves this range against data of the given size.
+   *
+   * @param size size of the data in bytes
+   *
+   * @return the range of existing bytes, with start and end byte, or {@code null} if this range is
+   *     not satisfiable.
+   */
+  public Range resolve(long size) {
+    if (isSuffix()) {
+      if (suffixLength == 0 || size == 0) {
+        return null;
+      }
+      return new Range(Math.max(0, size - suffixLength), size - 1);
+    }
+    if (start >= size) {
+      return null;
+    }
+    return new Range(start, Math.min(end, size - 1));
+  }
+
+  /**
+   * Resolves ranges against data of the given size.
+   * Unsatisfiable ranges are dropped, overlapping and adjacent ranges are coalesced into one, so
+   * no byte is returned more than once.
+   * <a href="https://www.rfc-editor.org/rfc/rfc9110#section-14.3">RFC 9110</a>
+   *
+   * @param ranges requested ranges
+   * @param size size of the data in bytes
+   *
+   * @return the resolved ranges, ordered by start byte.
+   */
+  public static List<Range> resolve(List<Range> ranges, long size) {
+    List<Range> resolved = new ArrayList<>();
+    for (Range range : ranges) {
+      Range resolvedRange = range.resolve(size);
+      if (resolvedRange != null) {
+        resolved.add(resolvedRange);
+      }
+    }
+    resolved.sort(Comparator.comparingLong(Range::getStart));
+    List<Range> coalesced = new ArrayList<>();
+    for (Range range : resolved) {
+      int last = coalesced.size() - 1;
+      if (last >= 0 && range.getStart() <= coalesced.get(last).getEnd() + 1) {
+        Range previous = coalesced.get(last);
+        coalesced.set(last, new Range(previous.getStart(),
+            Math.max(previous.getEnd(), range.getEnd())));
+      } else {
+        coalesced.add(range);
+      }
+    }
+    return coalesced;
+  }
+
+  public boolean isSuffix() {
+    return suffixLength != -1;
+  }
+
+  public long getSuffixLength() {
+    return suffixLength;
   }
 
   public long getStart() {
@@ -93,4 +218,19 @@ public class Range {
   public long getEnd() {
     return end;
   }
+
+  /**
+   * Number of bytes in this range, only meaningful for resolved ranges.
+   */
+  public long getLength() {
+    return end - start + 1;
+  }
+
+  @Override
+  public String toString() {
+    if (isSuffix()) {
+      return BYTES_UNIT + "-" + suffixLength;
+    }
+    return BYTES_UNIT + start + "-" + (end == Long.MAX_VALUE ? "" : String.valueOf(end));
+  }
 }
@@ -18,6 +18,7 @@ package com.adobe.testing.s3mock.dto;
 
 import static com.adobe.testing.s3mock.util.EtagUtil.normalizeEtag;
 
+import com.adobe.testing.s3mock.store.ListingAttributes;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -71,6 +72,12 @@ public class S3Object {
         s3ObjectMetadata.getSize(), StorageClass.STANDARD, Owner.DEFAULT_OWNER);
   }
 
+  public static S3Object from(String key, ListingAttributes listingAttributes) {
+    return new S3Object(key,
+        listingAttributes.getModificationDate(), listingAttributes.getEtag(),
+        listingAttributes.getSize(), listingAttributes.getStorageClass(), Owner.DEFAULT_OWNER);
+  }
+
   public String getKey() {
     return key;
   }
@@ -0,0 +1,198 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.service;
+
+import static com.adobe.testing.s3mock.S3Exception.INVALID_SNAPSHOT_NAME;
+import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_SNAPSHOT;
+import static com.adobe.testing.s3mock.store.BucketSeeder.METADATA_PAX_HEADER;
+import static com.adobe.testing.s3mock.util.ObjectDataUtil.dataSize;
+import static com.adobe.testing.s3mock.util.ObjectDataUtil.newInputStream;
+
+import com.adobe.testing.s3mock.S3Exception;
+import com.adobe.testing.s3mock.store.BucketMetadata;
+import com.adobe.testing.s3mock.store.BucketSeeder;
+import com.adobe.testing.s3mock.store.BucketStore;
+import com.adobe.testing.s3mock.store.MultipartStore;
+import com.adobe.testing.s3mock.store.ObjectStore;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Administrative operations on the stores that are not part of the S3 API.
+ */
+public class AdminService {
+  private final BucketStore bucketStore;
+  private final ObjectStore objectStore;
+  private final MultipartStore multipartStore;
+  private final BucketSeeder bucketSeeder;
+
+  public AdminService(BucketStore bucketStore, ObjectStore objectStore,
+      MultipartStore multipartStore, BucketSeeder bucketSeeder) {
+    this.bucketStore = bucketStore;
+    this.objectStore = objectStore;
+    this.multipartStore = multipartStore;
+    this.bucketSeeder = bucketSeeder;
+  }
+
+  /**
+   * Deletes a bucket including all of its objects and multipart uploads, unlike DeleteBucket
+   * of the S3 API the bucket does not need to be empty.
+   * See {@link BucketStore#purgeBucket(String)}.
+   *
+   * @param bucketName name of the bucket
+   *
+   * @return false if the bucket does not exist.
+   */
+  public boolean deleteBucket(String bucketName) {
+    if (!bucketStore.purgeBucket(bucketName)) {
+      return false;
+    }
+    multipartStore.unregisterUploads(bucketName);
+    return true;
+  }
+
+  /**
+   * Deletes all buckets, objects and multipart uploads and creates and seeds the initial buckets
+   * again, without restarting S3Mock. Snapshots are kept.
+   */
+  public void reset() {
+    bucketStore.reset(() -> {
+      objectStore.clearLocks();
+      bucketSeeder.seed();
+      multipartStore.reloadMultipartUploads();
+    });
+  }
+
+  /**
+   * Stores the current state of all buckets, objects and multipart uploads under a name.
+   * See {@link BucketStore#createSnapshot(String)}.
+   *
+   * @param name name of the snapshot, an existing snapshot with this name is replaced.
+   */
+  public void createSnapshot(String name) {
+    verifySnapshotName(name);
+    bucketStore.createSnapshot(name);
+  }
+
+  /**
+   * Replaces all buckets, objects and multipart uploads with the state stored in a snapshot.
+   * See {@link BucketStore#restoreSnapshot(String, Runnable)}.
+   *
+   * @param name name of the snapshot
+   *
+   * @throws S3Exception NO_SUCH_SNAPSHOT if the snapshot does not exist.
+   */
+  public void restoreSnapshot(String name) {
+    verifySnapshotName(name);
+    // uploads are reloaded before other admin requests can change the buckets again.
+    if (!bucketStore.restoreSnapshot(name, multipartStore::reloadMultipartUploads)) {
+      throw NO_SUCH_SNAPSHOT;
+    }
+  }
+
+  /**
+   * Deletes a snapshot.
+   *
+   * @param name name of the snapshot
+   *
+   * @throws S3Exception NO_SUCH_SNAPSHOT if the snapshot does not exist.
+   */
+  public void deleteSnapshot(String name) {
+    verifySnapshotName(name);
+    if (!bucketStore.deleteSnapshot(name)) {
+      throw NO_SUCH_SNAPSHOT;
+    }
+  }
+
+  /**
+   * Writes the objects of a bucket as tar archive.
+   * The objects are read one after the other. The data files of each object are linked while its
+   * lock is held, then the data is streamed from the links to the archive without holding the
+   * lock, see {@link ObjectStore#linkS3Object(BucketMetadata, UUID, Path)}.
+   * Entry names are the object keys, the object metadata is stored in the PAX
+   * header {@value com.adobe.testing.s3mock.store.BucketSeeder#METADATA_PAX_HEADER} of each entry.
+   * The archive can be used to seed a bucket, see
+   * {@link com.adobe.testing.s3mock.store.BucketSeeder}.
+   *
+   * @param bucketName the bucket to export
+   * @param prefix only objects with keys starting with this prefix are exported. Optional.
+   * @param outputStream target of the archive, will not be closed.
+   */
+  public void exportBucket(String bucketName, String prefix, OutputStream outputStream)
+      throws IOException {
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    String normalizedPrefix = prefix == null ? "" : prefix;
+    TarArchiveOutputStream tarStream = new TarArchiveOutputStream(outputStream);
+    tarStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+    tarStream.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+    Path exportFolder = bucketStore.createTempFolder("export");
+    try {
+      for (Map.Entry<String, UUID> entry
+          : bucketMetadata.getObjects().tailMap(normalizedPrefix, true).entrySet()) {
+        if (!entry.getKey().startsWith(normalizedPrefix)) {
+          break;
+        }
+        // the entry size is written first, the linked data does not change while it is written.
+        Path objectFolder = exportFolder.resolve(entry.getValue().toString());
+        S3ObjectMetadata s3ObjectMetadata =
+            objectStore.linkS3Object(bucketMetadata, entry.getValue(), objectFolder);
+        if (s3ObjectMetadata != null) {
+          try {
+            writeEntry(tarStream, s3ObjectMetadata);
+          } finally {
+            FileUtils.deleteQuietly(objectFolder.toFile());
+          }
+        }
+      }
+    } finally {
+      bucketStore.deleteTempFolder(exportFolder);
+    }
+    // finish the archive without closing the response.
+    tarStream.finish();
+    tarStream.flush();
+  }
+
+  private static void verifySnapshotName(String name) {
+    if (!BucketStore.isValidSnapshotName(name)) {
+      throw INVALID_SNAPSHOT_NAME;
+    }
+  }
+
+  private void writeEntry(TarArchiveOutputStream tarStream, S3ObjectMetadata s3ObjectMetadata)
+      throws IOException {
+    TarArchiveEntry tarEntry = new TarArchiveEntry(s3ObjectMetadata.getKey(), true);
+    tarEntry.setSize(dataSize(s3ObjectMetadata));
+    tarEntry.setModTime(new Date(s3ObjectMetadata.getLastModified()));
+    tarEntry.addPaxHeader(METADATA_PAX_HEADER,
+        objectStore.exportS3ObjectMetadata(s3ObjectMetadata));
+    tarStream.putArchiveEntry(tarEntry);
+    try (InputStream inputStream = newInputStream(s3ObjectMetadata)) {
+      IOUtils.copy(inputStream, tarStream);
+    }
+    tarStream.closeArchiveEntry();
+  }
+}
@@ -19,6 +19,7 @@ package com.adobe.testing.s3mock.service;
 import static com.adobe.testing.s3mock.S3Exception.BUCKET_ALREADY_EXISTS;
 import static com.adobe.testing.s3mock.S3Exception.BUCKET_NOT_EMPTY;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_BUCKET_NAME;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_CONTINUATION_TOKEN;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_ENCODINGTYPE;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_MAXKEYS;
 import static com.adobe.testing.s3mock.S3Exception.NOT_FOUND_BUCKET_OBJECT_LOCK;
@@ -29,6 +30,7 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 import static software.amazon.awssdk.utils.http.SdkHttpUtils.urlEncodeIgnoreSlashes;
 
+import com.adobe.testing.s3mock.S3Exception;
 import com.adobe.testing.s3mock.dto.Bucket;
 import com.adobe.testing.s3mock.dto.BucketLifecycleConfiguration;
 import com.adobe.testing.s3mock.dto.ListAllMyBucketsResult;
@@ -38,20 +40,29 @@ import com.adobe.testing.s3mock.dto.ObjectLockConfiguration;
 import com.adobe.testing.s3mock.dto.S3Object;
 import com.adobe.testing.s3mock.store.BucketMetadata;
 import com.adobe.testing.s3mock.store.BucketStore;
+import com.adobe.testing.s3mock.store.ListingAttributes;
 import com.adobe.testing.s3mock.store.ObjectStore;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.adobe.testing.s3mock.util.MappedCollection;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import software.amazon.awssdk.utils.http.SdkHttpUtils;
 
 public class BucketService {
-  private final Map<String, String> listObjectsPagingStateCache = new ConcurrentHashMap<>();
+  private static final String CONTINUATION_TOKEN_VERSION = "1";
+  /**
+   * Separates the fields of a continuation token, XML 1.0 does not allow this character in keys.
+   */
+  private static final String TOKEN_SEPARATOR = "\u0000";
   private final BucketStore bucketStore;
   private final ObjectStore objectStore;
 
@@ -166,9 +177,8 @@ public class BucketService {
       Integer maxKeys,
       String continuationToken) {
 
-    List<S3Object> contents = getS3Objects(bucketName, prefix);
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
     String nextContinuationToken = null;
-    boolean isTruncated = false;
 
     /*
       Start-after is valid only in first request.
@@ -176,42 +186,36 @@ public class BucketService {
       you can specify this parameter along with the continuation-token parameter,
       and then Amazon S3 ignores this parameter.
      */
+    String continueAfter = startAfter;
     if (continuationToken != null) {
-      String continueAfter = listObjectsPagingStateCache.get(continuationToken);
-      contents = filterObjectsBy(contents, continueAfter);
-      listObjectsPagingStateCache.remove(continuationToken);
-    } else {
-      contents = filterObjectsBy(contents, startAfter);
+      continueAfter = decodeContinuationToken(continuationToken, bucketName, prefix, delimiter);
     }
 
-    List<String> commonPrefixes = collapseCommonPrefixes(prefix, delimiter, contents);
-    contents = filterObjectsBy(contents, commonPrefixes);
+    ListingPage page = walkKeyIndex(bucketMetadata.getObjects(), prefix, delimiter,
+        continueAfter, maxKeys);
 
-    if (contents.size() > maxKeys) {
-      isTruncated = true;
-      nextContinuationToken = UUID.randomUUID().toString();
-      contents = contents.subList(0, maxKeys);
-      listObjectsPagingStateCache.put(nextContinuationToken,
-          contents.get(maxKeys - 1).getKey());
+    if (page.isTruncated()) {
+      String lastKey = page.getLastKey() != null ? page.getLastKey() : continueAfter;
+      nextContinuationToken = encodeContinuationToken(bucketName, prefix, delimiter, lastKey);
     }
 
+    List<S3Object> contents = loadS3Objects(bucketMetadata, page);
     String returnPrefix = prefix;
     String returnStartAfter = startAfter;
-    List<String> returnCommonPrefixes = commonPrefixes;
+    Collection<S3Object> returnContents = contents;
+    Collection<String> returnCommonPrefixes = page.getCommonPrefixes();
 
     if (Objects.equals("url", encodingType)) {
-      contents = apply(contents, (object) -> {
-        object.setKey(urlEncodeIgnoreSlashes(object.getKey()));
-        return object;
-      });
+      returnContents = MappedCollection.map(contents, BucketService::urlEncodeKey);
       returnPrefix = urlEncodeIgnoreSlashes(prefix);
       returnStartAfter = urlEncodeIgnoreSlashes(startAfter);
-      returnCommonPrefixes = apply(commonPrefixes, SdkHttpUtils::urlEncodeIgnoreSlashes);
+      returnCommonPrefixes =
+          MappedCollection.map(page.getCommonPrefixes(), SdkHttpUtils::urlEncodeIgnoreSlashes);
     }
 
     return new ListBucketResultV2(bucketName, returnPrefix, maxKeys,
-        isTruncated, contents, returnCommonPrefixes,
-        continuationToken, String.valueOf(contents.size()),
+        page.isTruncated(), returnContents, returnCommonPrefixes,
+        continuationToken, String.valueOf(contents.size() + page.getCommonPrefixes().size()),
         nextContinuationToken, returnStartAfter, encodingType);
   }
 
@@ -222,36 +226,25 @@ public class BucketService {
     verifyMaxKeys(maxKeys);
     verifyEncodingType(encodingType);
 
-    List<S3Object> contents = getS3Objects(bucketName, prefix);
-    contents = filterObjectsBy(contents, marker);
-
-    boolean isTruncated = false;
-    String nextMarker = null;
-
-    List<String> commonPrefixes = collapseCommonPrefixes(prefix, delimiter, contents);
-    contents = filterObjectsBy(contents, commonPrefixes);
-    if (maxKeys < contents.size()) {
-      contents = contents.subList(0, maxKeys);
-      isTruncated = true;
-      if (maxKeys > 0) {
-        nextMarker = contents.get(maxKeys - 1).getKey();
-      }
-    }
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    ListingPage page = walkKeyIndex(bucketMetadata.getObjects(), prefix, delimiter, marker,
+        maxKeys);
+    String nextMarker = page.isTruncated() ? page.getLastKey() : null;
 
+    List<S3Object> contents = loadS3Objects(bucketMetadata, page);
     String returnPrefix = prefix;
-    List<String> returnCommonPrefixes = commonPrefixes;
+    Collection<S3Object> returnContents = contents;
+    Collection<String> returnCommonPrefixes = page.getCommonPrefixes();
 
     if (Objects.equals("url", encodingType)) {
-      contents = apply(contents, (object) -> {
-        object.setKey(urlEncodeIgnoreSlashes(object.getKey()));
-        return object;
-      });
+      returnContents = MappedCollection.map(contents, BucketService::urlEncodeKey);
       returnPrefix = urlEncodeIgnoreSlashes(prefix);
-      returnCommonPrefixes = apply(commonPrefixes, SdkHttpUtils::urlEncodeIgnoreSlashes);
+      returnCommonPrefixes =
+          MappedCollection.map(page.getCommonPrefixes(), SdkHttpUtils::urlEncodeIgnoreSlashes);
     }
 
-    return new ListBucketResult(bucketName, returnPrefix, marker, maxKeys, isTruncated,
-        encodingType, nextMarker, contents, returnCommonPrefixes);
+    return new ListBucketResult(bucketName, returnPrefix, marker, maxKeys, page.isTruncated(),
+        encodingType, nextMarker, returnContents, returnCommonPrefixes);
   }
 
   public void verifyBucketExists(String bucketName) {
@@ -301,69 +294,201 @@ public class BucketService {
 
 
   /**
-   * Collapse all bucket elements with keys starting with some prefix up to the given delimiter into
-   * one prefix entry. Collapsed elements are removed from the contents list.
+   * Creates the continuation token of a truncated ListObjectsV2 page.
+   * The token contains the key to resume the listing after, together with the parameters of the
+   * listing, so that no paging state needs to be kept on the server. Resuming the listing is a
+   * seek in the sorted key index.
+   *
+   * @param bucketName the listed bucket
+   * @param prefix the key prefix as specified in the list request
+   * @param delimiter the delimiter as specified in the list request
+   * @param resumeKey key or common prefix to continue the listing after
+   *
+   * @return the opaque, URL safe token
+   */
+  static String encodeContinuationToken(String bucketName, String prefix, String delimiter,
+      String resumeKey) {
+    String token = String.join(TOKEN_SEPARATOR, CONTINUATION_TOKEN_VERSION, bucketName,
+        Objects.toString(prefix, ""), Objects.toString(delimiter, ""),
+        Objects.toString(resumeKey, ""));
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a continuation token created by
+   * {@link #encodeContinuationToken(String, String, String, String)}.
+   *
+   * @return the key or common prefix to continue the listing after
+   *
+   * @throws S3Exception if the token is malformed or was created for a different listing.
+   */
+  static String decodeContinuationToken(String continuationToken, String bucketName,
+      String prefix, String delimiter) {
+    String[] fields;
+    try {
+      fields = new String(Base64.getUrlDecoder().decode(continuationToken),
+          StandardCharsets.UTF_8).split(TOKEN_SEPARATOR, -1);
+    } catch (IllegalArgumentException e) {
+      throw INVALID_CONTINUATION_TOKEN;
+    }
+    if (fields.length != 5
+        || !CONTINUATION_TOKEN_VERSION.equals(fields[0])
+        || !fields[1].equals(bucketName)
+        || !fields[2].equals(Objects.toString(prefix, ""))
+        || !fields[3].equals(Objects.toString(delimiter, ""))) {
+      throw INVALID_CONTINUATION_TOKEN;
+    }
+    return fields[4];
+  }
+
+  /**
+   * Walks the sorted key index of a bucket to collect one page of a listing.
    * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListObjectsV2.html">API Reference</a>
    *
-   * @param queryPrefix the key prefix as specified in the list request
+   * <p>Keys containing the delimiter after the prefix are rolled up into a common prefix. Once a
+   * common prefix is collected, the walk seeks directly to the first key after all keys starting
+   * with that prefix, so the keys below a common prefix are never visited.
+   * Keys and common prefixes both count against maxKeys.</p>
+   *
+   * @param index the sorted key index of the bucket
+   * @param prefix the key prefix as specified in the list request
    * @param delimiter the delimiter used to separate a prefix from the rest of the object name
-   * @param s3Objects the list of objects to use for collapsing the prefixes
+   * @param startAfter key or common prefix to start listing after
+   * @param maxKeys maximum number of keys and common prefixes to collect
    */
-  static List<String> collapseCommonPrefixes(String queryPrefix, String delimiter,
-      List<S3Object> s3Objects) {
-    List<String> commonPrefixes = new ArrayList<>();
-    if (isEmpty(delimiter)) {
-      return commonPrefixes;
+  static ListingPage walkKeyIndex(NavigableMap<String, UUID> index, String prefix,
+      String delimiter, String startAfter, int maxKeys) {
+    String normalizedPrefix = prefix == null ? "" : prefix;
+    ListingPage page = new ListingPage();
+
+    Map.Entry<String, UUID> entry;
+    if (isNotEmpty(startAfter) && startAfter.compareTo(normalizedPrefix) >= 0) {
+      if (startAfter.equals(commonPrefix(startAfter, normalizedPrefix, delimiter))) {
+        // continue after a common prefix returned by a previous page.
+        entry = seekAfter(index, startAfter);
+      } else {
+        entry = index.higherEntry(startAfter);
+      }
+    } else {
+      entry = index.ceilingEntry(normalizedPrefix);
     }
 
-    String normalizedQueryPrefix = queryPrefix == null ? "" : queryPrefix;
-
-    for (S3Object c : s3Objects) {
-      String key = c.getKey();
-      if (key.startsWith(normalizedQueryPrefix)) {
-        int delimiterIndex = key.indexOf(delimiter, normalizedQueryPrefix.length());
-        if (delimiterIndex > 0) {
-          String commonPrefix = key.substring(0, delimiterIndex + delimiter.length());
-          if (!commonPrefixes.contains(commonPrefix)) {
-            commonPrefixes.add(commonPrefix);
-          }
-        }
+    while (entry != null && entry.getKey().startsWith(normalizedPrefix)) {
+      if (page.size() >= maxKeys) {
+        page.truncated = true;
+        break;
+      }
+      String key = entry.getKey();
+      String commonPrefix = commonPrefix(key, normalizedPrefix, delimiter);
+      if (commonPrefix != null) {
+        page.commonPrefixes.add(commonPrefix);
+        page.lastKey = commonPrefix;
+        entry = seekAfter(index, commonPrefix);
+      } else {
+        page.entries.add(entry);
+        page.lastKey = key;
+        entry = index.higherEntry(key);
       }
     }
-    return commonPrefixes;
+    return page;
   }
 
-  private static <T> List<T> apply(List<T> contents, Function<T, T> extractor) {
-    return contents
-        .stream()
-        .map(extractor)
-        .collect(Collectors.toList());
+  /**
+   * Returns the common prefix the key is rolled up into, or null if the key does not contain the
+   * delimiter after the prefix.
+   */
+  private static String commonPrefix(String key, String prefix, String delimiter) {
+    if (isEmpty(delimiter) || !key.startsWith(prefix)) {
+      return null;
+    }
+    int delimiterIndex = key.indexOf(delimiter, prefix.length());
+    if (delimiterIndex < 0) {
+      return null;
+    }
+    return key.substring(0, delimiterIndex + delimiter.length());
   }
 
-  static List<S3Object> filterObjectsBy(List<S3Object> s3Objects,
-      String startAfter) {
-    if (isNotEmpty(startAfter)) {
-      return s3Objects
-          .stream()
-          .filter(p -> p.getKey().compareTo(startAfter) > 0)
-          .collect(Collectors.toList());
-    } else {
-      return s3Objects;
+  /**
+   * Seeks to the first entry whose key does not start with the given prefix and is greater than
+   * the prefix, e.g. for "a/" the first key greater or equal to "a0".
+   */
+  private static Map.Entry<String, UUID> seekAfter(NavigableMap<String, UUID> index,
+      String prefix) {
+    int i = prefix.length() - 1;
+    while (i >= 0 && prefix.charAt(i) == Character.MAX_VALUE) {
+      i--;
     }
+    if (i < 0) {
+      return null;
+    }
+    return index.ceilingEntry(prefix.substring(0, i) + (char) (prefix.charAt(i) + 1));
   }
 
-  static List<S3Object> filterObjectsBy(List<S3Object> s3Objects,
-      List<String> commonPrefixes) {
-    if (commonPrefixes != null && !commonPrefixes.isEmpty()) {
-      return s3Objects
-          .stream()
-          .filter(c -> commonPrefixes
-              .stream()
-              .noneMatch(p -> c.getKey().startsWith(p))
-          )
-          .collect(Collectors.toList());
-    } else {
-      return s3Objects;
+  /**
+   * Loads the objects of a listing page, only the keys of the page are read.
+   * Objects are created from the listing attributes stored in the key index. Only if those are
+   * missing, the metadata files are read.
+   * Keys whose metadata is missing, e.g. because the object was just deleted, are skipped.
+   */
+  private List<S3Object> loadS3Objects(BucketMetadata bucketMetadata, ListingPage page) {
+    List<S3Object> s3Objects = new ArrayList<>(page.getEntries().size());
+    for (Map.Entry<String, UUID> entry : page.getEntries()) {
+      ListingAttributes listingAttributes = bucketMetadata.getListingAttributes(entry.getKey());
+      if (listingAttributes != null) {
+        s3Objects.add(S3Object.from(entry.getKey(), listingAttributes));
+        continue;
+      }
+      S3ObjectMetadata s3ObjectMetadata =
+          objectStore.getS3ObjectMetadata(bucketMetadata, entry.getValue());
+      if (s3ObjectMetadata != null) {
+        s3Objects.add(S3Object.from(s3ObjectMetadata));
+      }
+    }
+    return s3Objects;
+  }
+
+  /**
+   * Url encodes the key of the object. Listings encode the keys while the response is written,
+   * a copy is returned so that repeated iterations do not encode the key twice.
+   */
+  private static S3Object urlEncodeKey(S3Object s3Object) {
+    return new S3Object(urlEncodeIgnoreSlashes(s3Object.getKey()),
+        s3Object.getLastModified(), s3Object.getEtag(), s3Object.getSize(),
+        s3Object.getStorageClass(), s3Object.getOwner());
+  }
+
+  /**
+   * One page of a listing, collected by
+   * {@link #walkKeyIndex(NavigableMap, String, String, String, int)}.
+   */
+  static final class ListingPage {
+    private final List<Map.Entry<String, UUID>> entries = new ArrayList<>();
+    private final List<String> commonPrefixes = new ArrayList<>();
+    private boolean truncated;
+    private String lastKey;
+
+    List<Map.Entry<String, UUID>> getEntries() {
+      return entries;
+    }
+
+    List<String> getCommonPrefixes() {
+      return commonPrefixes;
+    }
+
+    boolean isTruncated() {
+      return truncated;
+    }
+
+    /**
+     * Key or common prefix collected last, null if the page is empty.
+     */
+    String getLastKey() {
+      return lastKey;
+    }
+
+    int size() {
+      return entries.size() + commonPrefixes.size();
     }
   }
 }
@@ -20,9 +20,11 @@ import static com.adobe.testing.s3mock.S3Exception.ENTITY_TOO_SMALL;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_PART;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_NUMBER;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_ORDER;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_MAXUPLOADS;
 import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_UPLOAD_MULTIPART;
 
 import com.adobe.testing.s3mock.S3Exception;
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.CompleteMultipartUploadResult;
 import com.adobe.testing.s3mock.dto.CompletedPart;
 import com.adobe.testing.s3mock.dto.CopyPartResult;
@@ -36,7 +38,10 @@ import com.adobe.testing.s3mock.dto.Range;
 import com.adobe.testing.s3mock.store.BucketMetadata;
 import com.adobe.testing.s3mock.store.BucketStore;
 import com.adobe.testing.s3mock.store.MultipartStore;
+import com.adobe.testing.s3mock.store.ObjectStore;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -52,10 +57,13 @@ public class MultipartService {
   static final Long MINIMUM_PART_SIZE = 5L * 1024L * 1024L;
   private final BucketStore bucketStore;
   private final MultipartStore multipartStore;
+  private final ObjectStore objectStore;
 
-  public MultipartService(BucketStore bucketStore, MultipartStore multipartStore) {
+  public MultipartService(BucketStore bucketStore, MultipartStore multipartStore,
+      ObjectStore objectStore) {
     this.bucketStore = bucketStore;
     this.multipartStore = multipartStore;
+    this.objectStore = objectStore;
   }
 
   /**
@@ -67,6 +75,9 @@ public class MultipartService {
    * @param partNumber                    number of the part to store
    * @param inputStream                   file data to be stored
    * @param useV4ChunkedWithSigningFormat If {@code true}, V4-style signing is enabled.
+   * @param checksumAlgorithm             algorithm of the checksum, may be null.
+   * @param checksum                      the expected checksum. If null, the checksum is expected
+   *                                      as trailer of a chunked upload.
    * @param encryption                    whether to use encryption, and possibly which type
    * @param kmsKeyId                      the ID of the KMS key to use.
    *
@@ -78,6 +89,8 @@ public class MultipartService {
       String partNumber,
       InputStream inputStream,
       boolean useV4ChunkedWithSigningFormat,
+      ChecksumAlgorithm checksumAlgorithm,
+      String checksum,
       String encryption,
       String kmsKeyId) {
     BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
@@ -86,7 +99,7 @@ public class MultipartService {
       return null;
     }
     return multipartStore.putPart(bucketMetadata, uuid, uploadId, partNumber, inputStream,
-        useV4ChunkedWithSigningFormat, encryption, kmsKeyId);
+        useV4ChunkedWithSigningFormat, checksumAlgorithm, checksum, encryption, kmsKeyId);
   }
 
   /**
@@ -146,7 +159,7 @@ public class MultipartService {
     if (id == null) {
       return null;
     }
-    List<Part> parts = multipartStore.getMultipartUploadParts(bucketMetadata, id, uploadId);
+    Collection<Part> parts = multipartStore.listMultipartUploadParts(bucketMetadata, id, uploadId);
     return new ListPartsResult(bucketName, key, uploadId, parts);
   }
 
@@ -191,6 +204,10 @@ public class MultipartService {
 
     String etag = multipartStore
         .completeMultipartUpload(bucketMetadata, key, id, uploadId, parts, encryption, kmsKeyId);
+    S3ObjectMetadata s3ObjectMetadata = objectStore.getS3ObjectMetadata(bucketMetadata, id);
+    if (s3ObjectMetadata != null) {
+      bucketStore.storeListingAttributes(bucketName, s3ObjectMetadata);
+    }
     return new CompleteMultipartUploadResult(location, bucketName, key, etag);
   }
 
@@ -205,18 +222,20 @@ public class MultipartService {
    * @param owner owner of the upload
    * @param initiator initiator of the upload
    * @param userMetadata custom metadata
+   * @param checksumAlgorithm algorithm of the checksums of the parts, may be null.
    *
    * @return upload result
    */
   public InitiateMultipartUploadResult prepareMultipartUpload(String bucketName, String key,
       String contentType, String contentEncoding, String uploadId,
-      Owner owner, Owner initiator, Map<String, String> userMetadata) {
+      Owner owner, Owner initiator, Map<String, String> userMetadata,
+      ChecksumAlgorithm checksumAlgorithm) {
     BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
     UUID id = bucketStore.addToBucket(key, bucketName);
 
     try {
       multipartStore.prepareMultipartUpload(bucketMetadata, key, id, contentType, contentEncoding,
-          uploadId, owner, initiator, userMetadata);
+          uploadId, owner, initiator, userMetadata, checksumAlgorithm);
       return new InitiateMultipartUploadResult(bucketName, key, uploadId);
     } catch (Exception e) {
       LOG.error("Could prepare Multipart Upload. bucket={}, key={}, id={}, uploadId={}",
@@ -232,21 +251,32 @@ public class MultipartService {
    *
    * @param bucketName the bucket to use as a filter
    * @param prefix the prefix use as a filter
+   * @param keyMarker the key to start listing after
+   * @param uploadIdMarker together with the keyMarker, the upload to start listing after
+   * @param maxUploads maximum number of uploads to return
    *
    * @return the list of not-yet completed multipart uploads.
    */
-  public ListMultipartUploadsResult listMultipartUploads(String bucketName, String prefix) {
+  public ListMultipartUploadsResult listMultipartUploads(String bucketName, String prefix,
+      String keyMarker, String uploadIdMarker, Integer maxUploads) {
 
+    // one more upload than requested tells if the listing is truncated.
+    int limit = maxUploads == Integer.MAX_VALUE ? maxUploads : maxUploads + 1;
     List<MultipartUpload> multipartUploads =
-        multipartStore.listMultipartUploads(bucketName, prefix);
+        multipartStore.listMultipartUploads(bucketName, prefix, keyMarker, uploadIdMarker, limit);
 
-    // the result contains all uploads, use some common value as default
-    int maxUploads = Math.max(1000, multipartUploads.size());
     boolean isTruncated = false;
-    String uploadIdMarker = null;
     String nextUploadIdMarker = null;
-    String keyMarker = null;
     String nextKeyMarker = null;
+    if (multipartUploads.size() > maxUploads) {
+      isTruncated = true;
+      multipartUploads = multipartUploads.subList(0, maxUploads);
+      if (maxUploads > 0) {
+        MultipartUpload last = multipartUploads.get(maxUploads - 1);
+        nextKeyMarker = last.getKey();
+        nextUploadIdMarker = last.getUploadId();
+      }
+    }
 
     // delimiter / prefix search not supported
     String delimiter = null;
@@ -257,6 +287,12 @@ public class MultipartService {
         commonPrefixes);
   }
 
+  public void verifyMaxUploads(Integer maxUploads) {
+    if (maxUploads < 0) {
+      throw INVALID_REQUEST_MAXUPLOADS;
+    }
+  }
+
   public void verifyPartNumberLimits(String partNumberString) {
     int partNumber;
     try {
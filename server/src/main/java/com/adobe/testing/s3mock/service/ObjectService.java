@@ -17,15 +17,18 @@
 package com.adobe.testing.s3mock.service;
 
 import static com.adobe.testing.s3mock.S3Exception.BAD_REQUEST_MD5;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_NUMBER;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_NUMBER_NOT_SATISFIABLE;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_RETAINDATE;
 import static com.adobe.testing.s3mock.S3Exception.NOT_FOUND_OBJECT_LOCK;
 import static com.adobe.testing.s3mock.S3Exception.NOT_MODIFIED;
 import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_KEY;
 import static com.adobe.testing.s3mock.S3Exception.PRECONDITION_FAILED;
-import static com.adobe.testing.s3mock.util.HeaderUtil.isV4ChunkedWithSigningEnabled;
+import static com.adobe.testing.s3mock.util.HeaderUtil.isChunkedEncoding;
 
 import com.adobe.testing.s3mock.S3Exception;
 import com.adobe.testing.s3mock.dto.AccessControlPolicy;
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.CopyObjectResult;
 import com.adobe.testing.s3mock.dto.Delete;
 import com.adobe.testing.s3mock.dto.DeleteResult;
@@ -39,6 +42,7 @@ import com.adobe.testing.s3mock.store.BucketMetadata;
 import com.adobe.testing.s3mock.store.BucketStore;
 import com.adobe.testing.s3mock.store.ObjectStore;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.adobe.testing.s3mock.store.S3ObjectPart;
 import com.adobe.testing.s3mock.util.AwsChunkedDecodingInputStream;
 import com.adobe.testing.s3mock.util.DigestUtil;
 import java.io.ByteArrayInputStream;
@@ -47,6 +51,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -94,15 +100,28 @@ public class ObjectService {
 
     // source and destination is the same, pretend we copied - S3 does the same.
     if (sourceKey.equals(destinationKey) && sourceBucketName.equals(destinationBucketName)) {
-      return objectStore.pretendToCopyS3Object(sourceBucketMetadata, sourceId, userMetadata);
+      CopyObjectResult copyObjectResult =
+          objectStore.pretendToCopyS3Object(sourceBucketMetadata, sourceId, userMetadata);
+      S3ObjectMetadata copiedObject =
+          objectStore.getS3ObjectMetadata(sourceBucketMetadata, sourceId);
+      if (copiedObject != null) {
+        bucketStore.storeListingAttributes(sourceBucketName, copiedObject);
+      }
+      return copyObjectResult;
     }
 
     // source must be copied to destination
     UUID destinationId = bucketStore.addToBucket(destinationKey, destinationBucketName);
     try {
-      return objectStore.copyS3Object(sourceBucketMetadata, sourceId,
+      CopyObjectResult copyObjectResult = objectStore.copyS3Object(sourceBucketMetadata, sourceId,
           destinationBucketMetadata, destinationId, destinationKey,
           encryption, kmsKeyId, userMetadata);
+      S3ObjectMetadata copiedObject =
+          objectStore.getS3ObjectMetadata(destinationBucketMetadata, destinationId);
+      if (copiedObject != null) {
+        bucketStore.storeListingAttributes(destinationBucketName, copiedObject);
+      }
+      return copyObjectResult;
     } catch (Exception e) {
       //something went wrong with writing the destination file, clean up ID from BucketStore.
       bucketStore.removeFromBucket(destinationKey, destinationBucketName);
@@ -119,6 +138,9 @@ public class ObjectService {
    * @param contentEncoding The files Content Encoding.
    * @param dataStream The File as InputStream.
    * @param useV4ChunkedWithSigningFormat If {@code true}, V4-style signing is enabled.
+   * @param checksumAlgorithm Algorithm of the checksum of the object, may be null.
+   * @param checksum The expected checksum. If null, the checksum is expected as trailer of a
+   *     chunked upload.
    * @param userMetadata User metadata to store for this object, will be available for the
    *     object with the key prefixed with "x-amz-meta-".
    * @param encryption The Encryption Type.
@@ -132,6 +154,8 @@ public class ObjectService {
       String contentEncoding,
       InputStream dataStream,
       boolean useV4ChunkedWithSigningFormat,
+      ChecksumAlgorithm checksumAlgorithm,
+      String checksum,
       Map<String, String> userMetadata,
       String encryption,
       String kmsKeyId,
@@ -142,17 +166,36 @@ public class ObjectService {
     if (id == null) {
       id = bucketStore.addToBucket(key, bucketName);
     }
-    return objectStore.storeS3ObjectMetadata(bucketMetadata, id, key, contentType, contentEncoding,
-        dataStream, useV4ChunkedWithSigningFormat, userMetadata, encryption, kmsKeyId, null, tags,
-        owner);
+    S3ObjectMetadata s3ObjectMetadata = objectStore.storeS3ObjectMetadata(bucketMetadata, id, key,
+        contentType, contentEncoding, dataStream, useV4ChunkedWithSigningFormat,
+        checksumAlgorithm, checksum, userMetadata, encryption, kmsKeyId, null, tags, owner, null);
+    bucketStore.storeListingAttributes(bucketName, s3ObjectMetadata);
+    return s3ObjectMetadata;
   }
 
+  /**
+   * Deletes multiple objects from a bucket.
+   * The object data is deleted first, the keys of all deleted objects are then removed from the
+   * bucket in one update of the key index.
+   * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_DeleteObjects.html">API Reference</a>
+   *
+   * @param bucketName bucket containing the objects.
+   * @param delete the objects to delete. In quiet mode, only errors are returned.
+   *
+   * @return the result of the deletion of each object.
+   */
   public DeleteResult deleteObjects(String bucketName, Delete delete) {
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
     DeleteResult response = new DeleteResult();
+    List<String> deletedKeys = new ArrayList<>();
     for (S3ObjectIdentifier object : delete.getObjectsToDelete()) {
+      UUID id = bucketMetadata.getID(object.getKey());
       try {
-        if (deleteObject(bucketName, object.getKey())) {
-          response.addDeletedObject(DeletedS3Object.from(object));
+        if (id != null && objectStore.deleteObject(bucketMetadata, id)) {
+          deletedKeys.add(object.getKey());
+          if (!delete.isQuiet()) {
+            response.addDeletedObject(DeletedS3Object.from(object));
+          }
         } else {
           //TODO: There may be different error reasons than a non-existent key.
           response.addError(
@@ -170,6 +213,9 @@ public class ObjectService {
         LOG.error("Object could not be deleted!", e);
       }
     }
+    if (!deletedKeys.isEmpty()) {
+      bucketStore.removeFromBucket(deletedKeys, bucketName);
+    }
     return response;
   }
 
@@ -268,12 +314,15 @@ public class ObjectService {
 
   public InputStream verifyMd5(InputStream inputStream, String contentMd5,
       String sha256Header) {
+    if (contentMd5 == null) {
+      return inputStream;
+    }
     ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
     copyTo(inputStream, byteArrayOutputStream);
 
     InputStream stream = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
     try {
-      if (isV4ChunkedWithSigningEnabled(sha256Header)) {
+      if (isChunkedEncoding(sha256Header)) {
         stream = new AwsChunkedDecodingInputStream(stream);
       }
       verifyMd5(stream, contentMd5);
@@ -294,12 +343,21 @@ public class ObjectService {
   }
 
   /**
-   * FOr copy use-cases, we need to return PRECONDITION_FAILED only.
+   * For copy use-cases, we need to return PRECONDITION_FAILED only.
    */
   public void verifyObjectMatchingForCopy(List<String> match, List<String> noneMatch,
       S3ObjectMetadata s3ObjectMetadata) {
+    verifyObjectMatchingForCopy(match, noneMatch, null, null, s3ObjectMetadata);
+  }
+
+  /**
+   * For copy use-cases, we need to return PRECONDITION_FAILED only.
+   * See {@link #verifyObjectMatching(List, List, Instant, Instant, S3ObjectMetadata)}.
+   */
+  public void verifyObjectMatchingForCopy(List<String> match, List<String> noneMatch,
+      Instant modifiedSince, Instant unmodifiedSince, S3ObjectMetadata s3ObjectMetadata) {
     try {
-      verifyObjectMatching(match, noneMatch, s3ObjectMetadata);
+      verifyObjectMatching(match, noneMatch, modifiedSince, unmodifiedSince, s3ObjectMetadata);
     } catch (S3Exception e) {
       if (NOT_MODIFIED.equals(e)) {
         throw PRECONDITION_FAILED;
@@ -311,23 +369,46 @@ public class ObjectService {
 
   public void verifyObjectMatching(List<String> match, List<String> noneMatch,
       S3ObjectMetadata s3ObjectMetadata) {
+    verifyObjectMatching(match, noneMatch, null, null, s3ObjectMetadata);
+  }
+
+  /**
+   * Evaluates the preconditions of a request in the order defined by
+   * <a href="https://www.rfc-editor.org/rfc/rfc7232#section-6">RFC 7232</a>:
+   * If-Match, else If-Unmodified-Since, then If-None-Match, else If-Modified-Since.
+   * HTTP dates have a resolution of seconds, the last modified date of the object is truncated
+   * accordingly.
+   *
+   * @param match etags of If-Match, optional
+   * @param noneMatch etags of If-None-Match, optional
+   * @param modifiedSince date of If-Modified-Since, optional
+   * @param unmodifiedSince date of If-Unmodified-Since, optional
+   * @param s3ObjectMetadata the object
+   *
+   * @throws S3Exception PRECONDITION_FAILED if If-Match or If-Unmodified-Since fail,
+   *     NOT_MODIFIED if If-None-Match or If-Modified-Since fail.
+   */
+  public void verifyObjectMatching(List<String> match, List<String> noneMatch,
+      Instant modifiedSince, Instant unmodifiedSince, S3ObjectMetadata s3ObjectMetadata) {
     if (s3ObjectMetadata != null) {
       String etag = s3ObjectMetadata.getEtag();
+      Instant lastModified = Instant.ofEpochMilli(s3ObjectMetadata.getLastModified())
+          .truncatedTo(ChronoUnit.SECONDS);
       if (match != null) {
-        if (match.contains(WILDCARD_ETAG)) {
-          //request cares only that the object exists
-          return;
-        } else if (!match.contains(etag)) {
+        //wildcard: request cares only that the object exists
+        if (!match.contains(WILDCARD_ETAG) && !match.contains(etag)) {
           throw PRECONDITION_FAILED;
         }
+      } else if (unmodifiedSince != null && lastModified.isAfter(unmodifiedSince)) {
+        throw PRECONDITION_FAILED;
       }
       if (noneMatch != null) {
-        if (noneMatch.contains(WILDCARD_ETAG)) {
-          //request cares only that the object DOES NOT exist.
-          throw NOT_MODIFIED;
-        } else if (noneMatch.contains(etag)) {
+        //wildcard: request cares only that the object DOES NOT exist.
+        if (noneMatch.contains(WILDCARD_ETAG) || noneMatch.contains(etag)) {
           throw NOT_MODIFIED;
         }
+      } else if (modifiedSince != null && !lastModified.isAfter(modifiedSince)) {
+        throw NOT_MODIFIED;
       }
     }
   }
@@ -345,6 +426,72 @@ public class ObjectService {
     return s3ObjectMetadata;
   }
 
+  /**
+   * Verifies that the object exists, like {@link #verifyObjectExists(String, String)}, and opens
+   * it for streaming its data. Data of the object that is replaced in the meantime is kept until
+   * the object is closed with {@link #closeObject(S3ObjectMetadata)}.
+   *
+   * @param bucketName name of the bucket
+   * @param key key of the object
+   *
+   * @return the opened object.
+   */
+  public S3ObjectMetadata openObject(String bucketName, String key) {
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    UUID uuid = bucketMetadata.getID(key);
+    if (uuid == null) {
+      throw NO_SUCH_KEY;
+    }
+    S3ObjectMetadata s3ObjectMetadata = objectStore.openS3Object(bucketMetadata, uuid);
+    if (s3ObjectMetadata == null) {
+      throw NO_SUCH_KEY;
+    }
+    return s3ObjectMetadata;
+  }
+
+  /**
+   * Closes an object opened by {@link #openObject(String, String)}.
+   *
+   * @param s3ObjectMetadata the opened object.
+   */
+  public void closeObject(S3ObjectMetadata s3ObjectMetadata) {
+    objectStore.closeS3Object(s3ObjectMetadata.getId());
+  }
+
+  /**
+   * Looks up a part of an object, as requested by the partNumber parameter of GetObject and
+   * HeadObject. Objects not created by a multipart upload consist of a single part.
+   *
+   * @param s3ObjectMetadata the object
+   * @param partNumber number of the part, starting with 1
+   *
+   * @return the part with its offset and size within the object.
+   */
+  public S3ObjectPart getObjectPart(S3ObjectMetadata s3ObjectMetadata, String partNumber) {
+    int number;
+    try {
+      number = Integer.parseInt(partNumber);
+    } catch (NumberFormatException e) {
+      LOG.error("Part number invalid. partNumber={}", partNumber, e);
+      throw INVALID_PART_NUMBER;
+    }
+    if (number < 1 || number > 10000) {
+      LOG.error("Part number invalid. partNumber={}", partNumber);
+      throw INVALID_PART_NUMBER;
+    }
+    List<S3ObjectPart> parts = s3ObjectMetadata.getParts();
+    if (parts == null || parts.isEmpty()) {
+      if (number != 1) {
+        throw INVALID_PART_NUMBER_NOT_SATISFIABLE;
+      }
+      return new S3ObjectPart(1, 0, Long.parseLong(s3ObjectMetadata.getSize()), null);
+    }
+    if (number > parts.size()) {
+      throw INVALID_PART_NUMBER_NOT_SATISFIABLE;
+    }
+    return parts.get(number - 1);
+  }
+
   public S3ObjectMetadata verifyObjectLockConfiguration(String bucketName, String key) {
     S3ObjectMetadata s3ObjectMetadata = verifyObjectExists(bucketName, key);
     boolean noLegalHold = s3ObjectMetadata.getLegalHold() == null;
@@ -16,6 +16,7 @@
 
 package com.adobe.testing.s3mock.service;
 
+import com.adobe.testing.s3mock.store.BucketSeeder;
 import com.adobe.testing.s3mock.store.BucketStore;
 import com.adobe.testing.s3mock.store.MultipartStore;
 import com.adobe.testing.s3mock.store.ObjectStore;
@@ -25,6 +26,12 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class ServiceConfiguration {
 
+  @Bean
+  AdminService adminService(BucketStore bucketStore, ObjectStore objectStore,
+      MultipartStore multipartStore, BucketSeeder bucketSeeder) {
+    return new AdminService(bucketStore, objectStore, multipartStore, bucketSeeder);
+  }
+
   @Bean
   BucketService bucketService(BucketStore bucketStore, ObjectStore objectStore) {
     return new BucketService(bucketStore, objectStore);
@@ -36,7 +43,8 @@ public class ServiceConfiguration {
   }
 
   @Bean
-  MultipartService multipartService(BucketStore bucketStore, MultipartStore multipartStore) {
-    return new MultipartService(bucketStore, multipartStore);
+  MultipartService multipartService(BucketStore bucketStore, MultipartStore multipartStore,
+      ObjectStore objectStore) {
+    return new MultipartService(bucketStore, multipartStore, objectStore);
   }
 }
@@ -23,7 +23,9 @@ import com.adobe.testing.s3mock.dto.ObjectLockConfiguration;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.UUID;
 
 /**
@@ -39,7 +41,16 @@ public class BucketMetadata {
   private BucketLifecycleConfiguration bucketLifecycleConfiguration;
   private Path path;
 
-  private Map<String, UUID> objects = new HashMap<>();
+  /**
+   * Key index of the bucket, sorted by key so that listings can seek to a key.
+   */
+  private NavigableMap<String, UUID> objects = new TreeMap<>();
+
+  /**
+   * Listing attributes of the objects in the key index, by key.
+   * Keys may be missing, e.g. for objects stored by earlier versions of S3Mock.
+   */
+  private Map<String, ListingAttributes> listing = new HashMap<>();
 
   public BucketLifecycleConfiguration getBucketLifecycleConfiguration() {
     return bucketLifecycleConfiguration;
@@ -83,12 +94,20 @@ public class BucketMetadata {
     this.path = path;
   }
 
-  public Map<String, UUID> getObjects() {
+  public NavigableMap<String, UUID> getObjects() {
     return objects;
   }
 
   public void setObjects(Map<String, UUID> objects) {
-    this.objects = objects;
+    this.objects = new TreeMap<>(objects);
+  }
+
+  public Map<String, ListingAttributes> getListing() {
+    return listing;
+  }
+
+  public void setListing(Map<String, ListingAttributes> listing) {
+    this.listing = listing;
   }
 
   public boolean doesKeyExist(String key) {
@@ -107,6 +126,7 @@ public class BucketMetadata {
 
   public boolean removeKey(String key) {
     UUID removed = this.objects.remove(key);
+    this.listing.remove(key);
     return removed != null;
   }
 
@@ -114,6 +134,23 @@ public class BucketMetadata {
     return this.objects.get(key);
   }
 
+  /**
+   * Stores the listing attributes of an object, if its key exists in the index.
+   *
+   * @return true if the key exists.
+   */
+  public boolean putListingAttributes(String key, ListingAttributes listingAttributes) {
+    if (!doesKeyExist(key)) {
+      return false;
+    }
+    this.listing.put(key, listingAttributes);
+    return true;
+  }
+
+  public ListingAttributes getListingAttributes(String key) {
+    return this.listing.get(key);
+  }
+
   @Override
   public String toString() {
     return "BucketMetadata{"
@@ -136,11 +173,11 @@ public class BucketMetadata {
     return Objects.equals(name, that.name) && Objects.equals(creationDate,
         that.creationDate) && Objects.equals(objectLockConfiguration,
         that.objectLockConfiguration) && Objects.equals(path, that.path)
-        && Objects.equals(objects, that.objects);
+        && Objects.equals(objects, that.objects) && Objects.equals(listing, that.listing);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(name, creationDate, objectLockConfiguration, path, objects);
+    return Objects.hash(name, creationDate, objectLockConfiguration, path, objects, listing);
   }
 }
@@ -0,0 +1,211 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static com.adobe.testing.s3mock.dto.Owner.DEFAULT_OWNER;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads objects from local directories or tar archives into buckets when S3Mock starts.
+ * The objects are written to the {@link ObjectStore} directly instead of being uploaded through
+ * the API, and all objects of a bucket are added to its key index at once.
+ */
+public class BucketSeeder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BucketSeeder.class);
+  /**
+   * PAX header of tar entries containing the {@link S3ObjectMetadata} of the object as JSON.
+   * If present, content type, content encoding, user metadata, encryption and tags of the object
+   * are restored from it.
+   */
+  public static final String METADATA_PAX_HEADER = "S3Mock.metadata";
+  private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+  private static final int SEED_THREADS = Math.min(8, Runtime.getRuntime().availableProcessors());
+
+  private final BucketStore bucketStore;
+  private final ObjectStore objectStore;
+  private final List<String> seedBuckets;
+
+  public BucketSeeder(BucketStore bucketStore, ObjectStore objectStore,
+      List<String> seedBuckets) {
+    this.bucketStore = bucketStore;
+    this.objectStore = objectStore;
+    this.seedBuckets = seedBuckets;
+  }
+
+  /**
+   * Seeds the buckets configured with
+   * {@value com.adobe.testing.s3mock.S3MockApplication#PROP_SEED_BUCKETS}, e.g. on startup and
+   * after all buckets were reset.
+   */
+  public void seed() {
+    seed(seedBuckets);
+  }
+
+  /**
+   * Seeds buckets from a list of sources.
+   *
+   * @param seeds entries in the format "bucketName=path", where path is a directory, a ".tar" or a
+   *     ".tar.gz" / ".tgz" archive.
+   */
+  public void seed(List<String> seeds) {
+    for (String seed : seeds) {
+      int separator = seed.indexOf('=');
+      if (separator < 1 || separator == seed.length() - 1) {
+        throw new IllegalArgumentException(
+            "Seed \"" + seed + "\" does not have the format bucketName=path");
+      }
+      seed(seed.substring(0, separator).trim(), Paths.get(seed.substring(separator + 1).trim()));
+    }
+  }
+
+  /**
+   * Seeds a bucket from a directory or tar archive.
+   * The bucket is created if it does not exist yet, existing objects with the same keys are
+   * replaced. Files of a directory are stored in parallel by a bounded number of seeding threads,
+   * the keys are their paths relative to the directory.
+   *
+   * @param bucketName the bucket to load the objects into
+   * @param source a directory, a ".tar" or a ".tar.gz" / ".tgz" archive.
+   */
+  public void seed(String bucketName, Path source) {
+    final long start = System.nanoTime();
+    if (!bucketStore.doesBucketExist(bucketName)) {
+      bucketStore.createBucket(bucketName, false);
+    }
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    List<S3ObjectMetadata> s3ObjectMetadata;
+    try {
+      s3ObjectMetadata = Files.isDirectory(source)
+          ? seedFromDirectory(bucketMetadata, source)
+          : seedFromTar(bucketMetadata, source);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not seed bucket " + bucketName + " from " + source,
+          e);
+    }
+    bucketStore.addObjectsToBucket(bucketName, s3ObjectMetadata);
+    LOG.info("Seeded {} objects into bucket \"{}\" from \"{}\" in {} ms.",
+        s3ObjectMetadata.size(), bucketName, source,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private List<S3ObjectMetadata> seedFromDirectory(BucketMetadata bucketMetadata,
+      Path directory) throws IOException {
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(directory)) {
+      files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+    // the key index of the bucket is not thread-safe, assign all IDs before storing in parallel.
+    Map<Path, String> keys = files.stream().collect(Collectors.toMap(file -> file,
+        file -> directory.relativize(file).toString().replace(File.separatorChar, '/')));
+    keys.values().forEach(bucketMetadata::addKey);
+    ExecutorService executor = Executors.newFixedThreadPool(SEED_THREADS, runnable -> {
+      Thread thread = new Thread(runnable, "s3mock-seed");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<Future<S3ObjectMetadata>> futures = new ArrayList<>(files.size());
+      for (Path file : files) {
+        futures.add(executor.submit(() -> {
+          try (InputStream inputStream = Files.newInputStream(file)) {
+            return store(bucketMetadata, keys.get(file), inputStream, null);
+          }
+        }));
+      }
+      List<S3ObjectMetadata> s3ObjectMetadata = new ArrayList<>(futures.size());
+      for (Future<S3ObjectMetadata> future : futures) {
+        s3ObjectMetadata.add(future.get());
+      }
+      return s3ObjectMetadata;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while seeding " + directory, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException("Could not seed " + directory, e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<S3ObjectMetadata> seedFromTar(BucketMetadata bucketMetadata, Path archive)
+      throws IOException {
+    List<S3ObjectMetadata> s3ObjectMetadata = new ArrayList<>();
+    String fileName = archive.getFileName().toString();
+    try (InputStream fileStream = new BufferedInputStream(Files.newInputStream(archive));
+        TarArchiveInputStream tarStream = new TarArchiveInputStream(
+            fileName.endsWith(".gz") || fileName.endsWith(".tgz")
+                ? new GzipCompressorInputStream(fileStream) : fileStream)) {
+      TarArchiveEntry entry;
+      while ((entry = tarStream.getNextTarEntry()) != null) {
+        if (entry.isFile()) {
+          String key = entry.getName().replaceFirst("^(\\./|/)+", "");
+          bucketMetadata.addKey(key);
+          String metadata = entry.getExtraPaxHeader(METADATA_PAX_HEADER);
+          // the entries are read from the same stream, which must stay open.
+          s3ObjectMetadata.add(store(bucketMetadata, key, CloseShieldInputStream.wrap(tarStream),
+              metadata == null ? null : objectStore.importS3ObjectMetadata(metadata)));
+        }
+      }
+    }
+    return s3ObjectMetadata;
+  }
+
+  private S3ObjectMetadata store(BucketMetadata bucketMetadata, String key,
+      InputStream inputStream, S3ObjectMetadata metadata) {
+    UUID id = bucketMetadata.getID(key);
+    if (metadata != null) {
+      return objectStore.storeS3ObjectMetadata(bucketMetadata, id, key,
+          metadata.getContentType(), metadata.getContentEncoding(), inputStream, false,
+          metadata.getUserMetadata(), metadata.getKmsEncryption(), metadata.getKmsKeyId(), null,
+          metadata.getTags(), metadata.getOwner() != null ? metadata.getOwner() : DEFAULT_OWNER);
+    }
+    String contentType = URLConnection.guessContentTypeFromName(key);
+    return objectStore.storeS3ObjectMetadata(bucketMetadata, id, key,
+        contentType != null ? contentType : DEFAULT_CONTENT_TYPE, null, inputStream, false,
+        Collections.emptyMap(), null, null, null, null, DEFAULT_OWNER);
+  }
+}
@@ -16,6 +16,8 @@
 
 package com.adobe.testing.s3mock.store;
 
+import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_BUCKET;
+
 import com.adobe.testing.s3mock.dto.BucketLifecycleConfiguration;
 import com.adobe.testing.s3mock.dto.ObjectLockConfiguration;
 import com.adobe.testing.s3mock.dto.ObjectLockEnabled;
@@ -23,16 +25,29 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
@@ -48,21 +63,79 @@ public class BucketStore {
   /**
    * This map stores one lock object per Bucket name.
    * Any method modifying the underlying file must aquire the lock object before the modification.
+   * Admin operations hold the lock of each bucket while its whole folder is moved or linked.
+   */
+  private final Map<String, Lock> lockStore = new ConcurrentHashMap<>();
+  /**
+   * Held while all buckets are replaced or copied, e.g. by {@link #reset(Runnable)} or snapshots.
    */
-  private static final Map<String, Object> lockStore = new ConcurrentHashMap<>();
+  private final Lock adminLock = new ReentrantLock();
   private static final String BUCKET_META_FILE = "bucketMetadata";
+  /**
+   * Folder below the root folder that deleted buckets are moved to until their files are deleted.
+   * Underscores are not allowed in bucket names, so this never collides with a bucket.
+   */
+  static final String TRASH_FOLDER = "_trash";
+  /**
+   * Folder below the root folder that snapshots of all buckets are stored in.
+   */
+  static final String SNAPSHOTS_FOLDER = "_snapshots";
+  private static final Pattern SNAPSHOT_NAME_PATTERN = Pattern.compile("[a-zA-Z0-9][\\w.-]*");
+  private static final long RECLAIM_TIMEOUT_SECONDS = 30;
   private final File rootFolder;
   private final boolean retainFilesOnExit;
+  private final List<String> initialBuckets;
   private final DateTimeFormatter s3ObjectDateFormat;
   private final ObjectMapper objectMapper;
+  /**
+   * Deletes the folders of deleted buckets in the background, one after the other, so that
+   * reclaiming large folders does not compete with requests for more than one thread.
+   */
+  private final ExecutorService trashReclaimer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "s3mock-trash-reclaimer");
+    thread.setDaemon(true);
+    return thread;
+  });
 
   public BucketStore(File rootFolder, boolean retainFilesOnExit, List<String> initialBuckets,
       DateTimeFormatter s3ObjectDateFormat, ObjectMapper objectMapper) {
     this.rootFolder = rootFolder;
     this.retainFilesOnExit = retainFilesOnExit;
+    this.initialBuckets = initialBuckets;
     this.s3ObjectDateFormat = s3ObjectDateFormat;
     this.objectMapper = objectMapper;
+    // buckets may already exist if S3Mock is started on a retained root folder.
+    findBucketPaths().forEach(path ->
+        lockStore.putIfAbsent(path.getFileName().toString(), new ReentrantLock()));
     initialBuckets.forEach(bucketName -> this.createBucket(bucketName, false));
+    // buckets deleted before a restart on a retained root folder may not have been reclaimed.
+    findTrashPaths().forEach(this::reclaim);
+  }
+
+  /**
+   * Waits for the folders of deleted buckets to be deleted and stops reclaiming.
+   * Unless files are retained, the buckets and snapshots are deleted, buckets restored from a
+   * snapshot are not registered for deletion on exit file by file.
+   * Called by Spring when the application context is closed.
+   */
+  public void shutdown() {
+    trashReclaimer.shutdown();
+    try {
+      if (!trashReclaimer.awaitTermination(RECLAIM_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOG.warn("Folders of deleted buckets were not deleted within {} seconds.",
+            RECLAIM_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!retainFilesOnExit) {
+      findBucketPaths().forEach(bucketPath -> FileUtils.deleteQuietly(bucketPath.toFile()));
+      FileUtils.deleteQuietly(getSnapshotsFolderPath().toFile());
+    }
+    File trashFolder = getTrashFolderPath().toFile();
+    if (!retainFilesOnExit && !trashFolder.delete() && trashFolder.exists()) {
+      LOG.warn("Could not delete trash folder {}", trashFolder);
+    }
   }
 
   /**
@@ -91,8 +164,11 @@ public class BucketStore {
       if (!metaFilePath.toFile().exists()) {
         return null;
       }
-      synchronized (lockStore.get(bucketName)) {
+      Lock lock = lockBucket(bucketName);
+      try {
         return objectMapper.readValue(metaFilePath.toFile(), BucketMetadata.class);
+      } finally {
+        lock.unlock();
       }
     } catch (final IOException e) {
       throw new IllegalStateException("Could not read bucket metadata-file " + bucketName, e);
@@ -106,12 +182,60 @@ public class BucketStore {
    * @param bucketName name of the bucket to be retrieved
    * @return UUID assigned to key
    */
-  public synchronized UUID addToBucket(String key, String bucketName) {
-    synchronized (lockStore.get(bucketName)) {
-      BucketMetadata bucketMetadata = getBucketMetadata(bucketName);
+  public UUID addToBucket(String key, String bucketName) {
+    Lock lock = lockBucket(bucketName);
+    try {
+      BucketMetadata bucketMetadata = getExistingBucketMetadata(bucketName);
       UUID uuid = bucketMetadata.addKey(key);
       writeToDisk(bucketMetadata);
       return uuid;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stores the listing attributes of an object in the key index of its bucket.
+   * Must be called whenever an object is stored, so that listings can be answered from the index.
+   *
+   * @param bucketName name of the bucket containing the object
+   * @param s3ObjectMetadata the stored object
+   */
+  public void storeListingAttributes(String bucketName,
+      S3ObjectMetadata s3ObjectMetadata) {
+    Lock lock = lockBucket(bucketName);
+    try {
+      BucketMetadata bucketMetadata = getExistingBucketMetadata(bucketName);
+      if (bucketMetadata.putListingAttributes(s3ObjectMetadata.getKey(),
+          ListingAttributes.from(s3ObjectMetadata))) {
+        writeToDisk(bucketMetadata);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Adds stored objects to a bucket, together with their listing attributes, writing the bucket
+   * metadata once for all objects.
+   * The objects must have been stored with the UUIDs assigned to their keys by
+   * {@link BucketMetadata#addKey(String)}.
+   *
+   * @param bucketName name of the bucket containing the objects
+   * @param s3ObjectMetadata the stored objects
+   */
+  public void addObjectsToBucket(String bucketName,
+      Collection<S3ObjectMetadata> s3ObjectMetadata) {
+    Lock lock = lockBucket(bucketName);
+    try {
+      BucketMetadata bucketMetadata = getExistingBucketMetadata(bucketName);
+      for (S3ObjectMetadata object : s3ObjectMetadata) {
+        bucketMetadata.addKey(object.getKey());
+        bucketMetadata.putListingAttributes(object.getKey(), ListingAttributes.from(object));
+      }
+      writeToDisk(bucketMetadata);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -125,12 +249,16 @@ public class BucketStore {
   public List<UUID> lookupKeysInBucket(String prefix, String bucketName) {
     BucketMetadata bucketMetadata = getBucketMetadata(bucketName);
     String normalizedPrefix = prefix == null ? "" : prefix;
-    return bucketMetadata.getObjects()
-        .entrySet()
-        .stream()
-        .filter(entry -> entry.getKey().startsWith(normalizedPrefix))
-        .map(Map.Entry::getValue)
-        .collect(Collectors.toList());
+    // the index is sorted, all matching keys directly follow the prefix.
+    Map<String, UUID> tail = bucketMetadata.getObjects().tailMap(normalizedPrefix, true);
+    List<UUID> uuids = new ArrayList<>();
+    for (Map.Entry<String, UUID> entry : tail.entrySet()) {
+      if (!entry.getKey().startsWith(normalizedPrefix)) {
+        break;
+      }
+      uuids.add(entry.getValue());
+    }
+    return uuids;
   }
 
   /**
@@ -140,30 +268,67 @@ public class BucketStore {
    * @param bucketName name of the bucket to be retrieved
    * @return true if key existed and was removed
    */
-  public synchronized boolean removeFromBucket(String key, String bucketName) {
-    synchronized (lockStore.get(bucketName)) {
-      BucketMetadata bucketMetadata = getBucketMetadata(bucketName);
+  public boolean removeFromBucket(String key, String bucketName) {
+    Lock lock = lockBucket(bucketName);
+    try {
+      BucketMetadata bucketMetadata = getExistingBucketMetadata(bucketName);
       boolean removed = bucketMetadata.removeKey(key);
       writeToDisk(bucketMetadata);
       return removed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes keys from a bucket, writing the bucket metadata once for all keys.
+   *
+   * @param keys       the keys to remove
+   * @param bucketName name of the bucket to be retrieved
+   * @return the removed keys with the UUIDs they were assigned, keys not found are omitted
+   */
+  public Map<String, UUID> removeFromBucket(Collection<String> keys,
+      String bucketName) {
+    Lock lock = lockBucket(bucketName);
+    try {
+      BucketMetadata bucketMetadata = getExistingBucketMetadata(bucketName);
+      Map<String, UUID> removed = new HashMap<>();
+      for (String key : keys) {
+        UUID uuid = bucketMetadata.getID(key);
+        if (uuid != null && bucketMetadata.removeKey(key)) {
+          removed.put(key, uuid);
+        }
+      }
+      if (!removed.isEmpty()) {
+        writeToDisk(bucketMetadata);
+      }
+      return removed;
+    } finally {
+      lock.unlock();
     }
   }
 
   public void storeObjectLockConfiguration(String bucketName,
       ObjectLockConfiguration configuration) {
-    synchronized (lockStore.get(bucketName)) {
-      BucketMetadata bucketMetadata = getBucketMetadata(bucketName);
+    Lock lock = lockBucket(bucketName);
+    try {
+      BucketMetadata bucketMetadata = getExistingBucketMetadata(bucketName);
       bucketMetadata.setObjectLockConfiguration(configuration);
       writeToDisk(bucketMetadata);
+    } finally {
+      lock.unlock();
     }
   }
 
   public void storeBucketLifecycleConfiguration(String bucketName,
       BucketLifecycleConfiguration configuration) {
-    synchronized (lockStore.get(bucketName)) {
-      BucketMetadata bucketMetadata = getBucketMetadata(bucketName);
+    Lock lock = lockBucket(bucketName);
+    try {
+      BucketMetadata bucketMetadata = getExistingBucketMetadata(bucketName);
       bucketMetadata.setBucketLifecycleConfiguration(configuration);
       writeToDisk(bucketMetadata);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -177,7 +342,10 @@ public class BucketStore {
     try (final DirectoryStream<Path> stream = Files
         .newDirectoryStream(rootFolder.toPath(), Files::isDirectory)) {
       for (final Path path : stream) {
-        bucketPaths.add(path);
+        // folders of the store itself start with an underscore, which bucket names can't contain.
+        if (!path.getFileName().toString().startsWith("_")) {
+          bucketPaths.add(path);
+        }
       }
     } catch (final IOException e) {
       LOG.error("Could not Iterate over Bucket-Folders", e);
@@ -202,8 +370,8 @@ public class BucketStore {
     if (bucketMetadata != null) {
       throw new IllegalStateException("Bucket already exists.");
     }
-    lockStore.putIfAbsent(bucketName, new Object());
-    synchronized (lockStore.get(bucketName)) {
+    Lock lock = lockBucket(bucketName);
+    try {
       final File bucketFolder = createBucketFolder(bucketName);
 
       BucketMetadata newBucketMetadata = new BucketMetadata();
@@ -217,6 +385,8 @@ public class BucketStore {
       }
       writeToDisk(newBucketMetadata);
       return newBucketMetadata;
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -268,38 +438,380 @@ public class BucketStore {
    */
   public boolean deleteBucket(String bucketName) {
     try {
-      synchronized (lockStore.get(bucketName)) {
+      Lock lock = lockBucket(bucketName);
+      try {
         BucketMetadata bucketMetadata = getBucketMetadata(bucketName);
         if (bucketMetadata != null && bucketMetadata.getObjects().isEmpty()) {
-          //TODO: this currently does not work, since we store objects below their prefixes, which
-          // are not deleted when deleting the object, leaving empty directories in the S3Mock
-          // filesystem should be: return Files.deleteIfExists(bucket.getPath())
-          FileUtils.deleteDirectory(bucketMetadata.getPath().toFile());
+          // the bucket is gone as soon as its folder is moved, the files are deleted later.
+          moveToTrash(getBucketFolderPath(bucketName));
           lockStore.remove(bucketName);
           return true;
         } else {
           return false;
         }
+      } finally {
+        lock.unlock();
       }
     } catch (final IOException e) {
-      throw new IllegalStateException("Can't create bucket directory!", e);
+      throw new IllegalStateException("Can't delete bucket directory!", e);
     }
   }
 
+  /**
+   * Deletes a bucket including all of its objects and uploads, e.g. to clean up after a test.
+   * The folder of the bucket is moved out of the way, its files are deleted in the background.
+   *
+   * @param bucketName of the bucket to be deleted.
+   *
+   * @return false if the bucket does not exist.
+   */
+  public boolean purgeBucket(String bucketName) {
+    if (!lockStore.containsKey(bucketName)) {
+      return false;
+    }
+    try {
+      Lock lock = lockBucket(bucketName);
+      try {
+        Path bucketPath = getBucketFolderPath(bucketName);
+        if (!Files.isDirectory(bucketPath)) {
+          lockStore.remove(bucketName);
+          return false;
+        }
+        moveToTrash(bucketPath);
+        lockStore.remove(bucketName);
+        return true;
+      } finally {
+        lock.unlock();
+      }
+    } catch (final IOException e) {
+      throw new IllegalStateException("Can't delete bucket directory!", e);
+    }
+  }
+
+  /**
+   * Deletes all buckets and creates the initial buckets again, as if S3Mock was just started.
+   * The folders of the buckets are moved out of the way, their files are deleted in the
+   * background. Snapshots are kept.
+   *
+   * @param afterReset run after the initial buckets were created, before snapshots can be taken
+   *     or restored again, e.g. to seed buckets.
+   */
+  public void reset(Runnable afterReset) {
+    adminLock.lock();
+    try {
+      try {
+        for (Path bucketPath : findBucketPaths()) {
+          String bucketName = bucketPath.getFileName().toString();
+          Lock lock = lockBucket(bucketName);
+          try {
+            moveToTrash(bucketPath);
+            lockStore.remove(bucketName);
+          } finally {
+            lock.unlock();
+          }
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not delete bucket directories!", e);
+      }
+      initialBuckets.forEach(bucketName -> createBucket(bucketName, false));
+      afterReset.run();
+    } finally {
+      adminLock.unlock();
+    }
+  }
+
+  /**
+   * Stores the current state of all buckets as snapshot, replacing an existing snapshot with the
+   * same name.
+   * Data files of objects and parts are hardlinked into the snapshot instead of being copied, so
+   * the time needed does not depend on the size of the objects. Data files are replaced instead of
+   * being written in place, later changes to the buckets never affect the snapshot. Metadata files
+   * are copied.
+   * Objects stored while the snapshot is taken may or may not be part of it.
+   *
+   * @param name name of the snapshot, must start with a letter or digit and may contain letters,
+   *     digits, '.', '-' and '_'.
+   */
+  public void createSnapshot(String name) {
+    adminLock.lock();
+    try {
+      Path snapshotPath = getSnapshotPath(name);
+      // the temporary name starts with a dot and can never collide with a snapshot.
+      Path tempPath = getSnapshotsFolderPath().resolve("." + name + "-" + UUID.randomUUID());
+      try {
+        Files.createDirectories(tempPath);
+        for (Path bucketPath : findBucketPaths()) {
+          Lock lock = lockBucket(bucketPath.getFileName().toString());
+          try {
+            linkTree(bucketPath, tempPath.resolve(bucketPath.getFileName().toString()));
+          } finally {
+            lock.unlock();
+          }
+        }
+        if (Files.exists(snapshotPath)) {
+          moveToTrash(snapshotPath);
+        }
+        Files.move(tempPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        FileUtils.deleteQuietly(tempPath.toFile());
+        throw new IllegalStateException("Could not create snapshot " + name, e);
+      }
+    } finally {
+      adminLock.unlock();
+    }
+  }
+
+  /**
+   * Replaces all buckets with the buckets of a snapshot.
+   * The folders of the current buckets are moved out of the way and deleted in the background,
+   * the files of the snapshot are linked like in {@link #createSnapshot(String)}, so the snapshot
+   * can be restored any number of times.
+   *
+   * @param name name of the snapshot
+   * @param afterRestore run after the buckets were restored, before snapshots can be taken or
+   *     restored again, e.g. to reload multipart uploads.
+   *
+   * @return false if the snapshot does not exist.
+   */
+  public boolean restoreSnapshot(String name, Runnable afterRestore) {
+    adminLock.lock();
+    try {
+      Path snapshotPath = getSnapshotPath(name);
+      if (!Files.isDirectory(snapshotPath)) {
+        return false;
+      }
+      try {
+        for (Path bucketPath : findBucketPaths()) {
+          String bucketName = bucketPath.getFileName().toString();
+          Lock lock = lockBucket(bucketName);
+          try {
+            moveToTrash(bucketPath);
+            lockStore.remove(bucketName);
+          } finally {
+            lock.unlock();
+          }
+        }
+        try (DirectoryStream<Path> stream =
+            Files.newDirectoryStream(snapshotPath, Files::isDirectory)) {
+          for (Path bucketSnapshotPath : stream) {
+            String bucketName = bucketSnapshotPath.getFileName().toString();
+            Lock lock = lockBucket(bucketName);
+            try {
+              linkTree(bucketSnapshotPath, getBucketFolderPath(bucketName));
+            } finally {
+              lock.unlock();
+            }
+          }
+        }
+        afterRestore.run();
+        return true;
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not restore snapshot " + name, e);
+      }
+    } finally {
+      adminLock.unlock();
+    }
+  }
+
+  /**
+   * Deletes a snapshot, its files are deleted in the background.
+   *
+   * @param name name of the snapshot
+   *
+   * @return false if the snapshot does not exist.
+   */
+  public boolean deleteSnapshot(String name) {
+    adminLock.lock();
+    try {
+      Path snapshotPath = getSnapshotPath(name);
+      if (!Files.isDirectory(snapshotPath)) {
+        return false;
+      }
+      try {
+        moveToTrash(snapshotPath);
+        return true;
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not delete snapshot " + name, e);
+      }
+    } finally {
+      adminLock.unlock();
+    }
+  }
+
+  /**
+   * Copies a folder, linking all data files instead of copying them.
+   */
+  private static void linkTree(Path source, Path target) throws IOException {
+    Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+          throws IOException {
+        Path targetDir = target.resolve(source.relativize(dir).toString());
+        Files.createDirectories(targetDir);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        String fileName = file.getFileName().toString();
+        if (fileName.endsWith(ObjectStore.TEMP_FILE_SUFFIX)) {
+          // incomplete data of an object that is stored right now.
+          return FileVisitResult.CONTINUE;
+        }
+        Path targetFile = target.resolve(source.relativize(file).toString());
+        if (ObjectStore.DATA_FILE.equals(fileName)
+            || fileName.endsWith(MultipartStore.PART_SUFFIX)) {
+          link(file, targetFile);
+        } else {
+          Files.copy(file, targetFile, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  /**
+   * Hardlinks a file, or copies it if the file system does not support hardlinks.
+   */
+  static void link(Path source, Path target) throws IOException {
+    try {
+      Files.createLink(target, source);
+    } catch (UnsupportedOperationException | FileSystemException e) {
+      // the file system does not support hardlinks, fall back to copying the data.
+      Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+  }
+
+  /**
+   * Creates an empty folder on the file system of the buckets, e.g. to link object data into it.
+   * The folder is created in the trash folder, so it is deleted on the next start if it is left
+   * over.
+   *
+   * @param prefix prefix of the folder name
+   *
+   * @return the folder, to be deleted with {@link #deleteTempFolder(Path)}.
+   */
+  public Path createTempFolder(String prefix) throws IOException {
+    Files.createDirectories(getTrashFolderPath());
+    return Files.createTempDirectory(getTrashFolderPath(), prefix + "-");
+  }
+
+  /**
+   * Deletes a folder created by {@link #createTempFolder(String)} in the background.
+   *
+   * @param folder the folder
+   */
+  public void deleteTempFolder(Path folder) {
+    reclaim(folder);
+  }
+
+  private void moveToTrash(Path folder) throws IOException {
+    Path trashPath =
+        getTrashFolderPath().resolve(folder.getFileName() + "-" + UUID.randomUUID());
+    Files.createDirectories(trashPath.getParent());
+    Files.move(folder, trashPath, StandardCopyOption.ATOMIC_MOVE);
+    reclaim(trashPath);
+  }
+
+  private void reclaim(Path trashPath) {
+    trashReclaimer.execute(() -> {
+      try {
+        FileUtils.deleteDirectory(trashPath.toFile());
+      } catch (IOException e) {
+        LOG.error("Could not delete folder {} of deleted bucket.", trashPath, e);
+      }
+    });
+  }
+
+
+  /**
+   * Acquires the lock of a bucket.
+   * Locks are removed when their bucket is deleted, purged, reset or restored, while other threads
+   * may wait for them. A thread that acquired a removed lock retries with the lock currently stored
+   * for the bucket, so that all threads hold the same lock for a bucket.
+   */
+  private Lock lockBucket(String bucketName) {
+    while (true) {
+      Lock lock = lockStore.computeIfAbsent(bucketName, name -> new ReentrantLock());
+      lock.lock();
+      if (lockStore.get(bucketName) == lock) {
+        return lock;
+      }
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Reads the metadata of a bucket while its lock is held, the bucket may have been deleted while
+   * waiting for the lock.
+   */
+  private BucketMetadata getExistingBucketMetadata(String bucketName) {
+    BucketMetadata bucketMetadata = getBucketMetadata(bucketName);
+    if (bucketMetadata == null) {
+      throw NO_SUCH_BUCKET;
+    }
+    return bucketMetadata;
+  }
+
   private void writeToDisk(BucketMetadata bucketMetadata) {
     try {
       File metaFile = getMetaFilePath(bucketMetadata.getName()).toFile();
       if (!retainFilesOnExit) {
         metaFile.deleteOnExit();
       }
-      synchronized (lockStore.get(bucketMetadata.getName())) {
+      Lock lock = lockBucket(bucketMetadata.getName());
+      try {
         objectMapper.writeValue(metaFile, bucketMetadata);
+      } finally {
+        lock.unlock();
       }
     } catch (IOException e) {
       throw new IllegalStateException("Could not write bucket metadata-file", e);
     }
   }
 
+  private List<Path> findTrashPaths() {
+    final List<Path> trashPaths = new ArrayList<>();
+    if (!getTrashFolderPath().toFile().isDirectory()) {
+      return trashPaths;
+    }
+    try (final DirectoryStream<Path> stream = Files.newDirectoryStream(getTrashFolderPath())) {
+      for (final Path path : stream) {
+        trashPaths.add(path);
+      }
+    } catch (final IOException e) {
+      LOG.error("Could not Iterate over folders of deleted buckets", e);
+    }
+    return trashPaths;
+  }
+
+  private Path getTrashFolderPath() {
+    return Paths.get(rootFolder.getPath(), TRASH_FOLDER);
+  }
+
+  private Path getSnapshotsFolderPath() {
+    return Paths.get(rootFolder.getPath(), SNAPSHOTS_FOLDER);
+  }
+
+  /**
+   * Checks if a snapshot name is allowed, names must start with a letter or digit and may contain
+   * letters, digits, '.', '-' and '_'.
+   *
+   * @param name name of the snapshot
+   *
+   * @return true if the name is allowed
+   */
+  public static boolean isValidSnapshotName(String name) {
+    return name != null && SNAPSHOT_NAME_PATTERN.matcher(name).matches();
+  }
+
+  private Path getSnapshotPath(String name) {
+    if (!isValidSnapshotName(name)) {
+      throw new IllegalArgumentException("Invalid snapshot name: " + name);
+    }
+    return getSnapshotsFolderPath().resolve(name);
+  }
+
   private Path getBucketFolderPath(String bucketName) {
     return Paths.get(rootFolder.getPath(), bucketName);
   }
@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import com.adobe.testing.s3mock.dto.StorageClass;
+import java.util.Objects;
+
+/**
+ * Attributes of an object returned by ListObjects, copied from its {@link S3ObjectMetadata}.
+ * Serialized as part of {@link BucketMetadata}, so that listings can be answered from the key
+ * index without reading the metadata file of every object.
+ */
+public class ListingAttributes {
+
+  private String etag;
+
+  private String size;
+
+  private String modificationDate;
+
+  private StorageClass storageClass = StorageClass.STANDARD;
+
+  public ListingAttributes() {
+    // Jackson needs the default constructor for deserialization.
+  }
+
+  public ListingAttributes(String etag, String size, String modificationDate,
+      StorageClass storageClass) {
+    this.etag = etag;
+    this.size = size;
+    this.modificationDate = modificationDate;
+    this.storageClass = storageClass;
+  }
+
+  public static ListingAttributes from(S3ObjectMetadata s3ObjectMetadata) {
+    return new ListingAttributes(s3ObjectMetadata.getEtag(), s3ObjectMetadata.getSize(),
+        s3ObjectMetadata.getModificationDate(), StorageClass.STANDARD);
+  }
+
+  public String getEtag() {
+    return etag;
+  }
+
+  public void setEtag(String etag) {
+    this.etag = etag;
+  }
+
+  public String getSize() {
+    return size;
+  }
+
+  public void setSize(String size) {
+    this.size = size;
+  }
+
+  public String getModificationDate() {
+    return modificationDate;
+  }
+
+  public void setModificationDate(String modificationDate) {
+    this.modificationDate = modificationDate;
+  }
+
+  public StorageClass getStorageClass() {
+    return storageClass;
+  }
+
+  public void setStorageClass(StorageClass storageClass) {
+    this.storageClass = storageClass;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ListingAttributes that = (ListingAttributes) o;
+    return Objects.equals(etag, that.etag) && Objects.equals(size, that.size)
+        && Objects.equals(modificationDate, that.modificationDate)
+        && storageClass == that.storageClass;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(etag, size, modificationDate, storageClass);
+  }
+}
@@ -16,41 +16,55 @@
 
 package com.adobe.testing.s3mock.store;
 
+import static com.adobe.testing.s3mock.store.MultipartUploadInfo.LISTING_ORDER;
+import static com.adobe.testing.s3mock.util.DigestUtil.compositeChecksum;
 import static com.adobe.testing.s3mock.util.DigestUtil.hexDigest;
-import static com.adobe.testing.s3mock.util.DigestUtil.hexDigestMultipart;
+import static com.adobe.testing.s3mock.util.DigestUtil.md5Digest;
 import static java.nio.file.Files.newDirectoryStream;
 import static java.nio.file.Files.newOutputStream;
-import static org.apache.commons.io.FileUtils.openInputStream;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.CompletedPart;
 import com.adobe.testing.s3mock.dto.MultipartUpload;
 import com.adobe.testing.s3mock.dto.Owner;
 import com.adobe.testing.s3mock.dto.Part;
 import com.adobe.testing.s3mock.dto.Range;
+import com.adobe.testing.s3mock.util.ChecksumInputStream;
+import com.adobe.testing.s3mock.util.MappedCollection;
+import com.adobe.testing.s3mock.util.MultipartDigest;
+import com.adobe.testing.s3mock.util.ObjectDataUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.UUID;
 import java.util.Vector;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.BoundedInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,15 +73,34 @@ import org.slf4j.LoggerFactory;
  */
 public class MultipartStore {
   private static final Logger LOG = LoggerFactory.getLogger(MultipartStore.class);
-  private static final String PART_SUFFIX = ".part";
-  private final Map<String, MultipartUploadInfo> uploadIdToInfo = new ConcurrentHashMap<>();
+  static final String PART_SUFFIX = ".part";
+  private static final String CHECKSUM_SUFFIX = ".checksum";
+  private static final String MD5_SUFFIX = ".md5";
+  private static final String UPLOAD_META_FILE = "multipartUploadMetadata";
+  /**
+   * Replaced as a whole when the uploads are reloaded, see {@link #reloadMultipartUploads()}.
+   */
+  private volatile Map<String, MultipartUploadInfo> uploadIdToInfo = new ConcurrentHashMap<>();
+  /**
+   * Uploads per bucket name, sorted in listing order.
+   */
+  private volatile Map<String, NavigableSet<MultipartUploadInfo>> bucketToUploads =
+      new ConcurrentHashMap<>();
 
   private final boolean retainFilesOnExit;
+  private final boolean virtualMultipartObjects;
+  private final File rootFolder;
   private final ObjectStore objectStore;
+  private final ObjectMapper objectMapper;
 
-  public MultipartStore(boolean retainFilesOnExit, ObjectStore objectStore) {
+  public MultipartStore(boolean retainFilesOnExit, boolean virtualMultipartObjects,
+      File rootFolder, ObjectStore objectStore, ObjectMapper objectMapper) {
     this.retainFilesOnExit = retainFilesOnExit;
+    this.virtualMultipartObjects = virtualMultipartObjects;
+    this.rootFolder = rootFolder;
     this.objectStore = objectStore;
+    this.objectMapper = objectMapper;
+    loadMultipartUploads(uploadIdToInfo, bucketToUploads);
   }
 
   /**
@@ -88,6 +121,30 @@ public class MultipartStore {
   public MultipartUpload prepareMultipartUpload(BucketMetadata bucket, String key, UUID id,
       String contentType, String contentEncoding, String uploadId,
       Owner owner, Owner initiator, Map<String, String> userMetadata) {
+    return prepareMultipartUpload(bucket, key, id, contentType, contentEncoding, uploadId, owner,
+        initiator, userMetadata, null);
+  }
+
+  /**
+   * Prepares everything to store an object uploaded in multiple chunks.
+   *
+   * @param bucket in which to upload
+   * @param key object to upload
+   * @param id ID of the object
+   * @param contentType the content type
+   * @param contentEncoding the content encoding
+   * @param uploadId id of the upload
+   * @param owner owner of the upload
+   * @param initiator initiator of the upload
+   * @param userMetadata custom metadata
+   * @param checksumAlgorithm algorithm of the checksums of the parts, may be null.
+   *
+   * @return upload result
+   */
+  public MultipartUpload prepareMultipartUpload(BucketMetadata bucket, String key, UUID id,
+      String contentType, String contentEncoding, String uploadId,
+      Owner owner, Owner initiator, Map<String, String> userMetadata,
+      ChecksumAlgorithm checksumAlgorithm) {
     if (!createPartsFolder(bucket, id, uploadId)) {
       LOG.error("Directories for storing multipart uploads couldn't be created. bucket={}, key={}, "
               + "id={}, uploadId={}", bucket, key, id, uploadId);
@@ -96,8 +153,10 @@ public class MultipartStore {
     }
     MultipartUpload upload =
         new MultipartUpload(key, uploadId, owner, initiator, new Date());
-    uploadIdToInfo.put(uploadId, new MultipartUploadInfo(upload,
-        contentType, contentEncoding, userMetadata, bucket.getName()));
+    MultipartUploadInfo uploadInfo = new MultipartUploadInfo(upload,
+        contentType, contentEncoding, userMetadata, bucket.getName(), id, checksumAlgorithm);
+    writeUploadMetafile(bucket, uploadInfo);
+    register(uploadInfo);
 
     return upload;
   }
@@ -111,12 +170,77 @@ public class MultipartStore {
    * @return the list of not-yet completed multipart uploads.
    */
   public List<MultipartUpload> listMultipartUploads(String bucketName, String prefix) {
-    return uploadIdToInfo.values()
-        .stream()
-        .filter(info -> bucketName == null || bucketName.equals(info.bucket))
-        .filter(info -> isBlank(prefix) || info.upload.getKey().startsWith(prefix))
-        .map(info -> info.upload)
-        .collect(Collectors.toList());
+    if (bucketName == null) {
+      return bucketToUploads.keySet()
+          .stream()
+          .flatMap(name ->
+              listMultipartUploads(name, prefix, null, null, Integer.MAX_VALUE).stream())
+          .collect(Collectors.toList());
+    }
+    return listMultipartUploads(bucketName, prefix, null, null, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Lists not-yet completed multipart uploads in a bucket, sorted by key and initiation date.
+   *
+   * @param bucketName the bucket to list uploads of
+   * @param prefix the prefix use as a filter
+   * @param keyMarker if set, only uploads for keys after this key are returned
+   * @param uploadIdMarker if set together with the keyMarker, uploads for the keyMarker
+   *     initiated after the upload with this id are returned as well
+   * @param maxUploads maximum number of uploads to return
+   *
+   * @return the list of not-yet completed multipart uploads.
+   */
+  public List<MultipartUpload> listMultipartUploads(String bucketName, String prefix,
+      String keyMarker, String uploadIdMarker, int maxUploads) {
+    NavigableSet<MultipartUploadInfo> uploads = bucketToUploads.get(bucketName);
+    List<MultipartUpload> result = new ArrayList<>();
+    if (uploads == null) {
+      return result;
+    }
+    String normalizedPrefix = prefix == null ? "" : prefix;
+    String start = normalizedPrefix;
+    MultipartUploadInfo uploadIdMarkerInfo = null;
+    if (!isBlank(keyMarker)) {
+      if (keyMarker.compareTo(start) >= 0) {
+        start = keyMarker;
+      }
+      if (!isBlank(uploadIdMarker)) {
+        uploadIdMarkerInfo = uploadIdToInfo.get(uploadIdMarker);
+      }
+    }
+    MultipartUploadInfo from =
+        new MultipartUploadInfo(new MultipartUpload(start, "", null, null, new Date(0)),
+            null, null, null, bucketName, null, null);
+    for (MultipartUploadInfo info : uploads.tailSet(from, true)) {
+      if (result.size() >= maxUploads) {
+        break;
+      }
+      String key = info.upload.getKey();
+      if (!key.startsWith(normalizedPrefix)) {
+        break;
+      }
+      if (key.equals(keyMarker) && !isAfterUploadIdMarker(info, uploadIdMarker,
+          uploadIdMarkerInfo)) {
+        continue;
+      }
+      result.add(info.upload);
+    }
+    return result;
+  }
+
+  /**
+   * Uploads for the keyMarker are listed if they come after the upload identified by the
+   * uploadIdMarker. If that upload does not exist anymore, uploads with a lexicographically
+   * greater upload ID are listed.
+   */
+  private static boolean isAfterUploadIdMarker(MultipartUploadInfo info, String uploadIdMarker,
+      MultipartUploadInfo uploadIdMarkerInfo) {
+    if (uploadIdMarkerInfo != null) {
+      return LISTING_ORDER.compare(info, uploadIdMarkerInfo) > 0;
+    }
+    return !isBlank(uploadIdMarker) && info.upload.getUploadId().compareTo(uploadIdMarker) > 0;
   }
 
   /**
@@ -126,13 +250,11 @@ public class MultipartStore {
    * @return the multipart upload, if it exists, throws IllegalArgumentException otherwise.
    */
   public MultipartUpload getMultipartUpload(String uploadId) {
-    return uploadIdToInfo.values()
-        .stream()
-        .filter(info -> uploadId.equals(info.upload.getUploadId()))
-        .map(info -> info.upload)
-        .findFirst()
-        .orElseThrow(() -> new IllegalArgumentException("No MultipartUpload found with uploadId: "
-            + uploadId));
+    MultipartUploadInfo uploadInfo = uploadIdToInfo.get(uploadId);
+    if (uploadInfo == null) {
+      throw new IllegalArgumentException("No MultipartUpload found with uploadId: " + uploadId);
+    }
+    return uploadInfo.upload;
   }
 
   /**
@@ -152,7 +274,7 @@ public class MultipartStore {
         File dataFile = objectStore.getDataFilePath(bucket, id).toFile();
         FileUtils.deleteQuietly(dataFile);
 
-        uploadIdToInfo.remove(uploadId);
+        unregister(uploadInfo);
         return null;
       } catch (IOException e) {
         LOG.error("Could not delete multipart upload tmp data. bucket={}, id={}, uploadId={}",
@@ -184,12 +306,72 @@ public class MultipartStore {
       boolean useV4ChunkedWithSigningFormat,
       String encryption,
       String kmsKeyId) {
-    File file = objectStore.inputStreamToFile(
-        objectStore.wrapStream(inputStream, useV4ChunkedWithSigningFormat),
-        getPartPath(bucket, id, uploadId, partNumber)
-    );
+    return putPart(bucket, id, uploadId, partNumber, inputStream, useV4ChunkedWithSigningFormat,
+        null, null, encryption, kmsKeyId);
+  }
 
-    return hexDigest(kmsKeyId, file);
+  /**
+   * Uploads a part of a multipart upload, calculating and verifying its checksum.
+   * If no checksum algorithm is given, the algorithm the upload was prepared with is used.
+   *
+   * @param bucket                        in which to upload
+   * @param id                            of the object to upload
+   * @param uploadId                      id of the upload
+   * @param partNumber                    number of the part to store
+   * @param inputStream                   file data to be stored
+   * @param useV4ChunkedWithSigningFormat If {@code true}, V4-style signing is enabled.
+   * @param checksumAlgorithm             algorithm of the checksum, may be null.
+   * @param checksum                      the expected checksum. If null, the checksum is expected
+   *                                      as trailer of a chunked upload.
+   * @param encryption                    whether to use encryption, and possibly which type
+   * @param kmsKeyId                      the ID of the KMS key to use.
+   *
+   * @return the md5 digest of this part
+   */
+  public String putPart(BucketMetadata bucket,
+      UUID id,
+      String uploadId,
+      String partNumber,
+      InputStream inputStream,
+      boolean useV4ChunkedWithSigningFormat,
+      ChecksumAlgorithm checksumAlgorithm,
+      String checksum,
+      String encryption,
+      String kmsKeyId) {
+    MultipartUploadInfo uploadInfo = uploadIdToInfo.get(uploadId);
+    if (checksumAlgorithm == null && uploadInfo != null) {
+      checksumAlgorithm = uploadInfo.checksumAlgorithm;
+    }
+    Path checksumPath = getPartChecksumPath(bucket, id, uploadId, partNumber);
+    Path partPath = getPartPath(bucket, id, uploadId, partNumber);
+    // the md5 digests and the checksum are calculated in the same pass that writes the data.
+    // the unsalted md5 digest of the part is stored for calculating the etag of the object.
+    MessageDigest md5Digest = md5Digest(kmsKeyId);
+    MessageDigest partMd5Digest = kmsKeyId == null ? md5Digest : md5Digest(null);
+    MessageDigest[] digests = md5Digest == partMd5Digest
+        ? new MessageDigest[] {md5Digest}
+        : new MessageDigest[] {md5Digest, partMd5Digest};
+    if (checksumAlgorithm == null) {
+      objectStore.inputStreamToFile(
+          objectStore.wrapStream(inputStream, useV4ChunkedWithSigningFormat),
+          partPath, digests);
+      FileUtils.deleteQuietly(checksumPath.toFile());
+    } else {
+      ChecksumInputStream checksumStream = objectStore.checksumStream(inputStream,
+          useV4ChunkedWithSigningFormat, checksumAlgorithm, checksum);
+      objectStore.inputStreamToFile(checksumStream, partPath, digests);
+      try {
+        FileUtils.write(checksumPath.toFile(), checksumStream.getChecksum(),
+            StandardCharsets.UTF_8);
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not write part checksum.", e);
+      }
+    }
+    String md5 = Hex.encodeHexString(md5Digest.digest());
+    writePartMd5(partPath, partMd5Digest == md5Digest
+        ? md5 : Hex.encodeHexString(partMd5Digest.digest()));
+
+    return md5;
   }
 
   /**
@@ -217,23 +399,52 @@ public class MultipartStore {
               )
               .collect(Collectors.toList());
 
-      try (InputStream inputStream = toInputStream(partsPaths)) {
-        String etag = hexDigestMultipart(partsPaths);
-        objectStore.storeS3ObjectMetadata(bucket,
-            id,
-            key,
-            uploadInfo.contentType,
-            uploadInfo.contentEncoding,
-            inputStream,
-            false, //TODO: no signing?
-            uploadInfo.userMetadata,
-            encryption,
-            kmsKeyId,
-            etag,
-            Collections.emptyList(), //TODO: no tags for multi part uploads?
-            Owner.DEFAULT_OWNER
-        );
-        uploadIdToInfo.remove(uploadId);
+      try {
+        MultipartDigest multipartDigest = new MultipartDigest();
+        for (Path partPath : partsPaths) {
+          multipartDigest.addPart(decodePartMd5(readPartMd5(partPath)));
+        }
+        String etag = multipartDigest.hexDigest();
+        if (virtualMultipartObjects && !partsPaths.isEmpty()) {
+          objectStore.storeVirtualS3ObjectMetadata(bucket,
+              id,
+              key,
+              uploadInfo.contentType,
+              uploadInfo.contentEncoding,
+              toObjectParts(parts, partsPaths, true),
+              uploadInfo.userMetadata,
+              encryption,
+              kmsKeyId,
+              etag,
+              Collections.emptyList(), //TODO: no tags for multi part uploads?
+              Owner.DEFAULT_OWNER
+          );
+          storeCompositeChecksum(bucket, id, uploadInfo, partFolder, parts);
+          unregister(uploadInfo);
+          FileUtils.deleteQuietly(getUploadMetaFilePath(bucket, id, uploadId).toFile());
+          return etag;
+        }
+        try (InputStream inputStream = toInputStream(partsPaths)) {
+          objectStore.storeS3ObjectMetadata(bucket,
+              id,
+              key,
+              uploadInfo.contentType,
+              uploadInfo.contentEncoding,
+              inputStream,
+              false, //TODO: no signing?
+              null,
+              null,
+              uploadInfo.userMetadata,
+              encryption,
+              kmsKeyId,
+              etag,
+              Collections.emptyList(), //TODO: no tags for multi part uploads?
+              Owner.DEFAULT_OWNER,
+              toObjectParts(parts, partsPaths, false)
+          );
+        }
+        storeCompositeChecksum(bucket, id, uploadInfo, partFolder, parts);
+        unregister(uploadInfo);
         FileUtils.deleteDirectory(partFolder.toFile());
         return etag;
       } catch (IOException e) {
@@ -252,22 +463,32 @@ public class MultipartStore {
    * @return List of Parts
    */
   public List<Part> getMultipartUploadParts(BucketMetadata bucket, UUID id, String uploadId) {
+    return new ArrayList<>(listMultipartUploadParts(bucket, id, uploadId));
+  }
+
+  /**
+   * Lists all multipart upload parts, sorted by part number.
+   * Part files are only read when the returned collection is iterated, so that a ListParts
+   * response can be written while the digests of the remaining parts are still calculated.
+   * @param bucket name of the bucket
+   * @param id object ID
+   * @param uploadId upload identifier
+   * @return Collection of Parts
+   */
+  public Collection<Part> listMultipartUploadParts(BucketMetadata bucket, UUID id,
+      String uploadId) {
     Path partsPath = getPartsFolderPath(bucket, id, uploadId);
     try (DirectoryStream<Path> directoryStream =
         newDirectoryStream(partsPath,
             path -> path.getFileName().toString().endsWith(PART_SUFFIX))) {
-      return StreamSupport.stream(directoryStream.spliterator(), false)
-          .map(path -> {
-            String name = path.getFileName().toString();
-            String prefix = name.substring(0, name.indexOf('.'));
-            int partNumber = Integer.parseInt(prefix);
-            String partMd5 = hexDigest(path.toFile());
-            Date lastModified = new Date(path.toFile().lastModified());
-
-            return new Part(partNumber, partMd5, lastModified, path.toFile().length());
-          })
-          .sorted(Comparator.comparing(CompletedPart::getPartNumber))
+      List<Path> partPaths = StreamSupport.stream(directoryStream.spliterator(), false)
+          .sorted(Comparator.comparing(MultipartStore::partNumber))
           .collect(Collectors.toList());
+      return MappedCollection.map(partPaths, path -> {
+        String partMd5 = readPartMd5(path);
+        Date lastModified = new Date(path.toFile().lastModified());
+        return new Part(partNumber(path), partMd5, lastModified, path.toFile().length());
+      });
     } catch (IOException e) {
       LOG.error("Could not read all parts. bucket={}, id={}, uploadId={}",
           bucket, id, uploadId, e);
@@ -275,6 +496,11 @@ public class MultipartStore {
     }
   }
 
+  private static int partNumber(Path partPath) {
+    String name = partPath.getFileName().toString();
+    return Integer.parseInt(name.substring(0, name.indexOf('.')));
+  }
+
   /**
    * Copies the range, define by from/to, from the S3 Object, identified by the given key to given
    * destination into the given bucket.
@@ -303,6 +529,51 @@ public class MultipartStore {
         createPartFile(destinationBucket, destinationId, uploadId, partNumber));
   }
 
+  /**
+   * Stores the checksum of the completed object, calculated from the checksums of all its parts.
+   * Only possible if the upload was prepared with a checksum algorithm.
+   */
+  private void storeCompositeChecksum(BucketMetadata bucket, UUID id,
+      MultipartUploadInfo uploadInfo, Path partFolder, List<CompletedPart> parts)
+      throws IOException {
+    if (uploadInfo.checksumAlgorithm == null || parts.isEmpty()) {
+      return;
+    }
+    List<String> partChecksums = new ArrayList<>();
+    for (CompletedPart part : parts) {
+      File checksumFile =
+          Paths.get(partFolder.toString(), part.getPartNumber() + CHECKSUM_SUFFIX).toFile();
+      if (!checksumFile.exists()) {
+        return;
+      }
+      partChecksums.add(FileUtils.readFileToString(checksumFile, StandardCharsets.UTF_8));
+    }
+    objectStore.storeChecksum(bucket, id, uploadInfo.checksumAlgorithm,
+        compositeChecksum(uploadInfo.checksumAlgorithm, partChecksums));
+  }
+
+  /**
+   * Maps the completed parts to their part files, calculating the offset of each part within
+   * the object.
+   * @param parts the completed parts
+   * @param paths the part files, in the same order as the parts
+   * @param virtual if the object data will be read from the part files
+   * @return the object parts.
+   */
+  private static List<S3ObjectPart> toObjectParts(List<CompletedPart> parts, List<Path> paths,
+      boolean virtual) {
+    List<S3ObjectPart> objectParts = new ArrayList<>(parts.size());
+    long offset = 0;
+    for (int i = 0; i < parts.size(); i++) {
+      Path path = paths.get(i);
+      long size = path.toFile().length();
+      objectParts.add(new S3ObjectPart(parts.get(i).getPartNumber(), offset, size,
+          virtual ? path : null));
+      offset += size;
+    }
+    return objectParts;
+  }
+
   /**
    * Returns an InputStream containing InputStreams from each path element.
    * @param paths the paths to read
@@ -320,6 +591,105 @@ public class MultipartStore {
     return new SequenceInputStream(result.elements());
   }
 
+  /**
+   * Replaces the registered uploads with the uploads found in the root folder, e.g. after a
+   * snapshot of the buckets was restored.
+   * The uploads are loaded into new maps that replace the current ones, concurrent requests never
+   * see an empty or partially loaded set of uploads.
+   */
+  public void reloadMultipartUploads() {
+    Map<String, MultipartUploadInfo> loadedUploadIdToInfo = new ConcurrentHashMap<>();
+    Map<String, NavigableSet<MultipartUploadInfo>> loadedBucketToUploads =
+        new ConcurrentHashMap<>();
+    loadMultipartUploads(loadedUploadIdToInfo, loadedBucketToUploads);
+    uploadIdToInfo = loadedUploadIdToInfo;
+    bucketToUploads = loadedBucketToUploads;
+  }
+
+  /**
+   * Forgets all uploads to a bucket, e.g. after the bucket was deleted with all of its files.
+   *
+   * @param bucketName name of the bucket
+   */
+  public void unregisterUploads(String bucketName) {
+    NavigableSet<MultipartUploadInfo> uploads = bucketToUploads.remove(bucketName);
+    if (uploads != null) {
+      uploads.forEach(uploadInfo -> uploadIdToInfo.remove(uploadInfo.upload.getUploadId()));
+    }
+  }
+
+  private void register(MultipartUploadInfo uploadInfo) {
+    register(uploadInfo, uploadIdToInfo, bucketToUploads);
+  }
+
+  private static void register(MultipartUploadInfo uploadInfo,
+      Map<String, MultipartUploadInfo> uploadIdToInfo,
+      Map<String, NavigableSet<MultipartUploadInfo>> bucketToUploads) {
+    uploadIdToInfo.put(uploadInfo.upload.getUploadId(), uploadInfo);
+    bucketToUploads
+        .computeIfAbsent(uploadInfo.bucket, bucket -> new ConcurrentSkipListSet<>(LISTING_ORDER))
+        .add(uploadInfo);
+  }
+
+  private void unregister(MultipartUploadInfo uploadInfo) {
+    uploadIdToInfo.remove(uploadInfo.upload.getUploadId());
+    NavigableSet<MultipartUploadInfo> uploads = bucketToUploads.get(uploadInfo.bucket);
+    if (uploads != null) {
+      uploads.remove(uploadInfo);
+    }
+  }
+
+  /**
+   * Registers all uploads found in the root folder in the given maps, e.g. uploads started before
+   * S3Mock was restarted on a retained root folder.
+   */
+  private void loadMultipartUploads(Map<String, MultipartUploadInfo> uploadIdToInfo,
+      Map<String, NavigableSet<MultipartUploadInfo>> bucketToUploads) {
+    // folders of the store itself start with an underscore, which bucket names can't contain.
+    File[] bucketFolders = rootFolder.listFiles(
+        folder -> folder.isDirectory() && !folder.getName().startsWith("_"));
+    if (bucketFolders == null) {
+      return;
+    }
+    for (File bucketFolder : bucketFolders) {
+      File[] objectFolders = bucketFolder.listFiles(File::isDirectory);
+      if (objectFolders == null) {
+        continue;
+      }
+      for (File objectFolder : objectFolders) {
+        File[] metaFiles = objectFolder.listFiles(
+            uploadFolder -> new File(uploadFolder, UPLOAD_META_FILE).isFile());
+        if (metaFiles == null) {
+          continue;
+        }
+        for (File uploadFolder : metaFiles) {
+          File metaFile = new File(uploadFolder, UPLOAD_META_FILE);
+          try {
+            register(objectMapper.readValue(metaFile, MultipartUploadInfo.class),
+                uploadIdToInfo, bucketToUploads);
+          } catch (IOException e) {
+            LOG.error("Could not read multipart upload metadata-file. file={}", metaFile, e);
+            throw new IllegalStateException("Could not read multipart upload metadata-file.", e);
+          }
+        }
+      }
+    }
+  }
+
+  private void writeUploadMetafile(BucketMetadata bucket, MultipartUploadInfo uploadInfo) {
+    File metaFile =
+        getUploadMetaFilePath(bucket, uploadInfo.id, uploadInfo.upload.getUploadId()).toFile();
+    try {
+      if (!retainFilesOnExit) {
+        metaFile.deleteOnExit();
+      }
+      objectMapper.writeValue(metaFile, uploadInfo);
+    } catch (IOException e) {
+      LOG.error("Could not write multipart upload metadata-file. file={}", metaFile, e);
+      throw new IllegalStateException("Could not write multipart upload metadata-file.", e);
+    }
+  }
+
   /**
    * Synchronize access on the upload, to handle concurrent abortion/completion.
    */
@@ -332,8 +702,9 @@ public class MultipartStore {
     }
 
     // we assume that an uploadId -> uploadInfo is only registered once and not modified in between,
-    // therefore we can synchronize on the uploadInfo instance
-    synchronized (uploadInfo) {
+    // therefore we can lock the uploadInfo instance
+    uploadInfo.lock.lock();
+    try {
       // check if the upload was aborted or completed in the meantime
       if (!uploadIdToInfo.containsKey(uploadId)) {
         LOG.error("Upload was aborted or completed concurrently. uploadId={}", uploadId);
@@ -341,6 +712,8 @@ public class MultipartStore {
             "Upload was aborted or completed concurrently. uploadId=" + uploadId);
       }
       return callback.apply(uploadInfo);
+    } finally {
+      uploadInfo.lock.unlock();
     }
   }
 
@@ -349,27 +722,68 @@ public class MultipartStore {
       Range copyRange,
       File partFile) {
     long from = 0;
-    S3ObjectMetadata s3ObjectMetadata = objectStore.getS3ObjectMetadata(bucket, id);
-    long len = s3ObjectMetadata.getDataPath().toFile().length();
+    // the source object is read without its lock, its replaced parts are kept until it was copied.
+    S3ObjectMetadata s3ObjectMetadata = objectStore.openS3Object(bucket, id);
+    if (s3ObjectMetadata == null) {
+      LOG.error("Object to copy was deleted concurrently. bucket={}, id={}", bucket, id);
+      throw new IllegalStateException("Object to copy was deleted concurrently.");
+    }
+    long len = ObjectDataUtil.dataSize(s3ObjectMetadata);
     if (copyRange != null) {
       from = copyRange.getStart();
       len = copyRange.getEnd() - copyRange.getStart() + 1;
     }
 
-    try (InputStream sourceStream = openInputStream(s3ObjectMetadata.getDataPath().toFile());
-        OutputStream targetStream = newOutputStream(partFile.toPath())) {
-      long skip = sourceStream.skip(from);
-      if (skip == from) {
-        IOUtils.copy(new BoundedInputStream(sourceStream, len), targetStream);
-      } else {
-        throw new IllegalStateException("Could not skip exact byte range");
-      }
+    MessageDigest md5Digest = md5Digest(null);
+    try (OutputStream targetStream = new DigestOutputStream(
+        newOutputStream(partFile.toPath()), md5Digest)) {
+      ObjectDataUtil.copyData(s3ObjectMetadata, from, len, targetStream);
     } catch (IOException e) {
       LOG.error("Could not copy object. bucket={}, id={}, range={}, partFile={}",
           bucket, id, copyRange, partFile, e);
       throw new IllegalStateException("Could not copy object", e);
+    } finally {
+      objectStore.closeS3Object(id);
+    }
+    String md5 = Hex.encodeHexString(md5Digest.digest());
+    writePartMd5(partFile.toPath(), md5);
+    return md5;
+  }
+
+  /**
+   * Stores the md5 digest of a part next to it, so the etag of the completed object can be
+   * calculated without reading all parts again.
+   */
+  private void writePartMd5(Path partPath, String md5) {
+    try {
+      FileUtils.write(getPartMd5Path(partPath).toFile(), md5, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write part md5.", e);
+    }
+  }
+
+  /**
+   * Reads the md5 digest stored by {@link #writePartMd5(Path, String)}. The digest is calculated
+   * from the part file for parts stored before digests were stored next to them.
+   */
+  private String readPartMd5(Path partPath) {
+    File md5File = getPartMd5Path(partPath).toFile();
+    if (!md5File.exists()) {
+      return hexDigest(partPath.toFile());
+    }
+    try {
+      return FileUtils.readFileToString(md5File, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read part md5.", e);
+    }
+  }
+
+  private static byte[] decodePartMd5(String md5) {
+    try {
+      return Hex.decodeHex(md5);
+    } catch (DecoderException e) {
+      throw new IllegalStateException("Invalid part md5 " + md5, e);
     }
-    return hexDigest(partFile);
   }
 
   private File createPartFile(BucketMetadata bucket,
@@ -386,7 +800,9 @@ public class MultipartStore {
         partNumber).toFile();
 
     try {
-      if (!partFile.exists() && !partFile.createNewFile()) {
+      // part files may be hardlinked into snapshots, replace them instead of writing in place.
+      Files.deleteIfExists(partFile.toPath());
+      if (!partFile.createNewFile()) {
         LOG.error("Could not create buffer file. bucket={}, id={}, uploadId={}, partNumber={}",
             bucket, id, uploadId, partNumber);
         throw new IllegalStateException("Could not create buffer file.");
@@ -428,8 +844,22 @@ public class MultipartStore {
     return Paths.get(bucket.getPath().toString(), id.toString(), uploadId);
   }
 
+  private Path getUploadMetaFilePath(BucketMetadata bucket, UUID id, String uploadId) {
+    return Paths.get(getPartsFolderPath(bucket, id, uploadId).toString(), UPLOAD_META_FILE);
+  }
+
   private Path getPartPath(BucketMetadata bucket, UUID id, String uploadId, String partNumber) {
     return Paths.get(getPartsFolderPath(bucket, id, uploadId).toString(),
         partNumber + PART_SUFFIX);
   }
+
+  private static Path getPartMd5Path(Path partPath) {
+    return partPath.resolveSibling(partNumber(partPath) + MD5_SUFFIX);
+  }
+
+  private Path getPartChecksumPath(BucketMetadata bucket, UUID id, String uploadId,
+      String partNumber) {
+    return Paths.get(getPartsFolderPath(bucket, id, uploadId).toString(),
+        partNumber + CHECKSUM_SUFFIX);
+  }
 }
@@ -16,28 +16,67 @@
 
 package com.adobe.testing.s3mock.store;
 
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.MultipartUpload;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Encapsulates {@link MultipartUpload} and corresponding {@code contentType}.
+ * Serialized to the parts folder of the upload so that uploads survive a restart of S3Mock.
  */
 class MultipartUploadInfo {
 
+  /**
+   * Order of uploads in listings: by key, then by initiation date, see
+   * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListMultipartUploads.html">API Reference</a>.
+   * The uploadId is compared last, so that uploads initiated at the same time are distinct.
+   */
+  static final Comparator<MultipartUploadInfo> LISTING_ORDER =
+      Comparator.<MultipartUploadInfo, String>comparing(info -> info.upload.getKey())
+          .thenComparing(info -> info.upload.getInitiated())
+          .thenComparing(info -> info.upload.getUploadId());
+
+  @JsonProperty("upload")
   final MultipartUpload upload;
+  @JsonProperty("contentType")
   final String contentType;
+  @JsonProperty("contentEncoding")
   final String contentEncoding;
+  @JsonProperty("userMetadata")
   final Map<String, String> userMetadata;
+  @JsonProperty("bucket")
   final String bucket;
+  @JsonProperty("id")
+  final UUID id;
+  @JsonProperty("checksumAlgorithm")
+  final ChecksumAlgorithm checksumAlgorithm;
+  /**
+   * Held while the upload is modified, completed or aborted, see MultipartStore.
+   */
+  @JsonIgnore
+  final Lock lock = new ReentrantLock();
 
-  MultipartUploadInfo(final MultipartUpload upload, final String contentType,
-      final String contentEncoding,
-      final Map<String, String> userMetadata,
-      String bucket) {
+  @JsonCreator
+  MultipartUploadInfo(@JsonProperty("upload") final MultipartUpload upload,
+      @JsonProperty("contentType") final String contentType,
+      @JsonProperty("contentEncoding") final String contentEncoding,
+      @JsonProperty("userMetadata") final Map<String, String> userMetadata,
+      @JsonProperty("bucket") String bucket,
+      @JsonProperty("id") UUID id,
+      @JsonProperty("checksumAlgorithm") ChecksumAlgorithm checksumAlgorithm) {
     this.upload = upload;
     this.contentType = contentType;
     this.contentEncoding = contentEncoding;
     this.userMetadata = userMetadata;
     this.bucket = bucket;
+    this.id = id;
+    this.checksumAlgorithm = checksumAlgorithm;
   }
 }
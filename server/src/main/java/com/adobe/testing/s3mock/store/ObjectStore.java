@@ -16,13 +16,15 @@
 
 package com.adobe.testing.s3mock.store;
 
-import static com.adobe.testing.s3mock.util.DigestUtil.hexDigest;
+import static com.adobe.testing.s3mock.util.DigestUtil.copyAndDigest;
+import static com.adobe.testing.s3mock.util.DigestUtil.md5Digest;
 import static com.adobe.testing.s3mock.util.XmlUtil.deserializeJaxb;
 import static com.adobe.testing.s3mock.util.XmlUtil.serializeJaxb;
 import static java.nio.file.Files.newOutputStream;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 import com.adobe.testing.s3mock.dto.AccessControlPolicy;
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.CopyObjectResult;
 import com.adobe.testing.s3mock.dto.Grant;
 import com.adobe.testing.s3mock.dto.Grantee;
@@ -31,7 +33,10 @@ import com.adobe.testing.s3mock.dto.Owner;
 import com.adobe.testing.s3mock.dto.Retention;
 import com.adobe.testing.s3mock.dto.Tag;
 import com.adobe.testing.s3mock.util.AwsChunkedDecodingInputStream;
+import com.adobe.testing.s3mock.util.ChecksumInputStream;
+import com.adobe.testing.s3mock.util.ObjectDataUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -40,15 +45,23 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 import javax.xml.bind.JAXBException;
 import javax.xml.stream.XMLStreamException;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,11 +73,19 @@ public class ObjectStore {
   /**
    * This map stores one lock object per S3Object ID.
    * Any method modifying the underlying file must aquire the lock object before the modification.
+   * Object data is written while the lock is held, a virtual thread blocked in a synchronized
+   * block would pin its carrier thread for that long.
    */
-  private static final Map<UUID, Object> lockStore = new ConcurrentHashMap<>();
+  private final Map<UUID, Lock> lockStore = new ConcurrentHashMap<>();
+  /**
+   * Readers streaming object data without holding the object lock, by object ID, see
+   * {@link #openS3Object(BucketMetadata, UUID)}.
+   */
+  private final Map<UUID, ObjectReaders> readers = new ConcurrentHashMap<>();
   private static final String META_FILE = "objectMetadata";
   private static final String ACL_FILE = "objectAcl.xml";
-  private static final String DATA_FILE = "binaryData";
+  static final String DATA_FILE = "binaryData";
+  static final String TEMP_FILE_SUFFIX = ".tmp";
 
   private static final Logger LOG = LoggerFactory.getLogger(ObjectStore.class);
 
@@ -112,6 +133,151 @@ public class ObjectStore {
       String etag,
       List<Tag> tags,
       Owner owner) {
+    return storeS3ObjectMetadata(bucket, id, key, contentType, contentEncoding, dataStream,
+        useV4ChunkedWithSigningFormat, null, null, userMetadata, encryption, kmsKeyId, etag, tags,
+        owner, null);
+  }
+
+  /**
+   * Stores an object inside a Bucket, recording the parts it was uploaded with.
+   *
+   * @param bucket Bucket to store the object in.
+   * @param id object ID
+   * @param key object key to be stored.
+   * @param contentType The Content Type.
+   * @param contentEncoding The Content Encoding.
+   * @param dataStream The InputStream to store.
+   * @param useV4ChunkedWithSigningFormat If {@code true}, V4-style signing is enabled.
+   * @param checksumAlgorithm Algorithm of the checksum to calculate, may be null.
+   * @param checksum The expected checksum. If null, the checksum is expected as trailer of a
+   *     chunked upload.
+   * @param userMetadata User metadata to store for this object, will be available for the
+   *     object with the key prefixed with "x-amz-meta-".
+   * @param encryption The Encryption Type.
+   * @param kmsKeyId The KMS encryption key id.
+   * @param etag the etag. If null, etag will be computed by this method.
+   * @param tags The tags to store.
+   * @param parts The parts of a multipart upload, with their offsets within the data stream.
+   *
+   * @return {@link S3ObjectMetadata}.
+   */
+  public S3ObjectMetadata storeS3ObjectMetadata(BucketMetadata bucket,
+      UUID id,
+      String key,
+      String contentType,
+      String contentEncoding,
+      InputStream dataStream,
+      boolean useV4ChunkedWithSigningFormat,
+      ChecksumAlgorithm checksumAlgorithm,
+      String checksum,
+      Map<String, String> userMetadata,
+      String encryption,
+      String kmsKeyId,
+      String etag,
+      List<Tag> tags,
+      Owner owner,
+      List<S3ObjectPart> parts) {
+    S3ObjectMetadata s3ObjectMetadata = createS3ObjectMetadata(id, key, contentType,
+        contentEncoding, userMetadata, encryption, kmsKeyId, tags, owner);
+    s3ObjectMetadata.setParts(parts);
+    Lock lock = lockObject(id);
+    try {
+      createObjectRootFolder(bucket, id);
+      final S3ObjectMetadata previous = getS3ObjectMetadata(bucket, id);
+      ChecksumInputStream checksumStream = null;
+      InputStream inputStream;
+      if (checksumAlgorithm != null) {
+        checksumStream = checksumStream(dataStream, useV4ChunkedWithSigningFormat,
+            checksumAlgorithm, checksum);
+        inputStream = checksumStream;
+      } else {
+        inputStream = wrapStream(dataStream, useV4ChunkedWithSigningFormat);
+      }
+      // the md5 digest is calculated in the same pass that writes the data.
+      MessageDigest md5Digest = etag == null ? md5Digest(kmsKeyId) : null;
+      File dataFile = md5Digest != null
+          ? inputStreamToFile(inputStream, getDataFilePath(bucket, id), md5Digest)
+          : inputStreamToFile(inputStream, getDataFilePath(bucket, id));
+      s3ObjectMetadata.setDataPath(dataFile.toPath());
+      s3ObjectMetadata.setSize(Long.toString(dataFile.length()));
+      s3ObjectMetadata.setEtag(etag != null ? etag : Hex.encodeHexString(md5Digest.digest()));
+      if (checksumStream != null) {
+        s3ObjectMetadata.setChecksumAlgorithm(checksumAlgorithm);
+        s3ObjectMetadata.setChecksum(checksumStream.getChecksum());
+      }
+
+      writeMetafile(bucket, s3ObjectMetadata);
+      // the previous object stays readable until the new one was stored completely.
+      deleteVirtualParts(id, previous);
+    } finally {
+      lock.unlock();
+    }
+
+    return s3ObjectMetadata;
+  }
+
+  /**
+   * Stores a virtual multipart object inside a Bucket.
+   * The data of the object is not copied, it is read from the given part files instead.
+   *
+   * @param bucket Bucket to store the object in.
+   * @param id object ID
+   * @param key object key to be stored.
+   * @param contentType The Content Type.
+   * @param contentEncoding The Content Encoding.
+   * @param parts The parts holding the object data, ordered by offset.
+   * @param userMetadata User metadata to store for this object, will be available for the
+   *     object with the key prefixed with "x-amz-meta-".
+   * @param encryption The Encryption Type.
+   * @param kmsKeyId The KMS encryption key id.
+   * @param etag the etag.
+   * @param tags The tags to store.
+   *
+   * @return {@link S3ObjectMetadata}.
+   */
+  public S3ObjectMetadata storeVirtualS3ObjectMetadata(BucketMetadata bucket,
+      UUID id,
+      String key,
+      String contentType,
+      String contentEncoding,
+      List<S3ObjectPart> parts,
+      Map<String, String> userMetadata,
+      String encryption,
+      String kmsKeyId,
+      String etag,
+      List<Tag> tags,
+      Owner owner) {
+    S3ObjectMetadata s3ObjectMetadata = createS3ObjectMetadata(id, key, contentType,
+        contentEncoding, userMetadata, encryption, kmsKeyId, tags, owner);
+    Lock lock = lockObject(id);
+    try {
+      createObjectRootFolder(bucket, id);
+      final S3ObjectMetadata previous = getS3ObjectMetadata(bucket, id);
+      S3ObjectPart lastPart = parts.get(parts.size() - 1);
+      s3ObjectMetadata.setParts(parts);
+      s3ObjectMetadata.setSize(Long.toString(lastPart.getOffset() + lastPart.getSize()));
+      s3ObjectMetadata.setEtag(etag);
+
+      writeMetafile(bucket, s3ObjectMetadata);
+      // the previous object stays readable until the new one was stored completely.
+      deleteVirtualParts(id, previous);
+      deleteReplacedFiles(id, Collections.singletonList(getDataFilePath(bucket, id)));
+    } finally {
+      lock.unlock();
+    }
+
+    return s3ObjectMetadata;
+  }
+
+  private S3ObjectMetadata createS3ObjectMetadata(UUID id,
+      String key,
+      String contentType,
+      String contentEncoding,
+      Map<String, String> userMetadata,
+      String encryption,
+      String kmsKeyId,
+      List<Tag> tags,
+      Owner owner) {
     Instant now = Instant.now();
     boolean encrypted = isNotBlank(encryption) && isNotBlank(kmsKeyId);
     S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
@@ -127,20 +293,37 @@ public class ObjectStore {
     s3ObjectMetadata.setModificationDate(s3ObjectDateFormat.format(now));
     s3ObjectMetadata.setLastModified(now.toEpochMilli());
     s3ObjectMetadata.setOwner(owner);
-    lockStore.putIfAbsent(id, new Object());
-    synchronized (lockStore.get(id)) {
-      createObjectRootFolder(bucket, id);
-      File dataFile =
-          inputStreamToFile(wrapStream(dataStream, useV4ChunkedWithSigningFormat),
-              getDataFilePath(bucket, id));
-      s3ObjectMetadata.setDataPath(dataFile.toPath());
-      s3ObjectMetadata.setSize(Long.toString(dataFile.length()));
-      s3ObjectMetadata.setEtag(etag != null ? etag : hexDigest(kmsKeyId, dataFile));
+    return s3ObjectMetadata;
+  }
 
-      writeMetafile(bucket, s3ObjectMetadata);
+  /**
+   * Deletes the part files of a virtual multipart object previously stored with this ID, as they
+   * are not referenced anymore once the object is overwritten.
+   */
+  private void deleteVirtualParts(UUID id, S3ObjectMetadata previous) {
+    if (previous == null || !ObjectDataUtil.isVirtual(previous)) {
+      return;
     }
+    deleteReplacedFiles(id, previous.getParts()
+        .stream()
+        .map(part -> part.getDataPath().getParent())
+        .distinct()
+        .collect(Collectors.toList()));
+  }
 
-    return s3ObjectMetadata;
+  /**
+   * Deletes files or folders of an object that were replaced by a new version of the object.
+   * While the object is read, see {@link #openS3Object(BucketMetadata, UUID)}, they are only
+   * deleted once the last reader is done.
+   */
+  private void deleteReplacedFiles(UUID id, List<Path> replacedFiles) {
+    ObjectReaders objectReaders = readers.computeIfPresent(id, (readerId, current) -> {
+      current.replacedFiles.addAll(replacedFiles);
+      return current;
+    });
+    if (objectReaders == null) {
+      replacedFiles.forEach(path -> FileUtils.deleteQuietly(path.toFile()));
+    }
   }
 
   private AccessControlPolicy privateCannedAcl(Owner owner) {
@@ -156,10 +339,34 @@ public class ObjectStore {
    * @param tags List of tag objects.
    */
   public void storeObjectTags(BucketMetadata bucket, UUID id, List<Tag> tags) {
-    synchronized (lockStore.get(id)) {
+    Lock lock = lockObject(id);
+    try {
       S3ObjectMetadata s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
       s3ObjectMetadata.setTags(tags);
       writeMetafile(bucket, s3ObjectMetadata);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Store checksum for a given object.
+   *
+   * @param bucket Bucket the object is stored in.
+   * @param id object ID to store the checksum for.
+   * @param checksumAlgorithm the algorithm of the checksum.
+   * @param checksum the base64 encoded checksum.
+   */
+  public void storeChecksum(BucketMetadata bucket, UUID id, ChecksumAlgorithm checksumAlgorithm,
+      String checksum) {
+    Lock lock = lockObject(id);
+    try {
+      S3ObjectMetadata s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
+      s3ObjectMetadata.setChecksumAlgorithm(checksumAlgorithm);
+      s3ObjectMetadata.setChecksum(checksum);
+      writeMetafile(bucket, s3ObjectMetadata);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -171,10 +378,13 @@ public class ObjectStore {
    * @param legalHold the legal hold.
    */
   public void storeLegalHold(BucketMetadata bucket, UUID id, LegalHold legalHold) {
-    synchronized (lockStore.get(id)) {
+    Lock lock = lockObject(id);
+    try {
       S3ObjectMetadata s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
       s3ObjectMetadata.setLegalHold(legalHold);
       writeMetafile(bucket, s3ObjectMetadata);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -206,10 +416,13 @@ public class ObjectStore {
    * @param retention the retention.
    */
   public void storeRetention(BucketMetadata bucket, UUID id, Retention retention) {
-    synchronized (lockStore.get(id)) {
+    Lock lock = lockObject(id);
+    try {
       S3ObjectMetadata s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
       s3ObjectMetadata.setRetention(retention);
       writeMetafile(bucket, s3ObjectMetadata);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -227,17 +440,144 @@ public class ObjectStore {
     Path metaPath = getMetaFilePath(bucket, id);
 
     if (Files.exists(metaPath)) {
-      synchronized (lockStore.get(id)) {
+      Lock lock = lockObject(id);
+      try {
         try {
           theObject = objectMapper.readValue(metaPath.toFile(), S3ObjectMetadata.class);
         } catch (IOException e) {
           throw new IllegalArgumentException("Could not read object metadata-file " + id, e);
         }
+      } finally {
+        lock.unlock();
       }
     }
     return theObject;
   }
 
+  /**
+   * Retrieves S3ObjectMetadata for a UUID of a key from a bucket and registers a reader of the
+   * object's data. Files replaced by overwriting the object are not deleted before the reader
+   * called {@link #closeS3Object(UUID)}, so the data can be streamed without holding the lock.
+   *
+   * @param bucket Bucket from which to retrieve the object.
+   * @param id ID of the object key.
+   *
+   * @return S3ObjectMetadata or null if not found, no reader is registered then.
+   */
+  public S3ObjectMetadata openS3Object(BucketMetadata bucket, UUID id) {
+    readers.compute(id, (readerId, current) -> {
+      ObjectReaders objectReaders = current == null ? new ObjectReaders() : current;
+      objectReaders.count++;
+      return objectReaders;
+    });
+    S3ObjectMetadata s3ObjectMetadata;
+    try {
+      s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
+    } catch (RuntimeException e) {
+      closeS3Object(id);
+      throw e;
+    }
+    if (s3ObjectMetadata == null) {
+      closeS3Object(id);
+    }
+    return s3ObjectMetadata;
+  }
+
+  /**
+   * Unregisters a reader registered by {@link #openS3Object(BucketMetadata, UUID)}, the last
+   * reader deletes files replaced in the meantime.
+   *
+   * @param id ID of the object key.
+   */
+  public void closeS3Object(UUID id) {
+    List<Path> replacedFiles = new ArrayList<>();
+    readers.computeIfPresent(id, (readerId, current) -> {
+      if (--current.count > 0) {
+        return current;
+      }
+      replacedFiles.addAll(current.replacedFiles);
+      return null;
+    });
+    replacedFiles.forEach(path -> FileUtils.deleteQuietly(path.toFile()));
+  }
+
+  /**
+   * Retrieves S3ObjectMetadata for a UUID of a key from a bucket and hardlinks the object's data
+   * files into a folder while holding the object lock. The returned metadata references the
+   * links, so the data can be read without holding the lock, even if the object is replaced or
+   * deleted in the meantime.
+   *
+   * @param bucket Bucket from which to retrieve the object.
+   * @param id ID of the object key.
+   * @param folder folder to create the links in, created if it does not exist.
+   *
+   * @return S3ObjectMetadata or null if not found.
+   */
+  public S3ObjectMetadata linkS3Object(BucketMetadata bucket, UUID id, Path folder)
+      throws IOException {
+    if (!Files.exists(getMetaFilePath(bucket, id))) {
+      return null;
+    }
+    Lock lock = lockObject(id);
+    try {
+      S3ObjectMetadata s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
+      if (s3ObjectMetadata == null) {
+        return null;
+      }
+      Files.createDirectories(folder);
+      if (ObjectDataUtil.isVirtual(s3ObjectMetadata)) {
+        for (S3ObjectPart part : s3ObjectMetadata.getParts()) {
+          Path link = folder.resolve(part.getPartNumber() + MultipartStore.PART_SUFFIX);
+          BucketStore.link(part.getDataPath(), link);
+          part.setDataPath(link);
+        }
+      } else {
+        Path link = folder.resolve(DATA_FILE);
+        BucketStore.link(s3ObjectMetadata.getDataPath(), link);
+        s3ObjectMetadata.setDataPath(link);
+      }
+      return s3ObjectMetadata;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Serializes the metadata of an object as JSON, e.g. to export the object.
+   * References to files of this store, the object ID and the parts of virtual multipart objects
+   * are left out.
+   *
+   * @param s3ObjectMetadata the object
+   *
+   * @return the JSON
+   */
+  public String exportS3ObjectMetadata(S3ObjectMetadata s3ObjectMetadata) {
+    ObjectNode metadata = objectMapper.valueToTree(s3ObjectMetadata);
+    metadata.remove("id");
+    metadata.remove("dataPath");
+    metadata.remove("parts");
+    try {
+      return objectMapper.writeValueAsString(metadata);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not serialize object metadata", e);
+    }
+  }
+
+  /**
+   * Deserializes metadata exported by {@link #exportS3ObjectMetadata(S3ObjectMetadata)}.
+   *
+   * @param metadata the JSON
+   *
+   * @return S3ObjectMetadata, not stored yet.
+   */
+  public S3ObjectMetadata importS3ObjectMetadata(String metadata) {
+    try {
+      return objectMapper.readValue(metadata, S3ObjectMetadata.class);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not read object metadata " + metadata, e);
+    }
+  }
+
   /**
    * Copies an object to another bucket and encrypted object.
    *
@@ -265,8 +605,9 @@ public class ObjectStore {
       return null;
     }
     S3ObjectMetadata copiedObject;
-    synchronized (lockStore.get(sourceId)) {
-      try (InputStream inputStream = Files.newInputStream(sourceObject.getDataPath())) {
+    Lock lock = lockObject(sourceId);
+    try {
+      try (InputStream inputStream = ObjectDataUtil.newInputStream(sourceObject)) {
         copiedObject = storeS3ObjectMetadata(destinationBucket,
             destinationId,
             destinationKey,
@@ -285,6 +626,8 @@ public class ObjectStore {
         LOG.error("Can't write file to disk!", e);
         throw new IllegalStateException("Can't write file to disk!", e);
       }
+    } finally {
+      lock.unlock();
     }
 
     return new CopyObjectResult(copiedObject.getModificationDate(), copiedObject.getEtag());
@@ -298,16 +641,24 @@ public class ObjectStore {
   public CopyObjectResult pretendToCopyS3Object(BucketMetadata sourceBucket,
       UUID sourceId,
       Map<String, String> userMetadata) {
-    S3ObjectMetadata sourceObject = getS3ObjectMetadata(sourceBucket, sourceId);
-    if (sourceObject == null) {
-      return null;
-    }
+    Lock lock = lockObject(sourceId);
+    try {
+      S3ObjectMetadata sourceObject = getS3ObjectMetadata(sourceBucket, sourceId);
+      if (sourceObject == null) {
+        return null;
+      }
 
-    sourceObject.setLastModified(Instant.now().toEpochMilli());
-    sourceObject.setUserMetadata(userMetadata == null || userMetadata.isEmpty()
-        ? sourceObject.getUserMetadata() : userMetadata);
-    writeMetafile(sourceBucket, sourceObject);
-    return new CopyObjectResult(sourceObject.getModificationDate(), sourceObject.getEtag());
+      // listings and GetObject use the modification date, HeadObject the last modified time.
+      Instant now = Instant.now();
+      sourceObject.setModificationDate(s3ObjectDateFormat.format(now));
+      sourceObject.setLastModified(now.toEpochMilli());
+      sourceObject.setUserMetadata(userMetadata == null || userMetadata.isEmpty()
+          ? sourceObject.getUserMetadata() : userMetadata);
+      writeMetafile(sourceBucket, sourceObject);
+      return new CopyObjectResult(sourceObject.getModificationDate(), sourceObject.getEtag());
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -319,33 +670,41 @@ public class ObjectStore {
    * @return true if deletion succeeded.
    */
   public boolean deleteObject(BucketMetadata bucket, UUID id) {
-    S3ObjectMetadata s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
-    if (s3ObjectMetadata != null) {
-      synchronized (lockStore.get(id)) {
-        try {
-          FileUtils.deleteDirectory(getObjectFolderPath(bucket, id).toFile());
-        } catch (IOException e) {
-          LOG.error("Can't delete directory.", e);
-          throw new IllegalStateException("Can't delete directory.", e);
-        }
-        lockStore.remove(id);
-        return true;
-      }
-    } else {
+    if (!Files.exists(getMetaFilePath(bucket, id))) {
       return false;
     }
+    // the lock is held from reading the metadata until the object is deleted.
+    Lock lock = lockObject(id);
+    try {
+      if (getS3ObjectMetadata(bucket, id) == null) {
+        return false;
+      }
+      try {
+        FileUtils.deleteDirectory(getObjectFolderPath(bucket, id).toFile());
+      } catch (IOException e) {
+        LOG.error("Can't delete directory.", e);
+        throw new IllegalStateException("Can't delete directory.", e);
+      }
+      lockStore.remove(id);
+      return true;
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
    * Stores the content of an InputStream in a File.
    * Creates the File if it does not exist.
+   * The content is written to a temporary file first, an existing File is only replaced once the
+   * InputStream was read completely.
    *
    * @param inputStream the Stream to be saved.
    * @param filePath Path where the stream should be saved.
+   * @param digests Digests to update with the content, while it is written.
    *
    * @return the newly created File.
    */
-  File inputStreamToFile(InputStream inputStream, Path filePath) {
+  File inputStreamToFile(InputStream inputStream, Path filePath, MessageDigest... digests) {
     File targetFile = filePath.toFile();
     try {
       if (targetFile.createNewFile()) {
@@ -354,14 +713,16 @@ public class ObjectStore {
         }
       }
 
-      try (InputStream is = inputStream;
-          OutputStream os = newOutputStream(targetFile.toPath())) {
-        int read;
-        byte[] bytes = new byte[1024];
-
-        while ((read = is.read(bytes)) != -1) {
-          os.write(bytes, 0, read);
+      Path tempFile = Files.createTempFile(filePath.getParent(),
+          filePath.getFileName().toString(), TEMP_FILE_SUFFIX);
+      try {
+        try (InputStream is = inputStream;
+            OutputStream os = newOutputStream(tempFile)) {
+          copyAndDigest(is, os, digests);
         }
+        Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(tempFile);
       }
     } catch (IOException e) {
       LOG.error("Can't write file to disk!", e);
@@ -370,6 +731,25 @@ public class ObjectStore {
     return targetFile;
   }
 
+  /**
+   * Wraps the stream to calculate and verify the checksum of the data.
+   * The expected checksum is either given, or sent as trailer of a chunked upload. The checksum is
+   * only calculated if there is neither, e.g. if a client only sent
+   * "x-amz-sdk-checksum-algorithm".
+   */
+  ChecksumInputStream checksumStream(InputStream dataStream,
+      boolean useV4ChunkedWithSigningFormat, ChecksumAlgorithm checksumAlgorithm,
+      String checksum) {
+    if (useV4ChunkedWithSigningFormat) {
+      AwsChunkedDecodingInputStream decodingStream = new AwsChunkedDecodingInputStream(dataStream);
+      return new ChecksumInputStream(decodingStream, checksumAlgorithm, checksum != null
+          ? () -> checksum
+          : () -> decodingStream.getTrailers().get(checksumAlgorithm.getHeaderName()));
+    }
+    return new ChecksumInputStream(dataStream, checksumAlgorithm,
+        checksum != null ? () -> checksum : null);
+  }
+
   InputStream wrapStream(InputStream dataStream, boolean useV4ChunkedWithSigningFormat) {
     InputStream inStream;
     if (useV4ChunkedWithSigningFormat) {
@@ -393,6 +773,43 @@ public class ObjectStore {
     return objectRootFolder.mkdirs();
   }
 
+  /**
+   * Forgets the locks of all objects, e.g. after all buckets were deleted.
+   * Locks that are held are kept, requests still working on the deleted objects must not lose
+   * the lock to requests using the same IDs.
+   */
+  public void clearLocks() {
+    for (Iterator<Lock> locks = lockStore.values().iterator(); locks.hasNext(); ) {
+      Lock lock = locks.next();
+      if (lock.tryLock()) {
+        try {
+          locks.remove();
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+  }
+
+  /**
+   * Acquires the lock of an object.
+   * Objects may exist without a lock, e.g. if they were restored from a snapshot or S3Mock was
+   * restarted on a retained root folder.
+   * Locks are removed when their object is deleted or the store is reset, while other threads may
+   * wait for them. A thread that acquired a removed lock retries with the lock currently stored for
+   * the object, so that all threads hold the same lock for an object.
+   */
+  private Lock lockObject(UUID id) {
+    while (true) {
+      Lock lock = lockStore.computeIfAbsent(id, lockId -> new ReentrantLock());
+      lock.lock();
+      if (lockStore.get(id) == lock) {
+        return lock;
+      }
+      lock.unlock();
+    }
+  }
+
   private Path getObjectFolderPath(BucketMetadata bucket, UUID id) {
     return Paths.get(bucket.getPath().toString(), id.toString());
   }
@@ -412,13 +829,16 @@ public class ObjectStore {
 
   private boolean writeMetafile(BucketMetadata bucket, S3ObjectMetadata s3ObjectMetadata) {
     try {
-      synchronized (lockStore.get(s3ObjectMetadata.getId())) {
+      Lock lock = lockObject(s3ObjectMetadata.getId());
+      try {
         File metaFile = getMetaFilePath(bucket, s3ObjectMetadata.getId()).toFile();
         if (!retainFilesOnExit) {
           metaFile.deleteOnExit();
         }
         objectMapper.writeValue(metaFile, s3ObjectMetadata);
         return true;
+      } finally {
+        lock.unlock();
       }
     } catch (IOException e) {
       LOG.error("Could not write object metadata-file.", e);
@@ -428,13 +848,16 @@ public class ObjectStore {
 
   private AccessControlPolicy readAclFile(BucketMetadata bucket, UUID id) {
     try {
-      synchronized (lockStore.get(id)) {
+      Lock lock = lockObject(id);
+      try {
         File aclFile = getAclFilePath(bucket, id).toFile();
         if (!aclFile.exists()) {
           return null;
         }
         String toDeserialize = FileUtils.readFileToString(aclFile, Charset.defaultCharset());
         return deserializeJaxb(toDeserialize);
+      } finally {
+        lock.unlock();
       }
     } catch (IOException | JAXBException | XMLStreamException e) {
       LOG.error("Could not write object metadata-file.", e);
@@ -444,17 +867,29 @@ public class ObjectStore {
 
   private boolean writeAclFile(BucketMetadata bucket, UUID id, AccessControlPolicy policy) {
     try {
-      synchronized (lockStore.get(id)) {
+      Lock lock = lockObject(id);
+      try {
         File aclFile = getAclFilePath(bucket, id).toFile();
         if (!retainFilesOnExit) {
           aclFile.deleteOnExit();
         }
         FileUtils.write(aclFile, serializeJaxb(policy), Charset.defaultCharset());
         return true;
+      } finally {
+        lock.unlock();
       }
     } catch (IOException | JAXBException e) {
       LOG.error("Could not write object metadata-file.", e);
       throw new IllegalStateException("Could not write object metadata-file.", e);
     }
   }
+
+  /**
+   * Open readers of an object and the files replaced while they read, only accessed in the
+   * remapping functions of {@link #readers}.
+   */
+  private static class ObjectReaders {
+    private int count;
+    private final List<Path> replacedFiles = new ArrayList<>();
+  }
 }
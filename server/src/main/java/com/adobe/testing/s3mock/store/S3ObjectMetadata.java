@@ -17,6 +17,7 @@
 package com.adobe.testing.s3mock.store;
 
 import com.adobe.testing.s3mock.dto.AccessControlPolicy;
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.LegalHold;
 import com.adobe.testing.s3mock.dto.Owner;
 import com.adobe.testing.s3mock.dto.Retention;
@@ -57,6 +58,10 @@ public class S3ObjectMetadata {
 
   private long lastModified;
 
+  /**
+   * File holding the object data. Not set for virtual multipart objects, the data of those is
+   * stored in the files of their {@link #parts}.
+   */
   private Path dataPath;
 
   private String kmsKeyId;
@@ -71,6 +76,16 @@ public class S3ObjectMetadata {
 
   private Owner owner;
 
+  private List<S3ObjectPart> parts;
+
+  private ChecksumAlgorithm checksumAlgorithm;
+
+  /**
+   * Base64 encoded checksum of the object data, or the composite checksum of the parts for
+   * objects created by a multipart upload.
+   */
+  private String checksum;
+
   public Owner getOwner() {
     return owner;
   }
@@ -217,6 +232,30 @@ public class S3ObjectMetadata {
     return tags == null ? new ArrayList<>() : tags;
   }
 
+  public List<S3ObjectPart> getParts() {
+    return parts;
+  }
+
+  public void setParts(List<S3ObjectPart> parts) {
+    this.parts = parts;
+  }
+
+  public ChecksumAlgorithm getChecksumAlgorithm() {
+    return checksumAlgorithm;
+  }
+
+  public void setChecksumAlgorithm(ChecksumAlgorithm checksumAlgorithm) {
+    this.checksumAlgorithm = checksumAlgorithm;
+  }
+
+  public String getChecksum() {
+    return checksum;
+  }
+
+  public void setChecksum(String checksum) {
+    this.checksum = checksum;
+  }
+
   public UUID getId() {
     return id;
   }
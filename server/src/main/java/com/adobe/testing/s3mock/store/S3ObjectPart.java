@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import java.nio.file.Path;
+
+/**
+ * Represents a single part of an object that was created by a multipart upload.
+ * Serialized as part of {@link S3ObjectMetadata}.
+ */
+public class S3ObjectPart {
+
+  private int partNumber;
+
+  /**
+   * Position of the first byte of this part within the object.
+   */
+  private long offset;
+
+  private long size;
+
+  /**
+   * File holding the data of this part. Only set if the object is stored as a virtual multipart
+   * object, i.e. the object data was not concatenated into a single file.
+   */
+  private Path dataPath;
+
+  public S3ObjectPart() {
+    // Jackson needs the default constructor for deserialization.
+  }
+
+  public S3ObjectPart(int partNumber, long offset, long size, Path dataPath) {
+    this.partNumber = partNumber;
+    this.offset = offset;
+    this.size = size;
+    this.dataPath = dataPath;
+  }
+
+  public int getPartNumber() {
+    return partNumber;
+  }
+
+  public void setPartNumber(int partNumber) {
+    this.partNumber = partNumber;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  public void setOffset(long offset) {
+    this.offset = offset;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public void setSize(long size) {
+    this.size = size;
+  }
+
+  public Path getDataPath() {
+    return dataPath;
+  }
+
+  public void setDataPath(Path dataPath) {
+    this.dataPath = dataPath;
+  }
+}
@@ -54,8 +54,21 @@ public class StoreConfiguration {
   }
 
   @Bean
-  MultipartStore multipartStore(StoreProperties properties, ObjectStore objectStore) {
-    return new MultipartStore(properties.isRetainFilesOnExit(), objectStore);
+  BucketSeeder bucketSeeder(StoreProperties properties, BucketStore bucketStore,
+      ObjectStore objectStore) {
+    BucketSeeder bucketSeeder =
+        new BucketSeeder(bucketStore, objectStore, properties.getSeedBuckets());
+    // the server is started after all beans are created, so it is not reachable before seeding
+    // is done.
+    bucketSeeder.seed();
+    return bucketSeeder;
+  }
+
+  @Bean
+  MultipartStore multipartStore(StoreProperties properties, File bucketRootFolder,
+      ObjectStore objectStore, ObjectMapper objectMapper) {
+    return new MultipartStore(properties.isRetainFilesOnExit(),
+        properties.isVirtualMultipartObjects(), bucketRootFolder, objectStore, objectMapper);
   }
 
   @Bean
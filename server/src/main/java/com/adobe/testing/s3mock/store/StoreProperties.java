@@ -31,6 +31,12 @@ public class StoreProperties {
    */
   private boolean retainFilesOnExit;
 
+  /**
+   * True if objects created by multipart uploads should be served from their part files.
+   * False to concatenate all parts into a single file when the upload is completed.
+   */
+  private boolean virtualMultipartObjects;
+
   /**
    * The root directory to use. If omitted a default temp-dir will be used.
    */
@@ -43,6 +49,12 @@ public class StoreProperties {
    */
   private List<String> initialBuckets = new ArrayList<>();
 
+  /**
+   * A comma separated list of buckets that are to be loaded with objects at startup, in the
+   * format "bucketName=path". The path is a directory or a ".tar", ".tar.gz" or ".tgz" archive.
+   */
+  private List<String> seedBuckets = new ArrayList<>();
+
   public List<String> getInitialBuckets() {
     return initialBuckets;
   }
@@ -51,6 +63,14 @@ public class StoreProperties {
     this.initialBuckets = initialBuckets;
   }
 
+  public List<String> getSeedBuckets() {
+    return seedBuckets;
+  }
+
+  public void setSeedBuckets(List<String> seedBuckets) {
+    this.seedBuckets = seedBuckets;
+  }
+
   public boolean isRetainFilesOnExit() {
     return retainFilesOnExit;
   }
@@ -59,6 +79,14 @@ public class StoreProperties {
     this.retainFilesOnExit = retainFilesOnExit;
   }
 
+  public boolean isVirtualMultipartObjects() {
+    return virtualMultipartObjects;
+  }
+
+  public void setVirtualMultipartObjects(boolean virtualMultipartObjects) {
+    this.virtualMultipartObjects = virtualMultipartObjects;
+  }
+
   public String getRoot() {
     return root;
   }
@@ -16,10 +16,12 @@
 
 package com.adobe.testing.s3mock.util;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Skips V4 style signing metadata from input streams.
@@ -38,6 +40,17 @@ import java.nio.charset.StandardCharsets;
  * [payload-bytes-of-this-chunk][crlf]
  * </pre>
  *
+ * <p>Unsigned payloads (STREAMING-UNSIGNED-PAYLOAD-TRAILER) omit the chunk-signature. Payloads
+ * with trailers are followed by trailing headers after the final chunk, e.g.:</p>
+ *
+ * <pre>
+ * 0[crlf]
+ * x-amz-checksum-crc32:sOO8/Q==[crlf]
+ * [crlf]
+ * </pre>
+ *
+ * <p>Trailing checksums are verified by wrapping this stream in a {@link ChecksumInputStream}.</p>
+ *
  * @see
  * <a href="http://docs.aws.amazon.com/AWSJavaSDK/latest/javadoc/com/amazonaws/auth/AwsChunkedEncodingInputStream.html">
  *     AwsChunkedEncodingInputStream</a>
@@ -49,15 +62,28 @@ public class AwsChunkedDecodingInputStream extends InputStream {
    */
   private static final int MAX_CHUNK_SIZE = 256 * 1024;
 
-  private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.UTF_8);
+  private static final byte CR = '\r';
+
+  private static final byte LF = '\n';
 
-  private static final byte[] DELIMITER = ";".getBytes(StandardCharsets.UTF_8);
+  /**
+   * Chunk sizes are hex encoded ints, more digits than this can't be valid.
+   */
+  private static final int MAX_HEX_DIGITS = 8;
 
   private final InputStream source;
 
+  private final Map<String, String> trailers = new HashMap<>();
+
+  private final byte[] buffer = new byte[MAX_CHUNK_SIZE];
+
+  private int bufferPosition = 0;
+
+  private int bufferLimit = 0;
+
   private int remainingInChunk = 0;
 
-  private final ByteBuffer byteBuffer = ByteBuffer.allocate(MAX_CHUNK_SIZE);
+  private boolean finished = false;
 
   /**
    * Constructs a new {@link AwsChunkedDecodingInputStream}.
@@ -68,27 +94,72 @@ public class AwsChunkedDecodingInputStream extends InputStream {
     this.source = source;
   }
 
+  /**
+   * Trailing headers sent after the final chunk. Only available once the stream was read
+   * completely.
+   *
+   * @return trailing headers, with lower case names.
+   */
+  public Map<String, String> getTrailers() {
+    return trailers;
+  }
+
   @Override
   public int read() throws IOException {
-    if (remainingInChunk == 0) {
-      final byte[] hexLengthBytes = readUntil(DELIMITER);
-      if (hexLengthBytes == null) {
-        return -1;
-      }
+    if (!ensureChunkData()) {
+      return -1;
+    }
+    if (bufferPosition == bufferLimit && !fillBuffer()) {
+      throw new EOFException("Unexpected end of stream, " + remainingInChunk
+          + " bytes missing in chunk.");
+    }
+    remainingInChunk--;
+    return buffer[bufferPosition++] & 0xFF;
+  }
 
-      remainingInChunk =
-          Integer.parseInt(new String(hexLengthBytes, StandardCharsets.UTF_8).trim(), 16);
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (off < 0 || len < 0 || len > b.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len == 0) {
+      return 0;
+    }
+    if (!ensureChunkData()) {
+      return -1;
+    }
 
-      if (remainingInChunk == 0) {
-        return -1;
+    final int toRead = Math.min(len, remainingInChunk);
+    final int buffered = bufferLimit - bufferPosition;
+    final int read;
+    if (buffered > 0) {
+      read = Math.min(toRead, buffered);
+      System.arraycopy(buffer, bufferPosition, b, off, read);
+      bufferPosition += read;
+    } else if (toRead >= buffer.length) {
+      // large reads of payload bytes go directly to the caller's array.
+      read = source.read(b, off, toRead);
+    } else {
+      read = fillBuffer() ? Math.min(toRead, bufferLimit) : -1;
+      if (read > 0) {
+        System.arraycopy(buffer, 0, b, off, read);
+        bufferPosition = read;
       }
-
-      readUntil(CRLF);
     }
+    if (read < 0) {
+      throw new EOFException("Unexpected end of stream, " + remainingInChunk
+          + " bytes missing in chunk.");
+    }
+    remainingInChunk -= read;
+    return read;
+  }
 
-    remainingInChunk--;
-
-    return source.read();
+  @Override
+  public int available() throws IOException {
+    if (finished) {
+      return 0;
+    }
+    return Math.min(bufferLimit - bufferPosition, remainingInChunk);
   }
 
   @Override
@@ -97,43 +168,116 @@ public class AwsChunkedDecodingInputStream extends InputStream {
   }
 
   /**
-   * Reads this stream until the byte sequence was found.
-   *
-   * @param endSequence The byte sequence to look for in the stream. The source stream is read
-   *     until the last bytes read are equal to this sequence.
+   * Makes sure that there are payload bytes left in the current chunk, parsing the next chunk
+   * header if necessary.
    *
-   * @return The bytes read <em>before</em> the end sequence started.
+   * @return false if the final chunk was reached.
    */
-  private byte[] readUntil(final byte[] endSequence) throws IOException {
-    byteBuffer.clear();
-    while (!endsWith(byteBuffer.asReadOnlyBuffer(), endSequence)) {
-      final int c = source.read();
-      if (c < 0) {
-        return null;
+  private boolean ensureChunkData() throws IOException {
+    if (finished) {
+      return false;
+    }
+    if (remainingInChunk == 0) {
+      remainingInChunk = readChunkHeader();
+      if (remainingInChunk <= 0) {
+        finished = true;
+        if (remainingInChunk == 0) {
+          readTrailers();
+        }
+        return false;
       }
+    }
+    return true;
+  }
 
-      final byte unsigned = (byte) (c & 0xFF);
-      byteBuffer.put(unsigned);
+  /**
+   * Parses a chunk header in place, without copying it out of the buffer.
+   * The CRLF terminating the payload of the previous chunk is skipped, then the hex encoded chunk
+   * size is parsed. Everything after the size up to the next LF (e.g. the chunk-signature) is
+   * skipped.
+   *
+   * @return the size of the next chunk, or -1 if the stream ended before a chunk header.
+   */
+  private int readChunkHeader() throws IOException {
+    int b = nextHeaderByte();
+    while (b == CR || b == LF || b == ' ') {
+      b = nextHeaderByte();
+    }
+    if (b < 0) {
+      return -1;
     }
 
-    final byte[] result = new byte[byteBuffer.position() - endSequence.length];
-    byteBuffer.rewind();
-    byteBuffer.get(result);
-    return result;
+    int size = 0;
+    int digits = 0;
+    int digit;
+    while (b >= 0 && (digit = Character.digit(b, 16)) >= 0) {
+      if (++digits > MAX_HEX_DIGITS) {
+        throw new IOException("Invalid chunk header, chunk size too large.");
+      }
+      size = (size << 4) | digit;
+      b = nextHeaderByte();
+    }
+    if (digits == 0 || size < 0) {
+      throw new IOException("Invalid chunk header, no valid chunk size found.");
+    }
+
+    while (b >= 0 && b != LF) {
+      b = nextHeaderByte();
+    }
+    return size;
   }
 
-  private boolean endsWith(final ByteBuffer buffer, final byte[] endSequence) {
-    final int pos = buffer.position();
-    if (pos >= endSequence.length) {
-      for (int i = 0; i < endSequence.length; i++) {
-        if (buffer.get(pos - endSequence.length + i) != endSequence[i]) {
-          return false;
+  /**
+   * Reads the trailing headers following the final chunk, until an empty line or the end of the
+   * stream is reached.
+   */
+  private void readTrailers() throws IOException {
+    final StringBuilder line = new StringBuilder();
+    int b = nextHeaderByte();
+    while (b >= 0) {
+      if (b == LF) {
+        if (line.length() == 0) {
+          return;
         }
+        addTrailer(line.toString());
+        line.setLength(0);
+      } else if (b != CR) {
+        line.append((char) b);
       }
+      b = nextHeaderByte();
+    }
+    if (line.length() > 0) {
+      addTrailer(line.toString());
+    }
+  }
 
-      return true;
+  private void addTrailer(final String line) {
+    final int separator = line.indexOf(':');
+    if (separator > 0) {
+      trailers.put(line.substring(0, separator).trim().toLowerCase(Locale.ROOT),
+          line.substring(separator + 1).trim());
     }
+  }
 
-    return false;
+  private int nextHeaderByte() throws IOException {
+    if (bufferPosition == bufferLimit && !fillBuffer()) {
+      return -1;
+    }
+    return buffer[bufferPosition++] & 0xFF;
+  }
+
+  /**
+   * Refills the empty buffer from the source stream.
+   *
+   * @return false if the source stream is exhausted.
+   */
+  private boolean fillBuffer() throws IOException {
+    int read = source.read(buffer, 0, buffer.length);
+    while (read == 0) {
+      read = source.read(buffer, 0, buffer.length);
+    }
+    bufferPosition = 0;
+    bufferLimit = Math.max(read, 0);
+    return read > 0;
   }
 }
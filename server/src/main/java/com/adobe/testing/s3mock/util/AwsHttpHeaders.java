@@ -48,10 +48,16 @@ public final class AwsHttpHeaders {
 
   public static final String X_AMZ_CONTENT_SHA256 = "x-amz-content-sha256";
   public static final String X_AMZ_TAGGING = "x-amz-tagging";
+  public static final String X_AMZ_TRAILER = "x-amz-trailer";
+  public static final String X_AMZ_SDK_CHECKSUM_ALGORITHM = "x-amz-sdk-checksum-algorithm";
+  public static final String X_AMZ_CHECKSUM_ALGORITHM = "x-amz-checksum-algorithm";
+  public static final String X_AMZ_CHECKSUM_MODE = "x-amz-checksum-mode";
   public static final String CONTENT_MD5 = "Content-MD5";
 
   public static final String X_AMZ_DELETE_MARKER = "x-amz-delete-marker";
 
+  public static final String X_AMZ_MP_PARTS_COUNT = "x-amz-mp-parts-count";
+
   public static final String X_AMZ_BUCKET_OBJECT_LOCK_ENABLED = "x-amz-bucket-object-lock-enabled";
 
   private AwsHttpHeaders() {
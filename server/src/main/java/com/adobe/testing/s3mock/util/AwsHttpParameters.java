@@ -28,9 +28,11 @@ public class AwsHttpParameters {
   public static final String CONTINUATION_TOKEN = "continuation-token";
   public static final String DELETE = "delete";
   public static final String ENCODING_TYPE = "encoding-type";
+  public static final String KEY_MARKER = "key-marker";
   public static final String LIST_TYPE_V2 = "list-type=2";
   public static final String NOT_LIST_TYPE = "!list-type";
   public static final String MAX_KEYS = "max-keys";
+  public static final String MAX_UPLOADS = "max-uploads";
   public static final String PART_NUMBER = "partNumber";
   public static final String START_AFTER = "start-after";
   public static final String TAGGING = "tagging";
@@ -39,6 +41,7 @@ public class AwsHttpParameters {
   public static final String NOT_UPLOADS = NOT + UPLOADS;
 
   public static final String UPLOAD_ID = "uploadId";
+  public static final String UPLOAD_ID_MARKER = "upload-id-marker";
   public static final String NOT_UPLOAD_ID = NOT + UPLOAD_ID;
 
   public static final String LEGAL_HOLD = "legal-hold";
@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.util;
+
+import static com.adobe.testing.s3mock.S3Exception.BAD_CHECKSUM;
+
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.function.Supplier;
+import org.apache.commons.codec.binary.Base64;
+
+/**
+ * Calculates the checksum of all bytes read from the wrapped stream.
+ * Once the end of the stream is reached, the checksum is verified against the expected value, if
+ * there is one. The expected value is only requested at the end of the stream, so that checksums
+ * sent as trailers of aws-chunked payloads can be verified, see
+ * {@link AwsChunkedDecodingInputStream#getTrailers()}.
+ */
+public class ChecksumInputStream extends FilterInputStream {
+
+  private final MessageDigest digest;
+
+  private final Supplier<String> expectedChecksum;
+
+  private String checksum;
+
+  /**
+   * Constructs a new {@link ChecksumInputStream}.
+   *
+   * @param source The {@link InputStream} to wrap.
+   * @param checksumAlgorithm The algorithm to calculate.
+   * @param expectedChecksum Supplies the expected base64 encoded checksum at the end of the
+   *     stream, or null if there is none, e.g. because no trailer was sent. May be null if the
+   *     checksum should only be calculated.
+   */
+  public ChecksumInputStream(InputStream source, ChecksumAlgorithm checksumAlgorithm,
+      Supplier<String> expectedChecksum) {
+    super(source);
+    this.digest = DigestUtil.checksumDigest(checksumAlgorithm);
+    this.expectedChecksum = expectedChecksum;
+  }
+
+  /**
+   * The calculated, base64 encoded checksum. Only available once the stream was read completely.
+   *
+   * @return the checksum or null if the end of the stream was not reached yet.
+   */
+  public String getChecksum() {
+    return checksum;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = in.read();
+    if (b < 0) {
+      finish();
+    } else {
+      digest.update((byte) b);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int read = in.read(b, off, len);
+    if (read < 0) {
+      finish();
+    } else {
+      digest.update(b, off, read);
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    // skipped bytes need to be part of the checksum, so read them instead.
+    byte[] skipBuffer = new byte[(int) Math.min(n, 8192)];
+    long remaining = n;
+    while (remaining > 0) {
+      int read = read(skipBuffer, 0, (int) Math.min(remaining, skipBuffer.length));
+      if (read < 0) {
+        break;
+      }
+      remaining -= read;
+    }
+    return n - remaining;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  private void finish() {
+    if (checksum != null) {
+      return;
+    }
+    checksum = Base64.encodeBase64String(digest.digest());
+    String expected = expectedChecksum != null ? expectedChecksum.get() : null;
+    if (expected != null && !checksum.equals(expected)) {
+      throw BAD_CHECKSUM;
+    }
+  }
+}
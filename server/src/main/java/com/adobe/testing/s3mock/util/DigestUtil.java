@@ -18,20 +18,26 @@ package com.adobe.testing.s3mock.util;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.commons.codec.digest.DigestUtils.getMd5Digest;
-import static org.apache.commons.codec.digest.DigestUtils.updateDigest;
 import static org.apache.commons.io.FileUtils.openInputStream;
 
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.codec.digest.PureJavaCrc32C;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +50,25 @@ public class DigestUtil {
 
   private static final Logger LOG = LoggerFactory.getLogger(DigestUtil.class);
 
+  /**
+   * The JDK implementation of CRC32C is only available from Java 9 on, it is used if present.
+   */
+  private static final Constructor<?> JDK_CRC32C = jdkCrc32c();
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Read buffers and MD5 digests are borrowed from small bounded pools instead of being held per
+   * thread, as virtual threads are not reused. If a pool is empty, a new instance is created,
+   * instances that do not fit into a full pool are left to the garbage collector.
+   */
+  private static final int POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+  private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(POOL_SIZE);
+  private static final BlockingQueue<MessageDigest> MD5_DIGESTS =
+      new ArrayBlockingQueue<>(POOL_SIZE);
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
   /**
    * Calculates a hex encoded MD5 digest for the contents of a list of paths.
    * This is a special case that emulates how AWS calculates the MD5 Checksums of the parts of a
@@ -67,11 +92,25 @@ public class DigestUtil {
    * @throws IOException if a path could not be accessed.
    */
   public static String hexDigestMultipart(List<Path> paths) throws IOException {
-    return DigestUtils.md5Hex(md5(null, paths)) + "-" + paths.size();
+    MultipartDigest multipartDigest = new MultipartDigest();
+    for (Path path : paths) {
+      try (final InputStream inputStream = Files.newInputStream(path)) {
+        multipartDigest.addPart(md5(null, inputStream));
+      } catch (IOException e) {
+        LOG.error("Could not read from path {}", path, e);
+        throw new IllegalStateException("Could not read from path " + path, e);
+      }
+    }
+    return multipartDigest.hexDigest();
   }
 
   public static String hexDigest(byte[] bytes) {
-    return DigestUtils.md5Hex(bytes);
+    MessageDigest messageDigest = borrowMd5Digest();
+    try {
+      return Hex.encodeHexString(messageDigest.digest(bytes));
+    } finally {
+      releaseMd5Digest(messageDigest);
+    }
   }
 
   public static String hexDigest(File file) {
@@ -158,36 +197,236 @@ public class DigestUtil {
     return Base64.encodeBase64String(md5(salt, inputStream));
   }
 
+  /**
+   * Creates a {@link MessageDigest} calculating the checksum of the given algorithm.
+   * CRC checksums are exposed through the {@link MessageDigest} API as well, their digest is the
+   * big-endian representation of the checksum value, as expected by the AWS SDKs.
+   *
+   * @param checksumAlgorithm the algorithm.
+   *
+   * @return a new {@link MessageDigest}.
+   */
+  public static MessageDigest checksumDigest(ChecksumAlgorithm checksumAlgorithm) {
+    switch (checksumAlgorithm) {
+      case CRC32:
+        return new ChecksumMessageDigest(checksumAlgorithm.toString(), new CRC32());
+      case CRC32C:
+        return new ChecksumMessageDigest(checksumAlgorithm.toString(), crc32c());
+      case SHA1:
+        return DigestUtils.getSha1Digest();
+      case SHA256:
+        return DigestUtils.getSha256Digest();
+      default:
+        throw new IllegalArgumentException("Unknown checksum algorithm " + checksumAlgorithm);
+    }
+  }
+
+  /**
+   * Calculates a base64 encoded checksum for the content of an inputStream.
+   *
+   * @param checksumAlgorithm the algorithm.
+   * @param inputStream the InputStream.
+   *
+   * @return String Base64 checksum.
+   */
+  public static String base64Checksum(ChecksumAlgorithm checksumAlgorithm,
+      InputStream inputStream) {
+    try {
+      return Base64.encodeBase64String(
+          update(checksumDigest(checksumAlgorithm), inputStream).digest());
+    } catch (IOException e) {
+      LOG.error("Could not update checksum.", e);
+      throw new IllegalStateException("Could not update checksum.", e);
+    }
+  }
+
+  /**
+   * Calculates the composite checksum of a multipart upload: the checksum of the concatenated,
+   * decoded checksums of all parts, suffixed with the number of parts.
+   *
+   * @param checksumAlgorithm the algorithm.
+   * @param partChecksums base64 encoded checksums of all parts, in order.
+   *
+   * @return Base64 composite checksum, e.g. "VNGAbw==-3".
+   */
+  public static String compositeChecksum(ChecksumAlgorithm checksumAlgorithm,
+      List<String> partChecksums) {
+    MessageDigest digest = checksumDigest(checksumAlgorithm);
+    for (String partChecksum : partChecksums) {
+      digest.update(Base64.decodeBase64(partChecksum));
+    }
+    return Base64.encodeBase64String(digest.digest()) + "-" + partChecksums.size();
+  }
+
+  /**
+   * Copies the inputStream to the outputStream, updating all digests with the copied data in the
+   * same pass.
+   *
+   * @param inputStream the source, will not be closed.
+   * @param outputStream the target, will not be closed.
+   * @param digests the digests to update.
+   */
+  public static void copyAndDigest(InputStream inputStream, OutputStream outputStream,
+      MessageDigest... digests) throws IOException {
+    byte[] buffer = borrowBuffer();
+    try {
+      int read;
+      while ((read = inputStream.read(buffer, 0, buffer.length)) != -1) {
+        outputStream.write(buffer, 0, read);
+        for (MessageDigest digest : digests) {
+          digest.update(buffer, 0, read);
+        }
+      }
+    } finally {
+      releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Hex encodes a digest and appends a hyphen and the given suffix, without intermediate Strings.
+   */
+  static String hexDigestWithSuffix(byte[] digest, int suffix) {
+    StringBuilder sb = new StringBuilder(digest.length * 2 + 11);
+    for (byte b : digest) {
+      sb.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+    }
+    return sb.append('-').append(suffix).toString();
+  }
+
   private static byte[] md5(String salt, InputStream inputStream) {
-    MessageDigest messageDigest = messageDigest(salt);
+    MessageDigest messageDigest = borrowMd5Digest();
     try {
-      return updateDigest(messageDigest, inputStream).digest();
+      if (salt != null) {
+        messageDigest.update(salt.getBytes(UTF_8));
+      }
+      return update(messageDigest, inputStream).digest();
     } catch (IOException e) {
       LOG.error("Could not update digest.", e);
       throw new IllegalStateException("Could not update digest.", e);
+    } finally {
+      releaseMd5Digest(messageDigest);
     }
   }
 
-  private static byte[] md5(String salt, List<Path> paths) {
-    byte[] allMd5s = new byte[0];
-    for (Path path : paths) {
-      try (final InputStream inputStream = Files.newInputStream(path)) {
-        allMd5s = ArrayUtils.addAll(allMd5s, md5(salt, inputStream));
-      } catch (IOException e) {
-        LOG.error("Could not read from path {}", path, e);
-        throw new IllegalStateException("Could not read from path " + path, e);
+  private static byte[] borrowBuffer() {
+    byte[] buffer = BUFFERS.poll();
+    return buffer != null ? buffer : new byte[BUFFER_SIZE];
+  }
+
+  private static void releaseBuffer(byte[] buffer) {
+    BUFFERS.offer(buffer);
+  }
+
+  private static MessageDigest borrowMd5Digest() {
+    MessageDigest messageDigest = MD5_DIGESTS.poll();
+    return messageDigest != null ? messageDigest : getMd5Digest();
+  }
+
+  /**
+   * Returns a digest to the pool, a digest left in use by a failed operation is reset first.
+   */
+  private static void releaseMd5Digest(MessageDigest messageDigest) {
+    messageDigest.reset();
+    MD5_DIGESTS.offer(messageDigest);
+  }
+
+  /**
+   * Reads the inputStream into the digest.
+   */
+  private static MessageDigest update(MessageDigest messageDigest, InputStream inputStream)
+      throws IOException {
+    byte[] buffer = borrowBuffer();
+    try {
+      int read;
+      while ((read = inputStream.read(buffer, 0, buffer.length)) != -1) {
+        messageDigest.update(buffer, 0, read);
       }
+    } finally {
+      releaseBuffer(buffer);
     }
-    return allMd5s;
+    return messageDigest;
   }
 
-  private static MessageDigest messageDigest(String salt) {
+  /**
+   * Creates a {@link MessageDigest} for MD5, to calculate the etag of an object while it is
+   * written.
+   *
+   * @param salt Optional salt to add to be digested, for simulating encryption dependent digest.
+   *
+   * @return a new {@link MessageDigest}.
+   */
+  public static MessageDigest md5Digest(String salt) {
     MessageDigest messageDigest = getMd5Digest();
-    messageDigest.reset();
 
     if (salt != null) {
-      updateDigest(messageDigest, salt.getBytes(UTF_8));
+      messageDigest.update(salt.getBytes(UTF_8));
     }
     return messageDigest;
   }
+
+  private static Checksum crc32c() {
+    if (JDK_CRC32C != null) {
+      try {
+        return (Checksum) JDK_CRC32C.newInstance();
+      } catch (ReflectiveOperationException e) {
+        LOG.debug("Could not instantiate java.util.zip.CRC32C.", e);
+      }
+    }
+    return new PureJavaCrc32C();
+  }
+
+  private static Constructor<?> jdkCrc32c() {
+    try {
+      return Class.forName("java.util.zip.CRC32C").getConstructor();
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Adapts a {@link Checksum} to the {@link MessageDigest} API.
+   */
+  private static final class ChecksumMessageDigest extends MessageDigest {
+
+    private static final int DIGEST_LENGTH = 4;
+
+    private final Checksum checksum;
+
+    private ChecksumMessageDigest(String algorithm, Checksum checksum) {
+      super(algorithm);
+      this.checksum = checksum;
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+      return DIGEST_LENGTH;
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+      checksum.update(input);
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int len) {
+      checksum.update(input, offset, len);
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+      long value = checksum.getValue();
+      checksum.reset();
+      return new byte[] {
+          (byte) (value >>> 24),
+          (byte) (value >>> 16),
+          (byte) (value >>> 8),
+          (byte) value
+      };
+    }
+
+    @Override
+    protected void engineReset() {
+      checksum.reset();
+    }
+  }
 }
@@ -16,15 +16,22 @@
 
 package com.adobe.testing.s3mock.util;
 
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_MP_PARTS_COUNT;
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_SDK_CHECKSUM_ALGORITHM;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_SERVER_SIDE_ENCRYPTION;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_SERVER_SIDE_ENCRYPTION_AWS_KMS_KEY_ID;
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_TRAILER;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.InvalidMediaTypeException;
@@ -39,8 +46,17 @@ public final class HeaderUtil {
   private static final String RESPONSE_HEADER_CONTENT_DISPOSITION = "response-content-disposition";
   private static final String RESPONSE_HEADER_CONTENT_ENCODING = "response-content-encoding";
   private static final String HEADER_X_AMZ_META_PREFIX = "x-amz-meta-";
-  private static final String STREAMING_AWS_4_HMAC_SHA_256_PAYLOAD =
-      "STREAMING-AWS4-HMAC-SHA256-PAYLOAD";
+  /**
+   * Values of the "x-amz-content-sha256" header denoting an aws-chunked encoded payload.
+   */
+  private static final Set<String> STREAMING_PAYLOADS = new HashSet<>(Arrays.asList(
+      "STREAMING-AWS4-HMAC-SHA256-PAYLOAD",
+      "STREAMING-AWS4-HMAC-SHA256-PAYLOAD-TRAILER",
+      "STREAMING-AWS4-ECDSA-P256-SHA256-PAYLOAD",
+      "STREAMING-AWS4-ECDSA-P256-SHA256-PAYLOAD-TRAILER",
+      "STREAMING-UNSIGNED-PAYLOAD-TRAILER"
+  ));
+  private static final String CHECKSUM_MODE_ENABLED = "ENABLED";
   private static final MediaType FALLBACK_MEDIA_TYPE = new MediaType("binary", "octet-stream");
 
   /**
@@ -90,8 +106,86 @@ public final class HeaderUtil {
     return encryptionHeaders;
   }
 
-  public static boolean isV4ChunkedWithSigningEnabled(final String sha256Header) {
-    return sha256Header != null && sha256Header.equals(STREAMING_AWS_4_HMAC_SHA_256_PAYLOAD);
+  /**
+   * Creates the parts count response header for objects created by a multipart upload.
+   * @param s3ObjectMetadata {@link S3ObjectMetadata} S3Object where the parts will be counted
+   */
+  public static Map<String, String> createPartsCountHeaders(S3ObjectMetadata s3ObjectMetadata) {
+    Map<String, String> partsCountHeaders = new HashMap<>();
+    if (s3ObjectMetadata.getParts() != null && !s3ObjectMetadata.getParts().isEmpty()) {
+      partsCountHeaders.put(X_AMZ_MP_PARTS_COUNT,
+          String.valueOf(s3ObjectMetadata.getParts().size()));
+    }
+    return partsCountHeaders;
+  }
+
+  /**
+   * Creates the checksum response header, if the object has a checksum and the checksum mode
+   * is enabled.
+   * @param s3ObjectMetadata {@link S3ObjectMetadata} S3Object where the checksum will be extracted
+   * @param checksumMode value of the "x-amz-checksum-mode" header
+   */
+  public static Map<String, String> createChecksumHeaders(S3ObjectMetadata s3ObjectMetadata,
+      String checksumMode) {
+    Map<String, String> checksumHeaders = new HashMap<>();
+    if (CHECKSUM_MODE_ENABLED.equalsIgnoreCase(checksumMode)) {
+      checksumHeaders.putAll(createChecksumHeaders(s3ObjectMetadata));
+    }
+    return checksumHeaders;
+  }
+
+  /**
+   * Creates the checksum response header, if the object has a checksum.
+   * @param s3ObjectMetadata {@link S3ObjectMetadata} S3Object where the checksum will be extracted
+   */
+  public static Map<String, String> createChecksumHeaders(S3ObjectMetadata s3ObjectMetadata) {
+    Map<String, String> checksumHeaders = new HashMap<>();
+    if (s3ObjectMetadata.getChecksumAlgorithm() != null && s3ObjectMetadata.getChecksum() != null) {
+      checksumHeaders.put(s3ObjectMetadata.getChecksumAlgorithm().getHeaderName(),
+          s3ObjectMetadata.getChecksum());
+    }
+    return checksumHeaders;
+  }
+
+  /**
+   * Retrieves the checksum algorithm from request.
+   * The algorithm is taken from the "x-amz-trailer" header of chunked uploads, from a present
+   * checksum header or from the "x-amz-sdk-checksum-algorithm" header, in this order.
+   * @param headers {@link HttpHeaders}
+   * @return the algorithm or null if the request does not contain a checksum.
+   */
+  public static ChecksumAlgorithm checksumAlgorithmFrom(HttpHeaders headers) {
+    ChecksumAlgorithm algorithm = ChecksumAlgorithm.fromHeader(headers.getFirst(X_AMZ_TRAILER));
+    if (algorithm != null) {
+      return algorithm;
+    }
+    for (ChecksumAlgorithm candidate : ChecksumAlgorithm.values()) {
+      if (headers.containsKey(candidate.getHeaderName())) {
+        return candidate;
+      }
+    }
+    return ChecksumAlgorithm.fromString(headers.getFirst(X_AMZ_SDK_CHECKSUM_ALGORITHM));
+  }
+
+  /**
+   * Retrieves the checksum of the given algorithm from request headers.
+   * @param headers {@link HttpHeaders}
+   * @param algorithm the checksum algorithm, may be null.
+   * @return the base64 encoded checksum or null if not sent as header.
+   */
+  public static String checksumFrom(HttpHeaders headers, ChecksumAlgorithm algorithm) {
+    if (algorithm == null) {
+      return null;
+    }
+    return headers.getFirst(algorithm.getHeaderName());
+  }
+
+  /**
+   * Checks if the payload is aws-chunked encoded, signed or unsigned, with or without trailers.
+   * @param sha256Header value of the "x-amz-content-sha256" header
+   */
+  public static boolean isChunkedEncoding(final String sha256Header) {
+    return sha256Header != null && STREAMING_PAYLOADS.contains(sha256Header);
   }
 
   public static MediaType parseMediaType(final String contentType) {
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.util;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * Read-only view of a collection that maps each element while it is iterated.
+ * Listing results hold their entries in such views: Jackson writes the entries to the response
+ * one after the other, so the mapped entries are never held in memory all at once, and the first
+ * entry is written before the last one is mapped.
+ * The mapping function is applied again on every iteration.
+ *
+ * @param <S> type of the source elements
+ * @param <T> type of the mapped elements
+ */
+public final class MappedCollection<S, T> extends AbstractCollection<T> {
+
+  private final Collection<S> source;
+
+  private final Function<? super S, ? extends T> mapper;
+
+  private MappedCollection(Collection<S> source, Function<? super S, ? extends T> mapper) {
+    this.source = source;
+    this.mapper = mapper;
+  }
+
+  /**
+   * Creates a view of the source collection mapping each element with the given function.
+   *
+   * @param source the source collection, must not be modified while the view is in use.
+   * @param mapper the mapping function
+   *
+   * @return the view
+   */
+  public static <S, T> Collection<T> map(Collection<S> source,
+      Function<? super S, ? extends T> mapper) {
+    return new MappedCollection<>(source, mapper);
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    Iterator<S> iterator = source.iterator();
+    return new Iterator<T>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public T next() {
+        return mapper.apply(iterator.next());
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return source.size();
+  }
+}
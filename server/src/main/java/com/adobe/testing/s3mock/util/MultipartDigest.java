@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.util;
+
+import java.security.MessageDigest;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Accumulates the MD5 digests of the parts of a multipart upload into the etag of the completed
+ * object, see {@link DigestUtil#hexDigestMultipart(java.util.List)}.
+ * Part digests are fed into a single MD5 digest as they are added, so memory usage does not grow
+ * with the number of parts.
+ * Instances are not thread-safe.
+ */
+public final class MultipartDigest {
+
+  private final MessageDigest digest = DigestUtils.getMd5Digest();
+
+  private int partCount;
+
+  /**
+   * Adds the binary MD5 digest of the next part.
+   *
+   * @param partMd5 the MD5 digest of the part.
+   */
+  public void addPart(byte[] partMd5) {
+    digest.update(partMd5);
+    partCount++;
+  }
+
+  public int getPartCount() {
+    return partCount;
+  }
+
+  /**
+   * Completes the digest. The accumulator is reset afterwards.
+   *
+   * @return the hex encoded digest of all part digests, suffixed with a hyphen and the number of
+   *     parts, e.g. "5e8ff9bf55ba3508199d22e984129be6-2".
+   */
+  public String hexDigest() {
+    String etag = DigestUtil.hexDigestWithSuffix(digest.digest(), partCount);
+    partCount = 0;
+    return etag;
+  }
+}
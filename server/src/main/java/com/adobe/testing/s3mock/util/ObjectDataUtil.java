@@ -0,0 +1,275 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.util;
+
+import com.adobe.testing.s3mock.dto.Range;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.adobe.testing.s3mock.store.S3ObjectPart;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.eclipse.jetty.server.HttpOutput;
+
+/**
+ * Util-Class for reading the binary data of an S3 object.
+ * The data is either stored in a single file, or, for virtual multipart objects, spread across
+ * the files of the parts the object was uploaded with.
+ */
+public class ObjectDataUtil {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final byte[] CRLF = {'\r', '\n'};
+
+  private ObjectDataUtil() {
+    // empty private constructor
+  }
+
+  /**
+   * Checks if the data of the object is stored in its part files instead of a single file.
+   *
+   * @param s3ObjectMetadata the object
+   *
+   * @return true if this is a virtual multipart object.
+   */
+  public static boolean isVirtual(S3ObjectMetadata s3ObjectMetadata) {
+    return s3ObjectMetadata.getDataPath() == null
+        && s3ObjectMetadata.getParts() != null
+        && !s3ObjectMetadata.getParts().isEmpty();
+  }
+
+  /**
+   * Calculates the size of the object data as stored on disk.
+   *
+   * @param s3ObjectMetadata the object
+   *
+   * @return size in bytes.
+   */
+  public static long dataSize(S3ObjectMetadata s3ObjectMetadata) {
+    if (isVirtual(s3ObjectMetadata)) {
+      List<S3ObjectPart> parts = s3ObjectMetadata.getParts();
+      S3ObjectPart lastPart = parts.get(parts.size() - 1);
+      return lastPart.getOffset() + lastPart.getSize();
+    }
+    return s3ObjectMetadata.getDataPath().toFile().length();
+  }
+
+  /**
+   * Opens an InputStream over the complete object data.
+   * Part files of virtual multipart objects are opened one after the other while reading.
+   *
+   * @param s3ObjectMetadata the object
+   *
+   * @return InputStream, must be closed by the caller.
+   */
+  public static InputStream newInputStream(S3ObjectMetadata s3ObjectMetadata) throws IOException {
+    if (!isVirtual(s3ObjectMetadata)) {
+      return Files.newInputStream(s3ObjectMetadata.getDataPath());
+    }
+    Iterator<S3ObjectPart> parts = s3ObjectMetadata.getParts().iterator();
+    return new SequenceInputStream(new Enumeration<InputStream>() {
+      @Override
+      public boolean hasMoreElements() {
+        return parts.hasNext();
+      }
+
+      @Override
+      public InputStream nextElement() {
+        S3ObjectPart part = parts.next();
+        try {
+          return Files.newInputStream(part.getDataPath());
+        } catch (IOException e) {
+          throw new IllegalStateException("Can't access path " + part.getDataPath(), e);
+        }
+      }
+    });
+  }
+
+  /**
+   * Copies a range of the object data to the given OutputStream.
+   * For virtual multipart objects, only the part files overlapping the range are read.
+   * Ranges exceeding the object data are copied up to the end of the data.
+   *
+   * <p>If the OutputStream is Jetty's {@link HttpOutput} and the range is stored in a single file,
+   * the file region is handed to Jetty as channel. Jetty reads it into its direct buffers and
+   * writes these to the connection, the data is not copied through the Java heap.
+   * This completes the response, nothing must be written to the OutputStream afterwards.</p>
+   *
+   * @param s3ObjectMetadata the object
+   * @param start position of the first byte to copy
+   * @param length number of bytes to copy
+   * @param outputStream target of the copy, will not be closed.
+   */
+  public static void copyData(S3ObjectMetadata s3ObjectMetadata, long start, long length,
+      OutputStream outputStream) throws IOException {
+    copyRange(s3ObjectMetadata, start, length, outputStream, true);
+  }
+
+  /**
+   * Copies multiple ranges of the object data to the given OutputStream, as
+   * "multipart/byteranges" body.
+   * <a href="https://www.rfc-editor.org/rfc/rfc9110#name-media-type-multipart-byteranges">RFC 9110</a>
+   *
+   * @param s3ObjectMetadata the object
+   * @param ranges resolved ranges to copy
+   * @param boundary the multipart boundary
+   * @param contentType content type of the object
+   * @param outputStream target of the copy, will not be closed.
+   */
+  public static void copyByteRanges(S3ObjectMetadata s3ObjectMetadata, List<Range> ranges,
+      String boundary, String contentType, OutputStream outputStream) throws IOException {
+    long size = dataSize(s3ObjectMetadata);
+    for (Range range : ranges) {
+      outputStream.write(byteRangeHeader(range, boundary, contentType, size));
+      copyRange(s3ObjectMetadata, range.getStart(), range.getLength(), outputStream, false);
+      outputStream.write(CRLF);
+    }
+    outputStream.write(byteRangesEnd(boundary));
+  }
+
+  /**
+   * Calculates the length of the "multipart/byteranges" body written by
+   * {@link #copyByteRanges(S3ObjectMetadata, List, String, String, OutputStream)}.
+   */
+  public static long byteRangesLength(S3ObjectMetadata s3ObjectMetadata, List<Range> ranges,
+      String boundary, String contentType) {
+    long size = dataSize(s3ObjectMetadata);
+    long length = byteRangesEnd(boundary).length;
+    for (Range range : ranges) {
+      length += byteRangeHeader(range, boundary, contentType, size).length
+          + range.getLength() + CRLF.length;
+    }
+    return length;
+  }
+
+  private static byte[] byteRangeHeader(Range range, String boundary, String contentType,
+      long size) {
+    return ("--" + boundary + "\r\n"
+        + "Content-Type: " + contentType + "\r\n"
+        + "Content-Range: bytes " + range.getStart() + "-" + range.getEnd() + "/" + size + "\r\n"
+        + "\r\n").getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static byte[] byteRangesEnd(String boundary) {
+    return ("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static void copyRange(S3ObjectMetadata s3ObjectMetadata, long start, long length,
+      OutputStream outputStream, boolean sendContent) throws IOException {
+    if (!isVirtual(s3ObjectMetadata)) {
+      copyFile(s3ObjectMetadata.getDataPath(), start, length, outputStream, sendContent);
+      return;
+    }
+    long end = start + length;
+    List<S3ObjectPart> overlappingParts = s3ObjectMetadata.getParts().stream()
+        .filter(part -> part.getOffset() + part.getSize() > start && part.getOffset() < end)
+        .collect(Collectors.toList());
+    for (S3ObjectPart part : overlappingParts) {
+      long from = Math.max(start, part.getOffset());
+      long to = Math.min(end, part.getOffset() + part.getSize());
+      copyFile(part.getDataPath(), from - part.getOffset(), to - from, outputStream,
+          sendContent && overlappingParts.size() == 1);
+    }
+  }
+
+  private static void copyFile(Path path, long start, long length, OutputStream outputStream,
+      boolean sendContent) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long count = Math.min(length, channel.size() - start);
+      if (count <= 0) {
+        return;
+      }
+      if (sendContent && outputStream instanceof HttpOutput) {
+        ((HttpOutput) outputStream).sendContent(new FileRegionChannel(channel, start, count));
+        return;
+      }
+      // positional reads, the channel does not need to skip to the start of the range.
+      byte[] bytes = new byte[(int) Math.min(BUFFER_SIZE, count)];
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      long position = start;
+      long end = start + count;
+      while (position < end) {
+        buffer.clear();
+        buffer.limit((int) Math.min(bytes.length, end - position));
+        int read = channel.read(buffer, position);
+        if (read == -1) {
+          break;
+        }
+        outputStream.write(bytes, 0, read);
+        position += read;
+      }
+    }
+  }
+
+  /**
+   * Region of a file as channel, read with positional reads straight into the buffers of the
+   * reader. Closing it closes the file.
+   */
+  private static final class FileRegionChannel implements ReadableByteChannel {
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+
+    FileRegionChannel(FileChannel channel, long start, long count) {
+      this.channel = channel;
+      this.position = start;
+      this.end = start + count;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      if (position >= end) {
+        return -1;
+      }
+      int limit = dst.limit();
+      if (dst.remaining() > end - position) {
+        dst.limit(dst.position() + (int) (end - position));
+      }
+      try {
+        int read = channel.read(dst, position);
+        if (read > 0) {
+          position += read;
+        }
+        return read;
+      } finally {
+        dst.limit(limit);
+      }
+    }
+
+    @Override
+    public boolean isOpen() {
+      return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
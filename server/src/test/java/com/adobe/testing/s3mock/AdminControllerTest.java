@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_BUCKET;
+import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_SNAPSHOT;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.adobe.testing.s3mock.service.AdminService;
+import com.adobe.testing.s3mock.service.BucketService;
+import com.adobe.testing.s3mock.service.MultipartService;
+import com.adobe.testing.s3mock.service.ObjectService;
+import com.adobe.testing.s3mock.store.BucketStore;
+import com.adobe.testing.s3mock.store.KmsKeyStore;
+import com.adobe.testing.s3mock.store.ObjectStore;
+import java.io.OutputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@AutoConfigureWebMvc
+@AutoConfigureMockMvc
+@MockBean(classes = {KmsKeyStore.class, BucketStore.class, ObjectStore.class, ObjectService.class,
+    MultipartService.class, ObjectController.class, BucketController.class,
+    MultipartController.class})
+@SpringBootTest(classes = {S3MockConfiguration.class})
+class AdminControllerTest {
+  private static final String TEST_BUCKET_NAME = "test-bucket";
+
+  @MockBean
+  private BucketService bucketService;
+
+  @MockBean
+  private AdminService adminService;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void testExportBucket_Ok() throws Exception {
+    MvcResult result = mockMvc.perform(
+            get("/_admin/buckets/" + TEST_BUCKET_NAME + "/export")
+                .param("prefix", "a/")
+                .accept("application/x-tar")
+        ).andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-tar"))
+        .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"" + TEST_BUCKET_NAME + ".tar\""));
+    verify(adminService).exportBucket(eq(TEST_BUCKET_NAME), eq("a/"), any(OutputStream.class));
+  }
+
+  @Test
+  void testDeleteBucket_NoContent() throws Exception {
+    mockMvc.perform(
+            delete("/_admin/buckets/" + TEST_BUCKET_NAME)
+        ).andExpect(status().isNoContent());
+    verify(adminService).deleteBucket(TEST_BUCKET_NAME);
+  }
+
+  @Test
+  void testReset_Ok() throws Exception {
+    mockMvc.perform(
+            post("/_admin/reset")
+        ).andExpect(status().isOk());
+    verify(adminService).reset();
+  }
+
+  @Test
+  void testCreateSnapshot_Ok() throws Exception {
+    mockMvc.perform(
+            put("/_admin/snapshots/fixture")
+        ).andExpect(status().isOk());
+    verify(adminService).createSnapshot("fixture");
+  }
+
+  @Test
+  void testRestoreSnapshot_NotFound() throws Exception {
+    doThrow(NO_SUCH_SNAPSHOT).when(adminService).restoreSnapshot("fixture");
+
+    mockMvc.perform(
+            post("/_admin/snapshots/fixture/restore")
+        ).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void testExportBucket_NotFound() throws Exception {
+    doThrow(NO_SUCH_BUCKET).when(bucketService).verifyBucketExists(TEST_BUCKET_NAME);
+
+    mockMvc.perform(
+            get("/_admin/buckets/" + TEST_BUCKET_NAME + "/export")
+        ).andExpect(status().isNotFound());
+  }
+}
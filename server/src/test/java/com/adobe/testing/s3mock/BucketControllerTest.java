@@ -81,7 +81,8 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 @AutoConfigureWebMvc
 @AutoConfigureMockMvc
 @MockBean(classes = {KmsKeyStore.class, BucketStore.class, ObjectStore.class, ObjectService.class,
-    MultipartService.class, ObjectController.class, MultipartController.class})
+    MultipartService.class, ObjectController.class, MultipartController.class,
+    AdminController.class})
 @SpringBootTest(classes = {S3MockConfiguration.class})
 class BucketControllerTest {
 
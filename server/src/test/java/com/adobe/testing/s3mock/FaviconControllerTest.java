@@ -37,7 +37,8 @@ import org.springframework.test.web.servlet.MockMvc;
     ObjectController.class,
     BucketStore.class,
     BucketController.class,
-    MultipartController.class
+    MultipartController.class,
+    AdminController.class
 })
 @SpringBootTest(classes = {S3MockConfiguration.class})
 @AutoConfigureMockMvc
@@ -57,7 +57,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 @AutoConfigureWebMvc
 @AutoConfigureMockMvc
 @MockBeans({@MockBean(classes = {KmsKeyStore.class, BucketStore.class, ObjectService.class,
-  ObjectController.class, BucketController.class})})
+  ObjectController.class, BucketController.class, AdminController.class})})
 @SpringBootTest(classes = {S3MockConfiguration.class})
 class MultipartControllerTest {
   private static final ObjectMapper MAPPER = new XmlMapper();
@@ -17,13 +17,20 @@
 package com.adobe.testing.s3mock;
 
 import static com.adobe.testing.s3mock.S3Exception.BAD_REQUEST_MD5;
+import static com.adobe.testing.s3mock.S3Exception.NOT_MODIFIED;
 import static com.adobe.testing.s3mock.dto.Grant.Permission.FULL_CONTROL;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.CONTENT_MD5;
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_CHECKSUM_MODE;
+import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_MP_PARTS_COUNT;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_SERVER_SIDE_ENCRYPTION;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_SERVER_SIDE_ENCRYPTION_AWS_KMS_KEY_ID;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.ACL;
+import static com.adobe.testing.s3mock.util.AwsHttpParameters.PART_NUMBER;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.RETENTION;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.TAGGING;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.contains;
@@ -33,12 +40,14 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_XML;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 
 import com.adobe.testing.s3mock.dto.AccessControlPolicy;
 import com.adobe.testing.s3mock.dto.Bucket;
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.Grant;
 import com.adobe.testing.s3mock.dto.Grantee;
 import com.adobe.testing.s3mock.dto.Mode;
@@ -52,12 +61,15 @@ import com.adobe.testing.s3mock.service.ObjectService;
 import com.adobe.testing.s3mock.store.BucketStore;
 import com.adobe.testing.s3mock.store.KmsKeyStore;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.adobe.testing.s3mock.store.S3ObjectPart;
 import com.adobe.testing.s3mock.util.DigestUtil;
 import com.adobe.testing.s3mock.util.XmlUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.Arrays;
@@ -65,20 +77,23 @@ import java.util.Collections;
 import java.util.UUID;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.MockBeans;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 @AutoConfigureWebMvc
 @AutoConfigureMockMvc
 @MockBeans({@MockBean(classes = {KmsKeyStore.class, BucketStore.class, MultipartService.class,
-  BucketController.class, MultipartController.class})})
+  BucketController.class, MultipartController.class, AdminController.class})})
 @SpringBootTest(classes = {S3MockConfiguration.class})
 class ObjectControllerTest {
   private static final String TEST_BUCKET_NAME = "test-bucket";
@@ -110,6 +125,8 @@ class ObjectControllerTest {
         isNull(),
         isNull(),
         eq(false),
+        isNull(),
+        isNull(),
         anyMap(),
         isNull(),
         isNull(),
@@ -142,6 +159,8 @@ class ObjectControllerTest {
         isNull(),
         isNull(),
         eq(false),
+        isNull(),
+        isNull(),
         anyMap(),
         isNull(),
         isNull(),
@@ -187,7 +206,7 @@ class ObjectControllerTest {
     S3ObjectMetadata expectedS3ObjectMetadata = s3ObjectEncrypted(key, encryption, encryptionKey);
 
     givenBucket();
-    when(objectService.verifyObjectExists(eq(TEST_BUCKET_NAME), eq(key)))
+    when(objectService.openObject(eq(TEST_BUCKET_NAME), eq(key)))
         .thenReturn(expectedS3ObjectMetadata);
 
     mockMvc.perform(
@@ -217,6 +236,197 @@ class ObjectControllerTest {
             X_AMZ_SERVER_SIDE_ENCRYPTION_AWS_KMS_KEY_ID, encryptionKey));
   }
 
+  @Test
+  void testHeadObject_PartNumber_Ok() throws Exception {
+    String key = "name";
+    S3ObjectMetadata s3ObjectMetadata = s3ObjectEncrypted(key, "aws:kms", "key-ref");
+    s3ObjectMetadata.setSize("30");
+    s3ObjectMetadata.setParts(Arrays.asList(
+        new S3ObjectPart(1, 0, 10, null),
+        new S3ObjectPart(2, 10, 20, null)));
+
+    givenBucket();
+    when(objectService.verifyObjectExists(eq("test-bucket"), eq(key)))
+        .thenReturn(s3ObjectMetadata);
+    when(objectService.getObjectPart(s3ObjectMetadata, "2"))
+        .thenReturn(s3ObjectMetadata.getParts().get(1));
+
+    mockMvc.perform(
+            head("/test-bucket/" + key)
+                .param(PART_NUMBER, "2")
+        ).andExpect(MockMvcResultMatchers.status().isPartialContent())
+        .andExpect(MockMvcResultMatchers.header().string(X_AMZ_MP_PARTS_COUNT, "2"))
+        .andExpect(MockMvcResultMatchers.header()
+            .string(HttpHeaders.CONTENT_RANGE, "bytes 10-29/30"))
+        .andExpect(MockMvcResultMatchers.header().longValue(HttpHeaders.CONTENT_LENGTH, 20L));
+  }
+
+  @Test
+  void testGetObject_SuffixRange() throws Exception {
+    String key = "name";
+    givenBucket();
+    givenStoredFile(key);
+
+    MvcResult result = mockMvc.perform(
+            get("/test-bucket/" + key)
+                .header(HttpHeaders.RANGE, "bytes=-7")
+        ).andExpect(MockMvcResultMatchers.status().isPartialContent())
+        .andExpect(MockMvcResultMatchers.header()
+            .string(HttpHeaders.CONTENT_RANGE, "bytes 29-35/36"))
+        .andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(MockMvcResultMatchers.content().string("content"));
+    verify(objectService).closeObject(any(S3ObjectMetadata.class));
+  }
+
+  @Test
+  void testGetObject_MultipleRanges() throws Exception {
+    String key = "name";
+    givenBucket();
+    givenStoredFile(key);
+
+    MvcResult result = mockMvc.perform(
+            get("/test-bucket/" + key)
+                .header(HttpHeaders.RANGE, "bytes=0-1,-7,100-")
+        ).andExpect(MockMvcResultMatchers.status().isPartialContent())
+        .andExpect(MockMvcResultMatchers.header()
+            .string(HttpHeaders.CONTENT_TYPE, startsWith("multipart/byteranges;boundary=")))
+        .andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(MockMvcResultMatchers.content().string(
+            allOf(containsString("Content-Range: bytes 0-1/36\r\n\r\n##\r\n"),
+                containsString("Content-Range: bytes 29-35/36\r\n\r\ncontent\r\n"))));
+  }
+
+  @Test
+  void testGetObject_OverlappingRangesAreCoalesced() throws Exception {
+    String key = "name";
+    givenBucket();
+    givenStoredFile(key);
+
+    mockMvc.perform(
+            get("/test-bucket/" + key)
+                .header(HttpHeaders.RANGE, "bytes=10-19,0-4,3-9")
+        ).andExpect(MockMvcResultMatchers.status().isPartialContent())
+        .andExpect(MockMvcResultMatchers.header()
+            .string(HttpHeaders.CONTENT_RANGE, "bytes 0-19/36"))
+        .andExpect(MockMvcResultMatchers.header().longValue(HttpHeaders.CONTENT_LENGTH, 20L));
+  }
+
+  @Test
+  void testGetObject_TooManyRangesReturnsWholeObject(@TempDir Path tempDir) throws Exception {
+    String key = "name";
+    S3ObjectMetadata s3ObjectMetadata = s3ObjectMetadata(key, "etag");
+    s3ObjectMetadata.setSize("300");
+    s3ObjectMetadata.setContentType(MediaType.TEXT_PLAIN_VALUE);
+    s3ObjectMetadata.setDataPath(Files.write(tempDir.resolve("binaryData"), new byte[300]));
+    givenBucket();
+    when(objectService.openObject(eq("test-bucket"), eq(key)))
+        .thenReturn(s3ObjectMetadata);
+    StringBuilder ranges = new StringBuilder("bytes=0-0");
+    for (int i = 2; i < 300; i += 2) {
+      ranges.append(',').append(i).append('-').append(i);
+    }
+
+    mockMvc.perform(
+            get("/test-bucket/" + key)
+                .header(HttpHeaders.RANGE, ranges.toString())
+        ).andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+        .andExpect(MockMvcResultMatchers.header().longValue(HttpHeaders.CONTENT_LENGTH, 300L));
+  }
+
+  @Test
+  void testGetObject_RangeNotSatisfiable() throws Exception {
+    String key = "name";
+    givenBucket();
+    givenStoredFile(key);
+
+    mockMvc.perform(
+            get("/test-bucket/" + key)
+                .header(HttpHeaders.RANGE, "bytes=36-")
+        ).andExpect(MockMvcResultMatchers.status().isRequestedRangeNotSatisfiable())
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_RANGE, "bytes */36"));
+    verify(objectService).closeObject(any(S3ObjectMetadata.class));
+  }
+
+  @Test
+  void testGetObject_EmptyObjectIgnoresRangeAndPartNumber(@TempDir Path tempDir)
+      throws Exception {
+    String key = "name";
+    S3ObjectMetadata s3ObjectMetadata = s3ObjectMetadata(key, "etag");
+    s3ObjectMetadata.setSize("0");
+    s3ObjectMetadata.setContentType(MediaType.TEXT_PLAIN_VALUE);
+    s3ObjectMetadata.setDataPath(Files.createFile(tempDir.resolve("binaryData")));
+
+    givenBucket();
+    when(objectService.openObject(eq("test-bucket"), eq(key)))
+        .thenReturn(s3ObjectMetadata);
+    when(objectService.verifyObjectExists(eq("test-bucket"), eq(key)))
+        .thenReturn(s3ObjectMetadata);
+    when(objectService.getObjectPart(s3ObjectMetadata, "1"))
+        .thenReturn(new S3ObjectPart(1, 0, 0, null));
+
+    mockMvc.perform(
+            get("/test-bucket/" + key)
+                .header(HttpHeaders.RANGE, "bytes=0-10")
+        ).andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+        .andExpect(MockMvcResultMatchers.header().longValue(HttpHeaders.CONTENT_LENGTH, 0L));
+    mockMvc.perform(
+            get("/test-bucket/" + key)
+                .param(PART_NUMBER, "1")
+        ).andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_RANGE));
+    mockMvc.perform(
+            head("/test-bucket/" + key)
+                .param(PART_NUMBER, "1")
+        ).andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_RANGE));
+  }
+
+  @Test
+  void testHeadObject_ChecksumMode() throws Exception {
+    String key = "name";
+    S3ObjectMetadata s3ObjectMetadata = s3ObjectMetadata(key, "etag");
+    s3ObjectMetadata.setSize("5");
+    s3ObjectMetadata.setChecksumAlgorithm(ChecksumAlgorithm.CRC32);
+    s3ObjectMetadata.setChecksum("y/Q5Jg==");
+
+    givenBucket();
+    when(objectService.verifyObjectExists(eq("test-bucket"), eq(key)))
+        .thenReturn(s3ObjectMetadata);
+
+    mockMvc.perform(
+            head("/test-bucket/" + key)
+        ).andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().doesNotExist("x-amz-checksum-crc32"));
+    mockMvc.perform(
+            head("/test-bucket/" + key)
+                .header(X_AMZ_CHECKSUM_MODE, "ENABLED")
+        ).andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string("x-amz-checksum-crc32", "y/Q5Jg=="));
+  }
+
+  @Test
+  void testHeadObject_NotModified() throws Exception {
+    String key = "name";
+    S3ObjectMetadata s3ObjectMetadata = s3ObjectMetadata(key, "etag");
+    s3ObjectMetadata.setSize("5");
+    Instant modifiedSince = Instant.parse("2022-10-01T10:15:30Z");
+
+    givenBucket();
+    when(objectService.verifyObjectExists(eq("test-bucket"), eq(key)))
+        .thenReturn(s3ObjectMetadata);
+    doThrow(NOT_MODIFIED).when(objectService).verifyObjectMatching(isNull(), isNull(),
+        eq(modifiedSince), isNull(), eq(s3ObjectMetadata));
+
+    mockMvc.perform(
+            head("/test-bucket/" + key)
+                .header(HttpHeaders.IF_MODIFIED_SINCE, "Sat, 01 Oct 2022 10:15:30 GMT")
+        ).andExpect(MockMvcResultMatchers.status().isNotModified());
+  }
+
   @Test
   void testHeadObject_NotFound() throws Exception {
     String key = "name";
@@ -364,6 +574,15 @@ class ObjectControllerTest {
     when(bucketService.doesBucketExist(TEST_BUCKET_NAME)).thenReturn(true);
   }
 
+  private void givenStoredFile(String key) {
+    S3ObjectMetadata s3ObjectMetadata = s3ObjectMetadata(key, "etag");
+    s3ObjectMetadata.setSize("36");
+    s3ObjectMetadata.setContentType(MediaType.TEXT_PLAIN_VALUE);
+    s3ObjectMetadata.setDataPath(Paths.get(UPLOAD_FILE_NAME));
+    when(objectService.openObject(eq("test-bucket"), eq(key)))
+        .thenReturn(s3ObjectMetadata);
+  }
+
   private S3ObjectMetadata s3ObjectMetadata(String id, String digest) {
     S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
     s3ObjectMetadata.setKey(id);
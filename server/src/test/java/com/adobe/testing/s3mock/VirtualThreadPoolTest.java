@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+
+class VirtualThreadPoolTest {
+
+  @Test
+  void testExecute_runsTasksConcurrently() throws Exception {
+    VirtualThreadPool iut = new VirtualThreadPool(Executors.defaultThreadFactory());
+    iut.start();
+    CountDownLatch started = new CountDownLatch(100);
+    CountDownLatch release = new CountDownLatch(1);
+
+    for (int i = 0; i < 100; i++) {
+      iut.execute(() -> {
+        started.countDown();
+        await(release);
+      });
+    }
+
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(iut.getThreads()).isEqualTo(100);
+    assertThat(iut.isLowOnThreads()).isFalse();
+    release.countDown();
+    iut.stop();
+    assertThat(iut.getThreads()).isZero();
+  }
+
+  @Test
+  void testStop_interruptsTasksAfterTimeout() throws Exception {
+    VirtualThreadPool iut = new VirtualThreadPool(Executors.defaultThreadFactory());
+    iut.setStopTimeout(100);
+    iut.start();
+    CountDownLatch interrupted = new CountDownLatch(1);
+    iut.execute(() -> {
+      try {
+        new CountDownLatch(1).await();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    });
+
+    iut.stop();
+    iut.join();
+
+    assertThat(interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThatThrownBy(() -> iut.execute(() -> { }))
+        .isInstanceOf(RejectedExecutionException.class);
+  }
+
+  @Test
+  void testCustomizer_keepsThreadPoolIfDisabled() {
+    JettyServletWebServerFactory factory = new JettyServletWebServerFactory();
+    QueuedThreadPool threadPool = new QueuedThreadPool();
+    factory.setThreadPool(threadPool);
+
+    new VirtualThreadPool.Customizer(false).customize(factory);
+
+    assertThat(factory.getThreadPool()).isSameAs(threadPool);
+  }
+
+  @Test
+  void testCustomizer_setsVirtualThreadPoolIfSupported() {
+    JettyServletWebServerFactory factory = new JettyServletWebServerFactory();
+    QueuedThreadPool threadPool = new QueuedThreadPool();
+    factory.setThreadPool(threadPool);
+
+    new VirtualThreadPool.Customizer(true).customize(factory);
+
+    if (VirtualThreadPool.virtualThreadFactory() != null) {
+      assertThat(factory.getThreadPool()).isInstanceOf(VirtualThreadPool.class);
+    } else {
+      assertThat(factory.getThreadPool()).isSameAs(threadPool);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.service;
+
+import static com.adobe.testing.s3mock.S3Exception.INVALID_SNAPSHOT_NAME;
+import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_SNAPSHOT;
+import static com.adobe.testing.s3mock.store.BucketSeeder.METADATA_PAX_HEADER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.adobe.testing.s3mock.store.BucketMetadata;
+import com.adobe.testing.s3mock.store.MultipartStore;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+@SpringBootTest(classes = {ServiceConfiguration.class})
+@MockBean({BucketService.class, ObjectService.class, MultipartService.class})
+class AdminServiceTest extends ServiceTestBase {
+  private static final String TEST_BUCKET_NAME = "test-bucket";
+
+  @MockBean
+  MultipartStore multipartStore;
+
+  @Autowired
+  AdminService iut;
+
+  @TempDir
+  Path dataFolder;
+
+  @Test
+  void testExportBucket_writesTarWithMetadataHeader() throws IOException {
+    Path exportFolder = Files.createDirectory(dataFolder.resolve("export"));
+    when(bucketStore.createTempFolder("export")).thenReturn(exportFolder);
+    BucketMetadata bucketMetadata = givenBucket(TEST_BUCKET_NAME);
+    givenObject(bucketMetadata, "a/1", "one");
+    givenObject(bucketMetadata, "a/2", "two");
+    givenObject(bucketMetadata, "b/1", "other");
+    when(objectStore.exportS3ObjectMetadata(any(S3ObjectMetadata.class)))
+        .thenReturn("{\"contentType\":\"text/plain\"}");
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    iut.exportBucket(TEST_BUCKET_NAME, "a/", outputStream);
+
+    try (TarArchiveInputStream tarStream =
+        new TarArchiveInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+      assertEntry(tarStream, "a/1", "one");
+      assertEntry(tarStream, "a/2", "two");
+      assertThat(tarStream.getNextTarEntry()).isNull();
+    }
+    assertThat(exportFolder).isEmptyDirectory();
+    verify(bucketStore).deleteTempFolder(exportFolder);
+  }
+
+  @Test
+  void testDeleteBucket_unregistersUploads() {
+    when(bucketStore.purgeBucket(TEST_BUCKET_NAME)).thenReturn(true);
+
+    assertThat(iut.deleteBucket(TEST_BUCKET_NAME)).isTrue();
+
+    verify(multipartStore).unregisterUploads(TEST_BUCKET_NAME);
+  }
+
+  @Test
+  void testReset() {
+    iut.reset();
+
+    ArgumentCaptor<Runnable> afterReset = ArgumentCaptor.forClass(Runnable.class);
+    verify(bucketStore).reset(afterReset.capture());
+    verify(objectStore, never()).clearLocks();
+    verify(multipartStore, never()).reloadMultipartUploads();
+
+    afterReset.getValue().run();
+
+    InOrder inOrder = inOrder(objectStore, bucketSeeder, multipartStore);
+    inOrder.verify(objectStore).clearLocks();
+    inOrder.verify(bucketSeeder).seed();
+    inOrder.verify(multipartStore).reloadMultipartUploads();
+  }
+
+  @Test
+  void testRestoreSnapshot_reloadsMultipartUploads() {
+    ArgumentCaptor<Runnable> afterRestore = ArgumentCaptor.forClass(Runnable.class);
+    when(bucketStore.restoreSnapshot(eq("fixture"), afterRestore.capture())).thenReturn(true);
+
+    iut.restoreSnapshot("fixture");
+    verify(multipartStore, never()).reloadMultipartUploads();
+    afterRestore.getValue().run();
+
+    verify(multipartStore).reloadMultipartUploads();
+  }
+
+  @Test
+  void testRestoreSnapshot_noSuchSnapshot() {
+    when(bucketStore.restoreSnapshot(eq("fixture"), any(Runnable.class))).thenReturn(false);
+
+    assertThatThrownBy(() -> iut.restoreSnapshot("fixture")).isEqualTo(NO_SUCH_SNAPSHOT);
+    verify(multipartStore, never()).reloadMultipartUploads();
+  }
+
+  @Test
+  void testCreateSnapshot_invalidName() {
+    assertThatThrownBy(() -> iut.createSnapshot("../fixture")).isEqualTo(INVALID_SNAPSHOT_NAME);
+    verify(bucketStore, never()).createSnapshot(any());
+  }
+
+  private void givenObject(BucketMetadata bucketMetadata, String key, String content)
+      throws IOException {
+    UUID id = bucketMetadata.addKey(key);
+    when(objectStore.linkS3Object(eq(bucketMetadata), eq(id), any())).thenAnswer(invocation -> {
+      Path folder = Files.createDirectories(invocation.getArgument(2));
+      S3ObjectMetadata s3ObjectMetadata = s3ObjectMetadata(id, key);
+      s3ObjectMetadata.setDataPath(
+          Files.write(folder.resolve("binaryData"), content.getBytes(UTF_8)));
+      return s3ObjectMetadata;
+    });
+  }
+
+  private static void assertEntry(TarArchiveInputStream tarStream, String key, String content)
+      throws IOException {
+    TarArchiveEntry entry = tarStream.getNextTarEntry();
+    assertThat(entry.getName()).isEqualTo(key);
+    assertThat(entry.getExtraPaxHeader(METADATA_PAX_HEADER))
+        .isEqualTo("{\"contentType\":\"text/plain\"}");
+    assertThat(IOUtils.toString(tarStream, UTF_8)).isEqualTo(content);
+  }
+}
@@ -19,26 +19,37 @@ package com.adobe.testing.s3mock.service;
 import static com.adobe.testing.s3mock.S3Exception.BUCKET_ALREADY_EXISTS;
 import static com.adobe.testing.s3mock.S3Exception.BUCKET_NOT_EMPTY;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_BUCKET_NAME;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_CONTINUATION_TOKEN;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_ENCODINGTYPE;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_MAXKEYS;
 import static com.adobe.testing.s3mock.S3Exception.NOT_FOUND_BUCKET_OBJECT_LOCK;
 import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_BUCKET;
-import static com.adobe.testing.s3mock.service.BucketService.collapseCommonPrefixes;
+import static com.adobe.testing.s3mock.service.BucketService.walkKeyIndex;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.adobe.testing.s3mock.dto.ListBucketResult;
 import com.adobe.testing.s3mock.dto.ListBucketResultV2;
 import com.adobe.testing.s3mock.dto.S3Object;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import com.adobe.testing.s3mock.service.BucketService.ListingPage;
 import com.adobe.testing.s3mock.store.BucketMetadata;
+import com.adobe.testing.s3mock.store.ListingAttributes;
 import com.adobe.testing.s3mock.store.MultipartStore;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -126,22 +137,19 @@ class BucketServiceTest extends ServiceTestBase {
   public void testCommonPrefixesAndBucketContentFilter(final Param parameters) {
     String prefix = parameters.prefix;
     String delimiter = parameters.delimiter;
-    List<S3Object> bucketContents = givenBucketContents(prefix);
-    List<String> commonPrefixes = collapseCommonPrefixes(prefix, delimiter, bucketContents);
-
-    List<S3Object> filteredBucketContents =
-        BucketService.filterObjectsBy(bucketContents, commonPrefixes);
+    NavigableMap<String, UUID> index = givenKeyIndex(givenBucketContents(prefix));
+    ListingPage page = walkKeyIndex(index, prefix, delimiter, null, 1000);
 
     String[] expectedPrefixes = parameters.expectedPrefixes;
     String[] expectedKeys = parameters.expectedKeys;
 
-    assertThat(commonPrefixes).hasSize(expectedPrefixes.length);
+    assertThat(page.getCommonPrefixes()).hasSize(expectedPrefixes.length);
 
-    assertThat(commonPrefixes)
+    assertThat(page.getCommonPrefixes())
         .as("Returned prefixes are correct")
         .containsExactlyInAnyOrderElementsOf(Arrays.asList(expectedPrefixes));
 
-    assertThat(filteredBucketContents.stream().map(S3Object::getKey).collect(toList()))
+    assertThat(page.getEntries().stream().map(Map.Entry::getKey).collect(toList()))
         .as("Returned keys are correct")
         .containsExactlyInAnyOrderElementsOf(Arrays.asList(expectedKeys));
   }
@@ -150,40 +158,97 @@ class BucketServiceTest extends ServiceTestBase {
   void testCommonPrefixesNoPrefixNoDelimiter() {
     String prefix = "";
     String delimiter = "";
-    List<S3Object> bucketContents = givenBucketContents();
+    NavigableMap<String, UUID> index = givenKeyIndex(givenBucketContents());
 
-    List<String> commonPrefixes = collapseCommonPrefixes(prefix, delimiter, bucketContents);
-    assertThat(commonPrefixes).hasSize(0);
+    ListingPage page = walkKeyIndex(index, prefix, delimiter, null, 1000);
+    assertThat(page.getCommonPrefixes()).hasSize(0);
   }
 
   @Test
   void testCommonPrefixesPrefixNoDelimiter() {
     String prefix = "prefix-a";
     String delimiter = "";
-    List<S3Object> bucketContents = givenBucketContents();
+    NavigableMap<String, UUID> index = givenKeyIndex(givenBucketContents());
 
-    List<String> commonPrefixes = collapseCommonPrefixes(prefix, delimiter, bucketContents);
-    assertThat(commonPrefixes).hasSize(0);
+    ListingPage page = walkKeyIndex(index, prefix, delimiter, null, 1000);
+    assertThat(page.getCommonPrefixes()).hasSize(0);
   }
 
   @Test
   void testCommonPrefixesNoPrefixDelimiter() {
     String prefix = "";
     String delimiter = "/";
-    List<S3Object> bucketContents = givenBucketContents();
+    NavigableMap<String, UUID> index = givenKeyIndex(givenBucketContents());
 
-    List<String> commonPrefixes = collapseCommonPrefixes(prefix, delimiter, bucketContents);
-    assertThat(commonPrefixes).hasSize(5).contains("3330/", "foo/", "c/", "b/", "33309/");
+    ListingPage page = walkKeyIndex(index, prefix, delimiter, null, 1000);
+    assertThat(page.getCommonPrefixes()).hasSize(5)
+        .contains("3330/", "foo/", "c/", "b/", "33309/");
   }
 
   @Test
   void testCommonPrefixesPrefixDelimiter() {
     String prefix = "3330";
     String delimiter = "/";
-    List<S3Object> bucketContents = givenBucketContents();
+    NavigableMap<String, UUID> index = givenKeyIndex(givenBucketContents());
+
+    ListingPage page = walkKeyIndex(index, prefix, delimiter, null, 1000);
+    assertThat(page.getCommonPrefixes()).hasSize(2).contains("3330/", "33309/");
+  }
+
+  @Test
+  void testWalkKeyIndex_skipsKeysBelowCommonPrefixes() {
+    NavigableMap<String, UUID> index = new TreeMap<>();
+    for (int folder = 0; folder < 10; folder++) {
+      for (int i = 0; i < 1000; i++) {
+        index.put("folder" + folder + "/" + i, UUID.randomUUID());
+      }
+    }
+    AtomicInteger visitedEntries = new AtomicInteger();
+    NavigableMap<String, UUID> countingIndex = new TreeMap<String, UUID>(index) {
+      @Override
+      public Map.Entry<String, UUID> ceilingEntry(String key) {
+        visitedEntries.incrementAndGet();
+        return super.ceilingEntry(key);
+      }
+
+      @Override
+      public Map.Entry<String, UUID> higherEntry(String key) {
+        visitedEntries.incrementAndGet();
+        return super.higherEntry(key);
+      }
+    };
+
+    ListingPage page = walkKeyIndex(countingIndex, null, "/", null, 1000);
+
+    assertThat(page.getCommonPrefixes()).hasSize(10).startsWith("folder0/").endsWith("folder9/");
+    assertThat(page.getEntries()).isEmpty();
+    assertThat(page.isTruncated()).isFalse();
+    assertThat(visitedEntries).hasValueLessThanOrEqualTo(11);
+  }
 
-    List<String> commonPrefixes = collapseCommonPrefixes(prefix, delimiter, bucketContents);
-    assertThat(commonPrefixes).hasSize(2).contains("3330/", "33309/");
+  @Test
+  void testWalkKeyIndex_continuesAfterCommonPrefix() {
+    NavigableMap<String, UUID> index = givenKeyIndex(givenBucketContents());
+
+    ListingPage first = walkKeyIndex(index, null, "/", null, 3);
+    assertThat(first.isTruncated()).isTrue();
+    assertThat(first.getCommonPrefixes()).containsExactly("3330/", "33309/");
+    assertThat(first.getEntries().stream().map(Map.Entry::getKey)).containsExactly("a");
+    assertThat(first.getLastKey()).isEqualTo("a");
+
+    ListingPage second = walkKeyIndex(index, null, "/", first.getLastKey(), 3);
+    assertThat(second.getEntries().stream().map(Map.Entry::getKey)).containsExactly("b");
+    assertThat(second.getCommonPrefixes()).containsExactly("b/", "c/");
+    assertThat(second.getLastKey()).isEqualTo("c/");
+
+    ListingPage third = walkKeyIndex(index, null, "/", second.getLastKey(), 3);
+    assertThat(third.getEntries().stream().map(Map.Entry::getKey))
+        .containsExactly("d:1", "d:1:1", "eor.txt");
+    assertThat(third.isTruncated()).isTrue();
+
+    ListingPage last = walkKeyIndex(index, null, "/", third.getLastKey(), 3);
+    assertThat(last.getCommonPrefixes()).containsExactly("foo/");
+    assertThat(last.isTruncated()).isFalse();
   }
 
   @Test
@@ -210,6 +275,92 @@ class BucketServiceTest extends ServiceTestBase {
     assertThat(listBucketResult.getContents()).hasSize(maxKeys);
   }
 
+  @Test
+  void testListObjectsV2_continuesWithStatelessToken() {
+    String bucketName = "bucket";
+    List<S3Object> s3Objects = givenBucketWithContents(bucketName, null);
+
+    ListBucketResultV2 first = iut.listObjectsV2(bucketName, null, null, null, null, 10, null);
+    String token = first.getNextContinuationToken();
+    assertThat(token).matches("[A-Za-z0-9_-]+");
+
+    BucketService otherInstance = new BucketService(bucketStore, objectStore);
+    ListBucketResultV2 second =
+        otherInstance.listObjectsV2(bucketName, null, null, null, null, 10, token);
+    assertThat(second.getContinuationToken()).isEqualTo(token);
+    assertThat(second.isTruncated()).isFalse();
+    List<String> keys = first.getContents().stream().map(S3Object::getKey).collect(toList());
+    second.getContents().forEach(s3Object -> keys.add(s3Object.getKey()));
+    assertThat(keys).isSorted().doesNotHaveDuplicates().hasSize(s3Objects.size());
+
+    // tokens can be used more than once.
+    assertThat(iut.listObjectsV2(bucketName, null, null, null, null, 10, token).getContents())
+        .hasSize(s3Objects.size() - 10);
+  }
+
+  @Test
+  void testListObjectsV2_rejectsInvalidContinuationToken() {
+    String bucketName = "bucket";
+    givenBucketWithContents(bucketName, null);
+    String token = BucketService.encodeContinuationToken(bucketName, "a", null, "a/b");
+
+    assertThatThrownBy(
+        () -> iut.listObjectsV2(bucketName, "b", null, null, null, 10, token))
+        .isEqualTo(INVALID_CONTINUATION_TOKEN);
+    assertThatThrownBy(
+        () -> iut.listObjectsV2(bucketName, null, null, null, null, 10, "not a token"))
+        .isEqualTo(INVALID_CONTINUATION_TOKEN);
+    assertThat(BucketService.decodeContinuationToken(token, bucketName, "a", null))
+        .isEqualTo("a/b");
+  }
+
+  @Test
+  void testListObjectsV2_loadsMetadataOfPageOnly() {
+    String bucketName = "bucket";
+    givenBucketWithContents(bucketName, null);
+
+    ListBucketResultV2 listBucketResult =
+        iut.listObjectsV2(bucketName, null, null, null, null, 2, null);
+
+    assertThat(listBucketResult.getContents().stream().map(S3Object::getKey))
+        .containsExactly("3330/0", "33309/0");
+    verify(objectStore, times(2)).getS3ObjectMetadata(any(), any());
+  }
+
+  @Test
+  void testListObjectsV2_keyCountSkipsObjectsWithoutMetadata() {
+    String bucketName = "bucket";
+    givenBucketWithContents(bucketName, null);
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    when(objectStore.getS3ObjectMetadata(bucketMetadata, bucketMetadata.getID("33309/0")))
+        .thenReturn(null);
+
+    ListBucketResultV2 listBucketResult =
+        iut.listObjectsV2(bucketName, null, null, null, null, 3, null);
+
+    assertThat(listBucketResult.getContents().stream().map(S3Object::getKey))
+        .containsExactly("3330/0", "a");
+    assertThat(listBucketResult.getKeyCount()).isEqualTo("2");
+  }
+
+  @Test
+  void testListObjectsV2_usesListingAttributesOfKeyIndex() {
+    String bucketName = "bucket";
+    givenBucketWithContents(bucketName, null);
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    bucketMetadata.putListingAttributes("3330/0",
+        new ListingAttributes("etag", "23", "lastModified", StorageClass.STANDARD));
+
+    ListBucketResultV2 listBucketResult =
+        iut.listObjectsV2(bucketName, null, null, null, null, 2, null);
+
+    assertThat(listBucketResult.getContents()).hasSize(2);
+    S3Object s3Object = listBucketResult.getContents().iterator().next();
+    assertThat(s3Object.getKey()).isEqualTo("3330/0");
+    assertThat(s3Object.getSize()).isEqualTo("23");
+    verify(objectStore, times(1)).getS3ObjectMetadata(any(), any());
+  }
+
   @Test
   void testListObjectsV1() {
     String bucketName = "bucket";
@@ -365,4 +516,10 @@ class BucketServiceTest extends ServiceTestBase {
   static Param param(final String prefix, final String delimiter) {
     return new Param(prefix, delimiter);
   }
+
+  private static NavigableMap<String, UUID> givenKeyIndex(List<S3Object> s3Objects) {
+    NavigableMap<String, UUID> index = new TreeMap<>();
+    s3Objects.forEach(s3Object -> index.put(s3Object.getKey(), UUID.randomUUID()));
+    return index;
+  }
 }
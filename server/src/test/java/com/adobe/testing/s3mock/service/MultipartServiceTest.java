@@ -22,16 +22,20 @@ import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_NUMBER;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_ORDER;
 import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_UPLOAD_MULTIPART;
 import static com.adobe.testing.s3mock.service.MultipartService.MINIMUM_PART_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 import com.adobe.testing.s3mock.dto.CompletedPart;
+import com.adobe.testing.s3mock.dto.ListMultipartUploadsResult;
+import com.adobe.testing.s3mock.dto.MultipartUpload;
 import com.adobe.testing.s3mock.dto.Part;
 import com.adobe.testing.s3mock.store.BucketMetadata;
 import com.adobe.testing.s3mock.store.MultipartStore;
 import com.adobe.testing.s3mock.store.ObjectStore;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
@@ -49,6 +53,19 @@ class MultipartServiceTest extends ServiceTestBase {
   @Autowired
   private MultipartService iut;
 
+  @Test
+  void testListMultipartUploads_maxUploadsDoesNotOverflow() {
+    MultipartUpload upload = new MultipartUpload("key", "uploadId", null, null, new Date());
+    when(multipartStore.listMultipartUploads("bucket", null, null, null, Integer.MAX_VALUE))
+        .thenReturn(Collections.singletonList(upload));
+
+    ListMultipartUploadsResult result =
+        iut.listMultipartUploads("bucket", null, null, null, Integer.MAX_VALUE);
+
+    assertThat(result).extracting("multipartUploads").asList().containsExactly(upload);
+    assertThat(result).extracting("isTruncated").isEqualTo(false);
+  }
+
   @Test
   void testVerifyPartNumberLimits_success() {
     String partNumber = "1";
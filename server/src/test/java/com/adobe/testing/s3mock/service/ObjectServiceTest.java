@@ -17,6 +17,8 @@
 package com.adobe.testing.s3mock.service;
 
 import static com.adobe.testing.s3mock.S3Exception.BAD_REQUEST_MD5;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_NUMBER;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_NUMBER_NOT_SATISFIABLE;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_RETAINDATE;
 import static com.adobe.testing.s3mock.S3Exception.NOT_FOUND_OBJECT_LOCK;
 import static com.adobe.testing.s3mock.S3Exception.NOT_MODIFIED;
@@ -27,8 +29,12 @@ import static com.adobe.testing.s3mock.util.DigestUtil.base64Digest;
 import static java.time.temporal.ChronoUnit.MINUTES;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.adobe.testing.s3mock.dto.Delete;
@@ -39,6 +45,7 @@ import com.adobe.testing.s3mock.dto.S3ObjectIdentifier;
 import com.adobe.testing.s3mock.store.BucketMetadata;
 import com.adobe.testing.s3mock.store.MultipartStore;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.adobe.testing.s3mock.store.S3ObjectPart;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -46,6 +53,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -72,10 +81,68 @@ class ObjectServiceTest extends ServiceTestBase {
 
     when(objectStore.deleteObject(any(BucketMetadata.class), any(UUID.class)))
         .thenReturn(true);
-    when(bucketStore.removeFromBucket(key, bucketName)).thenReturn(true);
-    when(bucketStore.removeFromBucket(key2, bucketName)).thenReturn(true);
+    when(bucketStore.removeFromBucket(Arrays.asList(key, key2), bucketName))
+        .thenReturn(givenRemovedKeys(key, key2));
     DeleteResult deleted = iut.deleteObjects(bucketName, delete);
     assertThat(deleted.getDeletedObjects()).hasSize(2);
+    verify(bucketStore, never()).removeFromBucket(any(String.class), any(String.class));
+  }
+
+  @Test
+  void testDeleteObjects_quiet() {
+    String bucketName = "bucket";
+    String key = "key";
+    String key2 = "key2";
+    givenBucketWithContents(bucketName, "", singletonList(givenS3Object(key)));
+    Delete delete = new Delete();
+    delete.setQuiet(true);
+    delete.setObjectsToDelete(Arrays.asList(givenS3ObjectIdentifier(key),
+        givenS3ObjectIdentifier(key2)));
+
+    when(objectStore.deleteObject(any(BucketMetadata.class), any(UUID.class)))
+        .thenReturn(true);
+    DeleteResult deleted = iut.deleteObjects(bucketName, delete);
+    assertThat(deleted.getDeletedObjects()).isEmpty();
+    assertThat(deleted.getErrors()).hasSize(1);
+    assertThat(deleted.getErrors().get(0).getKey()).isEqualTo(key2);
+    verify(objectStore, times(1)).deleteObject(any(BucketMetadata.class), any(UUID.class));
+    verify(bucketStore).removeFromBucket(singletonList(key), bucketName);
+  }
+
+  @Test
+  void testDeleteObjects_keepsKeysOfObjectsNotDeleted() {
+    String bucketName = "bucket";
+    String key = "key";
+    String key2 = "key2";
+    String key3 = "key3";
+    givenBucketWithContents(bucketName, "", Arrays.asList(givenS3Object(key),
+        givenS3Object(key2), givenS3Object(key3)));
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    Delete delete = new Delete();
+    delete.setObjectsToDelete(Arrays.asList(givenS3ObjectIdentifier(key),
+        givenS3ObjectIdentifier(key2), givenS3ObjectIdentifier(key3)));
+
+    when(objectStore.deleteObject(bucketMetadata, bucketMetadata.getID(key)))
+        .thenReturn(true);
+    // no metadata for the object, so it is not deleted.
+    when(objectStore.deleteObject(bucketMetadata, bucketMetadata.getID(key2)))
+        .thenReturn(false);
+    when(objectStore.deleteObject(bucketMetadata, bucketMetadata.getID(key3)))
+        .thenThrow(new IllegalStateException("Can't delete directory."));
+    DeleteResult deleted = iut.deleteObjects(bucketName, delete);
+    assertThat(deleted.getDeletedObjects()).hasSize(1);
+    assertThat(deleted.getDeletedObjects().get(0).getKey()).isEqualTo(key);
+    assertThat(deleted.getErrors()).extracting("code", "key")
+        .containsExactly(tuple("NoSuchKey", key2), tuple("InternalError", key3));
+    verify(bucketStore).removeFromBucket(singletonList(key), bucketName);
+  }
+
+  Map<String, UUID> givenRemovedKeys(String... keys) {
+    Map<String, UUID> removed = new HashMap<>();
+    for (String key : keys) {
+      removed.put(key, UUID.randomUUID());
+    }
+    return removed;
   }
 
   S3ObjectIdentifier givenS3ObjectIdentifier(String key) {
@@ -96,6 +163,46 @@ class ObjectServiceTest extends ServiceTestBase {
     assertThat(deleted).isTrue();
   }
 
+  @Test
+  void testGetObjectPart_multipart() {
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setSize("30");
+    s3ObjectMetadata.setParts(Arrays.asList(
+        new S3ObjectPart(1, 0, 10, null),
+        new S3ObjectPart(2, 10, 20, null)));
+
+    S3ObjectPart part = iut.getObjectPart(s3ObjectMetadata, "2");
+    assertThat(part.getOffset()).isEqualTo(10);
+    assertThat(part.getSize()).isEqualTo(20);
+    assertThatThrownBy(() -> iut.getObjectPart(s3ObjectMetadata, "3"))
+        .isEqualTo(INVALID_PART_NUMBER_NOT_SATISFIABLE);
+  }
+
+  @Test
+  void testGetObjectPart_singlePart() {
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setSize("30");
+
+    S3ObjectPart part = iut.getObjectPart(s3ObjectMetadata, "1");
+    assertThat(part.getOffset()).isZero();
+    assertThat(part.getSize()).isEqualTo(30);
+    assertThatThrownBy(() -> iut.getObjectPart(s3ObjectMetadata, "2"))
+        .isEqualTo(INVALID_PART_NUMBER_NOT_SATISFIABLE);
+  }
+
+  @Test
+  void testGetObjectPart_invalid() {
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setSize("30");
+
+    assertThatThrownBy(() -> iut.getObjectPart(s3ObjectMetadata, "0"))
+        .isEqualTo(INVALID_PART_NUMBER);
+    assertThatThrownBy(() -> iut.getObjectPart(s3ObjectMetadata, "10001"))
+        .isEqualTo(INVALID_PART_NUMBER);
+    assertThatThrownBy(() -> iut.getObjectPart(s3ObjectMetadata, "one"))
+        .isEqualTo(INVALID_PART_NUMBER);
+  }
+
   @Test
   void testVerifyRetention_success() {
     Retention retention = new Retention(Mode.COMPLIANCE,
@@ -208,6 +315,55 @@ class ObjectServiceTest extends ServiceTestBase {
     ).isEqualTo(NOT_MODIFIED);
   }
 
+  @Test
+  void testVerifyObjectMatching_modifiedSince() {
+    S3ObjectMetadata s3ObjectMetadata = s3ObjectMetadata(UUID.randomUUID(), "key");
+    Instant lastModified = Instant.parse("2022-10-01T10:15:30.500Z");
+    s3ObjectMetadata.setLastModified(lastModified.toEpochMilli());
+
+    iut.verifyObjectMatching(null, null, lastModified.minusSeconds(1), null, s3ObjectMetadata);
+    assertThatThrownBy(() ->
+        iut.verifyObjectMatching(null, null, Instant.parse("2022-10-01T10:15:30Z"), null,
+            s3ObjectMetadata)
+    ).isEqualTo(NOT_MODIFIED);
+    assertThatThrownBy(() ->
+        iut.verifyObjectMatchingForCopy(null, null, lastModified.plusSeconds(1), null,
+            s3ObjectMetadata)
+    ).isEqualTo(PRECONDITION_FAILED);
+  }
+
+  @Test
+  void testVerifyObjectMatching_unmodifiedSince() {
+    S3ObjectMetadata s3ObjectMetadata = s3ObjectMetadata(UUID.randomUUID(), "key");
+    Instant lastModified = Instant.parse("2022-10-01T10:15:30.500Z");
+    s3ObjectMetadata.setLastModified(lastModified.toEpochMilli());
+
+    iut.verifyObjectMatching(null, null, null, Instant.parse("2022-10-01T10:15:30Z"),
+        s3ObjectMetadata);
+    assertThatThrownBy(() ->
+        iut.verifyObjectMatching(null, null, null, lastModified.minusSeconds(1), s3ObjectMetadata)
+    ).isEqualTo(PRECONDITION_FAILED);
+  }
+
+  @Test
+  void testVerifyObjectMatching_etagTakesPrecedenceOverDate() {
+    S3ObjectMetadata s3ObjectMetadata = s3ObjectMetadata(UUID.randomUUID(), "key");
+    Instant lastModified = Instant.parse("2022-10-01T10:15:30Z");
+    s3ObjectMetadata.setLastModified(lastModified.toEpochMilli());
+    String etag = "\"someetag\"";
+
+    // If-Match succeeds, If-Unmodified-Since is ignored
+    iut.verifyObjectMatching(singletonList(etag), null, null, lastModified.minusSeconds(1),
+        s3ObjectMetadata);
+    // If-None-Match succeeds, If-Modified-Since is ignored
+    iut.verifyObjectMatching(null, singletonList("\"nonematch\""), lastModified.plusSeconds(1),
+        null, s3ObjectMetadata);
+    assertThatThrownBy(() ->
+        iut.verifyObjectMatching(null, singletonList(etag), lastModified.minusSeconds(1), null,
+            s3ObjectMetadata)
+    ).isEqualTo(NOT_MODIFIED);
+  }
+
   @Test
   void testVerifyObjectLockConfiguration_failure() {
     String bucketName = "bucket";
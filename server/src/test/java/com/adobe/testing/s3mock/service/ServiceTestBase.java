@@ -24,6 +24,7 @@ import com.adobe.testing.s3mock.dto.Part;
 import com.adobe.testing.s3mock.dto.S3Object;
 import com.adobe.testing.s3mock.dto.StorageClass;
 import com.adobe.testing.s3mock.store.BucketMetadata;
+import com.adobe.testing.s3mock.store.BucketSeeder;
 import com.adobe.testing.s3mock.store.BucketStore;
 import com.adobe.testing.s3mock.store.ObjectStore;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
@@ -49,6 +50,8 @@ abstract class ServiceTestBase {
   BucketStore bucketStore;
   @MockBean
   ObjectStore objectStore;
+  @MockBean
+  BucketSeeder bucketSeeder;
 
   BucketMetadata givenBucket(String name) {
     when(bucketStore.doesBucketExist(eq(name))).thenReturn(true);
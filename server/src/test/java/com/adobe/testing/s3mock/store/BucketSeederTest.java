@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.UUID;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+@AutoConfigureWebMvc
+@AutoConfigureMockMvc
+@MockBean(classes = {KmsKeyStore.class, MultipartStore.class})
+@SpringBootTest(classes = {StoreConfiguration.class})
+class BucketSeederTest {
+  private static final String TEST_BUCKET_NAME = "seeded-bucket";
+
+  @Autowired
+  private BucketSeeder bucketSeeder;
+
+  @Autowired
+  private BucketStore bucketStore;
+
+  @Autowired
+  private ObjectStore objectStore;
+
+  @TempDir
+  Path seedFolder;
+
+  @Test
+  void testSeedFromDirectory() throws IOException {
+    Path directory = Files.createDirectories(seedFolder.resolve("seed/a/b"));
+    Files.write(directory.resolve("c.txt"), "c".getBytes(UTF_8));
+    Files.write(seedFolder.resolve("seed/d.json"), "{}".getBytes(UTF_8));
+
+    bucketSeeder.seed(
+        Collections.singletonList(TEST_BUCKET_NAME + "=" + seedFolder.resolve("seed")));
+
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(TEST_BUCKET_NAME);
+    assertThat(bucketMetadata.getObjects()).containsOnlyKeys("a/b/c.txt", "d.json");
+    assertThat(bucketMetadata.getListingAttributes("a/b/c.txt").getSize()).isEqualTo("1");
+    S3ObjectMetadata s3ObjectMetadata =
+        objectStore.getS3ObjectMetadata(bucketMetadata, bucketMetadata.getID("a/b/c.txt"));
+    assertThat(s3ObjectMetadata.getContentType()).isEqualTo("text/plain");
+    assertThat(s3ObjectMetadata.getDataPath()).hasContent("c");
+  }
+
+  @Test
+  void testSeedFromTarGz() throws IOException {
+    Path archive = seedFolder.resolve("seed.tar.gz");
+    try (OutputStream outputStream = Files.newOutputStream(archive);
+        TarArchiveOutputStream tarStream =
+            new TarArchiveOutputStream(new GzipCompressorOutputStream(outputStream))) {
+      givenTarEntry(tarStream, "./a/b/c.txt", "c");
+      givenTarEntry(tarStream, "d", "data");
+    }
+
+    bucketSeeder.seed(TEST_BUCKET_NAME, archive);
+
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(TEST_BUCKET_NAME);
+    assertThat(bucketMetadata.getObjects()).containsOnlyKeys("a/b/c.txt", "d");
+    S3ObjectMetadata s3ObjectMetadata =
+        objectStore.getS3ObjectMetadata(bucketMetadata, bucketMetadata.getID("d"));
+    assertThat(s3ObjectMetadata.getContentType()).isEqualTo("application/octet-stream");
+    assertThat(s3ObjectMetadata.getDataPath()).hasContent("data");
+  }
+
+  @Test
+  void testSeedFromTar_restoresMetadataHeader() throws IOException {
+    S3ObjectMetadata exported = new S3ObjectMetadata();
+    exported.setKey("e");
+    exported.setContentType("text/csv");
+    exported.setUserMetadata(Collections.singletonMap("foo", "bar"));
+    Path archive = seedFolder.resolve("seed.tar");
+    try (TarArchiveOutputStream tarStream =
+        new TarArchiveOutputStream(Files.newOutputStream(archive))) {
+      TarArchiveEntry entry = new TarArchiveEntry("e");
+      entry.setSize(1);
+      entry.addPaxHeader(BucketSeeder.METADATA_PAX_HEADER,
+          objectStore.exportS3ObjectMetadata(exported));
+      tarStream.putArchiveEntry(entry);
+      tarStream.write('e');
+      tarStream.closeArchiveEntry();
+    }
+
+    bucketSeeder.seed(TEST_BUCKET_NAME, archive);
+
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(TEST_BUCKET_NAME);
+    S3ObjectMetadata s3ObjectMetadata =
+        objectStore.getS3ObjectMetadata(bucketMetadata, bucketMetadata.getID("e"));
+    assertThat(s3ObjectMetadata.getContentType()).isEqualTo("text/csv");
+    assertThat(s3ObjectMetadata.getUserMetadata()).containsEntry("foo", "bar");
+    assertThat(s3ObjectMetadata.getDataPath()).hasContent("e");
+  }
+
+  @Test
+  void testSeed_invalidFormat() {
+    assertThatThrownBy(() -> bucketSeeder.seed(Collections.singletonList(TEST_BUCKET_NAME)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @AfterEach
+  void cleanupStores() {
+    BucketMetadata bucketMetadata = bucketStore.getBucketMetadata(TEST_BUCKET_NAME);
+    if (bucketMetadata != null) {
+      for (UUID id : bucketMetadata.getObjects().values()) {
+        objectStore.deleteObject(bucketMetadata, id);
+      }
+      bucketStore.removeFromBucket(bucketMetadata.getObjects().keySet(), TEST_BUCKET_NAME);
+      bucketStore.deleteBucket(TEST_BUCKET_NAME);
+    }
+  }
+
+  private void givenTarEntry(TarArchiveOutputStream tarStream, String name, String content)
+      throws IOException {
+    byte[] bytes = content.getBytes(UTF_8);
+    TarArchiveEntry entry = new TarArchiveEntry(name);
+    entry.setSize(bytes.length);
+    tarStream.putArchiveEntry(entry);
+    tarStream.write(bytes);
+    tarStream.closeArchiveEntry();
+  }
+}
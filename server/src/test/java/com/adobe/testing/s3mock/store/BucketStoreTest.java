@@ -16,18 +16,38 @@
 
 package com.adobe.testing.s3mock.store;
 
+import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_BUCKET;
 import static com.adobe.testing.s3mock.dto.ObjectLockEnabled.ENABLED;
 import static com.adobe.testing.s3mock.dto.StorageClass.GLACIER;
+import static com.adobe.testing.s3mock.dto.StorageClass.STANDARD;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 import com.adobe.testing.s3mock.dto.BucketLifecycleConfiguration;
 import com.adobe.testing.s3mock.dto.LifecycleRule;
 import com.adobe.testing.s3mock.dto.LifecycleRuleFilter;
 import com.adobe.testing.s3mock.dto.Transition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
@@ -45,6 +65,12 @@ class BucketStoreTest {
   @Autowired
   private BucketStore bucketStore;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @TempDir
+  Path rootFolder;
+
   @Test
   void testCreateBucket() {
     final BucketMetadata bucket = bucketStore.createBucket(TEST_BUCKET_NAME, false);
@@ -136,6 +162,196 @@ class BucketStoreTest {
     assertThat(bucket).as("Bucket should be null!").isNull();
   }
 
+  @Test
+  void testDeleteBucket_reclaimsFolderInBackground() {
+    BucketStore iut = new BucketStore(rootFolder.toFile(), false, emptyList(),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME, objectMapper);
+    iut.createBucket(TEST_BUCKET_NAME, false);
+
+    assertThat(iut.deleteBucket(TEST_BUCKET_NAME)).isTrue();
+
+    assertThat(rootFolder.resolve(TEST_BUCKET_NAME)).doesNotExist();
+    assertThat(iut.listBuckets()).isEmpty();
+    assertThat(iut.createBucket(TEST_BUCKET_NAME, false)).isNotNull();
+    assertThat(iut.deleteBucket(TEST_BUCKET_NAME)).isTrue();
+
+    iut.shutdown();
+    assertThat(rootFolder).isEmptyDirectory();
+  }
+
+  @Test
+  void testCreateTempFolder_isNotABucket() throws IOException {
+    BucketStore iut = new BucketStore(rootFolder.toFile(), false, emptyList(),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME, objectMapper);
+
+    Path tempFolder = iut.createTempFolder("export");
+    Files.write(tempFolder.resolve("data"), "data".getBytes(UTF_8));
+
+    assertThat(tempFolder).isDirectory();
+    assertThat(iut.listBuckets()).isEmpty();
+    iut.deleteTempFolder(tempFolder);
+    iut.shutdown();
+    assertThat(rootFolder).isEmptyDirectory();
+  }
+
+  @Test
+  void testPurgeBucket_deletesBucketWithObjects() {
+    BucketStore iut = new BucketStore(rootFolder.toFile(), false, emptyList(),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME, objectMapper);
+    iut.createBucket(TEST_BUCKET_NAME, false);
+    iut.addToBucket("key", TEST_BUCKET_NAME);
+
+    assertThat(iut.purgeBucket(TEST_BUCKET_NAME)).isTrue();
+
+    assertThat(iut.doesBucketExist(TEST_BUCKET_NAME)).isFalse();
+    assertThat(iut.purgeBucket(TEST_BUCKET_NAME)).isFalse();
+    iut.shutdown();
+    assertThat(rootFolder).isEmptyDirectory();
+  }
+
+  @Test
+  void testPurgeBucket_concurrentRequestsFailWithNoSuchBucket() throws Exception {
+    BucketStore iut = new BucketStore(rootFolder.toFile(), false, emptyList(),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME, objectMapper);
+    iut.createBucket(TEST_BUCKET_NAME, false);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> requests = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        String key = "key" + i;
+        requests.add(executor.submit(() -> iut.addToBucket(key, TEST_BUCKET_NAME)));
+        if (i % 20 == 0) {
+          iut.purgeBucket(TEST_BUCKET_NAME);
+          iut.createBucket(TEST_BUCKET_NAME, false);
+        }
+      }
+      for (Future<?> request : requests) {
+        try {
+          request.get();
+        } catch (ExecutionException e) {
+          assertThat(e.getCause()).isEqualTo(NO_SUCH_BUCKET);
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    iut.purgeBucket(TEST_BUCKET_NAME);
+    assertThatThrownBy(() -> iut.addToBucket("key", TEST_BUCKET_NAME)).isEqualTo(NO_SUCH_BUCKET);
+    iut.shutdown();
+  }
+
+  @Test
+  void testCreateAndRestoreSnapshot() throws IOException {
+    BucketStore iut = new BucketStore(rootFolder.toFile(), false, emptyList(),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME, objectMapper);
+    iut.createBucket(TEST_BUCKET_NAME, false);
+    UUID id = iut.addToBucket("key1", TEST_BUCKET_NAME);
+    Path dataPath = rootFolder.resolve(TEST_BUCKET_NAME).resolve(id.toString())
+        .resolve(ObjectStore.DATA_FILE);
+    Files.createDirectories(dataPath.getParent());
+    Files.write(dataPath, "one".getBytes(UTF_8));
+
+    iut.createSnapshot("fixture");
+    // data files are replaced, never written in place.
+    Files.delete(dataPath);
+    Files.write(dataPath, "changed".getBytes(UTF_8));
+    iut.addToBucket("key2", TEST_BUCKET_NAME);
+    iut.createBucket("other-bucket", false);
+
+    List<String> bucketsAfterRestore = new ArrayList<>();
+    assertThat(iut.restoreSnapshot("fixture",
+        () -> iut.listBuckets().forEach(bucket -> bucketsAfterRestore.add(bucket.getName()))))
+        .isTrue();
+    assertThat(bucketsAfterRestore).containsExactly(TEST_BUCKET_NAME);
+    assertThat(iut.listBuckets()).extracting(BucketMetadata::getName)
+        .containsExactly(TEST_BUCKET_NAME);
+    assertThat(iut.getBucketMetadata(TEST_BUCKET_NAME).getObjects()).containsOnlyKeys("key1");
+    assertThat(dataPath).hasContent("one");
+
+    iut.addToBucket("key3", TEST_BUCKET_NAME);
+    assertThat(iut.restoreSnapshot("fixture", () -> { })).isTrue();
+    assertThat(iut.getBucketMetadata(TEST_BUCKET_NAME).getObjects()).containsOnlyKeys("key1");
+    assertThat(iut.restoreSnapshot("missing", bucketsAfterRestore::clear)).isFalse();
+    assertThat(bucketsAfterRestore).containsExactly(TEST_BUCKET_NAME);
+
+    iut.shutdown();
+    assertThat(rootFolder.resolve(BucketStore.SNAPSHOTS_FOLDER)).doesNotExist();
+    assertThat(rootFolder.resolve(TEST_BUCKET_NAME)).doesNotExist();
+  }
+
+  @Test
+  void testReset_recreatesInitialBuckets() {
+    BucketStore iut = new BucketStore(rootFolder.toFile(), false, singletonList("initial-bucket"),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME, objectMapper);
+    iut.addToBucket("key", "initial-bucket");
+    iut.createBucket(TEST_BUCKET_NAME, false);
+    iut.createSnapshot("fixture");
+    List<String> bucketsAfterReset = new ArrayList<>();
+
+    iut.reset(() -> iut.listBuckets().forEach(bucket -> bucketsAfterReset.add(bucket.getName())));
+
+    assertThat(bucketsAfterReset).containsExactly("initial-bucket");
+    assertThat(iut.listBuckets()).extracting(BucketMetadata::getName)
+        .containsExactly("initial-bucket");
+    assertThat(iut.isBucketEmpty("initial-bucket")).isTrue();
+    assertThat(iut.restoreSnapshot("fixture", () -> { })).isTrue();
+    assertThat(iut.doesBucketExist(TEST_BUCKET_NAME)).isTrue();
+    iut.shutdown();
+  }
+
+  @Test
+  void testDeleteSnapshot() {
+    BucketStore iut = new BucketStore(rootFolder.toFile(), false, emptyList(),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME, objectMapper);
+    iut.createSnapshot("fixture");
+
+    assertThat(iut.deleteSnapshot("fixture")).isTrue();
+    assertThat(iut.deleteSnapshot("fixture")).isFalse();
+    assertThat(iut.restoreSnapshot("fixture", () -> { })).isFalse();
+    assertThat(BucketStore.isValidSnapshotName("../fixture")).isFalse();
+    iut.shutdown();
+  }
+
+  @Test
+  void testStoreAndRemoveListingAttributes() {
+    bucketStore.createBucket(TEST_BUCKET_NAME, false);
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setKey("key");
+    s3ObjectMetadata.setEtag("\"etag\"");
+    s3ObjectMetadata.setSize("42");
+    s3ObjectMetadata.setModificationDate("2022-10-10T10:10:10.000Z");
+
+    bucketStore.storeListingAttributes(TEST_BUCKET_NAME, s3ObjectMetadata);
+    assertThat(bucketStore.getBucketMetadata(TEST_BUCKET_NAME).getListingAttributes("key"))
+        .as("Listing attributes are only stored for keys in the bucket").isNull();
+
+    bucketStore.addToBucket("key", TEST_BUCKET_NAME);
+    bucketStore.storeListingAttributes(TEST_BUCKET_NAME, s3ObjectMetadata);
+    assertThat(bucketStore.getBucketMetadata(TEST_BUCKET_NAME).getListingAttributes("key"))
+        .isEqualTo(new ListingAttributes("\"etag\"", "42", "2022-10-10T10:10:10.000Z",
+            STANDARD));
+
+    bucketStore.removeFromBucket("key", TEST_BUCKET_NAME);
+    assertThat(bucketStore.getBucketMetadata(TEST_BUCKET_NAME).getListing()).isEmpty();
+  }
+
+  @Test
+  void testRemoveKeysFromBucket() {
+    bucketStore.createBucket(TEST_BUCKET_NAME, false);
+    UUID id1 = bucketStore.addToBucket("key1", TEST_BUCKET_NAME);
+    bucketStore.addToBucket("key2", TEST_BUCKET_NAME);
+    UUID id3 = bucketStore.addToBucket("key3", TEST_BUCKET_NAME);
+
+    Map<String, UUID> removed =
+        bucketStore.removeFromBucket(Arrays.asList("key1", "key3", "key4"), TEST_BUCKET_NAME);
+
+    assertThat(removed).containsOnly(entry("key1", id1), entry("key3", id3));
+    assertThat(bucketStore.getBucketMetadata(TEST_BUCKET_NAME).getObjects())
+        .containsOnlyKeys("key2");
+    bucketStore.removeFromBucket("key2", TEST_BUCKET_NAME);
+  }
+
   /**
    * Delete all existing buckets.
    */
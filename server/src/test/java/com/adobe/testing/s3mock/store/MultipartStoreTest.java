@@ -16,24 +16,35 @@
 
 package com.adobe.testing.s3mock.store;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.IntStream.rangeClosed;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.parallel.ExecutionMode.SAME_THREAD;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM;
 
+import com.adobe.testing.s3mock.S3Exception;
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.CompletedPart;
 import com.adobe.testing.s3mock.dto.MultipartUpload;
 import com.adobe.testing.s3mock.dto.Owner;
 import com.adobe.testing.s3mock.dto.Part;
 import com.adobe.testing.s3mock.dto.Range;
+import com.adobe.testing.s3mock.util.DigestUtil;
+import com.adobe.testing.s3mock.util.ObjectDataUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -42,6 +53,7 @@ import java.util.Map;
 import java.util.UUID;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.http.entity.ContentType;
 import org.junit.jupiter.api.AfterAll;
@@ -81,6 +93,8 @@ class MultipartStoreTest {
   private ObjectStore objectStore;
   @Autowired
   private File rootFolder;
+  @Autowired
+  private ObjectMapper objectMapper;
 
   @BeforeEach
   void beforeEach() {
@@ -179,6 +193,30 @@ class MultipartStoreTest {
         .isEqualTo(DigestUtils.md5Hex(allMd5s) + "-2");
   }
 
+  @Test
+  void shouldCalculateEtagFromStoredPartDigests() throws IOException {
+    final String fileName = "PartFile";
+    final String uploadId = "12345";
+    UUID id = managedId();
+    BucketMetadata bucket = metadataFrom(TEST_BUCKET_NAME);
+    multipartStore.prepareMultipartUpload(bucket, fileName, id,
+        DEFAULT_CONTENT_TYPE, ENCODING_GZIP, uploadId, TEST_OWNER, TEST_OWNER, NO_USER_METADATA);
+    multipartStore.putPart(bucket, id, uploadId, "1",
+        new ByteArrayInputStream("Part1".getBytes()), false, "aws:kms", "key-ref");
+    multipartStore.putPart(bucket, id, uploadId, "2",
+        new ByteArrayInputStream("Part2".getBytes()), false, "aws:kms", "key-ref");
+    final Path partsFolder = Paths.get(bucket.getPath().toString(), id.toString(), uploadId);
+
+    assertThat(partsFolder.resolve("1.md5")).hasContent(DigestUtils.md5Hex("Part1"));
+    assertThat(partsFolder.resolve("2.md5")).hasContent(DigestUtils.md5Hex("Part2"));
+    final String etag = multipartStore.completeMultipartUpload(bucket, fileName, id, uploadId,
+        getParts(2), "aws:kms", "key-ref");
+
+    assertThat(etag).as("Etag must be calculated from the unsalted part digests.")
+        .isEqualTo(DigestUtils.md5Hex(
+            ArrayUtils.addAll(DigestUtils.md5("Part1"), DigestUtils.md5("Part2"))) + "-2");
+  }
+
   @Test
   void hasValidMetadata() {
     final String fileName = "PartFile";
@@ -202,6 +240,98 @@ class MultipartStoreTest {
     assertThat(s3ObjectMetadata.getContentType()).isEqualTo(APPLICATION_OCTET_STREAM.toString());
   }
 
+  @Test
+  void shouldFinishVirtualUploadWithoutConcatenation() throws IOException {
+    final String fileName = "PartFile";
+    final String uploadId = "12345";
+    UUID id = managedId();
+    MultipartStore virtualMultipartStore =
+        new MultipartStore(false, true, rootFolder, objectStore, objectMapper);
+    virtualMultipartStore.prepareMultipartUpload(metadataFrom(TEST_BUCKET_NAME), fileName, id,
+        DEFAULT_CONTENT_TYPE, ENCODING_GZIP, uploadId, TEST_OWNER, TEST_OWNER, NO_USER_METADATA);
+    virtualMultipartStore
+        .putPart(metadataFrom(TEST_BUCKET_NAME), id, uploadId, "1",
+            new ByteArrayInputStream("Part1".getBytes()), false, NO_ENC, NO_ENC_KEY);
+    virtualMultipartStore
+        .putPart(metadataFrom(TEST_BUCKET_NAME), id, uploadId, "2",
+            new ByteArrayInputStream("Part2".getBytes()), false, NO_ENC, NO_ENC_KEY);
+
+    final String etag =
+        virtualMultipartStore.completeMultipartUpload(metadataFrom(TEST_BUCKET_NAME), fileName,
+            id, uploadId, getParts(2), NO_ENC, NO_ENC_KEY);
+    final byte[] allMd5s = ArrayUtils.addAll(
+        DigestUtils.md5("Part1"),
+        DigestUtils.md5("Part2")
+    );
+
+    assertThat(etag).as("Special etag doesn't match.")
+        .isEqualTo(DigestUtils.md5Hex(allMd5s) + "-2");
+    assertThat(
+        Paths.get(rootFolder.getAbsolutePath(), TEST_BUCKET_NAME, id.toString(),
+                "binaryData").toFile()
+            .exists()).as("File must not exist!").isFalse();
+
+    final S3ObjectMetadata s3ObjectMetadata =
+        objectStore.getS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id);
+    assertThat(s3ObjectMetadata.getSize()).isEqualTo("10");
+    assertThat(s3ObjectMetadata.getDataPath()).isNull();
+    assertThat(s3ObjectMetadata.getParts()).extracting(S3ObjectPart::getOffset)
+        .containsExactly(0L, 5L);
+    assertThat(ObjectDataUtil.dataSize(s3ObjectMetadata)).isEqualTo(10L);
+    try (InputStream inputStream = ObjectDataUtil.newInputStream(s3ObjectMetadata)) {
+      assertThat(IOUtils.toString(inputStream, UTF_8)).isEqualTo("Part1Part2");
+    }
+    ByteArrayOutputStream range = new ByteArrayOutputStream();
+    ObjectDataUtil.copyData(s3ObjectMetadata, 3, 4, range);
+    assertThat(range.toString(UTF_8.name())).isEqualTo("t1Pa");
+  }
+
+  @Test
+  void shouldStoreCompositeChecksum() {
+    final String fileName = "PartFile";
+    final String uploadId = "12345";
+    UUID id = managedId();
+    multipartStore.prepareMultipartUpload(metadataFrom(TEST_BUCKET_NAME), fileName, id,
+        DEFAULT_CONTENT_TYPE, ENCODING_GZIP, uploadId, TEST_OWNER, TEST_OWNER, NO_USER_METADATA,
+        ChecksumAlgorithm.CRC32);
+    String part1Checksum = DigestUtil.base64Checksum(ChecksumAlgorithm.CRC32,
+        new ByteArrayInputStream("Part1".getBytes()));
+    final String part2Checksum = DigestUtil.base64Checksum(ChecksumAlgorithm.CRC32,
+        new ByteArrayInputStream("Part2".getBytes()));
+    multipartStore
+        .putPart(metadataFrom(TEST_BUCKET_NAME), id, uploadId, "1",
+            new ByteArrayInputStream("Part1".getBytes()), false, null, part1Checksum, NO_ENC,
+            NO_ENC_KEY);
+    multipartStore
+        .putPart(metadataFrom(TEST_BUCKET_NAME), id, uploadId, "2",
+            new ByteArrayInputStream("Part2".getBytes()), false, NO_ENC, NO_ENC_KEY);
+
+    multipartStore.completeMultipartUpload(metadataFrom(TEST_BUCKET_NAME), fileName, id, uploadId,
+        getParts(2), NO_ENC, NO_ENC_KEY);
+
+    final S3ObjectMetadata s3ObjectMetadata =
+        objectStore.getS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id);
+    assertThat(s3ObjectMetadata.getChecksumAlgorithm()).isEqualTo(ChecksumAlgorithm.CRC32);
+    assertThat(s3ObjectMetadata.getChecksum()).isEqualTo(DigestUtil.compositeChecksum(
+        ChecksumAlgorithm.CRC32, Arrays.asList(part1Checksum, part2Checksum)));
+  }
+
+  @Test
+  void shouldRejectPartWithChecksumMismatch() {
+    final String fileName = "PartFile";
+    final String uploadId = "12345";
+    UUID id = managedId();
+    multipartStore.prepareMultipartUpload(metadataFrom(TEST_BUCKET_NAME), fileName, id,
+        DEFAULT_CONTENT_TYPE, ENCODING_GZIP, uploadId, TEST_OWNER, TEST_OWNER, NO_USER_METADATA);
+
+    assertThatThrownBy(() -> multipartStore
+        .putPart(metadataFrom(TEST_BUCKET_NAME), id, uploadId, "1",
+            new ByteArrayInputStream("Part1".getBytes()), false, ChecksumAlgorithm.SHA1,
+            "AAAAAA==", NO_ENC, NO_ENC_KEY))
+        .isEqualTo(S3Exception.BAD_CHECKSUM);
+    multipartStore.abortMultipartUpload(metadataFrom(TEST_BUCKET_NAME), id, uploadId);
+  }
+
   private List<CompletedPart> getParts(int n) {
     List<CompletedPart> parts = new ArrayList<>();
     for (int i = 1; i <= n; i++) {
@@ -298,6 +428,67 @@ class MultipartStoreTest {
     assertThat(multipartStore.listMultipartUploads(ALL_BUCKETS, NO_PREFIX)).isEmpty();
   }
 
+  @Test
+  void listsMultipartUploadsPaginated() {
+    BucketMetadata bucketMetadata = metadataFrom(TEST_BUCKET_NAME);
+    UUID idA = managedId();
+    UUID idB = managedId();
+    multipartStore.prepareMultipartUpload(bucketMetadata, "b", idB, DEFAULT_CONTENT_TYPE,
+        ENCODING_GZIP, "upload3", TEST_OWNER, TEST_OWNER, NO_USER_METADATA);
+    multipartStore.prepareMultipartUpload(bucketMetadata, "a", idA, DEFAULT_CONTENT_TYPE,
+        ENCODING_GZIP, "upload1", TEST_OWNER, TEST_OWNER, NO_USER_METADATA);
+    multipartStore.prepareMultipartUpload(bucketMetadata, "a", idA, DEFAULT_CONTENT_TYPE,
+        ENCODING_GZIP, "upload2", TEST_OWNER, TEST_OWNER, NO_USER_METADATA);
+
+    assertThat(multipartStore.listMultipartUploads(TEST_BUCKET_NAME, NO_PREFIX, null, null, 2))
+        .extracting(MultipartUpload::getKey).containsExactly("a", "a");
+    assertThat(multipartStore.listMultipartUploads(TEST_BUCKET_NAME, NO_PREFIX, "a", null, 10))
+        .extracting(MultipartUpload::getUploadId).containsExactly("upload3");
+    List<MultipartUpload> firstPage =
+        multipartStore.listMultipartUploads(TEST_BUCKET_NAME, NO_PREFIX, null, null, 1);
+    String firstUploadId = firstPage.get(0).getUploadId();
+    assertThat(
+        multipartStore.listMultipartUploads(TEST_BUCKET_NAME, NO_PREFIX, "a", firstUploadId, 10))
+        .extracting(MultipartUpload::getUploadId)
+        .doesNotContain(firstUploadId)
+        .hasSize(2)
+        .endsWith("upload3");
+    assertThat(multipartStore.listMultipartUploads(TEST_BUCKET_NAME, "b", null, null, 10))
+        .extracting(MultipartUpload::getUploadId).containsExactly("upload3");
+
+    multipartStore.abortMultipartUpload(bucketMetadata, idA, "upload1");
+    multipartStore.abortMultipartUpload(bucketMetadata, idA, "upload2");
+    multipartStore.abortMultipartUpload(bucketMetadata, idB, "upload3");
+  }
+
+  @Test
+  void loadsMultipartUploadsFromDisk() {
+    final String fileName = "PartFile";
+    final String uploadId = "12345";
+    UUID id = managedId();
+    BucketMetadata bucketMetadata = metadataFrom(TEST_BUCKET_NAME);
+    multipartStore.prepareMultipartUpload(bucketMetadata, fileName, id, TEXT_PLAIN,
+        ENCODING_GZIP, uploadId, TEST_OWNER, TEST_OWNER, NO_USER_METADATA);
+    multipartStore.putPart(bucketMetadata, id, uploadId, "1",
+        new ByteArrayInputStream("Part1".getBytes()), false, NO_ENC, NO_ENC_KEY);
+
+    MultipartStore restartedStore =
+        new MultipartStore(false, false, rootFolder, objectStore, objectMapper);
+
+    MultipartUpload upload = restartedStore.getMultipartUpload(uploadId);
+    assertThat(upload.getKey()).isEqualTo(fileName);
+    assertThat(upload.getOwner()).isEqualTo(TEST_OWNER);
+    assertThat(restartedStore.listMultipartUploads(TEST_BUCKET_NAME, NO_PREFIX))
+        .extracting(MultipartUpload::getUploadId).containsExactly(uploadId);
+
+    restartedStore.completeMultipartUpload(bucketMetadata, fileName, id, uploadId, getParts(1),
+        NO_ENC, NO_ENC_KEY);
+    assertThat(objectStore.getS3ObjectMetadata(bucketMetadata, id).getContentType())
+        .isEqualTo(TEXT_PLAIN);
+    // the upload is still registered in the original store
+    multipartStore.abortMultipartUpload(bucketMetadata, id, uploadId);
+  }
+
   @Test
   void listsMultipartUploadsMultipleBuckets() {
     assertThat(multipartStore.listMultipartUploads(ALL_BUCKETS, NO_PREFIX)).isEmpty();
@@ -391,7 +582,7 @@ class MultipartStoreTest {
         DEFAULT_CONTENT_TYPE, ENCODING_GZIP, uploadId, TEST_OWNER, TEST_OWNER, NO_USER_METADATA);
 
     Range range = new Range(0, contentBytes.length);
-    multipartStore.copyPart(
+    final String etag = multipartStore.copyPart(
         metadataFrom(TEST_BUCKET_NAME), sourceId, range, partNumber,
         metadataFrom(TEST_BUCKET_NAME), destinationId, uploadId);
     assertThat(
@@ -399,6 +590,9 @@ class MultipartStoreTest {
                 uploadId, partNumber + ".part")
             .toFile()
             .exists()).as("Part does not exist!").isTrue();
+    assertThat(etag).isEqualTo(DigestUtils.md5Hex(contentBytes));
+    assertThat(Paths.get(rootFolder.getAbsolutePath(), TEST_BUCKET_NAME, destinationId.toString(),
+        uploadId, partNumber + ".md5")).hasContent(etag);
     multipartStore.abortMultipartUpload(metadataFrom(TEST_BUCKET_NAME), destinationId, uploadId);
   }
 
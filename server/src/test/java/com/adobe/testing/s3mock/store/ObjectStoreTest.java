@@ -16,36 +16,48 @@
 
 package com.adobe.testing.s3mock.store;
 
+import static com.adobe.testing.s3mock.S3Exception.BAD_CHECKSUM;
 import static com.adobe.testing.s3mock.dto.Grant.Permission.FULL_CONTROL;
 import static com.adobe.testing.s3mock.util.DigestUtil.hexDigest;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.temporal.ChronoUnit.MILLIS;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.util.Files.contentOf;
 import static org.junit.jupiter.api.parallel.ExecutionMode.SAME_THREAD;
 
 import com.adobe.testing.s3mock.dto.AccessControlPolicy;
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
 import com.adobe.testing.s3mock.dto.Grant;
 import com.adobe.testing.s3mock.dto.Grantee;
 import com.adobe.testing.s3mock.dto.LegalHold;
 import com.adobe.testing.s3mock.dto.Mode;
 import com.adobe.testing.s3mock.dto.Owner;
 import com.adobe.testing.s3mock.dto.Retention;
+import com.adobe.testing.s3mock.dto.S3Object;
 import com.adobe.testing.s3mock.dto.Tag;
+import com.adobe.testing.s3mock.util.DigestUtil;
+import com.adobe.testing.s3mock.util.ObjectDataUtil;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.http.entity.ContentType;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -124,6 +136,150 @@ class ObjectStoreTest {
         contentOf(returnedObject.getDataPath().toFile(), UTF_8));
   }
 
+  @Test
+  void testStoreObject_trailingChecksumMismatchKeepsExistingData() throws Exception {
+    final File sourceFile = new File(TEST_FILE_PATH);
+    UUID id = managedId();
+    final String name = sourceFile.getName();
+    final S3ObjectMetadata storedObject =
+        objectStore.storeS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id, name, TEXT_PLAIN,
+            null, Files.newInputStream(sourceFile.toPath()), false,
+            emptyMap(), null, null, null, emptyList(), Owner.DEFAULT_OWNER);
+    final String unsignedWithTrailer = "5\r\n12345\r\n0\r\n"
+        + "x-amz-checksum-crc32:AAAAAA==\r\n\r\n";
+
+    assertThatThrownBy(() ->
+        objectStore.storeS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id, name, TEXT_PLAIN,
+            null, new ByteArrayInputStream(unsignedWithTrailer.getBytes(UTF_8)), true,
+            ChecksumAlgorithm.CRC32, null, emptyMap(), null, null, null, emptyList(),
+            Owner.DEFAULT_OWNER, null))
+        .isEqualTo(BAD_CHECKSUM);
+
+    assertThat(contentOf(storedObject.getDataPath().toFile(), UTF_8))
+        .isEqualTo(contentOf(sourceFile, UTF_8));
+    assertThat(storedObject.getDataPath().getParent().toFile().list())
+        .noneMatch(file -> file.endsWith(".tmp"));
+  }
+
+  @Test
+  void testStoreObject_checksumMismatchKeepsExistingVirtualObject() throws Exception {
+    UUID id = managedId();
+    BucketMetadata bucket = metadataFrom(TEST_BUCKET_NAME);
+    Path partsFolder =
+        Files.createDirectories(bucket.getPath().resolve(UUID.randomUUID().toString()));
+    Path partFile = Files.write(partsFolder.resolve("1.part"), "12345".getBytes(UTF_8));
+    objectStore.storeVirtualS3ObjectMetadata(bucket, id, "virtual", TEXT_PLAIN, null,
+        singletonList(new S3ObjectPart(1, 0, 5, partFile)), emptyMap(), null, null, "etag",
+        emptyList(), Owner.DEFAULT_OWNER);
+
+    assertThatThrownBy(() ->
+        objectStore.storeS3ObjectMetadata(bucket, id, "virtual", TEXT_PLAIN, null,
+            new ByteArrayInputStream("67890".getBytes(UTF_8)), false,
+            ChecksumAlgorithm.SHA256, "AAAAAA==", emptyMap(), null, null, null, emptyList(),
+            Owner.DEFAULT_OWNER, null))
+        .isEqualTo(BAD_CHECKSUM);
+
+    S3ObjectMetadata previous = objectStore.getS3ObjectMetadata(bucket, id);
+    assertThat(previous.getEtag()).isEqualTo("\"etag\"");
+    try (InputStream inputStream = ObjectDataUtil.newInputStream(previous)) {
+      assertThat(inputStream).hasContent("12345");
+    }
+    FileUtils.deleteQuietly(partsFolder.toFile());
+  }
+
+  @Test
+  void testStoreObject_keepsPartsOfOpenVirtualObjectUntilClosed() throws Exception {
+    UUID id = managedId();
+    BucketMetadata bucket = metadataFrom(TEST_BUCKET_NAME);
+    Path partsFolder =
+        Files.createDirectories(bucket.getPath().resolve(UUID.randomUUID().toString()));
+    Path partFile = Files.write(partsFolder.resolve("1.part"), "12345".getBytes(UTF_8));
+    objectStore.storeVirtualS3ObjectMetadata(bucket, id, "virtual", TEXT_PLAIN, null,
+        singletonList(new S3ObjectPart(1, 0, 5, partFile)), emptyMap(), null, null, "etag",
+        emptyList(), Owner.DEFAULT_OWNER);
+
+    S3ObjectMetadata opened = objectStore.openS3Object(bucket, id);
+    objectStore.storeS3ObjectMetadata(bucket, id, "virtual", TEXT_PLAIN, null,
+        new ByteArrayInputStream("67890".getBytes(UTF_8)), false,
+        emptyMap(), null, null, null, emptyList(), Owner.DEFAULT_OWNER);
+
+    assertThat(partsFolder).as("Parts must be kept while the object is open").exists();
+    try (InputStream inputStream = ObjectDataUtil.newInputStream(opened)) {
+      assertThat(inputStream).hasContent("12345");
+    }
+    objectStore.closeS3Object(id);
+    assertThat(partsFolder).doesNotExist();
+    try (InputStream inputStream =
+        ObjectDataUtil.newInputStream(objectStore.getS3ObjectMetadata(bucket, id))) {
+      assertThat(inputStream).hasContent("67890");
+    }
+  }
+
+  @Test
+  void testOpenObject_missingObjectIsNotOpened() throws Exception {
+    UUID id = managedId();
+    BucketMetadata bucket = metadataFrom(TEST_BUCKET_NAME);
+    Path partsFolder =
+        Files.createDirectories(bucket.getPath().resolve(UUID.randomUUID().toString()));
+    Path partFile = Files.write(partsFolder.resolve("1.part"), "12345".getBytes(UTF_8));
+
+    assertThat(objectStore.openS3Object(bucket, id)).isNull();
+    objectStore.storeVirtualS3ObjectMetadata(bucket, id, "virtual", TEXT_PLAIN, null,
+        singletonList(new S3ObjectPart(1, 0, 5, partFile)), emptyMap(), null, null, "etag",
+        emptyList(), Owner.DEFAULT_OWNER);
+    objectStore.storeS3ObjectMetadata(bucket, id, "virtual", TEXT_PLAIN, null,
+        new ByteArrayInputStream("67890".getBytes(UTF_8)), false,
+        emptyMap(), null, null, null, emptyList(), Owner.DEFAULT_OWNER);
+
+    assertThat(partsFolder).doesNotExist();
+  }
+
+  @Test
+  void testStoreObject_checksum() throws Exception {
+    UUID id = managedId();
+    final String checksum = DigestUtil.base64Checksum(ChecksumAlgorithm.CRC32C,
+        new ByteArrayInputStream("12345".getBytes(UTF_8)));
+
+    objectStore.storeS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id, "checksum", TEXT_PLAIN,
+        null, new ByteArrayInputStream("12345".getBytes(UTF_8)), false,
+        ChecksumAlgorithm.CRC32C, checksum, emptyMap(), null, null, null, emptyList(),
+        Owner.DEFAULT_OWNER, null);
+
+    final S3ObjectMetadata returnedObject =
+        objectStore.getS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id);
+    assertThat(returnedObject.getChecksumAlgorithm()).isEqualTo(ChecksumAlgorithm.CRC32C);
+    assertThat(returnedObject.getChecksum()).isEqualTo(checksum);
+    assertThat(returnedObject.getEtag()).isEqualTo("\"" + DigestUtils.md5Hex("12345") + "\"");
+  }
+
+  @Test
+  void testStoreObject_chunkedWithoutTrailerCalculatesChecksum() {
+    UUID id = managedId();
+    final String unsignedWithoutTrailer = "5\r\n12345\r\n0\r\n\r\n";
+
+    objectStore.storeS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id, "checksum", TEXT_PLAIN,
+        null, new ByteArrayInputStream(unsignedWithoutTrailer.getBytes(UTF_8)), true,
+        ChecksumAlgorithm.CRC32C, null, emptyMap(), null, null, null, emptyList(),
+        Owner.DEFAULT_OWNER, null);
+
+    final S3ObjectMetadata returnedObject =
+        objectStore.getS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id);
+    assertThat(returnedObject.getChecksum()).isEqualTo(DigestUtil.base64Checksum(
+        ChecksumAlgorithm.CRC32C, new ByteArrayInputStream("12345".getBytes(UTF_8))));
+  }
+
+  @Test
+  void testStoreObject_checksumMismatch() {
+    UUID id = managedId();
+
+    assertThatThrownBy(() ->
+        objectStore.storeS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id, "checksum",
+            TEXT_PLAIN, null, new ByteArrayInputStream("12345".getBytes(UTF_8)), false,
+            ChecksumAlgorithm.SHA256, "AAAAAA==", emptyMap(), null, null, null, emptyList(),
+            Owner.DEFAULT_OWNER, null))
+        .isEqualTo(BAD_CHECKSUM);
+  }
+
   @Test
   void testStoreAndGetObject() throws Exception {
     final File sourceFile = new File(TEST_FILE_PATH);
@@ -367,6 +523,30 @@ class ObjectStoreTest {
         contentOf(copiedObject.getDataPath().toFile(), UTF_8));
   }
 
+  @Test
+  void testPretendToCopyObject_updatesListedModificationDate() throws Exception {
+    final File sourceFile = new File(TEST_FILE_PATH);
+    final String key = sourceFile.getName();
+    BucketMetadata bucket = metadataFrom(TEST_BUCKET_NAME);
+    UUID id = bucket.addKey(key);
+    idCache.add(id);
+    S3ObjectMetadata stored = objectStore.storeS3ObjectMetadata(bucket, id, key, TEXT_PLAIN,
+        ENCODING_GZIP, Files.newInputStream(sourceFile.toPath()), false,
+        NO_USER_METADATA, NO_ENC, NO_ENC_KEY, null, emptyList(), Owner.DEFAULT_OWNER);
+    bucket.putListingAttributes(key, ListingAttributes.from(stored));
+    final String listedBefore = S3Object.from(key, bucket.getListing().get(key)).getLastModified();
+    Thread.sleep(10);
+
+    objectStore.pretendToCopyS3Object(bucket, id, NO_USER_METADATA);
+    S3ObjectMetadata copied = objectStore.getS3ObjectMetadata(bucket, id);
+    bucket.putListingAttributes(key, ListingAttributes.from(copied));
+    final String listedAfter = S3Object.from(key, bucket.getListing().get(key)).getLastModified();
+
+    assertThat(listedAfter).isNotEqualTo(listedBefore)
+        .isEqualTo(S3Object.from(copied).getLastModified());
+    assertThat(Instant.parse(listedAfter).toEpochMilli()).isEqualTo(copied.getLastModified());
+  }
+
   @Test
   void testStoreAndCopyObjectEncrypted() throws Exception {
     final String destinationObjectName = "destinationObject";
@@ -421,6 +601,134 @@ class ObjectStoreTest {
     assertThat(s3ObjectMetadata).as("Object should be null!").isNull();
   }
 
+  @Test
+  void testLinkObject_keepsDataOfReplacedAndDeletedObject() throws Exception {
+    final File sourceFile = new File(TEST_FILE_PATH);
+    UUID id = managedId();
+    BucketMetadata bucket = metadataFrom(TEST_BUCKET_NAME);
+    Path linkFolder = bucket.getPath().resolve(UUID.randomUUID().toString());
+    objectStore
+        .storeS3ObjectMetadata(bucket, id, sourceFile.getName(), TEXT_PLAIN,
+            ENCODING_GZIP, Files.newInputStream(sourceFile.toPath()), false,
+            NO_USER_METADATA, NO_ENC, NO_ENC_KEY, null, emptyList(), Owner.DEFAULT_OWNER);
+
+    S3ObjectMetadata linked = objectStore.linkS3Object(bucket, id, linkFolder);
+    objectStore.storeS3ObjectMetadata(bucket, id, sourceFile.getName(), TEXT_PLAIN,
+        ENCODING_GZIP, new ByteArrayInputStream("replaced".getBytes(UTF_8)), false,
+        NO_USER_METADATA, NO_ENC, NO_ENC_KEY, null, emptyList(), Owner.DEFAULT_OWNER);
+    objectStore.deleteObject(bucket, id);
+
+    assertThat(linked.getDataPath()).isEqualTo(linkFolder.resolve(ObjectStore.DATA_FILE));
+    try (InputStream inputStream = ObjectDataUtil.newInputStream(linked)) {
+      assertThat(inputStream).hasSameContentAs(Files.newInputStream(sourceFile.toPath()));
+    }
+    assertThat(objectStore.linkS3Object(bucket, id, linkFolder)).isNull();
+    FileUtils.deleteQuietly(linkFolder.toFile());
+  }
+
+  @Test
+  void testLinkObject_linksPartsOfVirtualObject() throws Exception {
+    UUID id = managedId();
+    BucketMetadata bucket = metadataFrom(TEST_BUCKET_NAME);
+    Path partsFolder =
+        Files.createDirectories(bucket.getPath().resolve(UUID.randomUUID().toString()));
+    Path linkFolder = bucket.getPath().resolve(UUID.randomUUID().toString());
+    Path firstPart = Files.write(partsFolder.resolve("1.part"), "123".getBytes(UTF_8));
+    Path secondPart = Files.write(partsFolder.resolve("2.part"), "45".getBytes(UTF_8));
+    objectStore.storeVirtualS3ObjectMetadata(bucket, id, "virtual", TEXT_PLAIN, null,
+        Arrays.asList(new S3ObjectPart(1, 0, 3, firstPart), new S3ObjectPart(2, 3, 2, secondPart)),
+        emptyMap(), null, null, "etag", emptyList(), Owner.DEFAULT_OWNER);
+
+    S3ObjectMetadata linked = objectStore.linkS3Object(bucket, id, linkFolder);
+    objectStore.storeS3ObjectMetadata(bucket, id, "virtual", TEXT_PLAIN, null,
+        new ByteArrayInputStream("67890".getBytes(UTF_8)), false,
+        emptyMap(), null, null, null, emptyList(), Owner.DEFAULT_OWNER);
+
+    assertThat(partsFolder).doesNotExist();
+    assertThat(linked.getParts()).extracting(S3ObjectPart::getDataPath)
+        .containsExactly(linkFolder.resolve("1.part"), linkFolder.resolve("2.part"));
+    try (InputStream inputStream = ObjectDataUtil.newInputStream(linked)) {
+      assertThat(inputStream).hasContent("12345");
+    }
+    FileUtils.deleteQuietly(linkFolder.toFile());
+  }
+
+  @Test
+  void testDeleteObject_waitingRequestsUseTheSameLockAfterwards() throws Exception {
+    final File sourceFile = new File(TEST_FILE_PATH);
+    UUID id = managedId();
+    BucketMetadata bucket = metadataFrom(TEST_BUCKET_NAME);
+    objectStore
+        .storeS3ObjectMetadata(bucket, id, sourceFile.getName(), TEXT_PLAIN,
+            ENCODING_GZIP, Files.newInputStream(sourceFile.toPath()), false,
+            NO_USER_METADATA, NO_ENC, NO_ENC_KEY, null, emptyList(), Owner.DEFAULT_OWNER);
+    CountDownLatch storing = new CountDownLatch(1);
+    InputStream blockingStream = new ByteArrayInputStream("stored".getBytes(UTF_8)) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        try {
+          storing.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return super.read(b, off, len);
+      }
+    };
+    Thread deletion = new Thread(() -> objectStore.deleteObject(bucket, id));
+    Thread store = new Thread(() -> objectStore.storeS3ObjectMetadata(bucket, id,
+        sourceFile.getName(), TEXT_PLAIN, ENCODING_GZIP, blockingStream, false,
+        NO_USER_METADATA, NO_ENC, NO_ENC_KEY, null, emptyList(), Owner.DEFAULT_OWNER));
+
+    CountDownLatch release = new CountDownLatch(1);
+    final Thread holder = holdLock(bucket, id, release);
+    deletion.start();
+    await(deletion);
+    store.start();
+    await(store);
+    release.countDown();
+    holder.join();
+    deletion.join();
+    // the store waited for the lock the deletion removed, it must hold the current lock now.
+    Thread copy = new Thread(() -> objectStore.pretendToCopyS3Object(bucket, id, null));
+    copy.start();
+    await(copy);
+    assertThat(copy.isAlive()).as("Copy must wait for the store").isTrue();
+    storing.countDown();
+    store.join();
+    copy.join();
+
+    try (InputStream inputStream =
+        ObjectDataUtil.newInputStream(objectStore.getS3ObjectMetadata(bucket, id))) {
+      assertThat(inputStream).hasContent("stored");
+    }
+  }
+
+  @Test
+  void testClearLocks_keepsLocksInUse() throws Exception {
+    final File sourceFile = new File(TEST_FILE_PATH);
+    UUID id = managedId();
+    BucketMetadata bucket = metadataFrom(TEST_BUCKET_NAME);
+    objectStore
+        .storeS3ObjectMetadata(bucket, id, sourceFile.getName(), TEXT_PLAIN,
+            ENCODING_GZIP, Files.newInputStream(sourceFile.toPath()), false,
+            NO_USER_METADATA, NO_ENC, NO_ENC_KEY, null, emptyList(), Owner.DEFAULT_OWNER);
+    Thread reset = new Thread(objectStore::clearLocks);
+    Thread deletion = new Thread(() -> objectStore.deleteObject(bucket, id));
+
+    CountDownLatch release = new CountDownLatch(1);
+    final Thread holder = holdLock(bucket, id, release);
+    reset.start();
+    await(reset);
+    deletion.start();
+    await(deletion);
+    assertThat(deletion.isAlive()).as("Deletion must wait for the store").isTrue();
+    release.countDown();
+    holder.join();
+    deletion.join();
+
+    assertThat(objectStore.getS3ObjectMetadata(bucket, id)).isNull();
+  }
+
   @Test
   void testStoreAndRetrieveAcl() throws IOException {
     Owner owner = new Owner("75aa57f09aa0c8caeab4f8c24e99d10f8e7faeebf76c078efc7c6caea54ba06a",
@@ -482,4 +790,39 @@ class ObjectStoreTest {
   static void afterAll() {
     assertThat(idCache).isEmpty();
   }
+
+  /**
+   * Starts storing the object in another thread, the store holds the object lock until the data
+   * is released.
+   */
+  private Thread holdLock(BucketMetadata bucket, UUID id, CountDownLatch release)
+      throws InterruptedException {
+    CountDownLatch holding = new CountDownLatch(1);
+    InputStream blockingStream = new ByteArrayInputStream("held".getBytes(UTF_8)) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        holding.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return super.read(b, off, len);
+      }
+    };
+    Thread holder = new Thread(() -> objectStore.storeS3ObjectMetadata(bucket, id, "held",
+        TEXT_PLAIN, ENCODING_GZIP, blockingStream, false, NO_USER_METADATA, NO_ENC, NO_ENC_KEY,
+        null, emptyList(), Owner.DEFAULT_OWNER));
+    holder.start();
+    holding.await();
+    return holder;
+  }
+
+  private static void await(Thread thread) {
+    try {
+      thread.join(200);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
 }
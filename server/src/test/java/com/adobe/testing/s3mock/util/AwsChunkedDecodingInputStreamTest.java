@@ -0,0 +1,218 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.util;
+
+import static com.adobe.testing.s3mock.S3Exception.BAD_CHECKSUM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+class AwsChunkedDecodingInputStreamTest {
+
+  private static final String SIGNATURE =
+      ";chunk-signature=7ece820edcf094ce1ef6d643c8db60b67913e28831d9b0430efd2b56a9deec5e";
+
+  @Test
+  void testDecode_bulkRead() throws IOException {
+    byte[] payload = randomBytes(700 * 1024);
+    byte[] encoded = encode(payload, 256 * 1024);
+
+    try (InputStream is = new AwsChunkedDecodingInputStream(new ByteArrayInputStream(encoded))) {
+      assertThat(IOUtils.toByteArray(is)).isEqualTo(payload);
+    }
+  }
+
+  @Test
+  void testDecode_largeChunk() throws IOException {
+    byte[] payload = randomBytes(1024 * 1024);
+    byte[] encoded = encode(payload, 1024 * 1024);
+
+    try (InputStream is = new AwsChunkedDecodingInputStream(new ByteArrayInputStream(encoded))) {
+      byte[] decoded = new byte[payload.length];
+      IOUtils.readFully(is, decoded);
+      assertThat(decoded).isEqualTo(payload);
+      assertThat(is.read()).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  void testDecode_singleByteReads() throws IOException {
+    byte[] payload = randomBytes(1000);
+    byte[] encoded = encode(payload, 64);
+
+    try (InputStream is = new AwsChunkedDecodingInputStream(new ByteArrayInputStream(encoded))) {
+      ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+      int b;
+      while ((b = is.read()) != -1) {
+        decoded.write(b);
+      }
+      assertThat(decoded.toByteArray()).isEqualTo(payload);
+    }
+  }
+
+  @Test
+  void testDecode_fragmentedSource() throws IOException {
+    byte[] payload = randomBytes(5000);
+    byte[] encoded = encode(payload, 1024);
+
+    try (InputStream is = new AwsChunkedDecodingInputStream(
+        new OneByteInputStream(new ByteArrayInputStream(encoded)))) {
+      assertThat(IOUtils.toByteArray(is)).isEqualTo(payload);
+    }
+  }
+
+  @Test
+  void testDecode_truncatedChunk() {
+    byte[] encoded = ("a" + SIGNATURE + "\r\n12345").getBytes(StandardCharsets.UTF_8);
+
+    assertThatThrownBy(() -> IOUtils.toByteArray(
+        new AwsChunkedDecodingInputStream(new ByteArrayInputStream(encoded))))
+        .isInstanceOf(EOFException.class);
+  }
+
+  @Test
+  void testDecode_invalidHeader() {
+    byte[] encoded = ("x" + SIGNATURE + "\r\n12345").getBytes(StandardCharsets.UTF_8);
+
+    assertThatThrownBy(() -> IOUtils.toByteArray(
+        new AwsChunkedDecodingInputStream(new ByteArrayInputStream(encoded))))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("Invalid chunk header");
+  }
+
+  @Test
+  void testDecode_unsignedWithTrailingChecksum() throws IOException {
+    byte[] payload = randomBytes(100 * 1024);
+    String checksum = DigestUtil.base64Checksum(ChecksumAlgorithm.CRC32C,
+        new ByteArrayInputStream(payload));
+    byte[] encoded = encodeUnsigned(payload, 64 * 1024,
+        "x-amz-checksum-crc32c:" + checksum + "\r\n\r\n");
+
+    AwsChunkedDecodingInputStream decoder =
+        new AwsChunkedDecodingInputStream(new ByteArrayInputStream(encoded));
+    ChecksumInputStream is = verifying(decoder, ChecksumAlgorithm.CRC32C);
+    assertThat(IOUtils.toByteArray(is)).isEqualTo(payload);
+    assertThat(is.getChecksum()).isEqualTo(checksum);
+    assertThat(decoder.getTrailers()).containsEntry("x-amz-checksum-crc32c", checksum);
+  }
+
+  @Test
+  void testDecode_signedWithTrailingChecksum() throws IOException {
+    byte[] payload = randomBytes(1000);
+    String checksum = DigestUtil.base64Checksum(ChecksumAlgorithm.SHA256,
+        new ByteArrayInputStream(payload));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(encode(payload, 256));
+    out.write(("x-amz-checksum-sha256:" + checksum + "\r\n"
+        + "x-amz-trailer-signature:63bddb248ad2590c92712055f51b8e78ab024eead08276b24f010b0efd74843f"
+        + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+
+    ChecksumInputStream is = verifying(
+        new AwsChunkedDecodingInputStream(new ByteArrayInputStream(out.toByteArray())),
+        ChecksumAlgorithm.SHA256);
+    assertThat(IOUtils.toByteArray(is)).isEqualTo(payload);
+    assertThat(is.getChecksum()).isEqualTo(checksum);
+  }
+
+  @Test
+  void testDecode_trailingChecksumMismatch() throws IOException {
+    byte[] payload = randomBytes(1000);
+    byte[] encoded = encodeUnsigned(payload, 256, "x-amz-checksum-crc32:AAAAAA==\r\n\r\n");
+
+    assertThatThrownBy(() -> IOUtils.toByteArray(verifying(
+        new AwsChunkedDecodingInputStream(new ByteArrayInputStream(encoded)),
+        ChecksumAlgorithm.CRC32)))
+        .isEqualTo(BAD_CHECKSUM);
+  }
+
+  @Test
+  void testDecode_trailingChecksumMissing() throws IOException {
+    byte[] payload = randomBytes(1000);
+    byte[] encoded = encodeUnsigned(payload, 256, "\r\n");
+
+    ChecksumInputStream is = verifying(
+        new AwsChunkedDecodingInputStream(new ByteArrayInputStream(encoded)),
+        ChecksumAlgorithm.CRC32);
+    assertThat(IOUtils.toByteArray(is)).isEqualTo(payload);
+    assertThat(is.getChecksum()).isEqualTo(
+        DigestUtil.base64Checksum(ChecksumAlgorithm.CRC32, new ByteArrayInputStream(payload)));
+  }
+
+  private static ChecksumInputStream verifying(AwsChunkedDecodingInputStream decoder,
+      ChecksumAlgorithm algorithm) {
+    return new ChecksumInputStream(decoder, algorithm,
+        () -> decoder.getTrailers().get(algorithm.getHeaderName()));
+  }
+
+  private static byte[] encodeUnsigned(byte[] payload, int chunkSize, String trailer)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int offset = 0; offset < payload.length; offset += chunkSize) {
+      int length = Math.min(chunkSize, payload.length - offset);
+      out.write((Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.UTF_8));
+      out.write(payload, offset, length);
+      out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+    out.write(("0\r\n" + trailer).getBytes(StandardCharsets.UTF_8));
+    return out.toByteArray();
+  }
+
+  private static byte[] encode(byte[] payload, int chunkSize) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int offset = 0; offset < payload.length; offset += chunkSize) {
+      int length = Math.min(chunkSize, payload.length - offset);
+      out.write((Integer.toHexString(length) + SIGNATURE + "\r\n")
+          .getBytes(StandardCharsets.UTF_8));
+      out.write(payload, offset, length);
+      out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+    out.write(("0" + SIGNATURE + "\r\n").getBytes(StandardCharsets.UTF_8));
+    return out.toByteArray();
+  }
+
+  private static byte[] randomBytes(int size) {
+    byte[] bytes = new byte[size];
+    new Random(size).nextBytes(bytes);
+    return bytes;
+  }
+
+  /**
+   * Returns at most one byte per read, like a slow network connection would.
+   */
+  private static class OneByteInputStream extends FilterInputStream {
+
+    OneByteInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return super.read(b, off, Math.min(len, 1));
+    }
+  }
+}
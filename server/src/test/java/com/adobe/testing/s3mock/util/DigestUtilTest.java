@@ -18,13 +18,24 @@ package com.adobe.testing.s3mock.util;
 
 import static org.apache.commons.lang3.StringUtils.replace;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.jupiter.api.Test;
@@ -52,6 +63,90 @@ class DigestUtilTest {
         .isEqualTo(expected);
   }
 
+  @Test
+  void testChecksums() {
+    byte[] bytes = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+    assertThat(checksum(ChecksumAlgorithm.CRC32, bytes))
+        .isEqualTo(Base64.encodeBase64String(new byte[] {(byte) 0xCB, (byte) 0xF4, 0x39, 0x26}));
+    assertThat(checksum(ChecksumAlgorithm.CRC32C, bytes))
+        .isEqualTo(Base64.encodeBase64String(
+            new byte[] {(byte) 0xE3, 0x06, (byte) 0x92, (byte) 0x83}));
+    assertThat(checksum(ChecksumAlgorithm.SHA1, bytes))
+        .isEqualTo(Base64.encodeBase64String(DigestUtils.sha1(bytes)));
+    assertThat(checksum(ChecksumAlgorithm.SHA256, bytes))
+        .isEqualTo(Base64.encodeBase64String(DigestUtils.sha256(bytes)));
+  }
+
+  @Test
+  void testCompositeChecksum() {
+    byte[] part1 = "1234".getBytes(StandardCharsets.US_ASCII);
+    byte[] part2 = "56789".getBytes(StandardCharsets.US_ASCII);
+    byte[] partChecksums = ArrayUtils.addAll(DigestUtils.sha1(part1), DigestUtils.sha1(part2));
+
+    assertThat(DigestUtil.compositeChecksum(ChecksumAlgorithm.SHA1,
+        Arrays.asList(checksum(ChecksumAlgorithm.SHA1, part1),
+            checksum(ChecksumAlgorithm.SHA1, part2))))
+        .isEqualTo(Base64.encodeBase64String(DigestUtils.sha1(partChecksums)) + "-2");
+  }
+
+  /**
+   * Digests of streams reuse pooled read buffers and digests, so the allocation per operation is
+   * bounded by the result, independent of the amount of data digested.
+   */
+  @Test
+  void testHexDigest_allocationPerOperation() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threadMxBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadMxBean.isThreadAllocatedMemorySupported());
+    threadMxBean.setThreadAllocatedMemoryEnabled(true);
+    ByteArrayInputStream inputStream = new ByteArrayInputStream(new byte[1024 * 1024]);
+    int operations = 200;
+    for (int i = 0; i < operations; i++) {
+      inputStream.reset();
+      DigestUtil.hexDigest(inputStream);
+    }
+
+    long threadId = Thread.currentThread().getId();
+    long before = threadMxBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < operations; i++) {
+      inputStream.reset();
+      DigestUtil.hexDigest(inputStream);
+    }
+    long allocatedPerOperation =
+        (threadMxBean.getThreadAllocatedBytes(threadId) - before) / operations;
+
+    assertThat(allocatedPerOperation).isLessThan(1024);
+  }
+
+  /**
+   * Pooled buffers and digests are not shared by concurrent operations, short-lived threads like
+   * virtual threads reuse them as well.
+   */
+  @Test
+  void testHexDigest_concurrentThreads() throws Exception {
+    byte[] data = new byte[256 * 1024];
+    new Random(42).nextBytes(data);
+    String expected = DigestUtils.md5Hex(data);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> digests = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        digests.add(executor.submit(() -> DigestUtil.hexDigest(new ByteArrayInputStream(data))));
+      }
+      for (Future<String> digest : digests) {
+        assertThat(digest.get()).isEqualTo(expected);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static String checksum(ChecksumAlgorithm checksumAlgorithm, byte[] bytes) {
+    return DigestUtil.base64Checksum(checksumAlgorithm, new ByteArrayInputStream(bytes));
+  }
+
   private static File getFile(TestInfo testInfo, String name) {
     Class<?> testClass = testInfo.getTestClass().get();
     String packageName = testClass.getPackage().getName();
@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class MappedCollectionTest {
+
+  @Test
+  void testMap_mapsElementsWhileIterating() {
+    AtomicInteger mapped = new AtomicInteger();
+    Collection<String> iut = MappedCollection.map(Arrays.asList(1, 2, 3), i -> {
+      mapped.incrementAndGet();
+      return "key" + i;
+    });
+
+    assertThat(iut).hasSize(3);
+    assertThat(mapped).hasValue(0);
+
+    Iterator<String> iterator = iut.iterator();
+    assertThat(iterator.next()).isEqualTo("key1");
+    assertThat(mapped).hasValue(1);
+
+    assertThat(iut).containsExactly("key1", "key2", "key3");
+  }
+}
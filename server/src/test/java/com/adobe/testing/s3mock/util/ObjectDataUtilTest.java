@@ -0,0 +1,177 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.adobe.testing.s3mock.dto.Range;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.adobe.testing.s3mock.store.S3ObjectPart;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.jetty.server.HttpOutput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ObjectDataUtilTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void testCopyData_range() throws IOException {
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setDataPath(givenFile("data", "0123456789"));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ObjectDataUtil.copyData(s3ObjectMetadata, 2, 5, outputStream);
+
+    assertThat(outputStream.toString(UTF_8.name())).isEqualTo("23456");
+  }
+
+  @Test
+  void testCopyData_rangeExceedingData() throws IOException {
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setDataPath(givenFile("data", "0123456789"));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ObjectDataUtil.copyData(s3ObjectMetadata, 2, 100, outputStream);
+
+    assertThat(outputStream.toString(UTF_8.name())).isEqualTo("23456789");
+  }
+
+  @Test
+  void testCopyData_sendsFileRegionToJetty() throws IOException {
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setDataPath(givenFile("data", "0123456789"));
+    ByteArrayOutputStream sentContent = new ByteArrayOutputStream();
+    HttpOutput httpOutput = givenHttpOutput(sentContent);
+
+    ObjectDataUtil.copyData(s3ObjectMetadata, 2, 5, httpOutput);
+
+    assertThat(sentContent.toString(UTF_8.name())).isEqualTo("23456");
+  }
+
+  @Test
+  void testCopyData_virtualObjectRangeInSinglePartUsesJetty() throws IOException {
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setParts(Arrays.asList(
+        new S3ObjectPart(1, 0, 5, givenFile("1.part", "01234")),
+        new S3ObjectPart(2, 5, 5, givenFile("2.part", "56789"))));
+    ByteArrayOutputStream sentContent = new ByteArrayOutputStream();
+    HttpOutput httpOutput = givenHttpOutput(sentContent);
+
+    ObjectDataUtil.copyData(s3ObjectMetadata, 6, 100, httpOutput);
+
+    assertThat(sentContent.toString(UTF_8.name())).isEqualTo("6789");
+  }
+
+  @Test
+  void testCopyData_virtualObjectRangeInSinglePart() throws IOException {
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setParts(Arrays.asList(
+        new S3ObjectPart(1, 0, 5, givenFile("1.part", "01234")),
+        new S3ObjectPart(2, 5, 5, givenFile("2.part", "56789"))));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ObjectDataUtil.copyData(s3ObjectMetadata, 6, 3, outputStream);
+
+    assertThat(outputStream.toString(UTF_8.name())).isEqualTo("678");
+  }
+
+  @Test
+  void testCopyData_virtualObjectRangeAcrossParts() throws IOException {
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setParts(Arrays.asList(
+        new S3ObjectPart(1, 0, 5, givenFile("1.part", "01234")),
+        new S3ObjectPart(2, 5, 5, givenFile("2.part", "56789"))));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ObjectDataUtil.copyData(s3ObjectMetadata, 3, 4, outputStream);
+    HttpOutput httpOutput = mock(HttpOutput.class);
+    ObjectDataUtil.copyData(s3ObjectMetadata, 3, 4, httpOutput);
+
+    assertThat(outputStream.toString(UTF_8.name())).isEqualTo("3456");
+    verify(httpOutput, never()).sendContent(any(ReadableByteChannel.class));
+  }
+
+  @Test
+  void testCopyByteRanges() throws IOException {
+    S3ObjectMetadata s3ObjectMetadata = new S3ObjectMetadata();
+    s3ObjectMetadata.setParts(Arrays.asList(
+        new S3ObjectPart(1, 0, 5, givenFile("1.part", "01234")),
+        new S3ObjectPart(2, 5, 5, givenFile("2.part", "56789"))));
+    List<Range> ranges = Arrays.asList(new Range(0, 1), new Range(4, 6));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    HttpOutput httpOutput = mock(HttpOutput.class);
+
+    ObjectDataUtil.copyByteRanges(s3ObjectMetadata, ranges, "b", "text/plain", outputStream);
+    ObjectDataUtil.copyByteRanges(s3ObjectMetadata, ranges, "b", "text/plain", httpOutput);
+
+    assertThat(outputStream.toString(UTF_8.name())).isEqualTo("--b\r\n"
+        + "Content-Type: text/plain\r\n"
+        + "Content-Range: bytes 0-1/10\r\n"
+        + "\r\n"
+        + "01\r\n"
+        + "--b\r\n"
+        + "Content-Type: text/plain\r\n"
+        + "Content-Range: bytes 4-6/10\r\n"
+        + "\r\n"
+        + "456\r\n"
+        + "--b--\r\n");
+    assertThat(ObjectDataUtil.byteRangesLength(s3ObjectMetadata, ranges, "b", "text/plain"))
+        .isEqualTo(outputStream.size());
+    verify(httpOutput, never()).sendContent(any(ReadableByteChannel.class));
+  }
+
+  /**
+   * Jetty reads the channel while sendContent runs, with buffers smaller than the region here.
+   */
+  private static HttpOutput givenHttpOutput(ByteArrayOutputStream sentContent)
+      throws IOException {
+    HttpOutput httpOutput = mock(HttpOutput.class);
+    doAnswer(invocation -> {
+      ReadableByteChannel channel = invocation.getArgument(0);
+      ByteBuffer buffer = ByteBuffer.allocateDirect(3);
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          sentContent.write(buffer.get());
+        }
+        buffer.clear();
+      }
+      return null;
+    }).when(httpOutput).sendContent(any(ReadableByteChannel.class));
+    return httpOutput;
+  }
+
+  private Path givenFile(String name, String content) throws IOException {
+    return Files.write(tempDir.resolve(name), content.getBytes(UTF_8));
+  }
+}
@@ -19,6 +19,7 @@ package com.adobe.testing.s3mock.util;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.adobe.testing.s3mock.dto.Range;
+import java.util.List;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -51,6 +52,50 @@ public class RangeTest {
 
   }
 
+  @Test
+  public void throwsExceptionOnSuffixRange() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Range("bytes=-10"));
+  }
+
+  @Test
+  public void parsesMultipleRanges() {
+    final List<Range> ranges = Range.parseRanges("bytes=0-9, 20-,-5");
+
+    assertThat(ranges).hasSize(3);
+    assertThat(ranges.get(0).getStart()).isEqualTo(0L);
+    assertThat(ranges.get(0).getEnd()).isEqualTo(9L);
+    assertThat(ranges.get(1).getStart()).isEqualTo(20L);
+    assertThat(ranges.get(1).getEnd()).isEqualTo(Long.MAX_VALUE);
+    assertThat(ranges.get(2).isSuffix()).isTrue();
+    assertThat(ranges.get(2).getSuffixLength()).isEqualTo(5L);
+  }
+
+  @Test
+  public void resolvesRangesAgainstSize() {
+    final Range suffix = Range.parseRanges("bytes=-5").get(0).resolve(30);
+    assertThat(suffix.getStart()).isEqualTo(25L);
+    assertThat(suffix.getEnd()).isEqualTo(29L);
+
+    final Range longSuffix = Range.parseRanges("bytes=-50").get(0).resolve(30);
+    assertThat(longSuffix.getStart()).isEqualTo(0L);
+    assertThat(longSuffix.getLength()).isEqualTo(30L);
+
+    final Range openEnded = new Range("bytes=10-").resolve(30);
+    assertThat(openEnded.getStart()).isEqualTo(10L);
+    assertThat(openEnded.getEnd()).isEqualTo(29L);
+
+    assertThat(new Range("bytes=30-40").resolve(30)).isNull();
+    assertThat(Range.parseRanges("bytes=-0").get(0).resolve(30)).isNull();
+  }
+
+  @Test
+  public void invalidRangeHeader() {
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> Range.parseRanges("bytes=0-9,-"));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> Range.parseRanges("items=0-9"));
+  }
+
   @Test
   public void invalidRangeString() {
     Assertions.assertThrows(IllegalArgumentException.class, () -> {
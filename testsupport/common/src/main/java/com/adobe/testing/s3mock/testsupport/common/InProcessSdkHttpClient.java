@@ -0,0 +1,267 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.testsupport.common;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import org.springframework.boot.web.servlet.AbstractFilterRegistrationBean;
+import org.springframework.boot.web.servlet.ServletContextInitializer;
+import org.springframework.boot.web.servlet.ServletContextInitializerBeans;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.util.UriUtils;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.utils.http.SdkHttpUtils;
+
+/**
+ * {@link SdkHttpClient} that hands requests directly to an S3Mock running in the same JVM, without
+ * opening a connection to the server.
+ * Requests pass the same servlet filters and controllers as requests received by the server.
+ * Request bodies are streamed from the SDK to the controllers, response bodies are buffered in
+ * memory, so this client is meant for small objects in unit tests.
+ * Needs {@code spring-test} on the classpath.
+ */
+public final class InProcessSdkHttpClient implements SdkHttpClient {
+
+  private static final String CLIENT_NAME = "S3MockInProcess";
+  private static final long DEFAULT_ASYNC_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final String DISPATCHER_SERVLET_ATTRIBUTE =
+      InProcessSdkHttpClient.class.getName() + ".dispatcherServlet";
+
+  private final ServletContext servletContext;
+  private final DispatcherServlet dispatcherServlet;
+  private final Filter[] filters;
+
+  /**
+   * Creates a client for the given S3Mock.
+   *
+   * @param context the application context of the S3Mock, see
+   *     {@link com.adobe.testing.s3mock.S3MockApplication#getApplicationContext()}.
+   */
+  public InProcessSdkHttpClient(final WebApplicationContext context) {
+    this.servletContext = context.getServletContext();
+    this.dispatcherServlet = dispatcherServlet(context);
+    this.filters = filters(context);
+  }
+
+  @Override
+  public ExecutableHttpRequest prepareRequest(final HttpExecuteRequest request) {
+    return new ExecutableHttpRequest() {
+      @Override
+      public HttpExecuteResponse call() throws IOException {
+        return execute(request);
+      }
+
+      @Override
+      public void abort() {
+        // requests are executed on the calling thread, there is nothing to abort.
+      }
+    };
+  }
+
+  @Override
+  public String clientName() {
+    return CLIENT_NAME;
+  }
+
+  @Override
+  public void close() {
+    // the dispatcher servlet is shared by all clients of the S3Mock, it lives as long as its
+    // application context.
+  }
+
+  private HttpExecuteResponse execute(final HttpExecuteRequest request) throws IOException {
+    try (InputStream body =
+        request.contentStreamProvider().map(ContentStreamProvider::newStream).orElse(null)) {
+      return execute(request, body);
+    }
+  }
+
+  private HttpExecuteResponse execute(final HttpExecuteRequest request, final InputStream body)
+      throws IOException {
+    final StreamingServletRequest servletRequest = toServletRequest(request, body);
+    final MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+    try {
+      new MockFilterChain(dispatcherServlet, filters).doFilter(servletRequest, servletResponse);
+      if (servletRequest.isAsyncStarted()) {
+        // e.g. streamed object data, the result is written by another thread.
+        awaitAsyncDispatch(servletRequest);
+        servletRequest.setAsyncStarted(false);
+        servletRequest.setDispatcherType(DispatcherType.ASYNC);
+        new MockFilterChain(dispatcherServlet, filters).doFilter(servletRequest, servletResponse);
+      }
+    } catch (ServletException e) {
+      throw new IOException("Could not dispatch request", e);
+    }
+    return toResponse(request.httpRequest(), servletResponse);
+  }
+
+  private StreamingServletRequest toServletRequest(final HttpExecuteRequest request,
+      final InputStream body) {
+    final SdkHttpRequest httpRequest = request.httpRequest();
+    final String path = httpRequest.encodedPath().isEmpty() ? "/" : httpRequest.encodedPath();
+    final StreamingServletRequest servletRequest = new StreamingServletRequest(servletContext,
+        httpRequest.method().name(), path, body);
+    servletRequest.setPathInfo(UriUtils.decode(path, UTF_8));
+    servletRequest.setScheme(httpRequest.protocol());
+    servletRequest.setSecure("https".equals(httpRequest.protocol()));
+    servletRequest.setServerName(httpRequest.host());
+    servletRequest.setServerPort(httpRequest.port());
+    servletRequest.setAsyncSupported(true);
+    httpRequest.headers().forEach((name, values) ->
+        values.forEach(value -> servletRequest.addHeader(name, value)));
+    final Map<String, List<String>> parameters = httpRequest.rawQueryParameters();
+    servletRequest.setQueryString(
+        SdkHttpUtils.encodeAndFlattenQueryParameters(parameters).orElse(null));
+    parameters.forEach((name, values) -> values.forEach(value ->
+        servletRequest.addParameter(name, value == null ? "" : value)));
+    return servletRequest;
+  }
+
+  private static HttpExecuteResponse toResponse(final SdkHttpRequest request,
+      final MockHttpServletResponse servletResponse) {
+    final SdkHttpResponse.Builder response = SdkHttpResponse.builder()
+        .statusCode(servletResponse.getStatus());
+    for (String name : servletResponse.getHeaderNames()) {
+      response.putHeader(name, servletResponse.getHeaders(name));
+    }
+    final HttpExecuteResponse.Builder executeResponse =
+        HttpExecuteResponse.builder().response(response.build());
+    if (request.method() != SdkHttpMethod.HEAD) {
+      executeResponse.responseBody(AbortableInputStream.create(
+          new ByteArrayInputStream(servletResponse.getContentAsByteArray())));
+    }
+    return executeResponse.build();
+  }
+
+  private static void awaitAsyncDispatch(final MockHttpServletRequest servletRequest)
+      throws InterruptedIOException {
+    final MockAsyncContext asyncContext = (MockAsyncContext) servletRequest.getAsyncContext();
+    final CountDownLatch dispatched = new CountDownLatch(1);
+    asyncContext.addDispatchHandler(dispatched::countDown);
+    final long timeout = asyncContext.getTimeout() > 0
+        ? asyncContext.getTimeout() : DEFAULT_ASYNC_TIMEOUT_MILLIS;
+    try {
+      if (!dispatched.await(timeout, TimeUnit.MILLISECONDS)) {
+        throw new InterruptedIOException("Response was not completed within " + timeout + " ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the response");
+    }
+  }
+
+  /**
+   * Returns the dispatcher servlet of the application, it is created with the first client.
+   * This is a separate servlet, the one of the server is only initialized with the first request.
+   * It is stored in the servlet context, so it is discarded together with the application.
+   */
+  private static synchronized DispatcherServlet dispatcherServlet(
+      final WebApplicationContext context) {
+    final ServletContext servletContext = context.getServletContext();
+    DispatcherServlet dispatcherServlet =
+        (DispatcherServlet) servletContext.getAttribute(DISPATCHER_SERVLET_ATTRIBUTE);
+    if (dispatcherServlet == null) {
+      dispatcherServlet = new DispatcherServlet(context);
+      dispatcherServlet.setPublishContext(false);
+      try {
+        dispatcherServlet.init(new MockServletConfig(servletContext, CLIENT_NAME));
+      } catch (ServletException e) {
+        throw new IllegalStateException("Could not initialize dispatcher servlet", e);
+      }
+      servletContext.setAttribute(DISPATCHER_SERVLET_ATTRIBUTE, dispatcherServlet);
+    }
+    return dispatcherServlet;
+  }
+
+  /**
+   * Collects the filters of the application in the order they are registered with the server.
+   */
+  private static Filter[] filters(final WebApplicationContext context) {
+    final List<Filter> filters = new ArrayList<>();
+    for (ServletContextInitializer initializer : new ServletContextInitializerBeans(context)) {
+      if (initializer instanceof AbstractFilterRegistrationBean) {
+        final AbstractFilterRegistrationBean<?> registration =
+            (AbstractFilterRegistrationBean<?>) initializer;
+        if (registration.isEnabled()) {
+          filters.add(registration.getFilter());
+        }
+      }
+    }
+    return filters.toArray(new Filter[0]);
+  }
+
+  /**
+   * Request that reads its body from the stream of the SDK instead of a byte array.
+   */
+  private static final class StreamingServletRequest extends MockHttpServletRequest {
+
+    private final InputStream body;
+
+    private StreamingServletRequest(final ServletContext servletContext, final String method,
+        final String requestUri, final InputStream body) {
+      super(servletContext, method, requestUri);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      return body != null ? new DelegatingServletInputStream(body) : super.getInputStream();
+    }
+
+    @Override
+    public int getContentLength() {
+      final long contentLength = getContentLengthLong();
+      return contentLength <= Integer.MAX_VALUE ? (int) contentLength : -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      final String contentLength = getHeader(HttpHeaders.CONTENT_LENGTH);
+      return contentLength != null ? Long.parseLong(contentLength) : super.getContentLengthLong();
+    }
+  }
+}
@@ -44,6 +44,7 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.utils.AttributeMap;
 
 /**
@@ -86,6 +87,25 @@ public abstract class S3MockStarter {
       .build();
   }
 
+  /**
+   * Creates an {@link S3Client} client instance that hands requests directly to the started
+   * S3Mock in the same JVM, without connecting to the server.
+   * Response bodies are held in memory, see {@link InProcessSdkHttpClient}.
+   *
+   * @return The {@link S3Client} instance.
+   */
+  public S3Client createInProcessS3ClientV2() {
+    return S3Client.builder()
+      .region(Region.of("us-east-1"))
+      .credentialsProvider(
+        StaticCredentialsProvider.create(AwsBasicCredentials.create("foo", "bar")))
+      // the host is never resolved, HTTPS makes the SDK send payloads unsigned.
+      .endpointOverride(URI.create("https://localhost"))
+      .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+      .httpClient(new InProcessSdkHttpClient(s3MockFileStore.getApplicationContext()))
+      .build();
+  }
+
   /**
    * Creates an {@link AmazonS3} client instance that is configured to call the started S3Mock
    * server using HTTPS.
@@ -133,6 +153,48 @@ public abstract class S3MockStarter {
     s3MockFileStore.registerKMSKeyRef(keyRef);
   }
 
+  /**
+   * Deletes a bucket including all of its objects, the bucket does not need to be empty.
+   * The files are deleted in the background.
+   *
+   * @param bucketName name of the bucket
+   *
+   * @return false if the bucket does not exist.
+   */
+  public boolean deleteBucket(final String bucketName) {
+    return s3MockFileStore.deleteBucket(bucketName);
+  }
+
+  /**
+   * Deletes all buckets and objects and creates the initial buckets again, e.g. before each test
+   * class. This is much faster than restarting S3Mock.
+   */
+  public void reset() {
+    s3MockFileStore.reset();
+  }
+
+  /**
+   * Stores the current state of all buckets and objects under a name, e.g. after the fixtures of
+   * a test class were uploaded. An existing snapshot with the same name is replaced.
+   * Object data is linked instead of copied, so snapshots are cheap even for large objects.
+   *
+   * @param name name of the snapshot, must start with a letter or digit and may contain letters,
+   *     digits, '.', '-' and '_'.
+   */
+  public void createSnapshot(final String name) {
+    s3MockFileStore.createSnapshot(name);
+  }
+
+  /**
+   * Replaces all buckets and objects with the state stored in a snapshot, e.g. before each test.
+   * A snapshot can be restored any number of times.
+   *
+   * @param name name of the snapshot
+   */
+  public void restoreSnapshot(final String name) {
+    s3MockFileStore.restoreSnapshot(name);
+  }
+
   /**
    * Adjusts the given client configuration to allow the communication with the mock server using
    * HTTPS, although that one uses a self-signed SSL certificate.
@@ -241,6 +303,21 @@ public abstract class S3MockStarter {
       return this;
     }
 
+    /**
+     * Loads objects into a bucket at startup, the bucket is created if it does not exist.
+     * The server is started once all objects are loaded.
+     *
+     * @param bucketName the bucket to load the objects into
+     * @param source a directory or a ".tar", ".tar.gz" or ".tgz" archive. Keys are the paths of
+     *     the files relative to the directory or the archive root.
+     * @return this builder
+     */
+    public BaseBuilder<T> withSeedBucket(final String bucketName, final String source) {
+      arguments.merge(S3MockApplication.PROP_SEED_BUCKETS, bucketName + "=" + source,
+          (seeds, seed) -> seeds + "," + seed);
+      return this;
+    }
+
     public BaseBuilder<T> withHttpsPort(final int httpsPort) {
       arguments.put(S3MockApplication.PROP_HTTPS_PORT, String.valueOf(httpsPort));
       return this;
@@ -17,14 +17,24 @@
 package com.adobe.testing.s3mock.testsupport.common;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.adobe.testing.s3mock.S3MockApplication;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.Bucket;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
 
 public class S3MockStarterTest {
 
@@ -51,6 +61,83 @@ public class S3MockStarterTest {
     s3MockApplication.stop();
   }
 
+  /**
+   * Tests the S3Client that calls the S3MockApplication without a connection.
+   */
+  @Test
+  void testInProcessS3Client() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(S3MockApplication.PROP_HTTPS_PORT, S3MockApplication.RANDOM_PORT);
+    properties.put(S3MockApplication.PROP_HTTP_PORT, S3MockApplication.RANDOM_PORT);
+
+    S3MockStarterTestImpl s3MockApplication = new S3MockStarterTestImpl(properties);
+    s3MockApplication.start();
+
+    try (S3Client s3Client = s3MockApplication.createInProcessS3ClientV2()) {
+      s3Client.createBucket(CreateBucketRequest.builder().bucket("in-process").build());
+      s3Client.putObject(PutObjectRequest.builder().bucket("in-process").key("a/b c").build(),
+          RequestBody.fromString("content"));
+
+      assertThat(s3Client.getObjectAsBytes(
+          GetObjectRequest.builder().bucket("in-process").key("a/b c").build()).asUtf8String())
+          .isEqualTo("content");
+      assertThat(s3Client.headObject(
+          HeadObjectRequest.builder().bucket("in-process").key("a/b c").build()).contentLength())
+          .isEqualTo(7L);
+      assertThat(s3Client.listObjectsV2(
+          ListObjectsV2Request.builder().bucket("in-process").prefix("a/").build()).contents())
+          .extracting(S3Object::key).containsExactly("a/b c");
+
+      s3Client.deleteObject(
+          DeleteObjectRequest.builder().bucket("in-process").key("a/b c").build());
+      assertThatThrownBy(() -> s3Client.headObject(
+          HeadObjectRequest.builder().bucket("in-process").key("a/b c").build()))
+          .isInstanceOf(NoSuchKeyException.class);
+    }
+    // clients share the dispatcher servlet, closing one does not affect the others.
+    try (S3Client s3Client = s3MockApplication.createInProcessS3ClientV2()) {
+      assertThat(s3Client.listBuckets().buckets()).extracting(Bucket::name)
+          .contains("in-process");
+    }
+
+    s3MockApplication.stop();
+  }
+
+  /**
+   * Tests that several S3MockApplications in one JVM do not share state.
+   */
+  @Test
+  void testIndependentS3MockApplications() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(S3MockApplication.PROP_HTTPS_PORT, S3MockApplication.RANDOM_PORT);
+    properties.put(S3MockApplication.PROP_HTTP_PORT, S3MockApplication.RANDOM_PORT);
+    properties.put(S3MockApplication.PROP_INITIAL_BUCKETS, "bucket");
+
+    S3MockStarterTestImpl first = new S3MockStarterTestImpl(properties);
+    S3MockStarterTestImpl second = new S3MockStarterTestImpl(properties);
+    first.start();
+    second.start();
+
+    assertThat(first.getPort()).isNotEqualTo(second.getPort());
+    try (S3Client firstClient = first.createS3ClientV2();
+        S3Client secondClient = second.createS3ClientV2()) {
+      firstClient.putObject(PutObjectRequest.builder().bucket("bucket").key("key").build(),
+          RequestBody.fromString("first"));
+      secondClient.putObject(PutObjectRequest.builder().bucket("bucket").key("key").build(),
+          RequestBody.fromString("second"));
+
+      assertThat(first.deleteBucket("bucket")).isTrue();
+
+      assertThat(firstClient.listBuckets().buckets()).isEmpty();
+      assertThat(secondClient.getObjectAsBytes(
+          GetObjectRequest.builder().bucket("bucket").key("key").build()).asUtf8String())
+          .isEqualTo("second");
+    }
+
+    first.stop();
+    second.stop();
+  }
+
   /**
    * Just needed to instantiate the S3MockStarter.
    * The instance provides an S3Client that is pre-configured to connect to the S3MockApplication.
@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.junit5;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Bucket names that are unique to a test class or test method, so that tests using the same
+ * S3Mock can run in parallel.
+ * Injected by the {@link S3MockExtension} into test methods, lifecycle methods and constructors.
+ * If it is injected into a constructor or a {@code @BeforeAll} method, all test methods of the
+ * class share the namespace, otherwise each test method gets its own.
+ * All buckets of the namespace are deleted together with their objects once the test class or
+ * test method is finished.
+ *
+ * <pre>
+ * &#64;Test
+ * void doSomethingWithS3(final S3Client s3Client, final BucketNamespace namespace) {
+ *   String bucketName = namespace.bucketName("my-bucket");
+ *   s3Client.createBucket(CreateBucketRequest.builder().bucket(bucketName).build());
+ * }
+ * </pre>
+ */
+public final class BucketNamespace implements ExtensionContext.Store.CloseableResource {
+
+  private static final int MAX_BUCKET_NAME_LENGTH = 63;
+
+  private final S3MockExtension s3Mock;
+  private final String id;
+  private final Set<String> bucketNames = ConcurrentHashMap.newKeySet();
+
+  BucketNamespace(final S3MockExtension s3Mock) {
+    this.s3Mock = s3Mock;
+    this.id = UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  /**
+   * Returns the ID that is appended to all bucket names of this namespace.
+   *
+   * @return the ID
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Returns the name of a bucket in this namespace. The bucket is not created, but it is deleted
+   * with all of its objects once the namespace is closed.
+   *
+   * @param name name of the bucket, unique within the namespace
+   *
+   * @return the name of the bucket, unique within the S3Mock
+   */
+  public String bucketName(final String name) {
+    final String bucketName = name + "-" + id;
+    if (bucketName.length() > MAX_BUCKET_NAME_LENGTH) {
+      throw new IllegalArgumentException("Bucket name \"" + name + "\" is too long, at most "
+          + (MAX_BUCKET_NAME_LENGTH - id.length() - 1) + " characters are allowed.");
+    }
+    bucketNames.add(bucketName);
+    return bucketName;
+  }
+
+  /**
+   * Deletes all buckets of this namespace. The files are deleted in the background.
+   */
+  @Override
+  public void close() {
+    // an S3Mock that is not shared may already be stopped with all of its buckets.
+    if (s3Mock.isRunning()) {
+      bucketNames.forEach(s3Mock::deleteBucket);
+    }
+  }
+}
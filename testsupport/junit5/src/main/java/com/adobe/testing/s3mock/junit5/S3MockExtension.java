@@ -19,10 +19,12 @@ package com.adobe.testing.s3mock.junit5;
 import com.adobe.testing.s3mock.S3MockApplication;
 import com.adobe.testing.s3mock.testsupport.common.S3MockStarter;
 import com.amazonaws.services.s3.AmazonS3;
+import java.util.HashMap;
 import java.util.Map;
 import org.junit.jupiter.api.extension.AfterAllCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
 import org.junit.jupiter.api.extension.ParameterContext;
 import org.junit.jupiter.api.extension.ParameterResolutionException;
 import org.junit.jupiter.api.extension.ParameterResolver;
@@ -49,7 +51,27 @@ import software.amazon.awssdk.services.s3.S3Client;
  * }
  * </pre>
  *
- * <h2>2. Declarative registration</h2>
+ * <h2>2. Shared S3Mock</h2>
+ * <p>Extensions built with {@link Builder#shared()} use one S3Mock for the whole test run,
+ * which is only stopped once all tests are finished. Extensions with the same configuration
+ * share the same S3Mock, even if they are registered in different test classes. Inject a
+ * {@link BucketNamespace} to use buckets that are unique to a test class or method, so that
+ * tests can run in parallel.</p>
+ * <pre>
+ * public class MyS3Test {
+ *   &#64;RegisterExtension
+ *   public static S3MockExtension S3_MOCK = S3MockExtension.builder().shared().build();
+ *
+ *   private final AmazonS3 s3Client = S3_MOCK.createS3Client();
+ *
+ *   &#64;Test
+ *   public void doSomethingWithS3(final BucketNamespace namespace) {
+ *     s3Client.createBucket(namespace.bucketName("my-bucket"));
+ *   }
+ * }
+ * </pre>
+ *
+ * <h2>3. Declarative registration</h2>
  * <pre>
  * &#64;ExtendWith(S3MockExtension.class)
  * public class MyS3Test {
@@ -64,6 +86,9 @@ import software.amazon.awssdk.services.s3.S3Client;
 public class S3MockExtension extends S3MockStarter implements BeforeAllCallback, AfterAllCallback,
     ParameterResolver {
 
+  private static final Namespace NAMESPACE = Namespace.create(S3MockExtension.class);
+
+  private final boolean shared;
   private int mockAccess;
 
   /**
@@ -80,26 +105,35 @@ public class S3MockExtension extends S3MockStarter implements BeforeAllCallback,
    */
   public S3MockExtension() {
     super(null);
+    this.shared = false;
   }
 
-  private S3MockExtension(final Map<String, Object> properties) {
+  private S3MockExtension(final Map<String, Object> properties, final boolean shared) {
     super(properties);
+    this.shared = shared;
   }
 
   @Override
   public void beforeAll(final ExtensionContext context) {
-    startOnlySingleInstance();
+    if (shared) {
+      startSharedInstance(context);
+    } else {
+      startOnlySingleInstance();
+    }
   }
 
   @Override
   public void afterAll(final ExtensionContext context) {
-    stopWhenLastConsumerFinished();
+    if (!shared) {
+      stopWhenLastConsumerFinished();
+    }
   }
 
   @Override
   public boolean supportsParameter(final ParameterContext parameterContext,
       final ExtensionContext extensionContext) throws ParameterResolutionException {
     return paramHasType(parameterContext, S3MockApplication.class)
+        || paramHasType(parameterContext, BucketNamespace.class)
         || paramHasType(parameterContext, AmazonS3.class)
         || paramHasType(parameterContext, S3Client.class);
   }
@@ -112,6 +146,12 @@ public class S3MockExtension extends S3MockStarter implements BeforeAllCallback,
       return s3MockFileStore;
     }
 
+    if (paramHasType(parameterContext, BucketNamespace.class)) {
+      // a namespace injected on class level is found by all test methods of the class.
+      return extensionContext.getStore(NAMESPACE).getOrComputeIfAbsent(BucketNamespace.class,
+          key -> new BucketNamespace(this), BucketNamespace.class);
+    }
+
     if (paramHasType(parameterContext, AmazonS3.class)) {
       return createS3Client();
     }
@@ -128,9 +168,25 @@ public class S3MockExtension extends S3MockStarter implements BeforeAllCallback,
     return requiredType.isAssignableFrom(cls);
   }
 
+  synchronized boolean isRunning() {
+    return s3MockFileStore != null;
+  }
+
   private synchronized void stopWhenLastConsumerFinished() {
     if (--mockAccess == 0) {
       stop();
+      s3MockFileStore = null;
+    }
+  }
+
+  private synchronized void startSharedInstance(final ExtensionContext context) {
+    if (s3MockFileStore == null) {
+      // the root store is closed after all tests of the run are finished.
+      s3MockFileStore = context.getRoot().getStore(NAMESPACE)
+          .getOrComputeIfAbsent(new HashMap<>(properties),
+              key -> new SharedApplication(S3MockApplication.start(properties)),
+              SharedApplication.class)
+          .application;
     }
   }
 
@@ -145,9 +201,39 @@ public class S3MockExtension extends S3MockStarter implements BeforeAllCallback,
    */
   public static class Builder extends S3MockStarter.BaseBuilder<S3MockExtension> {
 
+    private boolean shared;
+
+    /**
+     * Shares one S3Mock with all extensions of the test run that have the same configuration.
+     * The S3Mock is stopped once all tests are finished.
+     *
+     * @return the builder
+     */
+    public Builder shared() {
+      this.shared = true;
+      return this;
+    }
+
     @Override
     public S3MockExtension build() {
-      return new S3MockExtension(arguments);
+      return new S3MockExtension(arguments, shared);
+    }
+  }
+
+  /**
+   * Stops a shared S3Mock when the test run is finished.
+   */
+  private static final class SharedApplication implements ExtensionContext.Store.CloseableResource {
+
+    private final S3MockApplication application;
+
+    private SharedApplication(final S3MockApplication application) {
+      this.application = application;
+    }
+
+    @Override
+    public void close() {
+      application.stop();
     }
   }
 }
@@ -28,10 +28,13 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Bucket;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
 
 /**
  * Tests and demonstrates the usage of the {@link S3MockExtension}
@@ -75,4 +78,42 @@ class S3MockExtensionProgrammaticTest {
     assertThat(uploadDigest).isEqualTo(downloadedDigest).as(
         "Up- and downloaded Files should have equal digests");
   }
+
+  /**
+   * Stores a snapshot after the fixture is uploaded, changes the bucket and restores the fixture.
+   */
+  @Test
+  void shouldRestoreSnapshot() {
+    final String bucketName = "my-snapshot-test-bucket";
+    s3Client.createBucket(CreateBucketRequest.builder().bucket(bucketName).build());
+    s3Client.putObject(PutObjectRequest.builder().bucket(bucketName).key("fixture").build(),
+        RequestBody.fromString("fixture"));
+    S3_MOCK.createSnapshot("fixture");
+
+    s3Client.putObject(PutObjectRequest.builder().bucket(bucketName).key("fixture").build(),
+        RequestBody.fromString("changed"));
+    s3Client.putObject(PutObjectRequest.builder().bucket(bucketName).key("other").build(),
+        RequestBody.fromString("other"));
+    S3_MOCK.restoreSnapshot("fixture");
+
+    assertThat(s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(bucketName).build())
+        .contents()).extracting(S3Object::key).containsExactly("fixture");
+    assertThat(s3Client.getObjectAsBytes(
+        GetObjectRequest.builder().bucket(bucketName).key("fixture").build()).asUtf8String())
+        .isEqualTo("fixture");
+  }
+
+  /**
+   * Creates a bucket and resets S3Mock, which deletes the bucket again.
+   */
+  @Test
+  void shouldResetBuckets() {
+    final String bucketName = "my-reset-test-bucket";
+    s3Client.createBucket(CreateBucketRequest.builder().bucket(bucketName).build());
+
+    S3_MOCK.reset();
+
+    assertThat(s3Client.listBuckets().buckets()).extracting(Bucket::name)
+        .doesNotContain(bucketName);
+  }
 }
@@ -0,0 +1,65 @@
+/*
+ *  Copyright 2017-2022 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.junit5.sdk2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adobe.testing.s3mock.junit5.BucketNamespace;
+import com.adobe.testing.s3mock.junit5.S3MockExtension;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Bucket;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+/**
+ * Tests and demonstrates the usage of a shared {@link S3MockExtension} with
+ * {@link BucketNamespace}s for the SDK v2.
+ */
+class S3MockExtensionSharedTest {
+
+  @RegisterExtension
+  static final S3MockExtension S3_MOCK =
+      S3MockExtension.builder().shared().silent().withSecureConnection(false).build();
+
+  private static final Set<String> NAMESPACE_IDS = ConcurrentHashMap.newKeySet();
+
+  private final S3Client s3Client = S3_MOCK.createS3ClientV2();
+
+  @Test
+  void shouldUseBucketsOfNamespace(final BucketNamespace namespace) {
+    NAMESPACE_IDS.add(namespace.getId());
+    final String bucketName = namespace.bucketName("my-namespaced-bucket");
+    s3Client.createBucket(CreateBucketRequest.builder().bucket(bucketName).build());
+    s3Client.putObject(PutObjectRequest.builder().bucket(bucketName).key("key").build(),
+        RequestBody.fromString("content"));
+
+    assertThat(bucketName).isEqualTo("my-namespaced-bucket-" + namespace.getId());
+  }
+
+  @AfterAll
+  static void namespacedBucketsAreDeleted() {
+    assertThat(NAMESPACE_IDS).hasSize(1);
+    assertThat(S3_MOCK.createS3ClientV2().listBuckets().buckets()).extracting(Bucket::name)
+        .noneMatch(name -> name.endsWith(NAMESPACE_IDS.iterator().next()));
+  }
+}
@@ -21,12 +21,14 @@ import org.testcontainers.containers.BindMode;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.wait.strategy.Wait;
 import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
 
 public class S3MockContainer extends GenericContainer<S3MockContainer> {
   public static final String IMAGE_NAME = "adobe/s3mock";
 
   private static final int S3MOCK_DEFAULT_HTTP_PORT = 9090;
   private static final int S3MOCK_DEFAULT_HTTPS_PORT = 9191;
+  private static final String SEED_FOLDER = "/s3mockseeds/";
   private static final DockerImageName DEFAULT_IMAGE_NAME = DockerImageName.parse(IMAGE_NAME);
 
   /**
@@ -70,6 +72,22 @@ public class S3MockContainer extends GenericContainer<S3MockContainer> {
     return self();
   }
 
+  /**
+   * Loads objects into a bucket at startup, the bucket is created if it does not exist.
+   * The source is copied into the container, the container is ready once all objects are loaded.
+   *
+   * @param bucketName the bucket to load the objects into
+   * @param source directory or ".tar", ".tar.gz" or ".tgz" archive in the host system
+   */
+  public S3MockContainer withSeedBucket(String bucketName, Path source) {
+    String containerPath = SEED_FOLDER + bucketName + "/" + source.getFileName();
+    this.withCopyFileToContainer(MountableFile.forHostPath(source), containerPath);
+    String seed = bucketName + "=" + containerPath;
+    String seeds = getEnvMap().get("seedBuckets");
+    this.addEnv("seedBuckets", seeds == null ? seed : seeds + "," + seed);
+    return self();
+  }
+
   /**
    * Mount a volume from the host system for the S3Mock to use as the "root".
    * Docker must be able to read / write into this directory (!)